@@ -1,6 +1,9 @@
 package com.saas.platform.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.saas.platform.util.IpLocationUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -19,6 +22,37 @@ import java.util.concurrent.TimeUnit;
 @EnableCaching
 public class CacheConfig {
 
+    /**
+     * 节点统计缓存名称
+     */
+    public static final String NODE_STATISTICS_CACHE = "node:statistics";
+
+    /**
+     * IP地理位置缓存名称
+     */
+    public static final String IP_LOCATION_CACHE = "ip:location";
+
+    /**
+     * 查询成功的地理位置缓存时间(s)
+     */
+    @Value("${ip-location.cache.success-ttl:86400}")
+    private long locationSuccessTtl;
+
+    /**
+     * 查询结果为“未知”的缓存时间(s)
+     */
+    @Value("${ip-location.cache.negative-ttl:3600}")
+    private long locationNegativeTtl;
+
+    /**
+     * 查询失败结果的缓存时间(s)，期间不再重复请求在线接口
+     */
+    @Value("${ip-location.cache.failure-ttl:300}")
+    private long locationFailureTtl;
+
+    @Value("${ip-location.cache.maximum-size:100000}")
+    private long locationCacheSize;
+
     /**
      * Caffeine 缓存管理器
      */
@@ -34,6 +68,47 @@ public class CacheConfig {
                 .recordStats() // 记录统计信息
         );
         
+        // 节点统计快照：写操作时主动失效，同时短周期过期以覆盖Xbox同步等直接写库的场景
+        cacheManager.registerCustomCache(NODE_STATISTICS_CACHE, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(30, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+        
+        // IP地理位置：按查询结果区分过期时间，失败结果短时缓存，避免对同一IP反复请求在线接口
+        cacheManager.registerCustomCache(IP_LOCATION_CACHE, Caffeine.newBuilder()
+                .maximumSize(locationCacheSize)
+                .expireAfter(new Expiry<Object, Object>() {
+                    @Override
+                    public long expireAfterCreate(Object key, Object value, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(locationTtl(value));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                        return TimeUnit.SECONDS.toNanos(locationTtl(value));
+                    }
+
+                    @Override
+                    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build());
+        
         return cacheManager;
     }
+
+    private long locationTtl(Object value) {
+        if (value instanceof IpLocationUtil.LocationInfo location) {
+            if ("查询失败".equals(location.getCountry())) {
+                return locationFailureTtl;
+            }
+            if ("未知".equals(location.getCountry())) {
+                return locationNegativeTtl;
+            }
+        }
+        return locationSuccessTtl;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.saas.platform.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import org.apache.ibatis.reflection.MetaObject;
 import org.mybatis.spring.annotation.MapperScan;
@@ -23,7 +24,7 @@ public class MyBatisPlusConfig {
 
     /**
      * MyBatis Plus 拦截器配置
-     * 主要用于分页插件
+     * 主要用于分页插件和乐观锁插件
      */
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
@@ -37,6 +38,9 @@ public class MyBatisPlusConfig {
         
         interceptor.addInnerInterceptor(paginationInnerInterceptor);
         
+        // 乐观锁插件，实体带@Version字段时更新会校验并递增版本号
+        interceptor.addInnerInterceptor(new OptimisticLockerInnerInterceptor());
+        
         return interceptor;
     }
 
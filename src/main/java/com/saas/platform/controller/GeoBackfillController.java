@@ -0,0 +1,77 @@
+package com.saas.platform.controller;
+
+import com.saas.platform.dto.Result;
+import com.saas.platform.schedule.GeoBackfillJob;
+import com.saas.platform.util.IpLocationUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 地理位置回填控制器
+ * 对IP池和节点中地理位置为查询失败、未知或待查询的记录重新查询并回填
+ *
+ * @author SaaS Xbox Team
+ */
+@Tag(name = "地理位置回填", description = "IP池与节点地理位置回填相关接口")
+@RestController
+@RequestMapping("/geo-backfill")
+public class GeoBackfillController {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoBackfillController.class);
+
+    @Autowired
+    private GeoBackfillJob geoBackfillJob;
+
+    @Autowired
+    private IpLocationUtil ipLocationUtil;
+
+    @Operation(summary = "启动回填任务", description = "默认从上次断点继续，reset=true时从头开始")
+    @PostMapping("/start")
+    public Result<Map<String, Object>> start(
+            @Parameter(description = "是否忽略断点从头开始")
+            @RequestParam(defaultValue = "false") boolean reset) {
+        log.info("手动启动地理位置回填任务: reset={}", reset);
+        if (!geoBackfillJob.start(reset)) {
+            return Result.error("回填任务正在运行中");
+        }
+        return Result.success("回填任务已启动", geoBackfillJob.getStatus());
+    }
+
+    @Operation(summary = "停止回填任务", description = "当前批次处理完后停止，保留断点")
+    @PostMapping("/stop")
+    public Result<Map<String, Object>> stop() {
+        log.info("手动停止地理位置回填任务");
+        if (!geoBackfillJob.stop()) {
+            return Result.error("没有运行中的回填任务");
+        }
+        return Result.success("已请求停止", geoBackfillJob.getStatus());
+    }
+
+    @Operation(summary = "重新加载本地GeoIP库", description = "库文件替换后立即生效，无需等待定时检查")
+    @PostMapping("/database/reload")
+    public Result<Map<String, Object>> reloadDatabase() {
+        try {
+            ipLocationUtil.reloadDatabase();
+        } catch (IOException e) {
+            log.error("重新加载本地GeoIP库失败", e);
+            return Result.error("重新加载GeoIP库失败: " + e.getMessage());
+        }
+        return Result.success("GeoIP库已重新加载", ipLocationUtil.getDatabaseInfo());
+    }
+
+    @Operation(summary = "获取回填进度", description = "获取回填任务进度及地理位置查询状态")
+    @GetMapping("/status")
+    public Result<Map<String, Object>> status() {
+        Map<String, Object> status = geoBackfillJob.getStatus();
+        status.put("lookup", ipLocationUtil.getDatabaseInfo());
+        return Result.success(status);
+    }
+}
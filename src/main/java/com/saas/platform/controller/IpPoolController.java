@@ -0,0 +1,249 @@
+package com.saas.platform.controller;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.saas.platform.dto.IpImportReport;
+import com.saas.platform.dto.Result;
+import com.saas.platform.entity.IpInventory;
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.schedule.IpConnectivityCheckJob;
+import com.saas.platform.schedule.IpInventoryReconcileJob;
+import com.saas.platform.service.IpInventoryService;
+import com.saas.platform.service.IpPoolService;
+import com.saas.platform.service.impl.IpPoolImporter;
+import com.saas.platform.service.impl.IpQualityScorer;
+import com.saas.platform.service.impl.IpReservationManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * IP池控制器
+ *
+ * @author SaaS Xbox Team
+ */
+@Tag(name = "IP池管理", description = "IP池相关接口")
+@RestController
+@RequestMapping("/ip-pools")
+@Validated
+public class IpPoolController {
+
+    private static final Logger log = LoggerFactory.getLogger(IpPoolController.class);
+
+    @Autowired
+    private IpPoolService ipPoolService;
+
+    @Autowired
+    private IpConnectivityCheckJob ipConnectivityCheckJob;
+
+    @Autowired
+    private IpInventoryService ipInventoryService;
+
+    @Autowired
+    private IpInventoryReconcileJob ipInventoryReconcileJob;
+
+    @Autowired
+    private IpReservationManager ipReservationManager;
+
+    @Autowired
+    private IpQualityScorer ipQualityScorer;
+
+    @Operation(summary = "流式导入IP",
+            description = "请求体为CSV（可带表头）或NDJSON文本，边读边按块写入并逐块提交；已存在的IP计为重复")
+    @PostMapping(value = "/import", consumes = "*/*")
+    public Result<IpImportReport> importIps(
+            @Parameter(description = "数据格式：csv或ndjson，默认根据Content-Type或内容判断")
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        String resolvedFormat = StringUtils.hasText(format) ? format : formatOf(request.getContentType());
+        if (StringUtils.hasText(resolvedFormat)
+                && !IpPoolImporter.FORMAT_CSV.equalsIgnoreCase(resolvedFormat)
+                && !IpPoolImporter.FORMAT_NDJSON.equalsIgnoreCase(resolvedFormat)) {
+            return Result.error("不支持的导入格式: " + resolvedFormat);
+        }
+
+        try (InputStream input = request.getInputStream()) {
+            IpImportReport report = ipPoolService.importIps(input, resolvedFormat);
+            return Result.success("导入完成", report);
+        } catch (IOException e) {
+            log.error("读取IP导入数据失败", e);
+            return Result.error("读取导入数据失败: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "分页查询IP池", description = "按页码分页，适合浏览前几页；深分页请使用 /page-after")
+    @GetMapping("/page")
+    public Result<IPage<IpPool>> getIpPoolPage(
+            @Parameter(description = "当前页", example = "1") @RequestParam(defaultValue = "1") Long current,
+            @Parameter(description = "每页大小", example = "20") @RequestParam(defaultValue = "20") Long size,
+            @Parameter(description = "IP地址（完整地址或前缀）") @RequestParam(required = false) String ipAddress,
+            @Parameter(description = "国家") @RequestParam(required = false) String country,
+            @Parameter(description = "城市") @RequestParam(required = false) String city,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality,
+            @Parameter(description = "IP状态") @RequestParam(required = false) String ipStatus,
+            @Parameter(description = "节点ID") @RequestParam(required = false) Long nodeId) {
+        return Result.success(ipPoolService.getIpPoolPage(current, size, ipAddress, country, city,
+                ipQuality, ipStatus, nodeId));
+    }
+
+    @Operation(summary = "按ID游标分页查询IP池",
+            description = "按ID倒序返回，首页不传afterId，之后传上一页返回的next；查询开销不随翻页深度增长")
+    @GetMapping("/page-after")
+    public Result<Map<String, Object>> getIpPoolPageAfter(
+            @Parameter(description = "上一页返回的next") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "每页大小，最大500", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) Integer size,
+            @Parameter(description = "IP地址（完整地址或前缀）") @RequestParam(required = false) String ipAddress,
+            @Parameter(description = "国家") @RequestParam(required = false) String country,
+            @Parameter(description = "城市") @RequestParam(required = false) String city,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality,
+            @Parameter(description = "IP状态") @RequestParam(required = false) String ipStatus,
+            @Parameter(description = "节点ID") @RequestParam(required = false) Long nodeId) {
+        List<IpPool> list = ipPoolService.getIpPoolPageAfter(afterId, size, ipAddress, country, city,
+                ipQuality, ipStatus, nodeId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", list);
+        result.put("next", list.size() < size ? null : list.get(list.size() - 1).getId());
+        return Result.success(result);
+    }
+
+    @Operation(summary = "按地址范围搜索IP",
+            description = "支持完整IP、IPv4前缀（如 203.0.113）和CIDR（如 203.0.113.0/24、2001:db8::/64），按地址顺序游标分页")
+    @GetMapping("/search")
+    public Result<Map<String, Object>> searchIps(
+            @Parameter(description = "IP、IPv4前缀或CIDR", example = "203.0.113.0/24") @RequestParam String q,
+            @Parameter(description = "上一页返回的next") @RequestParam(required = false) String after,
+            @Parameter(description = "每页大小", example = "20") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "国家") @RequestParam(required = false) String country,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality,
+            @Parameter(description = "IP状态") @RequestParam(required = false) String ipStatus,
+            @Parameter(description = "是否统计范围内总数") @RequestParam(defaultValue = "false") boolean withTotal) {
+        return Result.success(ipPoolService.searchIps(q, after, size, country, ipQuality, ipStatus, withTotal));
+    }
+
+    @Operation(summary = "获取IP池统计信息", description = "按状态、国家、质量汇总IP数量，数据来自库存统计表")
+    @GetMapping("/statistics")
+    public Result<Map<String, Object>> getIpPoolStatistics() {
+        return Result.success(ipPoolService.getIpPoolStatistics());
+    }
+
+    @Operation(summary = "查询IP库存", description = "按国家、城市、质量、状态列出IP数量")
+    @GetMapping("/inventory")
+    public Result<List<IpInventory>> listInventory(
+            @Parameter(description = "国家") @RequestParam(required = false) String country,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality) {
+        return Result.success(ipInventoryService.listInventory(country, ipQuality));
+    }
+
+    @Operation(summary = "IP库存对账", description = "立即统计IP池实际数量并补正库存偏差")
+    @PostMapping("/inventory/reconcile")
+    public Result<Map<String, Object>> reconcileInventory() {
+        log.info("手动执行IP库存对账");
+        if (!ipInventoryReconcileJob.reconcile()) {
+            return Result.error("IP库存对账正在运行中");
+        }
+        return Result.success("对账完成", ipInventoryReconcileJob.getStatus());
+    }
+
+    @Operation(summary = "获取IP库存对账结果", description = "获取最近一次对账的时间和偏差明细")
+    @GetMapping("/inventory/reconcile/status")
+    public Result<Map<String, Object>> reconcileStatus() {
+        return Result.success(ipInventoryReconcileJob.getStatus());
+    }
+
+    @Operation(summary = "获取IP预留状态", description = "获取待支付订单的IP预留数量及预留、转占用、释放统计")
+    @GetMapping("/reservations/status")
+    public Result<Map<String, Object>> reservationStatus() {
+        return Result.success(ipReservationManager.getStatus());
+    }
+
+    @Operation(summary = "获取IP质量评分状态", description = "获取已评分IP数量和待写回数量")
+    @GetMapping("/score/status")
+    public Result<Map<String, Object>> scoreStatus() {
+        return Result.success(ipQualityScorer.getStatus());
+    }
+
+    @Operation(summary = "节点IP故障转移",
+            description = "将故障节点上所有被订单占用的IP批量更换为相同国家、质量的其他IP，并记录更换日志")
+    @PostMapping("/failover")
+    public Result<Map<String, Object>> failoverNode(
+            @Parameter(description = "故障节点ID", example = "1") @RequestParam Long nodeId,
+            @Parameter(description = "更换原因") @RequestParam(required = false) String reason) {
+        log.info("节点IP故障转移: nodeId={}", nodeId);
+        return Result.success("故障转移完成", ipPoolService.failoverNode(nodeId, reason));
+    }
+
+    @Operation(summary = "测试单个IP", description = "同步TCP连接IP的代理端口并记录结果")
+    @PostMapping("/test")
+    public Result<Map<String, Object>> testIp(
+            @Parameter(description = "IP地址", example = "203.0.113.10") @RequestParam String ipAddress) {
+        return Result.success(ipPoolService.testIpConnectivity(ipAddress));
+    }
+
+    @Operation(summary = "批量测试IP", description = "异步检测指定IP，通过检测状态接口查询进度")
+    @PostMapping("/test/batch")
+    public Result<Map<String, Object>> batchTestIps(@RequestBody @NotEmpty List<Long> ipIds) {
+        log.info("启动批量IP检测: count={}", ipIds.size());
+        return Result.success("检测任务已启动", ipPoolService.batchTestIps(ipIds));
+    }
+
+    @Operation(summary = "检测长时间未测试的IP", description = "异步检测超过指定小时数未测试的IP，hours为0时检测全部IP")
+    @PostMapping("/test/check")
+    public Result<Map<String, Object>> startCheck(
+            @Parameter(description = "小时数", example = "24") @RequestParam(defaultValue = "24") Integer hours) {
+        log.info("手动启动IP连通性检测: hours={}", hours);
+        if (!ipConnectivityCheckJob.startStaleCheck(hours)) {
+            return Result.error("IP连通性检测任务正在运行中");
+        }
+        return Result.success("检测任务已启动", ipConnectivityCheckJob.getStatus());
+    }
+
+    @Operation(summary = "停止IP检测", description = "关闭进行中的连接，已完成的结果写回后停止")
+    @PostMapping("/test/stop")
+    public Result<Map<String, Object>> stopCheck() {
+        log.info("手动停止IP连通性检测");
+        if (!ipConnectivityCheckJob.stop()) {
+            return Result.error("没有运行中的检测任务");
+        }
+        return Result.success("已请求停止", ipConnectivityCheckJob.getStatus());
+    }
+
+    @Operation(summary = "获取IP检测进度", description = "获取检测任务进度及成功率、平均延迟等汇总")
+    @GetMapping("/test/status")
+    public Result<Map<String, Object>> checkStatus() {
+        return Result.success(ipConnectivityCheckJob.getStatus());
+    }
+
+    /**
+     * 根据Content-Type判断格式，无法判断时返回null
+     */
+    private static String formatOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.contains("ndjson") || type.contains("jsonl") || type.contains("json")) {
+            return IpPoolImporter.FORMAT_NDJSON;
+        }
+        if (type.contains("csv")) {
+            return IpPoolImporter.FORMAT_CSV;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.saas.platform.controller;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.saas.platform.dto.Result;
+import com.saas.platform.entity.IpRange;
+import com.saas.platform.service.IpRangeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * IP地址段控制器
+ * 以CIDR登记整段IP，分配或测试时才展开为IP池记录
+ *
+ * @author SaaS Xbox Team
+ */
+@Tag(name = "IP地址段管理", description = "CIDR地址段登记、展开与可用量查询接口")
+@RestController
+@RequestMapping("/ip-ranges")
+public class IpRangeController {
+
+    private static final Logger log = LoggerFactory.getLogger(IpRangeController.class);
+
+    @Autowired
+    private IpRangeService ipRangeService;
+
+    @Operation(summary = "分页查询地址段", description = "按国家、IP质量、状态筛选地址段")
+    @GetMapping("/page")
+    public Result<IPage<IpRange>> getRangePage(
+            @Parameter(description = "当前页", example = "1") @RequestParam(defaultValue = "1") Long current,
+            @Parameter(description = "每页大小", example = "10") @RequestParam(defaultValue = "10") Long size,
+            @Parameter(description = "国家") @RequestParam(required = false) String country,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality,
+            @Parameter(description = "状态") @RequestParam(required = false) String status) {
+        LambdaQueryWrapper<IpRange> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(StringUtils.hasText(country), IpRange::getCountry, country)
+                .eq(StringUtils.hasText(ipQuality), IpRange::getIpQuality, ipQuality)
+                .eq(StringUtils.hasText(status), IpRange::getStatus, status)
+                .orderByDesc(IpRange::getId);
+        return Result.success(ipRangeService.page(new Page<>(current, size), wrapper));
+    }
+
+    @Operation(summary = "登记地址段", description = "登记CIDR地址段，IPv6前缀不能短于/96；未填写国家时按起始地址查询地理位置")
+    @PostMapping
+    public Result<IpRange> createRange(@RequestBody IpRange ipRange) {
+        log.info("登记IP地址段: {}", ipRange.getCidr());
+        return Result.success("登记成功", ipRangeService.createRange(ipRange));
+    }
+
+    @Operation(summary = "展开地址段", description = "将地址段中的下一批地址生成为IP池记录，用于测试等场景")
+    @PostMapping("/{id}/expand")
+    public Result<Integer> expandRange(
+            @Parameter(description = "地址段ID") @PathVariable Long id,
+            @Parameter(description = "展开数量", example = "256") @RequestParam(defaultValue = "256") Integer count) {
+        int inserted = ipRangeService.expandRange(id, count);
+        log.info("手动展开IP地址段: id={}, count={}, 新增={}", id, count, inserted);
+        return Result.success("展开完成", inserted);
+    }
+
+    @Operation(summary = "更新地址段状态", description = "停用后不再展开新地址，已展开的IP不受影响")
+    @PutMapping("/{id}/status")
+    public Result<String> updateRangeStatus(
+            @Parameter(description = "地址段ID") @PathVariable Long id,
+            @Parameter(description = "状态", example = "停用") @RequestParam String status) {
+        ipRangeService.updateRangeStatus(id, status);
+        return Result.success("更新成功");
+    }
+
+    @Operation(summary = "查询可用IP数量", description = "IP池可用记录数加上地址段中尚未展开的地址数")
+    @GetMapping("/availability")
+    public Result<Map<String, Object>> getAvailability(
+            @Parameter(description = "国家") @RequestParam(required = false) String country,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality) {
+        return Result.success(ipRangeService.getAvailability(country, ipQuality));
+    }
+
+    @Operation(summary = "查询IP所属地址段", description = "按区间查询包含指定IP的地址段")
+    @GetMapping("/lookup")
+    public Result<IpRange> lookup(
+            @Parameter(description = "IP地址", example = "203.0.113.10") @RequestParam String ip) {
+        IpRange range = ipRangeService.getRangeContaining(ip);
+        if (range == null) {
+            return Result.error("该IP不属于任何已登记的地址段");
+        }
+        return Result.success(range);
+    }
+}
@@ -1,8 +1,10 @@
 package com.saas.platform.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.saas.platform.dto.NodePatchDTO;
 import com.saas.platform.dto.Result;
 import com.saas.platform.entity.Node;
+import com.saas.platform.schedule.NodeHealthCheckScheduler;
 import com.saas.platform.service.NodeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,6 +35,9 @@ public class NodeController {
     @Autowired
     private NodeService nodeService;
 
+    @Autowired(required = false)
+    private NodeHealthCheckScheduler nodeHealthCheckScheduler;
+
     /**
      * 分页查询节点列表
      */
@@ -206,6 +211,18 @@ public class NodeController {
         }
     }
 
+    /**
+     * 部分更新节点信息
+     */
+    @Operation(summary = "部分更新节点信息", description = "只修改请求中提供的字段，传入version时进行乐观锁校验")
+    @PatchMapping("/{id}")
+    public Result<Boolean> patchNode(
+            @Parameter(description = "节点ID", example = "1") @PathVariable @NotNull Long id,
+            @Valid @RequestBody NodePatchDTO patch) {
+        nodeService.patchNode(id, patch);
+        return Result.success("节点更新成功", true);
+    }
+
     /**
      * 删除节点
      */
@@ -358,6 +375,18 @@ public class NodeController {
         return Result.success(result);
     }
 
+    /**
+     * 获取健康检查调度状态
+     */
+    @Operation(summary = "获取健康检查调度状态", description = "获取节点健康检查调度器的队列与探测速率信息")
+    @GetMapping("/health-check/status")
+    public Result<Map<String, Object>> getHealthCheckStatus() {
+        if (nodeHealthCheckScheduler == null) {
+            return Result.error("节点健康检查调度未启用");
+        }
+        return Result.success(nodeHealthCheckScheduler.getStatus());
+    }
+
     /**
      * 获取节点统计信息
      */
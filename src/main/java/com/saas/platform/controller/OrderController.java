@@ -1,9 +1,14 @@
 package com.saas.platform.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.saas.platform.dto.CursorPage;
 import com.saas.platform.dto.Result;
 import com.saas.platform.entity.Order;
+import com.saas.platform.exception.BusinessException;
+import com.saas.platform.schedule.OrderDailyStatRepairJob;
 import com.saas.platform.service.OrderService;
+import com.saas.platform.service.impl.OrderExpiryEngine;
+import com.saas.platform.service.impl.OrderExporter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,11 +17,16 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -34,6 +44,12 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExpiryEngine orderExpiryEngine;
+
+    @Autowired
+    private OrderDailyStatRepairJob orderDailyStatRepairJob;
+
     /**
      * 分页查询订单列表
      */
@@ -60,6 +76,70 @@ public class OrderController {
         return Result.success(page);
     }
 
+    /**
+     * 游标分页查询订单列表
+     */
+    @Operation(summary = "游标分页查询订单列表",
+            description = "按创建时间倒序，传入上一页返回的nextCursor获取下一页，翻页耗时与深度无关；筛选条件同分页查询")
+    @GetMapping("/cursor")
+    public Result<CursorPage<Order>> getOrderCursorPage(
+            @Parameter(description = "游标，第一页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小（最大100）", example = "10") @RequestParam(defaultValue = "10") Long size,
+            @Parameter(description = "总数统计方式：none不统计，exact精确统计，estimate统计到上限为止；仅第一页统计")
+            @RequestParam(defaultValue = "none") String countMode,
+            @Parameter(description = "订单号") @RequestParam(required = false) String orderNo,
+            @Parameter(description = "客户账号") @RequestParam(required = false) String customerAccount,
+            @Parameter(description = "客户名称") @RequestParam(required = false) String customerName,
+            @Parameter(description = "订单状态") @RequestParam(required = false) String orderStatus,
+            @Parameter(description = "支付状态") @RequestParam(required = false) String paymentStatus,
+            @Parameter(description = "国家/地区") @RequestParam(required = false) String country,
+            @Parameter(description = "城市") @RequestParam(required = false) String city,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality,
+            @Parameter(description = "IP地址") @RequestParam(required = false) String ipAddress,
+            @Parameter(description = "产品名称") @RequestParam(required = false) String productName,
+            @Parameter(description = "客户经理ID") @RequestParam(required = false) Long managerId,
+            @Parameter(description = "开始时间", example = "2024-01-01") @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") String startTime,
+            @Parameter(description = "结束时间", example = "2024-12-31") @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") String endTime) {
+        CursorPage<Order> page = orderService.getOrderCursorPage(cursor, size, countMode, orderNo, customerAccount,
+                customerName, orderStatus, paymentStatus, country, city, ipQuality, ipAddress, productName, managerId,
+                startTime, endTime);
+        return Result.success(page);
+    }
+
+    /**
+     * 流式导出订单
+     */
+    @Operation(summary = "导出订单",
+            description = "按CSV或NDJSON流式导出符合条件的全部订单，按创建时间倒序，边查询边写出；筛选条件同分页查询")
+    @GetMapping("/export")
+    public void exportOrders(
+            @Parameter(description = "导出格式：csv或ndjson", example = "csv") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "订单号") @RequestParam(required = false) String orderNo,
+            @Parameter(description = "客户账号") @RequestParam(required = false) String customerAccount,
+            @Parameter(description = "客户名称") @RequestParam(required = false) String customerName,
+            @Parameter(description = "订单状态") @RequestParam(required = false) String orderStatus,
+            @Parameter(description = "支付状态") @RequestParam(required = false) String paymentStatus,
+            @Parameter(description = "国家/地区") @RequestParam(required = false) String country,
+            @Parameter(description = "城市") @RequestParam(required = false) String city,
+            @Parameter(description = "IP质量") @RequestParam(required = false) String ipQuality,
+            @Parameter(description = "IP地址") @RequestParam(required = false) String ipAddress,
+            @Parameter(description = "产品名称") @RequestParam(required = false) String productName,
+            @Parameter(description = "客户经理ID") @RequestParam(required = false) Long managerId,
+            @Parameter(description = "开始时间", example = "2024-01-01") @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") String startTime,
+            @Parameter(description = "结束时间", example = "2024-12-31") @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") String endTime,
+            HttpServletResponse response) throws IOException {
+        if (!OrderExporter.isSupportedFormat(format)) {
+            throw new BusinessException("不支持的导出格式: " + format);
+        }
+        String fileName = "orders-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"))
+                + "." + format.toLowerCase(Locale.ROOT);
+        response.setContentType(OrderExporter.contentTypeOf(format));
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        orderService.exportOrders(response.getOutputStream(), format, orderNo, customerAccount, customerName,
+                orderStatus, paymentStatus, country, city, ipQuality, ipAddress, productName, managerId,
+                startTime, endTime);
+    }
+
     /**
      * 根据ID查询订单详情
      */
@@ -80,7 +160,7 @@ public class OrderController {
     @Operation(summary = "根据订单号查询订单", description = "根据订单号获取订单信息")
     @GetMapping("/no/{orderNo}")
     public Result<Order> getByOrderNo(
-            @Parameter(description = "订单号", example = "ORD202407310001") @PathVariable String orderNo) {
+            @Parameter(description = "订单号", example = "ORD20240731000001") @PathVariable String orderNo) {
         Order order = orderService.getByOrderNo(orderNo);
         if (order == null) {
             return Result.error("订单不存在");
@@ -88,6 +168,17 @@ public class OrderController {
         return Result.success(order);
     }
 
+    /**
+     * 根据IP查询订单
+     */
+    @Operation(summary = "根据IP查询订单", description = "获取使用指定IP的订单，用于售后按IP反查")
+    @GetMapping("/ip/{ipAddress}")
+    public Result<List<Order>> getByIpAddress(
+            @Parameter(description = "IP地址", example = "192.168.1.1") @PathVariable String ipAddress) {
+        List<Order> orders = orderService.getByIpAddress(ipAddress);
+        return Result.success(orders);
+    }
+
     /**
      * 查询客户的订单列表
      */
@@ -204,7 +295,7 @@ public class OrderController {
     @Operation(summary = "订单支付", description = "处理订单支付")
     @PostMapping("/pay/{orderNo}")
     public Result<String> payOrder(
-            @Parameter(description = "订单号", example = "ORD202407310001") @PathVariable String orderNo) {
+            @Parameter(description = "订单号", example = "ORD20240731000001") @PathVariable String orderNo) {
         boolean success = orderService.payOrder(orderNo);
         return success ? Result.success("订单支付成功") : Result.error("订单支付失败");
     }
@@ -215,7 +306,7 @@ public class OrderController {
     @Operation(summary = "订单退款", description = "处理订单退款")
     @PostMapping("/refund/{orderNo}")
     public Result<String> refundOrder(
-            @Parameter(description = "订单号", example = "ORD202407310001") @PathVariable String orderNo,
+            @Parameter(description = "订单号", example = "ORD20240731000001") @PathVariable String orderNo,
             @Parameter(description = "退款原因") @RequestParam String reason) {
         boolean success = orderService.refundOrder(orderNo, reason);
         return success ? Result.success("订单退款成功") : Result.error("订单退款失败");
@@ -295,6 +386,15 @@ public class OrderController {
         return Result.success("处理完成，共处理 " + count + " 个过期订单");
     }
 
+    /**
+     * 获取订单过期引擎状态
+     */
+    @Operation(summary = "获取订单过期引擎状态", description = "获取时间轮中待到期的订单数及过期、收回IP统计")
+    @GetMapping("/expiry/status")
+    public Result<Map<String, Object>> getExpiryStatus() {
+        return Result.success(orderExpiryEngine.getStatus());
+    }
+
     /**
      * 生成订单号
      */
@@ -352,4 +452,30 @@ public class OrderController {
         List<Map<String, Object>> statistics = orderService.getOrderStatisticsByCountry(startTime, endTime);
         return Result.success(statistics);
     }
+
+    /**
+     * 修复订单日统计
+     */
+    @Operation(summary = "修复订单日统计", description = "按日汇总指定日期范围内的订单，补正日统计表的偏差")
+    @PostMapping("/statistics/repair")
+    public Result<Map<String, Object>> repairStatistics(
+            @Parameter(description = "开始日期", example = "2024-08-01") @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate fromDate,
+            @Parameter(description = "结束日期（含）", example = "2024-08-31") @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            return Result.error("开始日期不能晚于结束日期");
+        }
+        if (!orderDailyStatRepairJob.repair(fromDate, toDate)) {
+            return Result.error("订单日统计修复正在运行中");
+        }
+        return Result.success("修复完成", orderDailyStatRepairJob.getStatus());
+    }
+
+    /**
+     * 获取订单日统计修复结果
+     */
+    @Operation(summary = "获取订单日统计修复结果", description = "获取最近一次修复的日期范围、时间和偏差明细")
+    @GetMapping("/statistics/repair/status")
+    public Result<Map<String, Object>> repairStatisticsStatus() {
+        return Result.success(orderDailyStatRepairJob.getStatus());
+    }
 }
\ No newline at end of file
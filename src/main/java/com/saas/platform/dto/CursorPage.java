@@ -0,0 +1,85 @@
+package com.saas.platform.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标分页结果
+ *
+ * @param <T> 记录类型
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "游标分页结果")
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "本页记录")
+    private List<T> records = new ArrayList<>();
+
+    @Schema(description = "下一页游标，没有下一页时为空")
+    private String nextCursor;
+
+    @Schema(description = "是否还有下一页")
+    private boolean hasMore;
+
+    @Schema(description = "总数，不统计时为空")
+    private Long total;
+
+    @Schema(description = "总数是否为估算值（达到统计上限时为下限）")
+    private boolean totalEstimated;
+
+    public List<T> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<T> records) {
+        this.records = records;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+
+    public void setTotalEstimated(boolean totalEstimated) {
+        this.totalEstimated = totalEstimated;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+                "records=" + records.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasMore=" + hasMore +
+                ", total=" + total +
+                ", totalEstimated=" + totalEstimated +
+                '}';
+    }
+}
@@ -0,0 +1,164 @@
+package com.saas.platform.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IP批量导入结果报告
+ *
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "IP批量导入结果")
+public class IpImportReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 报告中最多记录的行号数量
+     */
+    public static final int MAX_REPORTED_LINES = 1000;
+
+    @Schema(description = "处理的数据行数")
+    private long totalRows;
+
+    @Schema(description = "成功导入数量")
+    private long inserted;
+
+    @Schema(description = "重复数量（库中已存在或文件内重复）")
+    private long duplicates;
+
+    @Schema(description = "无效数量")
+    private long invalid;
+
+    @Schema(description = "重复数据的行号（最多1000条）")
+    private List<Long> duplicateLines = new ArrayList<>();
+
+    @Schema(description = "无效数据的行号及原因（最多1000条）")
+    private List<LineError> invalidLines = new ArrayList<>();
+
+    @Schema(description = "耗时(ms)")
+    private long elapsedMs;
+
+    public void addDuplicate(long line) {
+        duplicates++;
+        if (line > 0 && duplicateLines.size() < MAX_REPORTED_LINES) {
+            duplicateLines.add(line);
+        }
+    }
+
+    public void addInvalid(long line, String reason) {
+        invalid++;
+        if (invalidLines.size() < MAX_REPORTED_LINES) {
+            invalidLines.add(new LineError(line, reason));
+        }
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(long invalid) {
+        this.invalid = invalid;
+    }
+
+    public List<Long> getDuplicateLines() {
+        return duplicateLines;
+    }
+
+    public void setDuplicateLines(List<Long> duplicateLines) {
+        this.duplicateLines = duplicateLines;
+    }
+
+    public List<LineError> getInvalidLines() {
+        return invalidLines;
+    }
+
+    public void setInvalidLines(List<LineError> invalidLines) {
+        this.invalidLines = invalidLines;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return "IpImportReport{" +
+                "totalRows=" + totalRows +
+                ", inserted=" + inserted +
+                ", duplicates=" + duplicates +
+                ", invalid=" + invalid +
+                ", elapsedMs=" + elapsedMs +
+                '}';
+    }
+
+    /**
+     * 无效行信息
+     */
+    @Schema(description = "无效行信息")
+    public static class LineError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Schema(description = "行号")
+        private long line;
+
+        @Schema(description = "原因")
+        private String reason;
+
+        public LineError() {
+        }
+
+        public LineError(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.saas.platform.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+
+/**
+ * 节点部分更新数据传输对象
+ * 所有字段均可为空，为空表示不修改该字段
+ * 
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "节点部分更新数据传输对象")
+public class NodePatchDTO {
+
+    @Schema(description = "节点名称", example = "洛杉矶节点1")
+    @Size(max = 100, message = "节点名称长度不能超过100个字符")
+    private String nodeName;
+
+    @Schema(description = "节点编码", example = "LA-NODE-01")
+    @Size(max = 50, message = "节点编码长度不能超过50个字符")
+    private String nodeCode;
+
+    @Schema(description = "服务器IP", example = "45.32.128.10")
+    @Size(max = 45, message = "服务器IP长度不能超过45个字符")
+    private String serverIp;
+
+    @Schema(description = "国家", example = "美国")
+    @Size(max = 50, message = "国家长度不能超过50个字符")
+    private String country;
+
+    @Schema(description = "地区", example = "加利福尼亚")
+    @Size(max = 50, message = "地区长度不能超过50个字符")
+    private String region;
+
+    @Schema(description = "SSH端口号", example = "22")
+    @Min(value = 1, message = "SSH端口号必须大于0")
+    @Max(value = 65535, message = "SSH端口号不能超过65535")
+    private Integer sshPort;
+
+    @Schema(description = "密码")
+    @Size(min = 8, max = 64, message = "密码长度必须在8-64个字符之间")
+    private String password;
+
+    @Schema(description = "域名", example = "node1.example.com")
+    @Size(max = 255, message = "域名长度不能超过255个字符")
+    private String domain;
+
+    @Schema(description = "节点类型", example = "完整节点")
+    private String nodeType;
+
+    @Schema(description = "组合方式", example = "独立节点")
+    private String combinationType;
+
+    @Schema(description = "备注")
+    @Size(max = 200, message = "备注长度不能超过200个字符")
+    private String remark;
+
+    @Schema(description = "Agent部署状态", example = "未部署")
+    private String agentStatus;
+
+    @Schema(description = "节点状态", example = "运行中")
+    private String nodeStatus;
+
+    @Schema(description = "最大连接数", example = "2000")
+    @Min(value = 1, message = "最大连接数不能小于1")
+    private Integer maxConnections;
+
+    @Schema(description = "带宽(Mbps)", example = "1000")
+    @Min(value = 1, message = "带宽不能小于1Mbps")
+    private Integer bandwidthMbps;
+
+    @Schema(description = "服务商", example = "Vultr")
+    @Size(max = 100, message = "服务商长度不能超过100个字符")
+    private String provider;
+
+    @Schema(description = "月费用", example = "299.00")
+    @DecimalMin(value = "0.00", message = "月费用不能为负数")
+    @Digits(integer = 8, fraction = 2, message = "月费用格式不正确")
+    private BigDecimal monthlyCost;
+
+    @Schema(description = "期望的版本号，用于乐观锁校验；为空则不校验", example = "3")
+    private Integer version;
+
+    // Getter and Setter methods
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public String getNodeCode() {
+        return nodeCode;
+    }
+
+    public void setNodeCode(String nodeCode) {
+        this.nodeCode = nodeCode;
+    }
+
+    public String getServerIp() {
+        return serverIp;
+    }
+
+    public void setServerIp(String serverIp) {
+        this.serverIp = serverIp;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public Integer getSshPort() {
+        return sshPort;
+    }
+
+    public void setSshPort(Integer sshPort) {
+        this.sshPort = sshPort;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getNodeType() {
+        return nodeType;
+    }
+
+    public void setNodeType(String nodeType) {
+        this.nodeType = nodeType;
+    }
+
+    public String getCombinationType() {
+        return combinationType;
+    }
+
+    public void setCombinationType(String combinationType) {
+        this.combinationType = combinationType;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public void setRemark(String remark) {
+        this.remark = remark;
+    }
+
+    public String getAgentStatus() {
+        return agentStatus;
+    }
+
+    public void setAgentStatus(String agentStatus) {
+        this.agentStatus = agentStatus;
+    }
+
+    public String getNodeStatus() {
+        return nodeStatus;
+    }
+
+    public void setNodeStatus(String nodeStatus) {
+        this.nodeStatus = nodeStatus;
+    }
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Integer getBandwidthMbps() {
+        return bandwidthMbps;
+    }
+
+    public void setBandwidthMbps(Integer bandwidthMbps) {
+        this.bandwidthMbps = bandwidthMbps;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public BigDecimal getMonthlyCost() {
+        return monthlyCost;
+    }
+
+    public void setMonthlyCost(BigDecimal monthlyCost) {
+        this.monthlyCost = monthlyCost;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    /**
+     * 是否包含需要更新的字段
+     */
+    public boolean hasChanges() {
+        return nodeName != null || nodeCode != null || serverIp != null || country != null
+                || region != null || sshPort != null || password != null || domain != null
+                || nodeType != null || combinationType != null || remark != null
+                || agentStatus != null || nodeStatus != null || maxConnections != null
+                || bandwidthMbps != null || provider != null || monthlyCost != null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.saas.platform.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+
+/**
+ * IP库存统计
+ * 按（国家, 城市, 质量, 状态）统计未删除的IP池记录数，由 ip_pools 触发器维护
+ *
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "IP库存统计")
+public class IpInventory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 国家
+     */
+    @Schema(description = "国家", example = "美国")
+    private String country;
+
+    /**
+     * 城市（空字符串表示未填写）
+     */
+    @Schema(description = "城市", example = "洛杉矶")
+    private String city;
+
+    /**
+     * IP质量
+     */
+    @Schema(description = "IP质量", example = "标准")
+    private String ipQuality;
+
+    /**
+     * IP状态
+     */
+    @Schema(description = "IP状态", example = "可用")
+    private String ipStatus;
+
+    /**
+     * IP数量（对账偏差中表示需要补正的差值）
+     */
+    @Schema(description = "IP数量", example = "120")
+    private Long ipCount;
+
+    public IpInventory() {
+    }
+
+    public IpInventory(String country, String city, String ipQuality, String ipStatus, Long ipCount) {
+        this.country = country;
+        this.city = city;
+        this.ipQuality = ipQuality;
+        this.ipStatus = ipStatus;
+        this.ipCount = ipCount;
+    }
+
+    // Getter and Setter methods
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getIpQuality() {
+        return ipQuality;
+    }
+
+    public void setIpQuality(String ipQuality) {
+        this.ipQuality = ipQuality;
+    }
+
+    public String getIpStatus() {
+        return ipStatus;
+    }
+
+    public void setIpStatus(String ipStatus) {
+        this.ipStatus = ipStatus;
+    }
+
+    public Long getIpCount() {
+        return ipCount;
+    }
+
+    public void setIpCount(Long ipCount) {
+        this.ipCount = ipCount;
+    }
+
+    @Override
+    public String toString() {
+        return "IpInventory{" +
+                "country='" + country + '\'' +
+                ", city='" + city + '\'' +
+                ", ipQuality='" + ipQuality + '\'' +
+                ", ipStatus='" + ipStatus + '\'' +
+                ", ipCount=" + ipCount +
+                '}';
+    }
+}
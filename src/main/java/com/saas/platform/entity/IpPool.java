@@ -66,7 +66,7 @@ public class IpPool extends BaseEntity {
     /**
      * IP状态
      */
-    @Schema(description = "IP状态", example = "可用", allowableValues = {"可用", "占用", "故障", "测试中", "维护中"})
+    @Schema(description = "IP状态", example = "可用", allowableValues = {"可用", "占用", "故障", "测试中", "维护中", "预留"})
     @TableField("ip_status")
     private String ipStatus = "可用";
 
@@ -117,6 +117,14 @@ public class IpPool extends BaseEntity {
     @TableField("current_order_id")
     private Long currentOrderId;
 
+    /**
+     * 预留到期时间（仅预留状态有值）
+     */
+    @Schema(description = "预留到期时间")
+    @TableField("reserved_until")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reservedUntil;
+
     /**
      * 最后测试时间
      */
@@ -147,6 +155,27 @@ public class IpPool extends BaseEntity {
     @TableField("test_message")
     private String testMessage;
 
+    /**
+     * 延迟指数加权平均(ms)
+     */
+    @Schema(description = "延迟指数加权平均(ms)", example = "120")
+    @TableField("ewma_latency")
+    private Integer ewmaLatency;
+
+    /**
+     * 测试成功率（指数加权）
+     */
+    @Schema(description = "测试成功率（指数加权）", example = "0.9500")
+    @TableField("success_ratio")
+    private BigDecimal successRatio;
+
+    /**
+     * 测试样本数
+     */
+    @Schema(description = "测试样本数", example = "12")
+    @TableField("test_samples")
+    private Integer testSamples;
+
     // Getter and Setter methods
     public String getIpAddress() {
         return ipAddress;
@@ -244,6 +273,14 @@ public class IpPool extends BaseEntity {
         this.currentOrderId = currentOrderId;
     }
 
+    public LocalDateTime getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public void setReservedUntil(LocalDateTime reservedUntil) {
+        this.reservedUntil = reservedUntil;
+    }
+
     public LocalDateTime getLastTestTime() {
         return lastTestTime;
     }
@@ -276,6 +313,30 @@ public class IpPool extends BaseEntity {
         this.testMessage = testMessage;
     }
 
+    public Integer getEwmaLatency() {
+        return ewmaLatency;
+    }
+
+    public void setEwmaLatency(Integer ewmaLatency) {
+        this.ewmaLatency = ewmaLatency;
+    }
+
+    public BigDecimal getSuccessRatio() {
+        return successRatio;
+    }
+
+    public void setSuccessRatio(BigDecimal successRatio) {
+        this.successRatio = successRatio;
+    }
+
+    public Integer getTestSamples() {
+        return testSamples;
+    }
+
+    public void setTestSamples(Integer testSamples) {
+        this.testSamples = testSamples;
+    }
+
     @Override
     public String toString() {
         return "IpPool{" +
@@ -291,6 +352,7 @@ public class IpPool extends BaseEntity {
                 ", costPrice=" + costPrice +
                 ", nodeId=" + nodeId +
                 ", currentOrderId=" + currentOrderId +
+                ", reservedUntil=" + reservedUntil +
                 ", lastTestTime=" + lastTestTime +
                 ", testResult='" + testResult + '\'' +
                 ", testLatency=" + testLatency +
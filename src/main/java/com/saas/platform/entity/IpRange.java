@@ -0,0 +1,295 @@
+package com.saas.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.saas.platform.util.IpAddressUtil;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * IP地址段实体类
+ * 以CIDR整段登记供应商IP，起止地址按数值保存；段内地址在分配或测试时才逐批展开为IP池记录
+ *
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "IP地址段信息")
+@TableName("ip_ranges")
+public class IpRange extends BaseEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * CIDR
+     */
+    @Schema(description = "CIDR", example = "203.0.113.0/24")
+    @TableField("cidr")
+    private String cidr;
+
+    /**
+     * IP版本
+     */
+    @Schema(description = "IP版本", example = "4", allowableValues = {"4", "6"})
+    @TableField("ip_version")
+    private Integer ipVersion;
+
+    /**
+     * 起始地址（INET6_ATON格式）
+     */
+    @JsonIgnore
+    @TableField("range_start")
+    private byte[] rangeStart;
+
+    /**
+     * 结束地址（INET6_ATON格式）
+     */
+    @JsonIgnore
+    @TableField("range_end")
+    private byte[] rangeEnd;
+
+    /**
+     * 地址总数
+     */
+    @Schema(description = "地址总数", example = "256")
+    @TableField("total_count")
+    private Long totalCount;
+
+    /**
+     * 已展开为IP池记录的地址数（段内偏移 0 ~ expandedCount-1 已展开）
+     */
+    @Schema(description = "已展开地址数", example = "0")
+    @TableField("expanded_count")
+    private Long expandedCount;
+
+    /**
+     * 国家
+     */
+    @Schema(description = "国家", example = "美国")
+    @TableField("country")
+    private String country;
+
+    /**
+     * 地区
+     */
+    @Schema(description = "地区", example = "加利福尼亚")
+    @TableField("region")
+    private String region;
+
+    /**
+     * 城市
+     */
+    @Schema(description = "城市", example = "洛杉矶")
+    @TableField("city")
+    private String city;
+
+    /**
+     * IP质量
+     */
+    @Schema(description = "IP质量", example = "标准", allowableValues = {"标准", "优质", "独享"})
+    @TableField("ip_quality")
+    private String ipQuality;
+
+    /**
+     * 端口范围
+     */
+    @Schema(description = "端口范围", example = "8000-8999")
+    @TableField("port_range")
+    private String portRange;
+
+    /**
+     * 带宽(Mbps)
+     */
+    @Schema(description = "带宽(Mbps)", example = "100")
+    @TableField("bandwidth_mbps")
+    private Integer bandwidthMbps;
+
+    /**
+     * 供应商
+     */
+    @Schema(description = "供应商", example = "LA-Provider")
+    @TableField("provider")
+    private String provider;
+
+    /**
+     * 成本价格（单个IP）
+     */
+    @Schema(description = "成本价格（单个IP）", example = "1.50")
+    @TableField("cost_price")
+    private BigDecimal costPrice;
+
+    /**
+     * 关联节点ID
+     */
+    @Schema(description = "关联节点ID", example = "1")
+    @TableField("node_id")
+    private Long nodeId;
+
+    /**
+     * 状态
+     */
+    @Schema(description = "状态", example = "启用", allowableValues = {"启用", "停用"})
+    @TableField("status")
+    private String status = "启用";
+
+    // Getter and Setter methods
+    public String getCidr() {
+        return cidr;
+    }
+
+    public void setCidr(String cidr) {
+        this.cidr = cidr;
+    }
+
+    public Integer getIpVersion() {
+        return ipVersion;
+    }
+
+    public void setIpVersion(Integer ipVersion) {
+        this.ipVersion = ipVersion;
+    }
+
+    public byte[] getRangeStart() {
+        return rangeStart;
+    }
+
+    public void setRangeStart(byte[] rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+
+    public byte[] getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public void setRangeEnd(byte[] rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+
+    @Schema(description = "起始地址", example = "203.0.113.0")
+    public String getStartIp() {
+        return IpAddressUtil.formatBytes(rangeStart);
+    }
+
+    @Schema(description = "结束地址", example = "203.0.113.255")
+    public String getEndIp() {
+        return IpAddressUtil.formatBytes(rangeEnd);
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public Long getExpandedCount() {
+        return expandedCount;
+    }
+
+    public void setExpandedCount(Long expandedCount) {
+        this.expandedCount = expandedCount;
+    }
+
+    @Schema(description = "未展开地址数", example = "256")
+    public Long getRemainingCount() {
+        return totalCount == null ? null : totalCount - (expandedCount == null ? 0 : expandedCount);
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getIpQuality() {
+        return ipQuality;
+    }
+
+    public void setIpQuality(String ipQuality) {
+        this.ipQuality = ipQuality;
+    }
+
+    public String getPortRange() {
+        return portRange;
+    }
+
+    public void setPortRange(String portRange) {
+        this.portRange = portRange;
+    }
+
+    public Integer getBandwidthMbps() {
+        return bandwidthMbps;
+    }
+
+    public void setBandwidthMbps(Integer bandwidthMbps) {
+        this.bandwidthMbps = bandwidthMbps;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public BigDecimal getCostPrice() {
+        return costPrice;
+    }
+
+    public void setCostPrice(BigDecimal costPrice) {
+        this.costPrice = costPrice;
+    }
+
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Long nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "IpRange{" +
+                "cidr='" + cidr + '\'' +
+                ", ipVersion=" + ipVersion +
+                ", totalCount=" + totalCount +
+                ", expandedCount=" + expandedCount +
+                ", country='" + country + '\'' +
+                ", region='" + region + '\'' +
+                ", city='" + city + '\'' +
+                ", ipQuality='" + ipQuality + '\'' +
+                ", provider='" + provider + '\'' +
+                ", nodeId=" + nodeId +
+                ", status='" + status + '\'' +
+                "} " + super.toString();
+    }
+}
@@ -0,0 +1,233 @@
+package com.saas.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * IP更换记录实体类
+ * 记录只插入不修改，没有更新时间和软删除字段
+ *
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "IP更换记录")
+@TableName("ip_replace_logs")
+public class IpReplaceLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 记录ID
+     */
+    @Schema(description = "记录ID", example = "1")
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 订单ID
+     */
+    @Schema(description = "订单ID", example = "1")
+    @TableField("order_id")
+    private Long orderId;
+
+    /**
+     * 客户ID
+     */
+    @Schema(description = "客户ID", example = "1")
+    @TableField("customer_id")
+    private Long customerId;
+
+    /**
+     * 客户账号
+     */
+    @Schema(description = "客户账号", example = "user001")
+    @TableField("customer_account")
+    private String customerAccount;
+
+    /**
+     * 原始IP
+     */
+    @Schema(description = "原始IP", example = "203.0.113.10")
+    @TableField("original_ip")
+    private String originalIp;
+
+    /**
+     * 新IP（更换失败时为空字符串）
+     */
+    @Schema(description = "新IP", example = "203.0.113.20")
+    @TableField("new_ip")
+    private String newIp;
+
+    /**
+     * 更换原因
+     */
+    @Schema(description = "更换原因", example = "节点故障")
+    @TableField("replace_reason")
+    private String replaceReason;
+
+    /**
+     * 测试结果
+     */
+    @Schema(description = "测试结果", example = "成功", allowableValues = {"成功", "失败"})
+    @TableField("test_result")
+    private String testResult;
+
+    /**
+     * 测试信息
+     */
+    @Schema(description = "测试信息")
+    @TableField("test_message")
+    private String testMessage;
+
+    /**
+     * 更换状态
+     */
+    @Schema(description = "更换状态", example = "成功", allowableValues = {"成功", "失败", "回滚"})
+    @TableField("replace_status")
+    private String replaceStatus;
+
+    /**
+     * 操作人ID
+     */
+    @Schema(description = "操作人ID", example = "1")
+    @TableField("operator_id")
+    private Long operatorId;
+
+    /**
+     * 操作人姓名
+     */
+    @Schema(description = "操作人姓名", example = "系统")
+    @TableField("operator_name")
+    private String operatorName;
+
+    /**
+     * 创建时间
+     */
+    @Schema(description = "创建时间")
+    @TableField("created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    // Getter and Setter methods
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getCustomerAccount() {
+        return customerAccount;
+    }
+
+    public void setCustomerAccount(String customerAccount) {
+        this.customerAccount = customerAccount;
+    }
+
+    public String getOriginalIp() {
+        return originalIp;
+    }
+
+    public void setOriginalIp(String originalIp) {
+        this.originalIp = originalIp;
+    }
+
+    public String getNewIp() {
+        return newIp;
+    }
+
+    public void setNewIp(String newIp) {
+        this.newIp = newIp;
+    }
+
+    public String getReplaceReason() {
+        return replaceReason;
+    }
+
+    public void setReplaceReason(String replaceReason) {
+        this.replaceReason = replaceReason;
+    }
+
+    public String getTestResult() {
+        return testResult;
+    }
+
+    public void setTestResult(String testResult) {
+        this.testResult = testResult;
+    }
+
+    public String getTestMessage() {
+        return testMessage;
+    }
+
+    public void setTestMessage(String testMessage) {
+        this.testMessage = testMessage;
+    }
+
+    public String getReplaceStatus() {
+        return replaceStatus;
+    }
+
+    public void setReplaceStatus(String replaceStatus) {
+        this.replaceStatus = replaceStatus;
+    }
+
+    public Long getOperatorId() {
+        return operatorId;
+    }
+
+    public void setOperatorId(Long operatorId) {
+        this.operatorId = operatorId;
+    }
+
+    public String getOperatorName() {
+        return operatorName;
+    }
+
+    public void setOperatorName(String operatorName) {
+        this.operatorName = operatorName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IpReplaceLog{" +
+                "id=" + id +
+                ", orderId=" + orderId +
+                ", originalIp='" + originalIp + '\'' +
+                ", newIp='" + newIp + '\'' +
+                ", replaceReason='" + replaceReason + '\'' +
+                ", replaceStatus='" + replaceStatus + '\'' +
+                '}';
+    }
+}
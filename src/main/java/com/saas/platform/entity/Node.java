@@ -2,6 +2,7 @@ package com.saas.platform.entity;
 
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -225,6 +226,14 @@ public class Node extends BaseEntity {
     @Digits(integer = 8, fraction = 2, message = "月费用格式不正确")
     private BigDecimal monthlyCost;
 
+    /**
+     * 乐观锁版本号
+     */
+    @Schema(description = "版本号", example = "0")
+    @TableField("version")
+    @Version
+    private Integer version;
+
     // Getter and Setter methods
     public String getNodeName() {
         return nodeName;
@@ -411,6 +420,14 @@ public class Node extends BaseEntity {
         this.remark = remark;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public String getAgentStatus() {
         return agentStatus;
     }
@@ -445,6 +462,7 @@ public class Node extends BaseEntity {
                 ", lastCheckTime=" + lastCheckTime +
                 ", provider='" + provider + '\'' +
                 ", monthlyCost=" + monthlyCost +
+                ", version=" + version +
                 "} " + super.toString();
     }
 }
\ No newline at end of file
@@ -27,7 +27,7 @@ public class Order extends BaseEntity {
     /**
      * 订单号
      */
-    @Schema(description = "订单号", example = "ORD202407310001")
+    @Schema(description = "订单号", example = "ORD20240731000001")
     @TableField("order_no")
     @NotBlank(message = "订单号不能为空")
     @Size(max = 50, message = "订单号长度不能超过50个字符")
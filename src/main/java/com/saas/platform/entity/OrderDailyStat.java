@@ -0,0 +1,131 @@
+package com.saas.platform.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 订单日统计
+ * 按（下单日期, 产品, 国家, 订单状态）汇总未删除订单的数量和金额，由 orders 触发器维护
+ *
+ * @author SaaS Xbox Team
+ */
+@Schema(description = "订单日统计")
+public class OrderDailyStat implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 下单日期
+     */
+    @Schema(description = "下单日期", example = "2024-08-01")
+    private LocalDate statDate;
+
+    /**
+     * 产品名称（空字符串表示未填写）
+     */
+    @Schema(description = "产品名称", example = "美国静态住宅IP")
+    private String productName;
+
+    /**
+     * 国家（空字符串表示未填写）
+     */
+    @Schema(description = "国家", example = "美国")
+    private String country;
+
+    /**
+     * 订单状态
+     */
+    @Schema(description = "订单状态", example = "运行中")
+    private String orderStatus;
+
+    /**
+     * 订单数量（对账偏差中表示需要补正的差值，下同）
+     */
+    @Schema(description = "订单数量", example = "12")
+    private Long orderCount;
+
+    /**
+     * 订单总金额
+     */
+    @Schema(description = "订单总金额", example = "1200.00")
+    private BigDecimal totalAmount;
+
+    /**
+     * 实际支付金额
+     */
+    @Schema(description = "实际支付金额", example = "1100.00")
+    private BigDecimal actualAmount;
+
+    // Getter and Setter methods
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getOrderStatus() {
+        return orderStatus;
+    }
+
+    public void setOrderStatus(String orderStatus) {
+        this.orderStatus = orderStatus;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getActualAmount() {
+        return actualAmount;
+    }
+
+    public void setActualAmount(BigDecimal actualAmount) {
+        this.actualAmount = actualAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderDailyStat{" +
+                "statDate=" + statDate +
+                ", productName='" + productName + '\'' +
+                ", country='" + country + '\'' +
+                ", orderStatus='" + orderStatus + '\'' +
+                ", orderCount=" + orderCount +
+                ", totalAmount=" + totalAmount +
+                ", actualAmount=" + actualAmount +
+                '}';
+    }
+}
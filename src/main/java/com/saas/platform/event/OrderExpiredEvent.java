@@ -0,0 +1,57 @@
+package com.saas.platform.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单过期事件
+ * 订单标记为已过期、占用的IP收回并提交后发布，供过期通知等后续处理监听
+ *
+ * @author SaaS Xbox Team
+ */
+public class OrderExpiredEvent {
+
+    private final Long orderId;
+    private final String orderNo;
+    private final Long customerId;
+    private final String customerAccount;
+    private final LocalDateTime expireTime;
+
+    public OrderExpiredEvent(Long orderId, String orderNo, Long customerId, String customerAccount,
+                             LocalDateTime expireTime) {
+        this.orderId = orderId;
+        this.orderNo = orderNo;
+        this.customerId = customerId;
+        this.customerAccount = customerAccount;
+        this.expireTime = expireTime;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getOrderNo() {
+        return orderNo;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerAccount() {
+        return customerAccount;
+    }
+
+    public LocalDateTime getExpireTime() {
+        return expireTime;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderExpiredEvent{" +
+                "orderId=" + orderId +
+                ", orderNo='" + orderNo + '\'' +
+                ", customerId=" + customerId +
+                ", expireTime=" + expireTime +
+                '}';
+    }
+}
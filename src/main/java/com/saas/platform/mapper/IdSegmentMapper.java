@@ -0,0 +1,37 @@
+package com.saas.platform.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 号段数据访问层接口
+ *
+ * @author SaaS Xbox Team
+ */
+@Mapper
+public interface IdSegmentMapper {
+
+    /**
+     * 租用号段：已分配的最大序号增加 step，行不存在时创建
+     *
+     * @param bizTag 业务标识
+     * @param bizDate 业务日期(yyyyMMdd)
+     * @param step 号段长度
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO id_segments (biz_tag, biz_date, max_id) VALUES (#{bizTag}, #{bizDate}, #{step}) "
+            + "ON DUPLICATE KEY UPDATE max_id = max_id + #{step}")
+    int lease(@Param("bizTag") String bizTag, @Param("bizDate") String bizDate, @Param("step") int step);
+
+    /**
+     * 查询已分配的最大序号
+     *
+     * @param bizTag 业务标识
+     * @param bizDate 业务日期(yyyyMMdd)
+     * @return 最大序号，不存在返回null
+     */
+    @Select("SELECT max_id FROM id_segments WHERE biz_tag = #{bizTag} AND biz_date = #{bizDate}")
+    Long selectMaxId(@Param("bizTag") String bizTag, @Param("bizDate") String bizDate);
+}
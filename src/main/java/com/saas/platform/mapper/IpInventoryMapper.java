@@ -0,0 +1,63 @@
+package com.saas.platform.mapper;
+
+import com.saas.platform.entity.IpInventory;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * IP库存统计数据访问层接口
+ * 库存由 ip_pools 触发器维护，每个维度按 slot 分成多行，这里只提供汇总读取和对账补正
+ *
+ * @author SaaS Xbox Team
+ */
+@Mapper
+public interface IpInventoryMapper {
+
+    /**
+     * 查询库存，按维度汇总各 slot 的计数
+     *
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @return 数量不为0的库存行
+     */
+    @Select("<script>SELECT country, city, ip_quality, ip_status, SUM(ip_count) AS ip_count FROM ip_inventory"
+            + "<where><if test='country != null and country != \"\"'> AND country = #{country}</if>"
+            + "<if test='ipQuality != null and ipQuality != \"\"'> AND ip_quality = #{ipQuality}</if></where>"
+            + " GROUP BY country, city, ip_quality, ip_status HAVING SUM(ip_count) &lt;&gt; 0"
+            + " ORDER BY country, city, ip_quality, ip_status</script>")
+    List<IpInventory> selectInventory(@Param("country") String country, @Param("ipQuality") String ipQuality);
+
+    /**
+     * 按库存维度直接统计IP池（全表扫描，仅供对账使用）
+     *
+     * @return 实际库存
+     */
+    @Select("SELECT country, IFNULL(city, '') AS city, ip_quality, IFNULL(ip_status, '') AS ip_status, COUNT(*) AS ip_count "
+            + "FROM ip_pools WHERE deleted_at IS NULL "
+            + "GROUP BY country, IFNULL(city, ''), ip_quality, IFNULL(ip_status, '')")
+    List<IpInventory> selectActualInventory();
+
+    /**
+     * 按差值补正库存（计入 slot 0）
+     *
+     * @param row 维度及差值
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO ip_inventory (country, city, ip_quality, ip_status, ip_count) "
+            + "VALUES (#{country}, #{city}, #{ipQuality}, #{ipStatus}, #{ipCount}) "
+            + "ON DUPLICATE KEY UPDATE ip_count = ip_count + VALUES(ip_count)")
+    int addCount(IpInventory row);
+
+    /**
+     * 清理数量为0的库存行
+     *
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM ip_inventory WHERE ip_count = 0")
+    int deleteEmpty();
+}
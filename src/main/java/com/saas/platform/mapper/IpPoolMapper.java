@@ -7,6 +7,7 @@ import com.saas.platform.entity.IpPool;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,7 +23,9 @@ public interface IpPoolMapper extends BaseMapper<IpPool> {
      * 分页查询IP池列表
      * 
      * @param page 分页对象
-     * @param ipAddress IP地址
+     * @param ipAddress IP地址前缀（ipStart为空时生效）
+     * @param ipStart 地址范围起点（INET6_ATON格式），为空表示不按范围查询
+     * @param ipEnd 地址范围终点
      * @param country 国家
      * @param city 城市
      * @param ipQuality IP质量
@@ -32,12 +35,41 @@ public interface IpPoolMapper extends BaseMapper<IpPool> {
      */
     IPage<IpPool> selectIpPoolPage(Page<IpPool> page,
                                   @Param("ipAddress") String ipAddress,
+                                  @Param("ipStart") byte[] ipStart,
+                                  @Param("ipEnd") byte[] ipEnd,
                                   @Param("country") String country,
                                   @Param("city") String city,
                                   @Param("ipQuality") String ipQuality,
                                   @Param("ipStatus") String ipStatus,
                                   @Param("nodeId") Long nodeId);
 
+    /**
+     * 游标分页查询IP池列表
+     * 按ID倒序返回，下一页以本页最后一条的ID作为lastId，翻页深度不影响查询开销
+     * 
+     * @param lastId 上一页最后一条的ID，首页传null
+     * @param size 每页大小
+     * @param ipAddress IP地址前缀（ipStart为空时生效）
+     * @param ipStart 地址范围起点（INET6_ATON格式），为空表示不按范围查询
+     * @param ipEnd 地址范围终点
+     * @param country 国家
+     * @param city 城市
+     * @param ipQuality IP质量
+     * @param ipStatus IP状态
+     * @param nodeId 节点ID
+     * @return IP列表
+     */
+    List<IpPool> selectIpPoolPageAfter(@Param("lastId") Long lastId,
+                                      @Param("size") int size,
+                                      @Param("ipAddress") String ipAddress,
+                                      @Param("ipStart") byte[] ipStart,
+                                      @Param("ipEnd") byte[] ipEnd,
+                                      @Param("country") String country,
+                                      @Param("city") String city,
+                                      @Param("ipQuality") String ipQuality,
+                                      @Param("ipStatus") String ipStatus,
+                                      @Param("nodeId") Long nodeId);
+
     /**
      * 根据IP地址查询
      * 
@@ -101,52 +133,314 @@ public interface IpPoolMapper extends BaseMapper<IpPool> {
     int batchUpdateStatus(@Param("ids") List<Long> ids, @Param("status") String status);
 
     /**
-     * 统计各状态IP数量
+     * 查询测试失败的IP
+     * 
+     * @param limit 限制数量
+     * @return IP列表（按最后测试时间倒序）
+     */
+    List<IpPool> selectFailedTestIps(@Param("limit") int limit);
+
+    /**
+     * 查询长时间未测试的IP
+     * 
+     * @param hours 小时数
+     * @param limit 限制数量
+     * @return IP列表（从未测试的在前，其余按最后测试时间升序）
+     */
+    List<IpPool> selectUntestedIps(@Param("hours") Integer hours, @Param("limit") int limit);
+
+    /**
+     * 批量更新IP测试结果
      * 
-     * @return 统计结果
+     * @param ipAddress IP地址
+     * @param testResult 测试结果
+     * @param testLatency 测试延迟
+     * @param testMessage 测试消息
+     * @return 影响行数
      */
-    List<java.util.Map<String, Object>> countByStatus();
+    int updateTestResult(@Param("ipAddress") String ipAddress,
+                        @Param("testResult") String testResult,
+                        @Param("testLatency") Integer testLatency,
+                        @Param("testMessage") String testMessage);
 
     /**
-     * 按国家统计IP数量
+     * 按ID游标查询需要回填地理位置的IP
      * 
-     * @return 统计结果
+     * @param afterId 上一批的最大ID
+     * @param locations 需要回填的位置标记（如查询失败、未知）
+     * @param limit 批次大小
+     * @return IP列表（仅包含id、ip_address、country、region、city）
      */
-    List<java.util.Map<String, Object>> countByCountry();
+    List<IpPool> selectLocationBackfillBatch(@Param("afterId") Long afterId,
+                                            @Param("locations") List<String> locations,
+                                            @Param("limit") int limit);
 
     /**
-     * 按IP质量统计数量
+     * 统计需要回填地理位置的IP数量
      * 
-     * @return 统计结果
+     * @param afterId 起始ID（不含）
+     * @param locations 需要回填的位置标记
+     * @return 数量
      */
-    List<java.util.Map<String, Object>> countByQuality();
+    long countLocationBackfill(@Param("afterId") Long afterId, @Param("locations") List<String> locations);
 
     /**
-     * 查询测试失败的IP
+     * 批量回填IP地理位置
+     * 仅当IP地址未变且国家仍为待回填标记时更新；地区、城市只在为空或待回填标记时填充，不覆盖手工修改的值
      * 
-     * @return IP列表
+     * @param ips IP列表（id、ipAddress为查询时的值，country、region、city为新位置）
+     * @param locations 需要回填的位置标记
+     * @return 影响行数
      */
-    List<IpPool> selectFailedTestIps();
+    int batchUpdateLocation(@Param("ips") List<IpPool> ips, @Param("locations") List<String> locations);
 
     /**
-     * 查询长时间未测试的IP
+     * 按ID游标查询可用IP的ID（分配器补充候选队列）
      * 
-     * @param hours 小时数
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param afterId 起始ID（不含）
+     * @param limit 限制数量
+     * @return IP ID列表
+     */
+    List<Long> selectAvailableIdsAfter(@Param("country") String country,
+                                      @Param("ipQuality") String ipQuality,
+                                      @Param("afterId") Long afterId,
+                                      @Param("limit") int limit);
+
+    /**
+     * 认领IP：仅当IP仍为可用状态时分配给订单
+     * 
+     * @param ipIds IP ID列表
+     * @param orderId 订单ID
+     * @param reservedUntil 预留到期时间，为空时直接占用
+     * @return 实际认领的数量
+     */
+    int claimIps(@Param("ipIds") List<Long> ipIds, @Param("orderId") Long orderId,
+                 @Param("reservedUntil") LocalDateTime reservedUntil);
+
+    /**
+     * 查询候选IP中已被指定订单认领的ID
+     * 
+     * @param ipIds IP ID列表
+     * @param orderId 订单ID
+     * @return IP ID列表
+     */
+    List<Long> selectClaimedIds(@Param("ipIds") List<Long> ipIds, @Param("orderId") Long orderId);
+
+    /**
+     * 按ID游标查询节点上被订单占用的IP
+     * 
+     * @param nodeId 节点ID
+     * @param afterId 上一批最后一条ID
+     * @param limit 最大数量
      * @return IP列表
      */
-    List<IpPool> selectUntestedIps(@Param("hours") Integer hours);
+    List<IpPool> selectAssignedByNode(@Param("nodeId") Long nodeId, @Param("afterId") Long afterId,
+                                      @Param("limit") int limit);
 
     /**
-     * 批量更新IP测试结果
+     * 统计节点上被订单占用的IP数量
      * 
-     * @param ipAddress IP地址
-     * @param testResult 测试结果
-     * @param testLatency 测试延迟
-     * @param testMessage 测试消息
+     * @param nodeId 节点ID
+     * @return IP数量
+     */
+    long countAssignedByNode(@Param("nodeId") Long nodeId);
+
+    /**
+     * 锁定仍被订单占用的IP（SELECT ... FOR UPDATE，需在事务内调用）
+     * 
+     * @param ids IP ID列表
+     * @return 仍被占用的IP
+     */
+    List<IpPool> lockAssignedIps(@Param("ids") List<Long> ids);
+
+    /**
+     * 将节点上的可用IP标记为故障
+     * 
+     * @param nodeId 节点ID
      * @return 影响行数
      */
-    int updateTestResult(@Param("ipAddress") String ipAddress,
-                        @Param("testResult") String testResult,
-                        @Param("testLatency") Integer testLatency,
-                        @Param("testMessage") String testMessage);
-}
\ No newline at end of file
+    int markNodeAvailableIpsFaulty(@Param("nodeId") Long nodeId);
+
+    /**
+     * 将节点上预留给待支付订单的IP标记为故障并解除预留
+     * 
+     * @param nodeId 节点ID
+     * @return 影响行数
+     */
+    int markNodeReservedIpsFaulty(@Param("nodeId") Long nodeId);
+
+    /**
+     * 将认领到的替换IP分配给各自的订单
+     * 
+     * @param ips 替换IP（id 与 currentOrderId）
+     * @param claimOrderId 认领时使用的临时订单ID
+     * @return 影响行数
+     */
+    int batchReassignOrders(@Param("ips") List<IpPool> ips, @Param("claimOrderId") Long claimOrderId);
+
+    /**
+     * 收回被更换的IP
+     * 
+     * @param ids IP ID列表
+     * @param status 收回后的状态（节点故障为“故障”，单个更换为“可用”）
+     * @return 影响行数
+     */
+    int retireReplacedIps(@Param("ids") List<Long> ids, @Param("status") String status);
+
+    /**
+     * 按ID游标读取已有测试样本的质量评分
+     * 
+     * @param afterId 上一批最后一条ID
+     * @param limit 最大数量
+     * @return IP（id、ewmaLatency、successRatio、testSamples）
+     */
+    List<IpPool> selectQualityScores(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 批量写回质量评分
+     * 
+     * @param ips IP（id、ewmaLatency、successRatio、testSamples）
+     * @return 影响行数
+     */
+    int batchUpdateQualityScores(@Param("ips") List<IpPool> ips);
+
+    /**
+     * 将订单的预留IP转为占用
+     * 
+     * @param orderId 订单ID
+     * @return 转为占用的数量
+     */
+    int confirmReservation(@Param("orderId") Long orderId);
+
+    /**
+     * 释放订单的预留IP
+     * 
+     * @param orderIds 订单ID列表
+     * @param onlyExpired 是否只释放已到期的预留
+     * @return 释放的数量
+     */
+    int releaseReservations(@Param("orderIds") List<Long> orderIds, @Param("onlyExpired") boolean onlyExpired);
+
+    /**
+     * 查询各订单的预留到期时间
+     * 
+     * @return 订单ID（currentOrderId）及最晚到期时间（reservedUntil）
+     */
+    List<IpPool> selectReservationDeadlines();
+
+    /**
+     * 查询预留已到期的订单
+     * 
+     * @param before 到期时间上限
+     * @param limit 最大数量
+     * @return 订单ID列表
+     */
+    List<Long> selectExpiredReservationOrders(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 收回订单占用的IP（订单过期）
+     * 
+     * @param orderIds 订单ID列表
+     * @return 收回的数量
+     */
+    int releaseOrderIps(@Param("orderIds") List<Long> orderIds);
+
+    /**
+     * 按数值地址查询已存在的IP（含已软删除的记录），不同写法的同一地址也能匹配
+     * 
+     * @param ipBins 数值地址列表（INET6_ATON格式）
+     * @return 已存在的数值地址
+     */
+    List<byte[]> selectExistingIpBins(@Param("ipBins") List<byte[]> ipBins);
+
+    /**
+     * 多行 INSERT IGNORE 批量插入IP，依赖 uk_ip_address 跳过已存在的IP
+     * 
+     * @param ips IP列表
+     * @return 实际插入的行数
+     */
+    int insertIgnoreBatch(@Param("ips") List<IpPool> ips);
+
+    /**
+     * 统计可用IP数量
+     * 
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @return 可用数量
+     */
+    long countAvailable(@Param("country") String country, @Param("ipQuality") String ipQuality);
+
+    /**
+     * 按ID游标查询待测试的IP
+     * 
+     * @param afterId 起始ID（不含）
+     * @param staleHours 超过该小时数未测试才返回，为空表示全部
+     * @param limit 批次大小
+     * @return IP列表（仅包含id、ip_address、port_range、node_id）
+     */
+    List<IpPool> selectTestTargets(@Param("afterId") Long afterId,
+                                  @Param("staleHours") Integer staleHours,
+                                  @Param("limit") int limit);
+
+    /**
+     * 按ID查询待测试的IP
+     * 
+     * @param ids ID列表
+     * @return IP列表（仅包含id、ip_address、port_range、node_id，按ID升序）
+     */
+    List<IpPool> selectTestTargetsByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 统计待测试的IP数量
+     * 
+     * @param staleHours 超过该小时数未测试才统计，为空表示全部
+     * @return 数量
+     */
+    long countTestTargets(@Param("staleHours") Integer staleHours);
+
+    /**
+     * 批量写入IP测试结果，检测期间被删除的IP不写入
+     * 
+     * @param results 测试结果（id、testResult、testLatency、testMessage）
+     * @return 影响行数
+     */
+    int batchUpdateTestResults(@Param("results") List<IpPool> results);
+
+    /**
+     * 按数值地址范围搜索IP（精确地址、IPv4前缀或CIDR）
+     * 
+     * @param ipStart 范围起点（INET6_ATON格式）
+     * @param ipEnd 范围终点（INET6_ATON格式，与起点长度相同）
+     * @param after 上一页最后一个地址（INET6_ATON格式），首页传null
+     * @param country 国家
+     * @param ipQuality IP质量
+     * @param ipStatus IP状态
+     * @param limit 每页大小
+     * @return IP列表（按地址升序）
+     */
+    List<IpPool> selectByAddressRange(@Param("ipStart") byte[] ipStart,
+                                     @Param("ipEnd") byte[] ipEnd,
+                                     @Param("after") byte[] after,
+                                     @Param("country") String country,
+                                     @Param("ipQuality") String ipQuality,
+                                     @Param("ipStatus") String ipStatus,
+                                     @Param("limit") int limit);
+
+    /**
+     * 统计数值地址范围内的IP数量
+     * 
+     * @param ipStart 范围起点（INET6_ATON格式）
+     * @param ipEnd 范围终点（INET6_ATON格式）
+     * @param country 国家
+     * @param ipQuality IP质量
+     * @param ipStatus IP状态
+     * @return 数量
+     */
+    long countByAddressRange(@Param("ipStart") byte[] ipStart,
+                             @Param("ipEnd") byte[] ipEnd,
+                             @Param("country") String country,
+                             @Param("ipQuality") String ipQuality,
+                             @Param("ipStatus") String ipStatus);
+}
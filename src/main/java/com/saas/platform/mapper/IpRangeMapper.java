@@ -0,0 +1,71 @@
+package com.saas.platform.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.saas.platform.entity.IpRange;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * IP地址段数据访问层接口
+ * 
+ * @author SaaS Xbox Team
+ */
+@Mapper
+public interface IpRangeMapper extends BaseMapper<IpRange> {
+
+    /**
+     * 查询与指定区间重叠的地址段
+     * 
+     * @param ipVersion IP版本
+     * @param rangeStart 起始地址
+     * @param rangeEnd 结束地址
+     * @return 地址段列表
+     */
+    List<IpRange> selectOverlapping(@Param("ipVersion") Integer ipVersion,
+                                   @Param("rangeStart") byte[] rangeStart,
+                                   @Param("rangeEnd") byte[] rangeEnd);
+
+    /**
+     * 查询包含指定地址的地址段
+     * 
+     * @param ipVersion IP版本
+     * @param address 地址（INET6_ATON格式）
+     * @return 地址段，不存在返回null
+     */
+    IpRange selectContaining(@Param("ipVersion") Integer ipVersion, @Param("address") byte[] address);
+
+    /**
+     * 查询仍有未展开地址的启用地址段
+     * 
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param limit 限制数量
+     * @return 地址段列表（按ID升序）
+     */
+    List<IpRange> selectExpandable(@Param("country") String country,
+                                  @Param("ipQuality") String ipQuality,
+                                  @Param("limit") int limit);
+
+    /**
+     * 预留一段待展开的偏移量：仅当已展开数仍为读取时的值时更新，并发展开不会生成相同的地址
+     * 
+     * @param id 地址段ID
+     * @param expectedCount 读取时的已展开数
+     * @param newCount 新的已展开数
+     * @return 影响行数
+     */
+    int reserveExpansion(@Param("id") Long id,
+                         @Param("expectedCount") long expectedCount,
+                         @Param("newCount") long newCount);
+
+    /**
+     * 统计启用地址段中未展开的地址数
+     * 
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @return 未展开地址数
+     */
+    long sumRemaining(@Param("country") String country, @Param("ipQuality") String ipQuality);
+}
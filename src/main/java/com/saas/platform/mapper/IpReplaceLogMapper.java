@@ -0,0 +1,32 @@
+package com.saas.platform.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.saas.platform.entity.IpReplaceLog;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * IP更换记录数据访问层接口
+ *
+ * @author SaaS Xbox Team
+ */
+@Mapper
+public interface IpReplaceLogMapper extends BaseMapper<IpReplaceLog> {
+
+    /**
+     * 多行批量插入更换记录
+     *
+     * @param logs 更换记录
+     * @return 插入行数
+     */
+    @Insert("<script>INSERT INTO ip_replace_logs (order_id, customer_id, customer_account, original_ip, new_ip, "
+            + "replace_reason, replace_status, operator_id, operator_name, created_at) VALUES "
+            + "<foreach collection='logs' item='l' separator=','>"
+            + "(#{l.orderId}, #{l.customerId}, #{l.customerAccount}, #{l.originalIp}, #{l.newIp}, "
+            + "#{l.replaceReason}, #{l.replaceStatus}, #{l.operatorId}, #{l.operatorName}, NOW())"
+            + "</foreach></script>")
+    int insertBatch(@Param("logs") List<IpReplaceLog> logs);
+}
@@ -0,0 +1,46 @@
+package com.saas.platform.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 后台任务断点数据访问层接口
+ *
+ * @author SaaS Xbox Team
+ */
+@Mapper
+public interface JobCheckpointMapper {
+
+    /**
+     * 查询任务断点
+     *
+     * @param jobName 任务名称
+     * @param scope 任务范围
+     * @return 已处理到的最大ID，不存在返回null
+     */
+    @Select("SELECT last_id FROM job_checkpoints WHERE job_name = #{jobName} AND scope = #{scope}")
+    Long selectLastId(@Param("jobName") String jobName, @Param("scope") String scope);
+
+    /**
+     * 保存任务断点
+     *
+     * @param jobName 任务名称
+     * @param scope 任务范围
+     * @param lastId 已处理到的最大ID
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO job_checkpoints (job_name, scope, last_id) VALUES (#{jobName}, #{scope}, #{lastId}) ON DUPLICATE KEY UPDATE last_id = VALUES(last_id)")
+    int upsert(@Param("jobName") String jobName, @Param("scope") String scope, @Param("lastId") Long lastId);
+
+    /**
+     * 删除任务断点（任务完成后调用）
+     *
+     * @param jobName 任务名称
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM job_checkpoints WHERE job_name = #{jobName}")
+    int deleteByJob(@Param("jobName") String jobName);
+}
@@ -3,6 +3,7 @@ package com.saas.platform.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.saas.platform.dto.NodePatchDTO;
 import com.saas.platform.entity.Node;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -35,6 +36,37 @@ public interface NodeMapper extends BaseMapper<Node> {
                               @Param("nodeType") String nodeType,
                               @Param("nodeStatus") String nodeStatus);
 
+    /**
+     * 按ID游标查询需要回填地理位置的节点
+     * 
+     * @param afterId 上一批的最大ID
+     * @param locations 需要回填的位置标记（如查询失败、未知、待查询）
+     * @param limit 批次大小
+     * @return 节点列表（仅包含id、server_ip、country、region）
+     */
+    List<Node> selectLocationBackfillBatch(@Param("afterId") Long afterId,
+                                          @Param("locations") List<String> locations,
+                                          @Param("limit") int limit);
+
+    /**
+     * 统计需要回填地理位置的节点数量
+     * 
+     * @param afterId 起始ID（不含）
+     * @param locations 需要回填的位置标记
+     * @return 数量
+     */
+    long countLocationBackfill(@Param("afterId") Long afterId, @Param("locations") List<String> locations);
+
+    /**
+     * 批量回填节点地理位置
+     * 仅当节点IP未变且国家仍为待回填标记时更新；地区只在为空或待回填标记时填充，不覆盖手工修改的值
+     * 
+     * @param nodes 节点列表（id、serverIp为查询时的值，country、region为新位置）
+     * @param locations 需要回填的位置标记
+     * @return 影响行数
+     */
+    int batchUpdateLocation(@Param("nodes") List<Node> nodes, @Param("locations") List<String> locations);
+
     /**
      * 根据节点编码查询节点
      * 
@@ -101,6 +133,62 @@ public interface NodeMapper extends BaseMapper<Node> {
                          @Param("diskUsage") BigDecimal diskUsage,
                          @Param("networkLatency") Integer networkLatency);
 
+    /**
+     * 写入健康检查结果
+     * 仅当节点状态仍为expectedStatus时才切换为nodeStatus，避免覆盖并发的人工状态变更
+     * 
+     * @param nodeId 节点ID
+     * @param networkLatency 网络延迟（为空则不更新）
+     * @param expectedStatus 检查时的节点状态
+     * @param nodeStatus 新状态（为空则不更新）
+     * @return 影响行数
+     */
+    int updateHealthCheckResult(@Param("nodeId") Long nodeId,
+                               @Param("networkLatency") Integer networkLatency,
+                               @Param("expectedStatus") String expectedStatus,
+                               @Param("nodeStatus") String nodeStatus);
+
+    /**
+     * 回填节点地理位置
+     * 仅当节点IP仍为serverIp时更新，且只更新仍为待查询的列，避免覆盖人工填写的国家或地区
+     * 
+     * @param nodeId 节点ID
+     * @param serverIp 查询时的服务器IP
+     * @param pendingLocation 待查询标记
+     * @param country 国家
+     * @param region 地区
+     * @return 影响行数
+     */
+    int updateLocation(@Param("nodeId") Long nodeId,
+                      @Param("serverIp") String serverIp,
+                      @Param("pendingLocation") String pendingLocation,
+                      @Param("country") String country,
+                      @Param("region") String region);
+
+    /**
+     * 一次性检查节点编码与服务器IP是否与其他节点冲突
+     * 
+     * @param excludeId 排除的节点ID
+     * @param nodeCode 节点编码（为空则不检查）
+     * @param serverIp 服务器IP（为空则不检查）
+     * @return 冲突数量（codeConflicts, ipConflicts）
+     */
+    java.util.Map<String, Object> selectUniqueConflicts(@Param("excludeId") Long excludeId,
+                                                        @Param("nodeCode") String nodeCode,
+                                                        @Param("serverIp") String serverIp);
+
+    /**
+     * 部分更新节点，只写入非空字段，并在版本号匹配时递增版本
+     * 
+     * @param id 节点ID
+     * @param patch 变更字段
+     * @param pendingLocation IP变化时写入的待查询位置标记
+     * @return 影响行数
+     */
+    int patchNode(@Param("id") Long id,
+                 @Param("patch") NodePatchDTO patch,
+                 @Param("pendingLocation") String pendingLocation);
+
     /**
      * 统计各状态节点数量
      * 
@@ -122,6 +210,14 @@ public interface NodeMapper extends BaseMapper<Node> {
      */
     List<java.util.Map<String, Object>> countByType();
 
+    /**
+     * 按状态、国家、节点类型一次性分组统计节点数量
+     * 用于在单次查询中汇总全部节点统计信息
+     * 
+     * @return 统计结果（status, country, type, count）
+     */
+    List<java.util.Map<String, Object>> countByStatusCountryType();
+
     /**
      * 查询高负载节点（CPU或内存使用率高）
      * 
@@ -0,0 +1,124 @@
+package com.saas.platform.mapper;
+
+import com.saas.platform.entity.OrderDailyStat;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单日统计数据访问层接口
+ * 统计由 orders 触发器维护，这里提供按日期范围的汇总读取和对账补正；日期范围均为 [fromDate, toDate)
+ *
+ * @author SaaS Xbox Team
+ */
+@Mapper
+public interface OrderDailyStatMapper {
+
+    /**
+     * 汇总订单金额
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return totalAmount、actualAmount、orderCount
+     */
+    @Select("SELECT SUM(total_amount) AS totalAmount, SUM(actual_amount) AS actualAmount, SUM(order_count) AS orderCount "
+            + "FROM order_daily_stats WHERE stat_date >= #{fromDate} AND stat_date < #{toDate}")
+    Map<String, Object> sumAmount(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * 按日期汇总订单数量和金额
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return date、orderCount、totalAmount，按日期排序
+     */
+    @Select("SELECT stat_date AS date, SUM(order_count) AS orderCount, SUM(total_amount) AS totalAmount "
+            + "FROM order_daily_stats WHERE stat_date >= #{fromDate} AND stat_date < #{toDate} "
+            + "GROUP BY stat_date HAVING SUM(order_count) <> 0 ORDER BY stat_date")
+    List<Map<String, Object>> countByDate(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * 按产品汇总订单数量
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return label、value
+     */
+    @Select("SELECT NULLIF(product_name, '') AS label, SUM(order_count) AS value "
+            + "FROM order_daily_stats WHERE stat_date >= #{fromDate} AND stat_date < #{toDate} "
+            + "GROUP BY product_name HAVING SUM(order_count) <> 0")
+    List<Map<String, Object>> countByProduct(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * 按国家/地区汇总订单数量
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return label、value
+     */
+    @Select("SELECT NULLIF(country, '') AS label, SUM(order_count) AS value "
+            + "FROM order_daily_stats WHERE stat_date >= #{fromDate} AND stat_date < #{toDate} "
+            + "GROUP BY country HAVING SUM(order_count) <> 0")
+    List<Map<String, Object>> countByCountry(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * 按订单状态汇总全部订单数量
+     *
+     * @return label、value
+     */
+    @Select("SELECT NULLIF(order_status, '') AS label, SUM(order_count) AS value FROM order_daily_stats "
+            + "GROUP BY order_status HAVING SUM(order_count) <> 0")
+    List<Map<String, Object>> countByStatus();
+
+    /**
+     * 查询日期范围内的统计行
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return 统计行
+     */
+    @Select("SELECT stat_date, product_name, country, order_status, order_count, total_amount, actual_amount "
+            + "FROM order_daily_stats WHERE stat_date >= #{fromDate} AND stat_date < #{toDate}")
+    List<OrderDailyStat> selectStats(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * 按统计维度直接汇总订单（走 idx_created_at 范围扫描，仅供对账使用）
+     *
+     * @param from 开始时间（含）
+     * @param to 结束时间（不含）
+     * @return 实际统计
+     */
+    @Select("SELECT DATE(created_at) AS stat_date, IFNULL(product_name, '') AS product_name, "
+            + "IFNULL(country, '') AS country, IFNULL(order_status, '') AS order_status, COUNT(*) AS order_count, "
+            + "SUM(total_amount) AS total_amount, SUM(actual_amount) AS actual_amount "
+            + "FROM orders WHERE created_at >= #{from} AND created_at < #{to} AND deleted_at IS NULL "
+            + "GROUP BY DATE(created_at), IFNULL(product_name, ''), IFNULL(country, ''), IFNULL(order_status, '')")
+    List<OrderDailyStat> selectActualStats(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 按差值补正统计
+     *
+     * @param row 维度及差值
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO order_daily_stats (stat_date, product_name, country, order_status, order_count, total_amount, actual_amount) "
+            + "VALUES (#{statDate}, #{productName}, #{country}, #{orderStatus}, #{orderCount}, #{totalAmount}, #{actualAmount}) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+            + "total_amount = total_amount + VALUES(total_amount), actual_amount = actual_amount + VALUES(actual_amount)")
+    int addStat(OrderDailyStat row);
+
+    /**
+     * 清理已清零的统计行
+     *
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM order_daily_stats WHERE order_count = 0 AND total_amount = 0 AND actual_amount = 0")
+    int deleteEmpty();
+}
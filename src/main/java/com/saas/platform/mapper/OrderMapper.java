@@ -1,16 +1,23 @@
 package com.saas.platform.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.saas.platform.entity.Order;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -44,6 +51,42 @@ public interface OrderMapper extends BaseMapper<Order> {
                                @Param("startTime") LocalDateTime startTime,
                                @Param("endTime") LocalDateTime endTime);
 
+    /**
+     * 统计符合条件的订单数，最多统计 limit 行
+     * 
+     * @param wrapper 筛选条件（需自行包含逻辑删除条件）
+     * @param limit 统计上限
+     * @return 订单数，不超过 limit
+     */
+    @Select("SELECT COUNT(*) FROM (SELECT 1 FROM orders ${ew.customSqlSegment} LIMIT #{limit}) t")
+    long countLimited(@Param(Constants.WRAPPER) Wrapper<Order> wrapper, @Param("limit") long limit);
+
+    /**
+     * 按订单状态筛选的分页查询，指定走 idx_status_created_at
+     * 游标位于较早位置时，优化器可能只用 order_status 前缀做 ref 访问，从该状态最新的一端倒序逐行回表扫描到游标处；
+     * 指定索引后按 (order_status, created_at) 范围直接定位到游标
+     * 
+     * @param page 分页参数
+     * @param wrapper 筛选及排序条件（需自行包含逻辑删除条件，且包含 order_status 等值条件）
+     * @return 分页结果
+     */
+    @Select("SELECT * FROM orders FORCE INDEX (idx_status_created_at) ${ew.customSqlSegment}")
+    @ResultMap("mybatis-plus_Order")
+    IPage<Order> selectPageByStatusIndex(IPage<Order> page, @Param(Constants.WRAPPER) Wrapper<Order> wrapper);
+
+    /**
+     * 流式读取符合条件的订单，逐行回调 handler
+     * fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行读取结果集，不在内存中缓存整个结果；
+     * 读取期间独占连接，回调中不能再使用同一连接执行查询
+     * 
+     * @param wrapper 筛选及排序条件（需自行包含逻辑删除条件）
+     * @param handler 行处理器
+     */
+    @Select("SELECT * FROM orders ${ew.customSqlSegment}")
+    @ResultMap("mybatis-plus_Order")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamOrders(@Param(Constants.WRAPPER) Wrapper<Order> wrapper, ResultHandler<Order> handler);
+
     /**
      * 根据订单号查询订单
      * 
@@ -71,6 +114,17 @@ public interface OrderMapper extends BaseMapper<Order> {
     @Select("SELECT * FROM orders WHERE manager_id = #{managerId} AND deleted_at IS NULL ORDER BY created_at DESC")
     List<Order> selectByManagerId(@Param("managerId") Long managerId);
 
+    /**
+     * 查询使用某IP的订单（按 order_ips 索引查找）
+     * 
+     * @param ipAddress IP地址
+     * @return 订单列表
+     */
+    @Select("SELECT o.* FROM order_ips oi JOIN orders o ON o.id = oi.order_id "
+            + "WHERE oi.ip_address = #{ipAddress} AND o.deleted_at IS NULL ORDER BY o.created_at DESC")
+    @ResultMap("mybatis-plus_Order")
+    List<Order> selectByIpAddress(@Param("ipAddress") String ipAddress);
+
     /**
      * 查询即将过期的订单
      * 
@@ -88,6 +142,68 @@ public interface OrderMapper extends BaseMapper<Order> {
     @Select("SELECT * FROM orders WHERE expire_time < NOW() AND order_status = '运行中' AND deleted_at IS NULL ORDER BY expire_time")
     List<Order> selectExpiredOrders();
 
+    /**
+     * 锁定一批已到期的运行中订单，跳过其他事务已锁定的行（走 idx_status_expire_time）
+     * 
+     * @param limit 最大数量
+     * @return 订单列表
+     */
+    @Select("SELECT * FROM orders WHERE order_status = '运行中' AND expire_time <= NOW() AND deleted_at IS NULL "
+            + "ORDER BY expire_time, id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    @ResultMap("mybatis-plus_Order")
+    List<Order> lockExpiredOrders(@Param("limit") int limit);
+
+    /**
+     * 按ID锁定已到期的运行中订单，跳过其他事务已锁定的行
+     * 
+     * @param ids 订单ID列表
+     * @return 订单列表（未到期、已续费或状态已变化的订单不返回）
+     */
+    @Select("<script>SELECT * FROM orders WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND order_status = '运行中' AND expire_time &lt;= NOW() AND deleted_at IS NULL FOR UPDATE SKIP LOCKED</script>")
+    @ResultMap("mybatis-plus_Order")
+    List<Order> lockExpiredOrdersByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID顺序锁定订单（SELECT ... FOR UPDATE，需在事务内调用）
+     * 多个事务都按ID升序加锁，同时改写相同订单时不会互相死锁
+     * 
+     * @param ids 订单ID列表
+     * @return 订单列表
+     */
+    @Select("<script>SELECT * FROM orders WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "ORDER BY id FOR UPDATE</script>")
+    @ResultMap("mybatis-plus_Order")
+    List<Order> lockByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询即将到期的运行中订单的到期时间，按 (expire_time, id) 游标分页
+     * 
+     * @param afterTime 上一页最后一条的到期时间，首页传当前时间
+     * @param afterId 上一页最后一条的ID，首页传0
+     * @param before 到期时间上限
+     * @param limit 每页数量
+     * @return 订单（仅 id、expire_time）
+     */
+    @Select("SELECT id, expire_time FROM orders WHERE order_status = '运行中' "
+            + "AND expire_time >= #{afterTime} AND (expire_time > #{afterTime} OR id > #{afterId}) "
+            + "AND expire_time <= #{before} AND deleted_at IS NULL ORDER BY expire_time, id LIMIT #{limit}")
+    List<Order> selectUpcomingExpirations(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+                                          @Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 批量标记订单过期
+     * 
+     * @param ids 订单ID列表
+     * @return 影响行数
+     */
+    @Update("<script>UPDATE orders SET order_status = '已过期', updated_at = NOW() WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND order_status = '运行中' AND deleted_at IS NULL</script>")
+    int expireOrders(@Param("ids") List<Long> ids);
+
     /**
      * 批量更新订单状态
      * 
@@ -166,4 +282,17 @@ public interface OrderMapper extends BaseMapper<Order> {
      */
     @Select("SELECT * FROM orders WHERE customer_id = #{customerId} AND order_status IN ('正常', '运行中') AND deleted_at IS NULL ORDER BY created_at DESC")
     List<Order> selectActiveOrdersByCustomerId(@Param("customerId") Long customerId);
-}
\ No newline at end of file
+
+    /**
+     * 批量更新订单IP地址列表
+     * 
+     * @param orders 订单（id 与 ipAddresses）
+     * @return 影响行数
+     */
+    @Update("<script>UPDATE orders SET ip_addresses = CASE id "
+            + "<foreach collection='orders' item='o'>WHEN #{o.id} THEN "
+            + "#{o.ipAddresses, typeHandler=com.baomidou.mybatisplus.extension.handlers.JacksonTypeHandler} </foreach>"
+            + "END, updated_at = NOW() WHERE id IN "
+            + "<foreach collection='orders' item='o' open='(' separator=',' close=')'>#{o.id}</foreach></script>")
+    int batchUpdateIpAddresses(@Param("orders") List<Order> orders);
+}
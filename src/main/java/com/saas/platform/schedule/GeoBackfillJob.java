@@ -0,0 +1,329 @@
+package com.saas.platform.schedule;
+
+import com.saas.platform.config.CacheConfig;
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.entity.Node;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.mapper.JobCheckpointMapper;
+import com.saas.platform.mapper.NodeMapper;
+import com.saas.platform.service.impl.NodeLocationEnricher;
+import com.saas.platform.util.IpLocationUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 地理位置回填任务
+ * 按ID游标分批扫描位置为“查询失败”、“未知”或“待查询”的IP池与节点记录，
+ * 每批IP去重后并发查询地理位置，再以单条批量UPDATE写回；
+ * 每批处理完记录断点，中断后可从断点继续，并按每秒处理行数限速，可在业务时段运行
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class GeoBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoBackfillJob.class);
+
+    private static final String JOB_NAME = "geo-backfill";
+    private static final String SCOPE_IP_POOLS = "ip_pools";
+    private static final String SCOPE_NODES = "nodes";
+
+    private static final String LOOKUP_FAILED = "查询失败";
+    private static final String UNKNOWN = "未知";
+
+    /**
+     * 需要回填的位置标记
+     */
+    private static final List<String> BACKFILL_LOCATIONS =
+            List.of(LOOKUP_FAILED, UNKNOWN, NodeLocationEnricher.PENDING_LOCATION);
+
+    private final IpPoolMapper ipPoolMapper;
+    private final NodeMapper nodeMapper;
+    private final JobCheckpointMapper checkpointMapper;
+    private final IpLocationUtil ipLocationUtil;
+    private final CacheManager cacheManager;
+
+    /**
+     * 每批处理行数
+     */
+    @Value("${geo-backfill.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 每秒最多处理行数
+     */
+    @Value("${geo-backfill.max-rows-per-second:50}")
+    private int maxRowsPerSecond;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "geo-backfill");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile String state = "空闲";
+    private volatile boolean stopRequested;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private final Map<String, ScopeProgress> progress = new LinkedHashMap<>();
+
+    public GeoBackfillJob(IpPoolMapper ipPoolMapper, NodeMapper nodeMapper,
+                          JobCheckpointMapper checkpointMapper, IpLocationUtil ipLocationUtil,
+                          CacheManager cacheManager) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.nodeMapper = nodeMapper;
+        this.checkpointMapper = checkpointMapper;
+        this.ipLocationUtil = ipLocationUtil;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * 启动回填任务
+     *
+     * @param reset 是否忽略断点从头开始
+     * @return 是否已启动（任务运行中时返回false）
+     */
+    public synchronized boolean start(boolean reset) {
+        if ("运行中".equals(state) || "停止中".equals(state)) {
+            return false;
+        }
+        if (reset) {
+            checkpointMapper.deleteByJob(JOB_NAME);
+        }
+        stopRequested = false;
+        state = "运行中";
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        synchronized (progress) {
+            progress.clear();
+            progress.put(SCOPE_IP_POOLS, new ScopeProgress());
+            progress.put(SCOPE_NODES, new ScopeProgress());
+        }
+        executor.execute(this::run);
+        return true;
+    }
+
+    /**
+     * 请求停止任务，当前批次处理完后退出，断点保留
+     *
+     * @return 是否有运行中的任务
+     */
+    public boolean stop() {
+        if (!"运行中".equals(state)) {
+            return false;
+        }
+        stopRequested = true;
+        state = "停止中";
+        return true;
+    }
+
+    /**
+     * 获取任务进度
+     *
+     * @return 进度信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("batchSize", batchSize);
+        status.put("maxRowsPerSecond", maxRowsPerSecond);
+        if (lastError != null) {
+            status.put("error", lastError);
+        }
+        synchronized (progress) {
+            progress.forEach((scope, p) -> status.put(scope, p.toMap()));
+        }
+        return status;
+    }
+
+    private void run() {
+        try {
+            backfill(SCOPE_IP_POOLS,
+                    afterId -> ipPoolMapper.selectLocationBackfillBatch(afterId, BACKFILL_LOCATIONS, batchSize),
+                    afterId -> ipPoolMapper.countLocationBackfill(afterId, BACKFILL_LOCATIONS),
+                    IpPool::getId, IpPool::getIpAddress,
+                    (ip, location) -> {
+                        IpPool update = new IpPool();
+                        update.setId(ip.getId());
+                        update.setIpAddress(ip.getIpAddress());
+                        update.setCountry(location.getCountry());
+                        update.setRegion(location.getRegion());
+                        update.setCity(location.getCity());
+                        return update;
+                    },
+                    updates -> ipPoolMapper.batchUpdateLocation(updates, BACKFILL_LOCATIONS));
+
+            if (!stopRequested) {
+                backfill(SCOPE_NODES,
+                        afterId -> nodeMapper.selectLocationBackfillBatch(afterId, BACKFILL_LOCATIONS, batchSize),
+                        afterId -> nodeMapper.countLocationBackfill(afterId, BACKFILL_LOCATIONS),
+                        Node::getId, Node::getServerIp,
+                        (node, location) -> {
+                            Node update = new Node();
+                            update.setId(node.getId());
+                            update.setServerIp(node.getServerIp());
+                            update.setCountry(location.getCountry());
+                            update.setRegion(location.getRegion());
+                            return update;
+                        },
+                        updates -> {
+                            int updated = nodeMapper.batchUpdateLocation(updates, BACKFILL_LOCATIONS);
+                            if (updated > 0) {
+                                Cache cache = cacheManager.getCache(CacheConfig.NODE_STATISTICS_CACHE);
+                                if (cache != null) {
+                                    cache.clear();
+                                }
+                            }
+                            return updated;
+                        });
+            }
+
+            if (stopRequested) {
+                state = "已停止";
+                log.info("地理位置回填任务已停止，断点已保存");
+            } else {
+                checkpointMapper.deleteByJob(JOB_NAME);
+                state = "已完成";
+                log.info("地理位置回填任务完成: {}", getStatus());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = "已停止";
+        } catch (Exception e) {
+            state = "失败";
+            lastError = e.getMessage();
+            log.error("地理位置回填任务异常，断点已保存", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * 回填单张表
+     */
+    private <T> void backfill(String scope, LongFunction<List<T>> fetch, LongFunction<Long> count,
+                              Function<T, Long> idOf, Function<T, String> ipOf,
+                              BiFunction<T, IpLocationUtil.LocationInfo, T> toUpdate,
+                              ToIntFunction<List<T>> update) throws InterruptedException {
+        ScopeProgress p = progress.get(scope);
+        Long checkpoint = checkpointMapper.selectLastId(JOB_NAME, scope);
+        long lastId = checkpoint == null ? 0 : checkpoint;
+        p.lastId.set(lastId);
+        p.total.set(count.apply(lastId));
+        log.info("开始回填地理位置: scope={}, fromId={}, total={}", scope, lastId, p.total.get());
+
+        while (!stopRequested) {
+            long batchStart = System.nanoTime();
+            List<T> rows = fetch.apply(lastId);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<String> ips = new ArrayList<>(rows.size());
+            for (T row : rows) {
+                ips.add(ipOf.apply(row));
+            }
+            Map<String, IpLocationUtil.LocationInfo> locations = ipLocationUtil.getLocations(ips);
+
+            List<T> updates = new ArrayList<>(rows.size());
+            for (T row : rows) {
+                String ip = ipOf.apply(row);
+                IpLocationUtil.LocationInfo location = ip == null ? null : locations.get(ip.trim());
+                if (location == null || LOOKUP_FAILED.equals(location.getCountry())) {
+                    p.failed.incrementAndGet();
+                } else if (UNKNOWN.equals(location.getCountry()) && UNKNOWN.equals(countryOf(row))) {
+                    p.unchanged.incrementAndGet();
+                } else {
+                    updates.add(toUpdate.apply(row, location));
+                }
+            }
+            if (!updates.isEmpty()) {
+                p.updated.addAndGet(update.applyAsInt(updates));
+            }
+
+            lastId = idOf.apply(rows.get(rows.size() - 1));
+            p.scanned.addAndGet(rows.size());
+            p.lastId.set(lastId);
+            checkpointMapper.upsert(JOB_NAME, scope, lastId);
+
+            throttle(rows.size(), batchStart);
+        }
+        log.info("地理位置回填结束: scope={}, {}", scope, p.toMap());
+    }
+
+    private static String countryOf(Object row) {
+        if (row instanceof IpPool ip) {
+            return ip.getCountry();
+        }
+        if (row instanceof Node node) {
+            return node.getCountry();
+        }
+        return null;
+    }
+
+    /**
+     * 按每秒行数上限补足批次耗时
+     */
+    private void throttle(int rows, long batchStartNanos) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long minNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long sleepMs = (minNanos - (System.nanoTime() - batchStartNanos)) / 1_000_000;
+        if (sleepMs > 0) {
+            Thread.sleep(sleepMs);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单表回填进度
+     */
+    private static class ScopeProgress {
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private final AtomicLong unchanged = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong lastId = new AtomicLong();
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("total", total.get());
+            map.put("scanned", scanned.get());
+            map.put("updated", updated.get());
+            map.put("unchanged", unchanged.get());
+            map.put("failed", failed.get());
+            map.put("lastId", lastId.get());
+            map.put("percent", total.get() == 0 ? 100.0 : Math.min(100.0, scanned.get() * 100.0 / total.get()));
+            return map;
+        }
+    }
+}
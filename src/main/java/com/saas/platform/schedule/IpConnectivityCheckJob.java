@@ -0,0 +1,594 @@
+package com.saas.platform.schedule;
+
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.service.impl.IpQualityScorer;
+import com.saas.platform.util.IpAddressUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * IP连通性检测任务
+ * 在单个线程上用NIO非阻塞连接同时探测大量IP的代理端口（port_range中的首个端口），
+ * 按全局并发数和单节点并发数限流；结果先缓冲，再以单条批量UPDATE写回，
+ * 任务异步执行，通过状态接口查询进度和汇总
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpConnectivityCheckJob {
+
+    private static final Logger log = LoggerFactory.getLogger(IpConnectivityCheckJob.class);
+
+    private static final String RESULT_SUCCESS = "成功";
+    private static final String RESULT_FAILED = "失败";
+
+    private static final long SELECT_TIMEOUT_MS = 50;
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final IpPoolMapper ipPoolMapper;
+    private final IpQualityScorer ipQualityScorer;
+
+    /**
+     * 全局最大并发连接数
+     */
+    @Value("${ip.test.max-concurrency:512}")
+    private int maxConcurrency;
+
+    /**
+     * 单个节点的最大并发连接数
+     */
+    @Value("${ip.test.per-node-concurrency:64}")
+    private int perNodeConcurrency;
+
+    /**
+     * 连接超时(ms)
+     */
+    @Value("${ip.test.connect-timeout:3000}")
+    private int connectTimeoutMs;
+
+    /**
+     * 未配置端口范围时使用的端口
+     */
+    @Value("${ip.test.default-port:80}")
+    private int defaultPort;
+
+    /**
+     * 每次从数据库读取的IP数
+     */
+    @Value("${ip.test.page-size:1000}")
+    private int pageSize;
+
+    /**
+     * 缓冲多少条结果后批量写回
+     */
+    @Value("${ip.test.flush-size:500}")
+    private int flushSize;
+
+    /**
+     * 定时检测时，超过该小时数未测试的IP才会被检测
+     */
+    @Value("${ip.test.stale-hours:24}")
+    private int staleHours;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ip-connectivity-check");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile String state = "空闲";
+    private volatile String mode;
+    private volatile boolean stopRequested;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong tested = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong latencySumMs = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public IpConnectivityCheckJob(IpPoolMapper ipPoolMapper, IpQualityScorer ipQualityScorer) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.ipQualityScorer = ipQualityScorer;
+    }
+
+    /**
+     * 定时检测长时间未测试的IP
+     */
+    @Scheduled(cron = "${ip.test.cron:0 0 4 * * ?}")
+    public void scheduledCheck() {
+        if (!startStaleCheck()) {
+            log.info("IP连通性检测任务正在运行，跳过本次定时检测");
+        }
+    }
+
+    /**
+     * 启动检测：检测超过 ip.test.stale-hours 小时未测试的IP
+     *
+     * @return 是否已启动（任务运行中时返回false）
+     */
+    public boolean startStaleCheck() {
+        return startStaleCheck(staleHours);
+    }
+
+    /**
+     * 启动检测：检测超过指定小时数未测试的IP
+     *
+     * @param hours 小时数，为空或不大于0时检测全部IP
+     * @return 是否已启动（任务运行中时返回false）
+     */
+    public synchronized boolean startStaleCheck(Integer hours) {
+        Integer stale = hours == null || hours <= 0 ? null : hours;
+        if (isRunning()) {
+            return false;
+        }
+        long count = ipPoolMapper.countTestTargets(stale);
+        return start(stale == null ? "全部IP" : stale + "小时未测试",
+                afterId -> ipPoolMapper.selectTestTargets(afterId, stale, pageSize), count);
+    }
+
+    /**
+     * 启动检测：检测指定的IP
+     *
+     * @param ipIds IP ID列表
+     * @return 是否已启动（任务运行中时返回false）
+     */
+    public synchronized boolean startBatch(List<Long> ipIds) {
+        if (isRunning()) {
+            return false;
+        }
+        long[] ids = ipIds.stream().filter(id -> id != null).mapToLong(Long::longValue).sorted().distinct().toArray();
+        return start("指定IP", afterId -> selectByIdsAfter(ids, afterId), ids.length);
+    }
+
+    /**
+     * 请求停止任务，进行中的连接直接关闭，已完成的结果写回后退出
+     *
+     * @return 是否有运行中的任务
+     */
+    public boolean stop() {
+        if (!"运行中".equals(state)) {
+            return false;
+        }
+        stopRequested = true;
+        state = "停止中";
+        return true;
+    }
+
+    /**
+     * 获取任务进度与汇总
+     *
+     * @return 进度信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        long testedCount = tested.get();
+        long successCount = succeeded.get();
+        status.put("state", state);
+        status.put("mode", mode);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("total", total.get());
+        status.put("tested", testedCount);
+        status.put("successCount", successCount);
+        status.put("failCount", failed.get());
+        status.put("timeoutCount", timedOut.get());
+        status.put("inFlight", inFlight.get());
+        status.put("written", written.get());
+        status.put("successRate", testedCount > 0 ? (double) successCount / testedCount * 100 : 0);
+        status.put("avgLatency", successCount > 0 ? latencySumMs.get() / successCount : 0);
+        status.put("percent", total.get() == 0 ? 100.0 : Math.min(100.0, testedCount * 100.0 / total.get()));
+        status.put("maxConcurrency", maxConcurrency);
+        status.put("perNodeConcurrency", perNodeConcurrency);
+        if (lastError != null) {
+            status.put("error", lastError);
+        }
+        return status;
+    }
+
+    /**
+     * 同步检测单个IP（阻塞直到连接成功或超时）
+     *
+     * @param ipAddress IP地址
+     * @param portRange 端口范围
+     * @return 测试结果
+     */
+    public Map<String, Object> testNow(String ipAddress, String portRange) {
+        int port = portOf(portRange);
+        Map<String, Object> result = new HashMap<>();
+        result.put("ipAddress", ipAddress);
+        result.put("port", port);
+        result.put("testTime", LocalDateTime.now());
+
+        long startTime = System.currentTimeMillis();
+        String message;
+        boolean reachable = false;
+        if (!isIpLiteral(ipAddress)) {
+            message = "IP地址格式错误";
+        } else {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(InetAddress.getByName(ipAddress), port), connectTimeoutMs);
+                reachable = true;
+                message = "连接正常";
+            } catch (SocketTimeoutException e) {
+                message = "连接超时";
+            } catch (IOException e) {
+                message = "连接失败: " + e.getMessage();
+            }
+        }
+        long latency = System.currentTimeMillis() - startTime;
+
+        result.put("reachable", reachable);
+        result.put("latency", reachable ? latency : -1);
+        result.put("testResult", reachable ? RESULT_SUCCESS : RESULT_FAILED);
+        result.put("testMessage", message);
+        return result;
+    }
+
+    private boolean isRunning() {
+        return "运行中".equals(state) || "停止中".equals(state);
+    }
+
+    private boolean start(String runMode, LongFunction<List<IpPool>> fetch, long targetCount) {
+        stopRequested = false;
+        state = "运行中";
+        mode = runMode;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        total.set(targetCount);
+        tested.set(0);
+        succeeded.set(0);
+        failed.set(0);
+        timedOut.set(0);
+        written.set(0);
+        latencySumMs.set(0);
+        inFlight.set(0);
+        executor.execute(() -> run(fetch));
+        return true;
+    }
+
+    private void run(LongFunction<List<IpPool>> fetch) {
+        log.info("开始IP连通性检测: mode={}, total={}", mode, total.get());
+        try (Selector selector = Selector.open()) {
+            new Probing(selector, fetch).execute();
+            state = stopRequested ? "已停止" : "已完成";
+            log.info("IP连通性检测结束: {}", getStatus());
+        } catch (Exception e) {
+            state = "失败";
+            lastError = e.getMessage();
+            log.error("IP连通性检测任务异常", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * 从已排序的ID中取afterId之后的一批并查询，跳过已删除的ID
+     */
+    private List<IpPool> selectByIdsAfter(long[] ids, long afterId) {
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        while (from < ids.length) {
+            int to = Math.min(from + pageSize, ids.length);
+            List<Long> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(ids[i]);
+            }
+            List<IpPool> rows = ipPoolMapper.selectTestTargetsByIds(chunk);
+            if (!rows.isEmpty()) {
+                return rows;
+            }
+            from = to;
+        }
+        return List.of();
+    }
+
+    /**
+     * 取端口范围中的首个端口，如 8000-8999 取8000
+     */
+    private int portOf(String portRange) {
+        if (portRange == null) {
+            return defaultPort;
+        }
+        int port = 0;
+        boolean digits = false;
+        for (int i = 0; i < portRange.length(); i++) {
+            char c = portRange.charAt(i);
+            if (c >= '0' && c <= '9') {
+                port = port * 10 + (c - '0');
+                digits = true;
+                if (port > 65535) {
+                    return defaultPort;
+                }
+            } else if (digits) {
+                break;
+            }
+        }
+        return digits && port > 0 ? port : defaultPort;
+    }
+
+    /**
+     * 仅接受IP字面量，避免 InetAddress.getByName 触发DNS查询
+     */
+    private static boolean isIpLiteral(String ip) {
+        if (ip == null) {
+            return false;
+        }
+        return IpAddressUtil.parseIpv4(ip) != IpAddressUtil.INVALID_IPV4
+                || (IpAddressUtil.looksLikeIpv6(ip) && IpAddressUtil.parseIpv6(ip, new long[2]));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单次检测的事件循环，所有状态仅在任务线程内访问
+     */
+    private class Probing {
+        private final Selector selector;
+        private final LongFunction<List<IpPool>> fetch;
+
+        private final ArrayDeque<IpPool> ready = new ArrayDeque<>();
+        /**
+         * 因节点并发已满而等待的IP，按节点分组
+         */
+        private final Map<Long, ArrayDeque<IpPool>> waiting = new HashMap<>();
+        private final Map<Long, Integer> nodeInFlight = new HashMap<>();
+        /**
+         * 按发起顺序排列的连接，超时时间单调递增，只需检查队首
+         */
+        private final ArrayDeque<Probe> pending = new ArrayDeque<>();
+        private List<IpPool> results;
+
+        private int waitingCount;
+        private long lastId;
+        private boolean exhausted;
+        private long lastFlushNanos = System.nanoTime();
+
+        private Probing(Selector selector, LongFunction<List<IpPool>> fetch) {
+            this.selector = selector;
+            this.fetch = fetch;
+            this.results = new ArrayList<>(flushSize);
+        }
+
+        private void execute() throws IOException {
+            try {
+                while (!stopRequested) {
+                    load();
+                    startProbes();
+                    if (pending.isEmpty() && ready.isEmpty() && waitingCount == 0 && exhausted) {
+                        break;
+                    }
+                    selector.select(SELECT_TIMEOUT_MS);
+                    handleSelected();
+                    expire();
+                    if (results.size() >= flushSize
+                            || (!results.isEmpty() && System.nanoTime() - lastFlushNanos > FLUSH_INTERVAL_NANOS)) {
+                        flush();
+                    }
+                }
+            } finally {
+                // 停止时未完成的连接不记录结果，下次检测时重新测试
+                for (Probe probe : pending) {
+                    if (!probe.done) {
+                        probe.done = true;
+                        close(probe);
+                        inFlight.decrementAndGet();
+                    }
+                }
+                flush();
+            }
+        }
+
+        private void load() {
+            if (exhausted || ready.size() + waitingCount >= pageSize) {
+                return;
+            }
+            List<IpPool> rows = fetch.apply(lastId);
+            if (rows.isEmpty()) {
+                exhausted = true;
+                return;
+            }
+            lastId = rows.get(rows.size() - 1).getId();
+            ready.addAll(rows);
+        }
+
+        private void startProbes() {
+            // 先启动因节点并发限制而等待的IP
+            Iterator<Map.Entry<Long, ArrayDeque<IpPool>>> it = waiting.entrySet().iterator();
+            while (it.hasNext() && inFlight.get() < maxConcurrency) {
+                Map.Entry<Long, ArrayDeque<IpPool>> entry = it.next();
+                ArrayDeque<IpPool> queue = entry.getValue();
+                while (!queue.isEmpty() && inFlight.get() < maxConcurrency && !nodeBusy(entry.getKey())) {
+                    waitingCount--;
+                    open(queue.poll());
+                }
+                if (queue.isEmpty()) {
+                    it.remove();
+                }
+            }
+
+            while (inFlight.get() < maxConcurrency) {
+                IpPool ip = ready.poll();
+                if (ip == null) {
+                    break;
+                }
+                if (nodeBusy(ip.getNodeId())) {
+                    waiting.computeIfAbsent(ip.getNodeId(), k -> new ArrayDeque<>()).add(ip);
+                    waitingCount++;
+                } else {
+                    open(ip);
+                }
+            }
+        }
+
+        private boolean nodeBusy(Long nodeId) {
+            return nodeId != null && nodeInFlight.getOrDefault(nodeId, 0) >= perNodeConcurrency;
+        }
+
+        private void open(IpPool ip) {
+            inFlight.incrementAndGet();
+            if (ip.getNodeId() != null) {
+                nodeInFlight.merge(ip.getNodeId(), 1, Integer::sum);
+            }
+            Probe probe = new Probe(ip, System.nanoTime(), connectTimeoutMs);
+            pending.add(probe);
+
+            if (!isIpLiteral(ip.getIpAddress())) {
+                complete(probe, false, "IP地址格式错误");
+                return;
+            }
+            try {
+                probe.channel = SocketChannel.open();
+                probe.channel.configureBlocking(false);
+                InetSocketAddress target = new InetSocketAddress(
+                        InetAddress.getByName(ip.getIpAddress()), portOf(ip.getPortRange()));
+                if (probe.channel.connect(target)) {
+                    complete(probe, true, "连接正常");
+                } else {
+                    probe.channel.register(selector, SelectionKey.OP_CONNECT, probe);
+                }
+            } catch (IOException e) {
+                complete(probe, false, "连接失败: " + e.getMessage());
+            }
+        }
+
+        private void handleSelected() {
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Probe probe = (Probe) key.attachment();
+                try {
+                    if (probe.channel.finishConnect()) {
+                        complete(probe, true, "连接正常");
+                    }
+                } catch (IOException e) {
+                    complete(probe, false, "连接失败: " + e.getMessage());
+                }
+            }
+        }
+
+        private void expire() {
+            long now = System.nanoTime();
+            while (!pending.isEmpty() && (pending.peek().done || pending.peek().deadline - now <= 0)) {
+                Probe probe = pending.poll();
+                if (!probe.done) {
+                    timedOut.incrementAndGet();
+                    complete(probe, false, "连接超时");
+                }
+            }
+        }
+
+        private void complete(Probe probe, boolean success, String message) {
+            if (probe.done) {
+                return;
+            }
+            probe.done = true;
+            close(probe);
+            inFlight.decrementAndGet();
+            Long nodeId = probe.ip.getNodeId();
+            if (nodeId != null) {
+                nodeInFlight.computeIfPresent(nodeId, (k, v) -> v > 1 ? v - 1 : null);
+            }
+
+            int latency = (int) ((System.nanoTime() - probe.startNanos) / 1_000_000);
+            IpPool result = new IpPool();
+            result.setId(probe.ip.getId());
+            result.setTestResult(success ? RESULT_SUCCESS : RESULT_FAILED);
+            result.setTestLatency(success ? latency : -1);
+            result.setTestMessage(message);
+            results.add(result);
+            ipQualityScorer.record(probe.ip.getId(), success, latency);
+
+            tested.incrementAndGet();
+            if (success) {
+                succeeded.incrementAndGet();
+                latencySumMs.addAndGet(latency);
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+
+        private void close(Probe probe) {
+            if (probe.channel != null) {
+                try {
+                    probe.channel.close();
+                } catch (IOException ignored) {
+                    // 关闭失败不影响结果
+                }
+            }
+        }
+
+        private void flush() {
+            lastFlushNanos = System.nanoTime();
+            if (results.isEmpty()) {
+                return;
+            }
+            List<IpPool> buffered = results;
+            results = new ArrayList<>(flushSize);
+            for (int from = 0; from < buffered.size(); from += flushSize) {
+                List<IpPool> batch = buffered.subList(from, Math.min(from + flushSize, buffered.size()));
+                try {
+                    written.addAndGet(ipPoolMapper.batchUpdateTestResults(batch));
+                } catch (Exception e) {
+                    log.error("写入IP测试结果失败: count={}, 错误: {}", batch.size(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个连接
+     */
+    private static class Probe {
+        private final IpPool ip;
+        private final long startNanos;
+        private final long deadline;
+        private SocketChannel channel;
+        private boolean done;
+
+        private Probe(IpPool ip, long startNanos, int timeoutMs) {
+            this.ip = ip;
+            this.startNanos = startNanos;
+            this.deadline = startNanos + timeoutMs * 1_000_000L;
+        }
+    }
+}
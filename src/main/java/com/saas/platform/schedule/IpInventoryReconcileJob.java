@@ -0,0 +1,107 @@
+package com.saas.platform.schedule;
+
+import com.saas.platform.entity.IpInventory;
+import com.saas.platform.service.IpInventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IP库存对账任务
+ * 定时按库存维度统计IP池实际数量，与触发器维护的库存表比较并补正偏差
+ * （如迁移初始化期间的并发写入、手工修改数据时禁用了触发器等）
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpInventoryReconcileJob {
+
+    private static final Logger log = LoggerFactory.getLogger(IpInventoryReconcileJob.class);
+
+    /**
+     * 状态中最多返回的偏差明细数
+     */
+    private static final int MAX_REPORTED_DRIFT = 50;
+
+    private final IpInventoryService ipInventoryService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile long lastElapsedMs;
+    private volatile List<IpInventory> lastDrift = List.of();
+    private volatile String lastError;
+
+    public IpInventoryReconcileJob(IpInventoryService ipInventoryService) {
+        this.ipInventoryService = ipInventoryService;
+    }
+
+    /**
+     * 定时对账
+     */
+    @Scheduled(cron = "${ip.inventory.reconcile-cron:0 30 3 * * ?}")
+    public void scheduledReconcile() {
+        if (!reconcile()) {
+            log.warn("上一次IP库存对账尚未结束，跳过本次定时对账");
+        }
+    }
+
+    /**
+     * 执行一次对账（同步）
+     *
+     * @return 是否已执行（对账进行中时返回false）
+     */
+    public boolean reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        lastStartedAt = LocalDateTime.now();
+        try {
+            List<IpInventory> drift = ipInventoryService.computeDrift();
+            if (!drift.isEmpty()) {
+                ipInventoryService.applyCorrections(drift);
+                log.warn("IP库存存在偏差，已补正{}个维度: {}", drift.size(),
+                        drift.subList(0, Math.min(drift.size(), MAX_REPORTED_DRIFT)));
+            }
+            lastDrift = drift;
+            lastError = null;
+            log.info("IP库存对账完成: 偏差维度数={}, 耗时={}ms", drift.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("IP库存对账失败", e);
+        } finally {
+            lastElapsedMs = System.currentTimeMillis() - start;
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * 获取最近一次对账结果
+     *
+     * @return 对账状态
+     */
+    public Map<String, Object> getStatus() {
+        List<IpInventory> drift = lastDrift;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", running.get() ? "运行中" : "空闲");
+        status.put("lastStartedAt", lastStartedAt);
+        status.put("lastFinishedAt", lastFinishedAt);
+        status.put("lastElapsedMs", lastElapsedMs);
+        status.put("driftCount", drift.size());
+        status.put("drift", drift.subList(0, Math.min(drift.size(), MAX_REPORTED_DRIFT)));
+        if (lastError != null) {
+            status.put("error", lastError);
+        }
+        return status;
+    }
+}
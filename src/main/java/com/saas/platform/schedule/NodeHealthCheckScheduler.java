@@ -0,0 +1,297 @@
+package com.saas.platform.schedule;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.saas.platform.entity.Node;
+import com.saas.platform.service.NodeService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 节点健康检查自适应调度器
+ * 按下次到期时间维护优先队列，带抖动地均匀分散探测；
+ * 异常或近期状态抖动的节点缩短检查间隔，并限制全局探测速率与并发数
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+@ConditionalOnProperty(name = "node.health-check.enabled", havingValue = "true", matchIfMissing = true)
+public class NodeHealthCheckScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeHealthCheckScheduler.class);
+
+    private final NodeService nodeService;
+
+    /**
+     * 健康节点检查间隔(ms)
+     */
+    @Value("${node.health-check.healthy-interval:300000}")
+    private long healthyIntervalMs;
+
+    /**
+     * 异常节点检查间隔(ms)
+     */
+    @Value("${node.health-check.unhealthy-interval:30000}")
+    private long unhealthyIntervalMs;
+
+    /**
+     * 状态抖动节点检查间隔(ms)
+     */
+    @Value("${node.health-check.flapping-interval:60000}")
+    private long flappingIntervalMs;
+
+    /**
+     * 抖动比例（0.1表示±10%）
+     */
+    @Value("${node.health-check.jitter-ratio:0.1}")
+    private double jitterRatio;
+
+    /**
+     * 每秒最大探测数
+     */
+    @Value("${node.health-check.max-probes-per-second:20}")
+    private int maxProbesPerSecond;
+
+    /**
+     * 最大并发探测数
+     */
+    @Value("${node.health-check.max-concurrent-probes:32}")
+    private int maxConcurrentProbes;
+
+    /**
+     * 按到期时间排序的待检查队列
+     */
+    private final PriorityBlockingQueue<CheckEntry> dueQueue = new PriorityBlockingQueue<>();
+
+    /**
+     * 当前纳入调度的节点
+     */
+    private final Map<Long, CheckEntry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong probeCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    private volatile ThreadPoolExecutor probeExecutor;
+
+    /**
+     * 令牌桶剩余令牌与上次补充时间，仅在调度线程内访问
+     */
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    public NodeHealthCheckScheduler(NodeService nodeService) {
+        this.nodeService = nodeService;
+    }
+
+    /**
+     * 同步需要调度的节点集合 - 每1分钟执行一次
+     * 新节点在一个健康间隔内随机分散首次检查时间，已删除或停用的节点移出调度
+     */
+    @Scheduled(initialDelay = 10000, fixedDelay = 60000)
+    public void refreshNodes() {
+        try {
+            List<Node> nodes = nodeService.list(new LambdaQueryWrapper<Node>()
+                    .select(Node::getId, Node::getNodeStatus)
+                    .ne(Node::getNodeStatus, "停用"));
+            Set<Long> activeIds = nodes.stream().map(Node::getId).collect(Collectors.toSet());
+
+            long now = System.currentTimeMillis();
+            int added = 0;
+            for (Long nodeId : activeIds) {
+                if (!entries.containsKey(nodeId)) {
+                    CheckEntry entry = new CheckEntry(nodeId,
+                            now + ThreadLocalRandom.current().nextLong(Math.max(1, healthyIntervalMs)));
+                    entries.put(nodeId, entry);
+                    dueQueue.offer(entry);
+                    added++;
+                }
+            }
+
+            int removed = 0;
+            for (CheckEntry entry : entries.values()) {
+                if (!activeIds.contains(entry.nodeId)) {
+                    entry.removed = true;
+                    entries.remove(entry.nodeId);
+                    removed++;
+                }
+            }
+
+            if (added > 0 || removed > 0) {
+                log.info("健康检查调度节点已更新: 新增={}, 移除={}, 当前={}", added, removed, entries.size());
+            }
+        } catch (Exception e) {
+            log.error("刷新健康检查节点列表异常", e);
+        }
+    }
+
+    /**
+     * 调度循环 - 每500毫秒执行一次
+     * 取出已到期的节点，在令牌桶和并发上限内提交探测
+     */
+    @Scheduled(initialDelay = 15000, fixedDelay = 500)
+    public void dispatchDueChecks() {
+        refillTokens();
+        ThreadPoolExecutor executor = executor();
+        long now = System.currentTimeMillis();
+
+        while (tokens >= 1) {
+            CheckEntry entry = dueQueue.peek();
+            if (entry == null || entry.dueTime > now) {
+                break;
+            }
+            dueQueue.poll();
+            if (entry.removed) {
+                continue;
+            }
+            if (executor.getActiveCount() >= maxConcurrentProbes) {
+                // 并发已满，稍后重试，不消耗令牌
+                entry.dueTime = now + 1000;
+                dueQueue.offer(entry);
+                deferredCount.incrementAndGet();
+                break;
+            }
+            try {
+                executor.execute(() -> probe(entry));
+                tokens -= 1;
+            } catch (RejectedExecutionException e) {
+                entry.dueTime = now + 1000;
+                dueQueue.offer(entry);
+                deferredCount.incrementAndGet();
+                break;
+            }
+        }
+    }
+
+    /**
+     * 执行单个节点探测并计算下次检查时间
+     */
+    private void probe(CheckEntry entry) {
+        try {
+            Map<String, Object> result = nodeService.checkNodeHealth(entry.nodeId);
+            entry.lastHealthy = Boolean.TRUE.equals(result.get("overallHealthy"));
+            entry.flapping = Boolean.TRUE.equals(result.get("flapping"));
+        } catch (Exception e) {
+            log.warn("节点健康检查异常: nodeId={}, error={}", entry.nodeId, e.getMessage());
+            entry.lastHealthy = false;
+        }
+        probeCount.incrementAndGet();
+
+        if (!entry.removed) {
+            entry.dueTime = System.currentTimeMillis() + withJitter(nextInterval(entry));
+            dueQueue.offer(entry);
+        }
+    }
+
+    /**
+     * 根据节点最近状态选择检查间隔：异常节点最短，抖动节点次之，健康节点最长
+     */
+    private long nextInterval(CheckEntry entry) {
+        if (!entry.lastHealthy) {
+            return unhealthyIntervalMs;
+        }
+        if (entry.flapping) {
+            return flappingIntervalMs;
+        }
+        return healthyIntervalMs;
+    }
+
+    private long withJitter(long interval) {
+        long jitter = (long) (interval * jitterRatio);
+        if (jitter <= 0) {
+            return interval;
+        }
+        return interval + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+    }
+
+    private void refillTokens() {
+        long nowNanos = System.nanoTime();
+        double elapsedSeconds = (nowNanos - lastRefillNanos) / 1_000_000_000.0;
+        lastRefillNanos = nowNanos;
+        // 桶容量为1秒的配额，避免长时间空闲后突发
+        tokens = Math.min(maxProbesPerSecond, tokens + elapsedSeconds * maxProbesPerSecond);
+    }
+
+    private ThreadPoolExecutor executor() {
+        if (probeExecutor == null) {
+            synchronized (this) {
+                if (probeExecutor == null) {
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    probeExecutor = new ThreadPoolExecutor(maxConcurrentProbes, maxConcurrentProbes,
+                            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxConcurrentProbes),
+                            r -> {
+                                Thread t = new Thread(r, "node-health-probe-" + threadIndex.incrementAndGet());
+                                t.setDaemon(true);
+                                return t;
+                            });
+                    probeExecutor.allowCoreThreadTimeOut(true);
+                }
+            }
+        }
+        return probeExecutor;
+    }
+
+    /**
+     * 获取调度器运行状态
+     *
+     * @return 状态信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("scheduledNodes", entries.size());
+        status.put("queuedChecks", dueQueue.size());
+        status.put("activeProbes", probeExecutor == null ? 0 : probeExecutor.getActiveCount());
+        status.put("totalProbes", probeCount.get());
+        status.put("deferredProbes", deferredCount.get());
+        status.put("maxProbesPerSecond", maxProbesPerSecond);
+        CheckEntry next = dueQueue.peek();
+        status.put("nextDueInMs", next == null ? null : Math.max(0, next.dueTime - System.currentTimeMillis()));
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 调度条目，同一时刻只存在于队列或执行中之一
+     */
+    private static class CheckEntry implements Comparable<CheckEntry> {
+        private final Long nodeId;
+        private volatile long dueTime;
+        private volatile boolean lastHealthy = true;
+        private volatile boolean flapping;
+        private volatile boolean removed;
+
+        private CheckEntry(Long nodeId, long dueTime) {
+            this.nodeId = nodeId;
+            this.dueTime = dueTime;
+        }
+
+        @Override
+        public int compareTo(CheckEntry other) {
+            return Long.compare(dueTime, other.dueTime);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.saas.platform.schedule;
+
+import com.saas.platform.entity.OrderDailyStat;
+import com.saas.platform.service.OrderDailyStatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 订单日统计修复任务
+ * 定时按日汇总最近若干天的订单，与触发器维护的日统计表比较并补正偏差
+ * （如迁移初始化期间的并发写入、手工修改数据时禁用了触发器等）；逐日对账，每日一个快照
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class OrderDailyStatRepairJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderDailyStatRepairJob.class);
+
+    /**
+     * 状态中最多返回的偏差明细数
+     */
+    private static final int MAX_REPORTED_DRIFT = 50;
+
+    private final OrderDailyStatService orderDailyStatService;
+
+    /**
+     * 定时修复的天数（含当天）
+     */
+    @Value("${order.stats.repair-days:7}")
+    private int repairDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile long lastElapsedMs;
+    private volatile LocalDate lastFromDate;
+    private volatile LocalDate lastToDate;
+    private volatile List<OrderDailyStat> lastDrift = List.of();
+    private volatile String lastError;
+
+    public OrderDailyStatRepairJob(OrderDailyStatService orderDailyStatService) {
+        this.orderDailyStatService = orderDailyStatService;
+    }
+
+    /**
+     * 定时修复
+     */
+    @Scheduled(cron = "${order.stats.repair-cron:0 45 3 * * ?}")
+    public void scheduledRepair() {
+        LocalDate today = LocalDate.now();
+        if (!repair(today.minusDays(repairDays - 1L), today)) {
+            log.warn("上一次订单日统计修复尚未结束，跳过本次定时修复");
+        }
+    }
+
+    /**
+     * 修复日期范围内的日统计（同步）
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（含）
+     * @return 是否已执行（修复进行中时返回false）
+     */
+    public boolean repair(LocalDate fromDate, LocalDate toDate) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        lastStartedAt = LocalDateTime.now();
+        lastFromDate = fromDate;
+        lastToDate = toDate;
+        List<OrderDailyStat> drift = new ArrayList<>();
+        try {
+            for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+                List<OrderDailyStat> dayDrift = orderDailyStatService.computeDrift(date, date.plusDays(1));
+                if (!dayDrift.isEmpty()) {
+                    orderDailyStatService.applyCorrections(dayDrift);
+                    drift.addAll(dayDrift);
+                }
+            }
+            if (!drift.isEmpty()) {
+                log.warn("订单日统计存在偏差，已补正{}个维度: {}", drift.size(),
+                        drift.subList(0, Math.min(drift.size(), MAX_REPORTED_DRIFT)));
+            }
+            lastError = null;
+            log.info("订单日统计修复完成: {} ~ {}, 偏差维度数={}, 耗时={}ms", fromDate, toDate, drift.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("订单日统计修复失败", e);
+        } finally {
+            lastDrift = drift;
+            lastElapsedMs = System.currentTimeMillis() - start;
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * 获取最近一次修复结果
+     *
+     * @return 修复状态
+     */
+    public Map<String, Object> getStatus() {
+        List<OrderDailyStat> drift = lastDrift;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", running.get() ? "运行中" : "空闲");
+        status.put("lastStartedAt", lastStartedAt);
+        status.put("lastFinishedAt", lastFinishedAt);
+        status.put("lastElapsedMs", lastElapsedMs);
+        status.put("fromDate", lastFromDate);
+        status.put("toDate", lastToDate);
+        status.put("driftCount", drift.size());
+        status.put("drift", drift.subList(0, Math.min(drift.size(), MAX_REPORTED_DRIFT)));
+        if (lastError != null) {
+            status.put("error", lastError);
+        }
+        return status;
+    }
+}
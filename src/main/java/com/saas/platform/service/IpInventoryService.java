@@ -0,0 +1,37 @@
+package com.saas.platform.service;
+
+import com.saas.platform.entity.IpInventory;
+
+import java.util.List;
+
+/**
+ * IP库存统计服务接口
+ *
+ * @author SaaS Xbox Team
+ */
+public interface IpInventoryService {
+
+    /**
+     * 查询库存
+     *
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @return 库存行
+     */
+    List<IpInventory> listInventory(String country, String ipQuality);
+
+    /**
+     * 在同一一致性快照内比较库存表与IP池实际数量
+     *
+     * @return 需要补正的差值（实际数量 - 库存数量），无偏差返回空列表
+     */
+    List<IpInventory> computeDrift();
+
+    /**
+     * 按差值补正库存，并清理数量为0的行
+     *
+     * @param drift computeDrift 返回的差值
+     * @return 补正的维度数
+     */
+    int applyCorrections(List<IpInventory> drift);
+}
@@ -2,8 +2,11 @@ package com.saas.platform.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.saas.platform.dto.IpImportReport;
 import com.saas.platform.entity.IpPool;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +34,37 @@ public interface IpPoolService extends IService<IpPool> {
     IPage<IpPool> getIpPoolPage(Long current, Long size, String ipAddress, String country,
                                String city, String ipQuality, String ipStatus, Long nodeId);
 
+    /**
+     * 游标分页查询IP池列表
+     * 
+     * @param lastId 上一页最后一条的ID，首页传null
+     * @param size 每页大小
+     * @param ipAddress IP地址前缀
+     * @param country 国家
+     * @param city 城市
+     * @param ipQuality IP质量
+     * @param ipStatus IP状态
+     * @param nodeId 节点ID
+     * @return IP列表（按ID倒序）
+     */
+    List<IpPool> getIpPoolPageAfter(Long lastId, Integer size, String ipAddress, String country,
+                                   String city, String ipQuality, String ipStatus, Long nodeId);
+
+    /**
+     * 按地址范围搜索IP，按地址顺序游标分页
+     * 
+     * @param query 完整IP地址、IPv4前缀（如 203.0.113）或CIDR（如 203.0.113.0/24）
+     * @param after 上一页返回的next，首页传null
+     * @param size 每页大小
+     * @param country 国家
+     * @param ipQuality IP质量
+     * @param ipStatus IP状态
+     * @param withTotal 是否统计范围内总数
+     * @return 搜索结果（range、list、next，以及可选的total）
+     */
+    Map<String, Object> searchIps(String query, String after, Integer size, String country,
+                                  String ipQuality, String ipStatus, boolean withTotal);
+
     /**
      * 根据IP地址查询
      * 
@@ -98,12 +132,22 @@ public interface IpPoolService extends IService<IpPool> {
     boolean batchDeleteIpPools(List<Long> ids);
 
     /**
-     * 批量导入IP
+     * 批量导入IP，校验规则与文件导入相同，按块写入，每块单独提交，某块失败不影响已提交的块
      * 
      * @param ipPools IP列表
-     * @return 成功导入的数量
+     * @return 导入报告，无效或重复的数据按列表下标加1记录行号
      */
-    int batchImportIps(List<IpPool> ipPools);
+    IpImportReport batchImportIps(List<IpPool> ipPools);
+
+    /**
+     * 流式导入IP（CSV或NDJSON），按块写入并逐块提交
+     * 
+     * @param input 输入流（UTF-8）
+     * @param format 格式：csv或ndjson，为空时自动判断
+     * @return 导入报告
+     * @throws IOException 读取失败
+     */
+    IpImportReport importIps(InputStream input, String format) throws IOException;
 
     /**
      * 批量分配IP给订单
@@ -132,7 +176,7 @@ public interface IpPoolService extends IService<IpPool> {
     boolean batchUpdateStatus(List<Long> ids, String status);
 
     /**
-     * 测试IP连通性
+     * 测试IP连通性（同步TCP连接IP的代理端口）
      * 
      * @param ipAddress IP地址
      * @return 测试结果
@@ -140,10 +184,10 @@ public interface IpPoolService extends IService<IpPool> {
     Map<String, Object> testIpConnectivity(String ipAddress);
 
     /**
-     * 批量测试IP
+     * 批量测试IP（异步执行，通过检测任务状态查询进度与汇总）
      * 
      * @param ipIds IP ID列表
-     * @return 测试结果统计
+     * @return 检测任务状态
      */
     Map<String, Object> batchTestIps(List<Long> ipIds);
 
@@ -168,6 +212,15 @@ public interface IpPoolService extends IService<IpPool> {
      */
     IpPool replaceIp(Long oldIpId, Long orderId, String reason);
 
+    /**
+     * 节点故障转移：将节点上所有被订单占用的IP更换为相同国家、质量的其他IP，分块提交
+     * 
+     * @param nodeId 节点ID
+     * @param reason 更换原因，为空时使用“节点故障”
+     * @return 转移报告
+     */
+    Map<String, Object> failoverNode(Long nodeId, String reason);
+
     /**
      * 查询测试失败的IP
      * 
@@ -184,14 +237,14 @@ public interface IpPoolService extends IService<IpPool> {
     List<IpPool> getUntestedIps(Integer hours);
 
     /**
-     * 定时检查IP状态
+     * 检查超过 ip.test.stale-hours 小时未测试的IP状态（异步执行，通过检测任务状态查询进度与汇总）
      * 
-     * @return 检查结果
+     * @return 检测任务状态
      */
     Map<String, Object> scheduleIpCheck();
 
     /**
-     * 获取IP池统计信息
+     * 获取IP池统计信息（读取库存统计表）
      * 
      * @return 统计结果
      */
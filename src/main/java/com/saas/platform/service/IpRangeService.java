@@ -0,0 +1,68 @@
+package com.saas.platform.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.saas.platform.entity.IpRange;
+
+import java.util.Map;
+
+/**
+ * IP地址段服务接口
+ * 
+ * @author SaaS Xbox Team
+ */
+public interface IpRangeService extends IService<IpRange> {
+
+    /**
+     * 登记CIDR地址段，不生成IP池记录
+     * 
+     * @param ipRange 地址段信息（cidr必填）
+     * @return 登记后的地址段
+     */
+    IpRange createRange(IpRange ipRange);
+
+    /**
+     * 将指定地址段的下一批地址展开为IP池记录（用于测试等场景）
+     * 
+     * @param rangeId 地址段ID
+     * @param count 展开数量
+     * @return 新增的IP池记录数
+     */
+    int expandRange(Long rangeId, int count);
+
+    /**
+     * 为分配补充可用IP：从符合条件的地址段中展开至少needed个地址
+     * 需在调用方事务内执行，分配失败回滚时展开一并回滚
+     * 
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param needed 需要数量
+     * @return 新增的IP池记录数
+     */
+    int expandForAllocation(String country, String ipQuality, int needed);
+
+    /**
+     * 查询可用IP数量：IP池中的可用记录加上地址段中尚未展开的地址
+     * 
+     * @param country 国家
+     * @param ipQuality IP质量
+     * @return 可用数量统计
+     */
+    Map<String, Object> getAvailability(String country, String ipQuality);
+
+    /**
+     * 查询包含指定IP的地址段
+     * 
+     * @param ipAddress IP地址
+     * @return 地址段，不存在返回null
+     */
+    IpRange getRangeContaining(String ipAddress);
+
+    /**
+     * 更新地址段状态，停用后不再展开新地址，已展开的IP不受影响
+     * 
+     * @param id 地址段ID
+     * @param status 状态：启用、停用
+     * @return 是否成功
+     */
+    boolean updateRangeStatus(Long id, String status);
+}
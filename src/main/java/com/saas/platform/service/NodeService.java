@@ -2,6 +2,7 @@ package com.saas.platform.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.saas.platform.dto.NodePatchDTO;
 import com.saas.platform.entity.Node;
 
 import java.math.BigDecimal;
@@ -85,6 +86,16 @@ public interface NodeService extends IService<Node> {
      */
     boolean updateNode(Node node);
 
+    /**
+     * 部分更新节点信息
+     * 只写入非空字段，若指定版本号则进行乐观锁校验
+     * 
+     * @param id 节点ID
+     * @param patch 变更字段
+     * @return 是否成功
+     */
+    boolean patchNode(Long id, NodePatchDTO patch);
+
     /**
      * 删除节点
      * 
@@ -0,0 +1,77 @@
+package com.saas.platform.service;
+
+import com.saas.platform.entity.OrderDailyStat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单日统计服务接口
+ * 时间范围 [startTime, endTime] 中的整日从日统计表读取，首尾不足一日的部分直接统计订单表
+ *
+ * @author SaaS Xbox Team
+ */
+public interface OrderDailyStatService {
+
+    /**
+     * 汇总订单金额
+     *
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return totalAmount、actualAmount、orderCount
+     */
+    Map<String, Object> sumOrderAmount(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 按日期统计订单数量和金额
+     *
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return date、orderCount、totalAmount，按日期排序
+     */
+    List<Map<String, Object>> countByDate(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 按产品统计订单数量
+     *
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return label、value
+     */
+    List<Map<String, Object>> countByProduct(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 按国家/地区统计订单数量
+     *
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return label、value
+     */
+    List<Map<String, Object>> countByCountry(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 按订单状态统计全部订单数量
+     *
+     * @return label、value
+     */
+    List<Map<String, Object>> countByStatus();
+
+    /**
+     * 在同一一致性快照内比较日统计表与订单表实际汇总
+     *
+     * @param fromDate 开始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return 需要补正的差值（实际 - 统计），无偏差返回空列表
+     */
+    List<OrderDailyStat> computeDrift(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * 按差值补正统计，并清理已清零的行
+     *
+     * @param drift computeDrift 返回的差值
+     * @return 补正的维度数
+     */
+    int applyCorrections(List<OrderDailyStat> drift);
+}
@@ -2,8 +2,11 @@ package com.saas.platform.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.saas.platform.dto.CursorPage;
 import com.saas.platform.entity.Order;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +43,59 @@ public interface OrderService extends IService<Order> {
                              String orderStatus, String paymentStatus, String country, String city, String ipQuality, 
                              String ipAddress, String productName, Long managerId, String startTime, String endTime);
 
+    /**
+     * 游标分页查询订单列表，按创建时间倒序
+     * 
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size 每页大小
+     * @param countMode 总数统计方式：none不统计，exact精确统计，estimate统计到上限为止
+     * @param orderNo 订单号
+     * @param customerAccount 客户账号
+     * @param customerName 客户名称
+     * @param orderStatus 订单状态
+     * @param paymentStatus 支付状态
+     * @param country 国家/地区
+     * @param city 城市
+     * @param ipQuality IP质量
+     * @param ipAddress IP地址
+     * @param productName 产品名称
+     * @param managerId 客户经理ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 游标分页结果
+     */
+    CursorPage<Order> getOrderCursorPage(String cursor, Long size, String countMode, String orderNo,
+                                         String customerAccount, String customerName, String orderStatus,
+                                         String paymentStatus, String country, String city, String ipQuality,
+                                         String ipAddress, String productName, Long managerId,
+                                         String startTime, String endTime);
+
+    /**
+     * 按条件流式导出订单，按创建时间倒序
+     * 
+     * @param output 输出流
+     * @param format 导出格式：csv或ndjson
+     * @param orderNo 订单号
+     * @param customerAccount 客户账号
+     * @param customerName 客户名称
+     * @param orderStatus 订单状态
+     * @param paymentStatus 支付状态
+     * @param country 国家/地区
+     * @param city 城市
+     * @param ipQuality IP质量
+     * @param ipAddress IP地址
+     * @param productName 产品名称
+     * @param managerId 客户经理ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 导出行数
+     * @throws IOException 写出失败
+     */
+    long exportOrders(OutputStream output, String format, String orderNo, String customerAccount,
+                      String customerName, String orderStatus, String paymentStatus, String country, String city,
+                      String ipQuality, String ipAddress, String productName, Long managerId,
+                      String startTime, String endTime) throws IOException;
+
     /**
      * 根据订单号查询订单
      * 
@@ -64,6 +120,14 @@ public interface OrderService extends IService<Order> {
      */
     List<Order> getByManagerId(Long managerId);
 
+    /**
+     * 查询使用某IP的订单
+     * 
+     * @param ipAddress IP地址
+     * @return 订单列表
+     */
+    List<Order> getByIpAddress(String ipAddress);
+
     /**
      * 查询客户的有效订单
      * 
@@ -0,0 +1,256 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.service.IpRangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * IP分配器
+ * 按（国家, IP质量）在内存中维护候选空闲IP队列，不同请求从队列中取走不同的候选IP，
+ * 再以 ip_status='可用' 为条件的UPDATE认领，条件不满足（已被其他实例或请求占用）的IP直接丢弃并重试；
+ * 候选队列按ID游标从数据库分批补充，数据库中的状态始终是最终依据，内存队列只用于减少冲突；
+ * 队列按IP质量评分排序，评分高（成功率高、延迟低）的候选先被取走，排序只读内存中的评分；
+ * IP池中没有可用IP时再从登记的CIDR地址段展开新地址
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(IpAllocator.class);
+
+    private final IpPoolMapper ipPoolMapper;
+    private final IpRangeService ipRangeService;
+    private final IpQualityScorer ipQualityScorer;
+
+    /**
+     * 每次从数据库补充的候选IP数
+     */
+    @Value("${ip.allocation.refill-size:200}")
+    private int refillSize;
+
+    /**
+     * 单次分配的最大认领轮数
+     */
+    @Value("${ip.allocation.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Map<String, FreeList> freeLists = new ConcurrentHashMap<>();
+
+    private final AtomicLong allocatedCount = new AtomicLong();
+    private final AtomicLong conflictCount = new AtomicLong();
+    private final AtomicLong refillCount = new AtomicLong();
+    private final AtomicLong expandCount = new AtomicLong();
+
+    public IpAllocator(IpPoolMapper ipPoolMapper, IpRangeService ipRangeService, IpQualityScorer ipQualityScorer) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.ipRangeService = ipRangeService;
+        this.ipQualityScorer = ipQualityScorer;
+    }
+
+    /**
+     * 为订单认领指定数量的可用IP
+     * 需在调用方事务内执行：认领数量不足时由调用方抛出异常回滚已认领的IP
+     *
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param count 需要数量
+     * @param orderId 订单ID
+     * @return 已认领的IP ID列表，数量可能少于count
+     */
+    public List<Long> allocate(String country, String ipQuality, int count, Long orderId) {
+        return allocate(country, ipQuality, count, orderId, null);
+    }
+
+    /**
+     * 为订单认领指定数量的可用IP，reservedUntil不为空时认领为预留状态
+     * 需在调用方事务内执行：认领数量不足时由调用方抛出异常回滚已认领的IP
+     *
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param count 需要数量
+     * @param orderId 订单ID
+     * @param reservedUntil 预留到期时间，为空时直接占用
+     * @return 已认领的IP ID列表，数量可能少于count
+     */
+    public List<Long> allocate(String country, String ipQuality, int count, Long orderId,
+                               LocalDateTime reservedUntil) {
+        FreeList freeList = freeLists.computeIfAbsent(key(country, ipQuality),
+                k -> new FreeList(country, ipQuality));
+        // 其他线程的补充在各自事务中读取，可能把本订单已认领但未提交的IP当作可用再次入队，
+        // 因此已认领的IP用集合去重，并从后续候选和认领结果中排除
+        Set<Long> claimed = new LinkedHashSet<>(count * 2);
+        boolean expanded = false;
+
+        for (int attempt = 0; attempt < maxAttempts && claimed.size() < count; attempt++) {
+            int needed = count - claimed.size();
+            Set<Long> taken = new LinkedHashSet<>(freeList.take(needed));
+            if (taken.size() < needed) {
+                refill(freeList);
+                taken.addAll(freeList.take(needed - taken.size()));
+            }
+            if (taken.size() < needed && !expanded) {
+                // IP池已无足够可用IP，从地址段展开后再补充一次
+                expanded = true;
+                if (ipRangeService.expandForAllocation(country, ipQuality, needed - taken.size()) > 0) {
+                    expandCount.incrementAndGet();
+                    refill(freeList);
+                    taken.addAll(freeList.take(needed - taken.size()));
+                }
+            }
+            if (taken.isEmpty()) {
+                break;
+            }
+            taken.removeAll(claimed);
+            if (taken.isEmpty()) {
+                continue;
+            }
+
+            List<Long> candidates = new ArrayList<>(taken);
+            int updated = ipPoolMapper.claimIps(candidates, orderId, reservedUntil);
+            if (updated == candidates.size()) {
+                claimed.addAll(candidates);
+            } else {
+                // 部分候选已被占用，查询实际认领到的IP
+                List<Long> won = updated == 0 ? List.of() : ipPoolMapper.selectClaimedIds(candidates, orderId);
+                int added = 0;
+                for (Long id : won) {
+                    if (claimed.add(id)) {
+                        added++;
+                    }
+                }
+                conflictCount.addAndGet(candidates.size() - added);
+            }
+        }
+
+        allocatedCount.addAndGet(claimed.size());
+        if (claimed.size() < count) {
+            log.warn("可用IP不足: country={}, ipQuality={}, 需要={}, 已认领={}",
+                    country, ipQuality, count, claimed.size());
+        }
+        return new ArrayList<>(claimed);
+    }
+
+    /**
+     * 获取分配器运行状态
+     *
+     * @return 状态信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        Map<String, Integer> queued = new HashMap<>();
+        freeLists.forEach((key, list) -> queued.put(key, list.ids.size()));
+        status.put("queuedCandidates", queued);
+        status.put("allocatedCount", allocatedCount.get());
+        status.put("conflictCount", conflictCount.get());
+        status.put("refillCount", refillCount.get());
+        status.put("rangeExpandCount", expandCount.get());
+        return status;
+    }
+
+    /**
+     * 从数据库补充候选IP，同一队列同时只有一个线程补充；其余线程等待补充完成后使用其结果，
+     * 若补充到的候选已被其他线程取空，则由等待的线程再补充一次
+     */
+    private void refill(FreeList freeList) {
+        if (!freeList.refillLock.tryLock()) {
+            freeList.refillLock.lock();
+            if (!freeList.ids.isEmpty()) {
+                freeList.refillLock.unlock();
+                return;
+            }
+        }
+        try {
+            List<Long> ids = ipPoolMapper.selectAvailableIdsAfter(freeList.country, freeList.ipQuality,
+                    freeList.cursor, refillSize);
+            if (ids.size() < refillSize && freeList.cursor > 0) {
+                // 游标到达末尾，从头补充（释放回池的IP在前面）
+                List<Long> wrapped = ipPoolMapper.selectAvailableIdsAfter(freeList.country, freeList.ipQuality,
+                        0L, refillSize - ids.size());
+                ids = new ArrayList<>(ids);
+                ids.addAll(wrapped);
+                freeList.cursor = wrapped.isEmpty() ? 0 : wrapped.get(wrapped.size() - 1);
+            } else {
+                freeList.cursor = ids.isEmpty() ? 0 : ids.get(ids.size() - 1);
+            }
+            freeList.offer(ids, ipQualityScorer);
+            refillCount.incrementAndGet();
+        } finally {
+            freeList.refillLock.unlock();
+        }
+    }
+
+    private static String key(String country, String ipQuality) {
+        return (country == null || country.isEmpty() ? "*" : country) + "|"
+                + (ipQuality == null || ipQuality.isEmpty() ? "*" : ipQuality);
+    }
+
+    /**
+     * 单个（国家, IP质量）的候选空闲IP队列，按入队时的质量评分从高到低出队
+     */
+    private static class FreeList {
+        private final String country;
+        private final String ipQuality;
+        private final PriorityBlockingQueue<Candidate> ids = new PriorityBlockingQueue<>();
+        private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private volatile long cursor;
+
+        private FreeList(String country, String ipQuality) {
+            this.country = country == null || country.isEmpty() ? null : country;
+            this.ipQuality = ipQuality == null || ipQuality.isEmpty() ? null : ipQuality;
+        }
+
+        private List<Long> take(int count) {
+            List<Long> taken = new ArrayList<>(count);
+            Candidate candidate;
+            while (taken.size() < count && (candidate = ids.poll()) != null) {
+                queued.remove(candidate.id);
+                taken.add(candidate.id);
+            }
+            return taken;
+        }
+
+        private void offer(List<Long> candidates, IpQualityScorer scorer) {
+            for (Long id : candidates) {
+                if (queued.add(id)) {
+                    ids.offer(new Candidate(id, scorer.score(id)));
+                }
+            }
+        }
+    }
+
+    /**
+     * 候选IP，评分相同时ID小的在前
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private final long id;
+        private final double score;
+
+        private Candidate(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.entity.IpInventory;
+import com.saas.platform.mapper.IpInventoryMapper;
+import com.saas.platform.service.IpInventoryService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IP库存统计服务实现类
+ * 库存由 ip_pools 触发器在写入IP的同一事务内维护；对账时在同一快照内读取库存与实际数量，
+ * 差值以增量方式补正，不会覆盖对账期间并发提交的变更
+ *
+ * @author SaaS Xbox Team
+ */
+@Service
+public class IpInventoryServiceImpl implements IpInventoryService {
+
+    private final IpInventoryMapper ipInventoryMapper;
+
+    public IpInventoryServiceImpl(IpInventoryMapper ipInventoryMapper) {
+        this.ipInventoryMapper = ipInventoryMapper;
+    }
+
+    @Override
+    public List<IpInventory> listInventory(String country, String ipQuality) {
+        return ipInventoryMapper.selectInventory(country, ipQuality);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<IpInventory> computeDrift() {
+        Map<String, IpInventory> drift = new HashMap<>();
+        for (IpInventory row : ipInventoryMapper.selectInventory(null, null)) {
+            row.setIpCount(-row.getIpCount());
+            drift.put(keyOf(row), row);
+        }
+        for (IpInventory actual : ipInventoryMapper.selectActualInventory()) {
+            IpInventory row = drift.get(keyOf(actual));
+            if (row == null) {
+                drift.put(keyOf(actual), actual);
+            } else {
+                row.setIpCount(row.getIpCount() + actual.getIpCount());
+            }
+        }
+
+        List<IpInventory> result = new ArrayList<>();
+        for (IpInventory row : drift.values()) {
+            if (row.getIpCount() != 0) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public int applyCorrections(List<IpInventory> drift) {
+        for (IpInventory row : drift) {
+            ipInventoryMapper.addCount(row);
+        }
+        ipInventoryMapper.deleteEmpty();
+        return drift.size();
+    }
+
+    /**
+     * 库存维度键；仅大小写不同的维度在表中是同一行，分别得到的正负差值补正时会相互抵消
+     */
+    private static String keyOf(IpInventory row) {
+        return row.getCountry() + '\u0001' + row.getCity() + '\u0001' + row.getIpQuality() + '\u0001' + row.getIpStatus();
+    }
+}
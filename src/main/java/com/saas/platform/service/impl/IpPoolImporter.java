@@ -0,0 +1,482 @@
+package com.saas.platform.service.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.saas.platform.dto.IpImportReport;
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.util.IpAddressUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IP流式导入器
+ * 逐行解析CSV或NDJSON，IP地址统一转换为规范文本后按块写入，每块在单独的事务中提交；
+ * 块内重复在内存中识别，与库中（含之前已提交的块）重复的IP按数值地址查出，内存中只保留当前块
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpPoolImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(IpPoolImporter.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * 未提供国家时的占位值，由地理位置回填任务补全
+     */
+    private static final String PENDING_LOCATION = NodeLocationEnricher.PENDING_LOCATION;
+
+    private static final Set<String> IP_QUALITIES = Set.of("标准", "优质", "独享");
+    private static final Set<String> IP_STATUSES = Set.of("可用", "占用", "故障", "测试中", "维护中");
+
+    /**
+     * CSV无表头时的默认列顺序
+     */
+    private static final String[] DEFAULT_COLUMNS = {
+            "ipAddress", "country", "region", "city", "ipQuality", "ipStatus",
+            "portRange", "bandwidthMbps", "provider", "costPrice", "nodeId"
+    };
+
+    /**
+     * 表头别名（统一转小写并去掉下划线后匹配）
+     */
+    private static final Map<String, String> COLUMN_ALIASES = new HashMap<>();
+
+    static {
+        for (String column : DEFAULT_COLUMNS) {
+            COLUMN_ALIASES.put(column.toLowerCase(Locale.ROOT), column);
+        }
+        COLUMN_ALIASES.put("ip", "ipAddress");
+        COLUMN_ALIASES.put("ip地址", "ipAddress");
+        COLUMN_ALIASES.put("国家", "country");
+        COLUMN_ALIASES.put("地区", "region");
+        COLUMN_ALIASES.put("城市", "city");
+        COLUMN_ALIASES.put("ip质量", "ipQuality");
+        COLUMN_ALIASES.put("ip状态", "ipStatus");
+        COLUMN_ALIASES.put("端口范围", "portRange");
+        COLUMN_ALIASES.put("带宽", "bandwidthMbps");
+        COLUMN_ALIASES.put("供应商", "provider");
+        COLUMN_ALIASES.put("成本价格", "costPrice");
+        COLUMN_ALIASES.put("节点id", "nodeId");
+    }
+
+    private final IpPoolMapper ipPoolMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 每块写入的行数
+     */
+    @Value("${ip.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public IpPoolImporter(IpPoolMapper ipPoolMapper, PlatformTransactionManager transactionManager) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 从输入流导入IP
+     *
+     * @param input 输入流（UTF-8）
+     * @param format 格式：csv或ndjson，为空时根据首个非空行判断
+     * @return 导入报告
+     * @throws IOException 读取失败
+     */
+    public IpImportReport importStream(InputStream input, String format) throws IOException {
+        long start = System.currentTimeMillis();
+        IpImportReport report = new IpImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        // 块内已出现的IP，之前块中的IP已提交，由 flush 查库识别
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        String[] columns = null;
+        String resolvedFormat = format == null ? null : format.trim().toLowerCase(Locale.ROOT);
+        long lineNo = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (lineNo == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!StringUtils.hasText(resolvedFormat)) {
+                resolvedFormat = line.stripLeading().startsWith("{") ? FORMAT_NDJSON : FORMAT_CSV;
+            }
+
+            Map<String, String> fields;
+            if (FORMAT_NDJSON.equals(resolvedFormat)) {
+                fields = parseJsonLine(line);
+                if (fields == null) {
+                    report.setTotalRows(report.getTotalRows() + 1);
+                    report.addInvalid(lineNo, "JSON格式错误");
+                    continue;
+                }
+            } else {
+                List<String> values = parseCsvLine(line);
+                if (columns == null) {
+                    columns = resolveHeader(values);
+                    if (columns != null) {
+                        continue;
+                    }
+                    columns = DEFAULT_COLUMNS;
+                }
+                fields = new HashMap<>();
+                for (int i = 0; i < columns.length && i < values.size(); i++) {
+                    if (columns[i] != null) {
+                        fields.put(columns[i], values.get(i));
+                    }
+                }
+            }
+
+            report.setTotalRows(report.getTotalRows() + 1);
+            IpPool ipPool = new IpPool();
+            String error = toIpPool(fields, ipPool);
+            if (error != null) {
+                report.addInvalid(lineNo, error);
+                continue;
+            }
+            if (!seen.add(ipPool.getIpAddress())) {
+                report.addDuplicate(lineNo);
+                continue;
+            }
+
+            chunk.add(new Row(lineNo, ipPool));
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, report);
+                chunk.clear();
+                seen.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, report);
+        }
+
+        report.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("IP导入完成: format={}, {}", resolvedFormat, report);
+        return report;
+    }
+
+    /**
+     * 导入已解析的IP列表，与流式导入使用相同的校验、规范化、去重及分块提交；报告中的行号为列表下标加1
+     *
+     * @param ipPools IP列表
+     * @return 导入报告
+     */
+    public IpImportReport importAll(List<IpPool> ipPools) {
+        long start = System.currentTimeMillis();
+        IpImportReport report = new IpImportReport();
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(Math.min(chunkSize, ipPools.size()));
+
+        long lineNo = 0;
+        for (IpPool ipPool : ipPools) {
+            lineNo++;
+            report.setTotalRows(report.getTotalRows() + 1);
+            String error = ipPool == null ? "IP地址为空" : normalize(ipPool);
+            if (error != null) {
+                report.addInvalid(lineNo, error);
+                continue;
+            }
+            if (!seen.add(ipPool.getIpAddress())) {
+                report.addDuplicate(lineNo);
+                continue;
+            }
+
+            chunk.add(new Row(lineNo, ipPool));
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, report);
+                chunk.clear();
+                seen.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, report);
+        }
+
+        report.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("IP批量导入完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 在一个事务中写入一块数据：先按数值地址查出库中已存在的IP记为重复，其余以 INSERT IGNORE 插入；
+     * 查询与插入之间有并发写入同一IP时插入行数会少于预期，此时回滚整块并逐行写入以定位重复的行
+     */
+    private void flush(List<Row> chunk, IpImportReport report) {
+        List<byte[]> bins = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            bins.add(IpAddressUtil.toBytes(row.ipPool.getIpAddress()));
+        }
+
+        Set<String> existing = new HashSet<>();
+        Integer inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                for (byte[] bin : ipPoolMapper.selectExistingIpBins(bins)) {
+                    existing.add(IpAddressUtil.formatBytes(bin));
+                }
+                List<IpPool> toInsert = new ArrayList<>(chunk.size());
+                for (Row row : chunk) {
+                    if (!existing.contains(row.ipPool.getIpAddress())) {
+                        toInsert.add(row.ipPool);
+                    }
+                }
+                if (toInsert.isEmpty()) {
+                    return 0;
+                }
+                int count = ipPoolMapper.insertIgnoreBatch(toInsert);
+                if (count < toInsert.size()) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return count;
+            });
+        } catch (Exception e) {
+            log.warn("批量导入IP失败，改为逐行写入: {}", e.getMessage());
+            inserted = null;
+        }
+
+        List<Row> pending = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existing.contains(row.ipPool.getIpAddress())) {
+                report.addDuplicate(row.line);
+            } else {
+                pending.add(row);
+            }
+        }
+        if (inserted == null) {
+            insertOneByOne(pending, report);
+        } else {
+            report.setInserted(report.getInserted() + inserted);
+        }
+    }
+
+    /**
+     * 整块写入失败或插入行数不足时逐行写入，定位出错或重复的行
+     */
+    private void insertOneByOne(List<Row> rows, IpImportReport report) {
+        for (Row row : rows) {
+            try {
+                if (ipPoolMapper.insertIgnoreBatch(List.of(row.ipPool)) > 0) {
+                    report.setInserted(report.getInserted() + 1);
+                } else {
+                    report.addDuplicate(row.line);
+                }
+            } catch (Exception e) {
+                log.warn("导入IP失败: line={}, ip={}, 错误: {}", row.line, row.ipPool.getIpAddress(), e.getMessage());
+                report.addInvalid(row.line, "写入失败");
+            }
+        }
+    }
+
+    /**
+     * 从字段中填充IP信息并校验
+     *
+     * @return 错误原因，校验通过返回null
+     */
+    private static String toIpPool(Map<String, String> fields, IpPool ipPool) {
+        ipPool.setIpAddress(fields.get("ipAddress"));
+        ipPool.setCountry(fields.get("country"));
+        ipPool.setRegion(fields.get("region"));
+        ipPool.setCity(fields.get("city"));
+        ipPool.setIpQuality(fields.get("ipQuality"));
+        ipPool.setIpStatus(fields.get("ipStatus"));
+        ipPool.setPortRange(fields.get("portRange"));
+        ipPool.setProvider(fields.get("provider"));
+        try {
+            String bandwidth = trimToNull(fields.get("bandwidthMbps"));
+            if (bandwidth != null) {
+                ipPool.setBandwidthMbps(Integer.parseInt(bandwidth));
+            }
+            String costPrice = trimToNull(fields.get("costPrice"));
+            if (costPrice != null) {
+                ipPool.setCostPrice(new BigDecimal(costPrice));
+            }
+            String nodeId = trimToNull(fields.get("nodeId"));
+            if (nodeId != null) {
+                ipPool.setNodeId(Long.parseLong(nodeId));
+            }
+        } catch (NumberFormatException e) {
+            return "数值格式错误";
+        }
+        return normalize(ipPool);
+    }
+
+    /**
+     * 校验并规范化IP信息：IP地址转换为规范文本，文本字段去掉首尾空白，未填写的国家、质量、状态取默认值
+     *
+     * @return 错误原因，校验通过返回null
+     */
+    private static String normalize(IpPool ipPool) {
+        String ip = trimToNull(ipPool.getIpAddress());
+        if (ip == null) {
+            return "IP地址为空";
+        }
+        String normalized = ip.length() <= 45 ? IpAddressUtil.normalize(ip) : null;
+        if (normalized == null) {
+            return "IP地址格式错误";
+        }
+        ipPool.setIpAddress(normalized);
+
+        String country = trimToNull(ipPool.getCountry());
+        ipPool.setCountry(country == null ? PENDING_LOCATION : country);
+        ipPool.setRegion(trimToNull(ipPool.getRegion()));
+        ipPool.setCity(trimToNull(ipPool.getCity()));
+        if (exceeds(ipPool.getCountry(), 50) || exceeds(ipPool.getRegion(), 50) || exceeds(ipPool.getCity(), 50)) {
+            return "国家、地区或城市长度超过50个字符";
+        }
+
+        String quality = trimToNull(ipPool.getIpQuality());
+        if (quality == null) {
+            quality = "标准";
+        } else if (!IP_QUALITIES.contains(quality)) {
+            return "IP质量无效: " + quality;
+        }
+        ipPool.setIpQuality(quality);
+
+        String status = trimToNull(ipPool.getIpStatus());
+        if (status == null) {
+            status = "可用";
+        } else if (!IP_STATUSES.contains(status)) {
+            return "IP状态无效: " + status;
+        }
+        ipPool.setIpStatus(status);
+
+        ipPool.setPortRange(trimToNull(ipPool.getPortRange()));
+        ipPool.setProvider(trimToNull(ipPool.getProvider()));
+        if (exceeds(ipPool.getPortRange(), 100) || exceeds(ipPool.getProvider(), 100)) {
+            return "端口范围或供应商长度超过100个字符";
+        }
+
+        if (ipPool.getBandwidthMbps() != null && ipPool.getBandwidthMbps() < 1) {
+            return "带宽不能小于1Mbps";
+        }
+        BigDecimal costPrice = ipPool.getCostPrice();
+        if (costPrice != null && (costPrice.signum() < 0 || costPrice.scale() > 2
+                || costPrice.precision() - costPrice.scale() > 8)) {
+            return "成本价格格式不正确";
+        }
+        return null;
+    }
+
+    /**
+     * 识别CSV表头，首行不是表头时返回null
+     */
+    private static String[] resolveHeader(List<String> values) {
+        String[] columns = new String[values.size()];
+        boolean hasIpColumn = false;
+        for (int i = 0; i < values.size(); i++) {
+            String key = values.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            columns[i] = COLUMN_ALIASES.get(key);
+            hasIpColumn |= "ipAddress".equals(columns[i]);
+        }
+        return hasIpColumn ? columns : null;
+    }
+
+    /**
+     * 解析NDJSON行，同时支持驼峰与下划线命名的字段
+     */
+    private static Map<String, String> parseJsonLine(String line) {
+        JSONObject json;
+        try {
+            json = JSON.parseObject(line);
+        } catch (Exception e) {
+            return null;
+        }
+        if (json == null) {
+            return null;
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, Object> entry : json.entrySet()) {
+            String column = COLUMN_ALIASES.get(entry.getKey().replace("_", "").toLowerCase(Locale.ROOT));
+            if (column != null && entry.getValue() != null) {
+                fields.put(column, entry.getValue().toString());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 解析单行CSV，支持双引号包裹及转义的双引号（不支持字段内换行）
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static boolean exceeds(String value, int maxLength) {
+        return value != null && value.length() > maxLength;
+    }
+
+    /**
+     * 待写入的一行数据
+     */
+    private static class Row {
+        private final long line;
+        private final IpPool ipPool;
+
+        private Row(long line, IpPool ipPool) {
+            this.line = line;
+            this.ipPool = ipPool;
+        }
+    }
+}
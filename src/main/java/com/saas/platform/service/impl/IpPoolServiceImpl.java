@@ -4,21 +4,30 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.saas.platform.dto.IpImportReport;
+import com.saas.platform.entity.IpInventory;
 import com.saas.platform.entity.IpPool;
 import com.saas.platform.exception.BusinessException;
 import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.schedule.IpConnectivityCheckJob;
+import com.saas.platform.service.IpInventoryService;
 import com.saas.platform.service.IpPoolService;
+import com.saas.platform.util.CidrRange;
+import com.saas.platform.util.IpAddressUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.time.LocalDateTime;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * IP池服务实现类
@@ -29,11 +38,108 @@ import java.util.stream.Collectors;
 @Service
 public class IpPoolServiceImpl extends ServiceImpl<IpPoolMapper, IpPool> implements IpPoolService {
 
+    private static final Logger log = LoggerFactory.getLogger(IpPoolServiceImpl.class);
+
+    /**
+     * 单次查询测试失败或待测试IP的最大数量
+     */
+    private static final int CHECK_QUERY_LIMIT = 1000;
+
+    /**
+     * 游标分页每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * 筛选可用IP时按评分挑选的候选窗口倍数及上限
+     */
+    private static final int FILTER_WINDOW_FACTOR = 4;
+    private static final int MAX_FILTER_WINDOW = 2000;
+
+    private final IpAllocator ipAllocator;
+    private final IpPoolImporter ipPoolImporter;
+    private final IpConnectivityCheckJob ipConnectivityCheckJob;
+    private final IpInventoryService ipInventoryService;
+    private final IpReplacer ipReplacer;
+    private final IpQualityScorer ipQualityScorer;
+
+    public IpPoolServiceImpl(IpAllocator ipAllocator, IpPoolImporter ipPoolImporter,
+                             IpConnectivityCheckJob ipConnectivityCheckJob, IpInventoryService ipInventoryService,
+                             IpReplacer ipReplacer, IpQualityScorer ipQualityScorer) {
+        this.ipAllocator = ipAllocator;
+        this.ipPoolImporter = ipPoolImporter;
+        this.ipConnectivityCheckJob = ipConnectivityCheckJob;
+        this.ipInventoryService = ipInventoryService;
+        this.ipReplacer = ipReplacer;
+        this.ipQualityScorer = ipQualityScorer;
+    }
+
     @Override
     public IPage<IpPool> getIpPoolPage(Long current, Long size, String ipAddress, String country,
                                      String city, String ipQuality, String ipStatus, Long nodeId) {
         Page<IpPool> page = new Page<>(current, size);
-        return baseMapper.selectIpPoolPage(page, ipAddress, country, city, ipQuality, ipStatus, nodeId);
+        CidrRange range = exactRange(ipAddress);
+        return baseMapper.selectIpPoolPage(page, ipAddress,
+                range == null ? null : range.startBytes(), range == null ? null : range.endBytes(),
+                country, city, ipQuality, ipStatus, nodeId);
+    }
+
+    @Override
+    public List<IpPool> getIpPoolPageAfter(Long lastId, Integer size, String ipAddress, String country,
+                                          String city, String ipQuality, String ipStatus, Long nodeId) {
+        int pageSize = size == null || size <= 0 ? 20 : Math.min(size, MAX_PAGE_SIZE);
+        CidrRange range = exactRange(ipAddress);
+        return baseMapper.selectIpPoolPageAfter(lastId, pageSize, ipAddress,
+                range == null ? null : range.startBytes(), range == null ? null : range.endBytes(),
+                country, city, ipQuality, ipStatus, nodeId);
+    }
+
+    @Override
+    public Map<String, Object> searchIps(String query, String after, Integer size, String country,
+                                         String ipQuality, String ipStatus, boolean withTotal) {
+        CidrRange range = exactRange(query);
+        if (range == null) {
+            range = CidrRange.parseIpv4Octets(query);
+        }
+        if (range == null) {
+            throw new BusinessException("请输入IP地址、IPv4前缀（如 203.0.113）或CIDR（如 203.0.113.0/24）");
+        }
+        byte[] afterBytes = null;
+        if (StringUtils.hasText(after)) {
+            afterBytes = IpAddressUtil.toBytes(after.trim());
+            if (afterBytes == null) {
+                throw new BusinessException("游标IP地址格式错误");
+            }
+        }
+
+        int pageSize = size == null || size <= 0 ? 20 : Math.min(size, MAX_PAGE_SIZE);
+        byte[] start = range.startBytes();
+        byte[] end = range.endBytes();
+        List<IpPool> list = baseMapper.selectByAddressRange(start, end, afterBytes,
+                country, ipQuality, ipStatus, pageSize);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("range", range.toString());
+        result.put("list", list);
+        result.put("next", list.size() < pageSize ? null : list.get(list.size() - 1).getIpAddress());
+        if (withTotal) {
+            result.put("total", baseMapper.countByAddressRange(start, end, country, ipQuality, ipStatus));
+        }
+        return result;
+    }
+
+    /**
+     * 完整IP地址或CIDR转换为地址范围，其他文本返回null（按前缀匹配）
+     */
+    private static CidrRange exactRange(String ipAddress) {
+        if (!StringUtils.hasText(ipAddress)) {
+            return null;
+        }
+        try {
+            return CidrRange.parse(ipAddress);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     @Override
@@ -130,35 +236,17 @@ public class IpPoolServiceImpl extends ServiceImpl<IpPoolMapper, IpPool> impleme
     }
 
     @Override
-    @Transactional
-    public int batchImportIps(List<IpPool> ipPools) {
+    public IpImportReport batchImportIps(List<IpPool> ipPools) {
         if (ipPools == null || ipPools.isEmpty()) {
-            return 0;
+            return new IpImportReport();
         }
-        
-        int successCount = 0;
-        for (IpPool ipPool : ipPools) {
-            try {
-                if (isIpAddressUnique(ipPool.getIpAddress(), null)) {
-                    // 设置默认值
-                    if (!StringUtils.hasText(ipPool.getIpStatus())) {
-                        ipPool.setIpStatus("可用");
-                    }
-                    if (!StringUtils.hasText(ipPool.getIpQuality())) {
-                        ipPool.setIpQuality("普通");
-                    }
-                    
-                    if (save(ipPool)) {
-                        successCount++;
-                    }
-                }
-            } catch (Exception e) {
-                // 记录导入失败的IP，继续处理下一个
-                System.err.println("导入IP失败: " + ipPool.getIpAddress() + ", 错误: " + e.getMessage());
-            }
-        }
-        
-        return successCount;
+        // 与文件导入相同的校验、规范化与去重，按 ip.import.chunk-size 分块，每块单独提交
+        return ipPoolImporter.importAll(ipPools);
+    }
+
+    @Override
+    public IpImportReport importIps(InputStream input, String format) throws IOException {
+        return ipPoolImporter.importStream(input, format);
     }
 
     @Override
@@ -193,89 +281,47 @@ public class IpPoolServiceImpl extends ServiceImpl<IpPoolMapper, IpPool> impleme
 
     @Override
     public Map<String, Object> testIpConnectivity(String ipAddress) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            long startTime = System.currentTimeMillis();
-            InetAddress address = InetAddress.getByName(ipAddress);
-            boolean reachable = address.isReachable(5000); // 5秒超时
-            long latency = System.currentTimeMillis() - startTime;
-            
-            result.put("ipAddress", ipAddress);
-            result.put("reachable", reachable);
-            result.put("latency", latency);
-            result.put("testTime", LocalDateTime.now());
-            result.put("testResult", reachable ? "成功" : "失败");
-            result.put("testMessage", reachable ? "连接正常" : "连接超时");
-            
-            // 更新测试结果到数据库
-            baseMapper.updateTestResult(ipAddress, result.get("testResult").toString(), 
-                                      (int) latency, result.get("testMessage").toString());
-            
-        } catch (IOException e) {
-            result.put("ipAddress", ipAddress);
-            result.put("reachable", false);
-            result.put("latency", -1);
-            result.put("testTime", LocalDateTime.now());
-            result.put("testResult", "失败");
-            result.put("testMessage", "测试异常: " + e.getMessage());
-            
-            // 更新测试结果到数据库
-            baseMapper.updateTestResult(ipAddress, "失败", -1, "测试异常: " + e.getMessage());
+        IpPool ipPool = getByIpAddress(ipAddress);
+        Map<String, Object> result = ipConnectivityCheckJob.testNow(ipAddress,
+                ipPool == null ? null : ipPool.getPortRange());
+
+        // 更新测试结果到数据库
+        int latency = ((Number) result.get("latency")).intValue();
+        baseMapper.updateTestResult(ipAddress, result.get("testResult").toString(),
+                latency, result.get("testMessage").toString());
+        if (ipPool != null) {
+            ipQualityScorer.record(ipPool.getId(), "成功".equals(result.get("testResult")), latency);
         }
-        
         return result;
     }
 
     @Override
     public Map<String, Object> batchTestIps(List<Long> ipIds) {
-        Map<String, Object> result = new HashMap<>();
-        
         if (ipIds == null || ipIds.isEmpty()) {
-            result.put("totalCount", 0);
-            result.put("successCount", 0);
-            result.put("failCount", 0);
-            return result;
+            throw new BusinessException("IP ID列表不能为空");
         }
-        
-        List<IpPool> ipPools = listByIds(ipIds);
-        int totalCount = ipPools.size();
-        int successCount = 0;
-        int failCount = 0;
-        
-        for (IpPool ipPool : ipPools) {
-            Map<String, Object> testResult = testIpConnectivity(ipPool.getIpAddress());
-            if ((Boolean) testResult.get("reachable")) {
-                successCount++;
-            } else {
-                failCount++;
-            }
+        if (!ipConnectivityCheckJob.startBatch(ipIds)) {
+            throw new BusinessException("IP连通性检测任务正在运行中");
         }
-        
-        result.put("totalCount", totalCount);
-        result.put("successCount", successCount);
-        result.put("failCount", failCount);
-        result.put("successRate", totalCount > 0 ? (double) successCount / totalCount * 100 : 0);
-        
-        return result;
+        return ipConnectivityCheckJob.getStatus();
     }
 
     @Override
     @Transactional
     public List<IpPool> autoAssignIps(String country, String ipQuality, Integer count, Long orderId) {
-        List<IpPool> availableIps = getAvailableIps(country, ipQuality, count);
-        
-        if (availableIps.size() < count) {
-            throw new BusinessException("可用IP数量不足，需要: " + count + ", 可用: " + availableIps.size());
+        if (count == null || count <= 0 || orderId == null) {
+            throw new BusinessException("分配数量和订单ID不能为空");
         }
         
-        List<Long> ipIds = availableIps.stream().map(IpPool::getId).collect(Collectors.toList());
+        // 以可用状态为条件认领，并发订单不会分到同一IP
+        List<Long> ipIds = ipAllocator.allocate(country, ipQuality, count, orderId);
         
-        if (batchAssignToOrder(ipIds, orderId)) {
-            return availableIps;
-        } else {
-            throw new BusinessException("IP分配失败");
+        if (ipIds.size() < count) {
+            // 抛出异常回滚本次已认领的IP
+            throw new BusinessException("可用IP数量不足，需要: " + count + ", 可用: " + ipIds.size());
         }
+        
+        return listByIds(ipIds);
     }
 
     @Override
@@ -285,27 +331,29 @@ public class IpPoolServiceImpl extends ServiceImpl<IpPoolMapper, IpPool> impleme
         if (oldIp == null) {
             throw new BusinessException("原IP不存在");
         }
+        if (orderId == null || !orderId.equals(oldIp.getCurrentOrderId())) {
+            throw new BusinessException("原IP未被该订单占用");
+        }
         
-        // 查找相同质量的可用IP
-        List<IpPool> availableIps = getAvailableIps(oldIp.getCountry(), oldIp.getIpQuality(), 1);
-        if (availableIps.isEmpty()) {
+        // 锁定原IP、认领相同国家和质量的IP、收回原IP、写更换记录在同一事务内完成
+        IpReplacer.Result result = ipReplacer.replace(List.of(oldIpId), "可用", reason);
+        if (result.getReplaced().isEmpty()) {
             throw new BusinessException("没有可用的替换IP");
         }
-        
-        IpPool newIp = availableIps.get(0);
-        
-        // 释放旧IP
-        batchReleaseIps(List.of(oldIpId));
-        
-        // 分配新IP
-        batchAssignToOrder(List.of(newIp.getId()), orderId);
-        
-        return newIp;
+        return result.getReplaced().values().iterator().next();
+    }
+
+    @Override
+    public Map<String, Object> failoverNode(Long nodeId, String reason) {
+        if (nodeId == null) {
+            throw new BusinessException("节点ID不能为空");
+        }
+        return ipReplacer.failoverNode(nodeId, reason);
     }
 
     @Override
     public List<IpPool> getFailedTestIps() {
-        return baseMapper.selectFailedTestIps();
+        return baseMapper.selectFailedTestIps(CHECK_QUERY_LIMIT);
     }
 
     @Override
@@ -313,67 +361,62 @@ public class IpPoolServiceImpl extends ServiceImpl<IpPoolMapper, IpPool> impleme
         if (hours == null || hours <= 0) {
             hours = 24; // 默认24小时
         }
-        return baseMapper.selectUntestedIps(hours);
+        return baseMapper.selectUntestedIps(hours, CHECK_QUERY_LIMIT);
     }
 
     @Override
     public Map<String, Object> scheduleIpCheck() {
-        Map<String, Object> result = new HashMap<>();
-        
-        // 获取需要测试的IP（24小时未测试的）
-        List<IpPool> untestedIps = getUntestedIps(24);
-        
-        if (untestedIps.isEmpty()) {
-            result.put("message", "没有需要检查的IP");
-            result.put("checkedCount", 0);
-            return result;
+        // 异步检测超过 ip.test.stale-hours 小时未测试的IP，进度通过检测任务状态查询
+        if (!ipConnectivityCheckJob.startStaleCheck()) {
+            throw new BusinessException("IP连通性检测任务正在运行中");
         }
-        
-        List<Long> ipIds = untestedIps.stream().map(IpPool::getId).collect(Collectors.toList());
-        Map<String, Object> testResult = batchTestIps(ipIds);
-        
-        result.put("message", "IP检查完成");
-        result.put("checkedCount", testResult.get("totalCount"));
-        result.put("successCount", testResult.get("successCount"));
-        result.put("failCount", testResult.get("failCount"));
-        result.put("successRate", testResult.get("successRate"));
-        
-        return result;
+        return ipConnectivityCheckJob.getStatus();
     }
 
     @Override
     public Map<String, Object> getIpPoolStatistics() {
         Map<String, Object> result = new HashMap<>();
-        
-        // 总IP数
-        long totalCount = count();
+
+        // 由库存表汇总（数百行），不再扫描IP池全表
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        Map<String, Long> byCountry = new HashMap<>();
+        Map<String, Long> byQuality = new LinkedHashMap<>();
+        long totalCount = 0;
+        for (IpInventory row : ipInventoryService.listInventory(null, null)) {
+            long count = row.getIpCount();
+            totalCount += count;
+            byStatus.merge(row.getIpStatus(), count, Long::sum);
+            byCountry.merge(row.getCountry(), count, Long::sum);
+            byQuality.merge(row.getIpQuality(), count, Long::sum);
+        }
+
+        result.put("statusCount", toCountRows("status", byStatus));
         result.put("totalCount", totalCount);
-        
-        // 各状态IP数量
-        List<Map<String, Object>> statusCount = baseMapper.countByStatus();
-        result.put("statusCount", statusCount);
-        
-        // 按国家统计IP数量
-        List<Map<String, Object>> countryCount = baseMapper.countByCountry();
+        result.put("availableCount", byStatus.getOrDefault("可用", 0L));
+        result.put("usedCount", byStatus.getOrDefault("占用", 0L));
+
+        // 按国家统计IP数量，数量多的在前
+        List<Map<String, Object>> countryCount = toCountRows("country", byCountry);
+        countryCount.sort((x, y) -> Long.compare((Long) y.get("count"), (Long) x.get("count")));
         result.put("countryCount", countryCount);
-        
+
         // 按IP质量统计数量
-        List<Map<String, Object>> qualityCount = baseMapper.countByQuality();
-        result.put("qualityCount", qualityCount);
-        
-        // 可用IP数
-        long availableCount = count(new LambdaQueryWrapper<IpPool>()
-                .eq(IpPool::getIpStatus, "可用"));
-        result.put("availableCount", availableCount);
-        
-        // 占用IP数
-        long usedCount = count(new LambdaQueryWrapper<IpPool>()
-                .eq(IpPool::getIpStatus, "占用"));
-        result.put("usedCount", usedCount);
-        
+        result.put("qualityCount", toCountRows("quality", byQuality));
+
         return result;
     }
 
+    private static List<Map<String, Object>> toCountRows(String keyName, Map<String, Long> counts) {
+        List<Map<String, Object>> rows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put(keyName, key);
+            row.put("count", count);
+            rows.add(row);
+        });
+        return rows;
+    }
+
     @Override
     public boolean isIpAddressUnique(String ipAddress, Long excludeId) {
         if (!StringUtils.hasText(ipAddress)) {
@@ -411,10 +454,16 @@ public class IpPoolServiceImpl extends ServiceImpl<IpPoolMapper, IpPool> impleme
         
         wrapper.orderByDesc(IpPool::getCreatedAt);
         
+        // 多取一个窗口，按内存中的质量评分取最好的count个
         if (count != null && count > 0) {
-            wrapper.last("LIMIT " + count);
+            wrapper.last("LIMIT " + Math.min((long) count * FILTER_WINDOW_FACTOR, Math.max(count, MAX_FILTER_WINDOW)));
         }
         
-        return list(wrapper);
+        List<IpPool> candidates = list(wrapper);
+        candidates.sort(Comparator.comparingDouble((IpPool ip) -> ipQualityScorer.score(ip.getId())).reversed());
+        if (count != null && count > 0 && candidates.size() > count) {
+            return new ArrayList<>(candidates.subList(0, count));
+        }
+        return candidates;
     }
 }
\ No newline at end of file
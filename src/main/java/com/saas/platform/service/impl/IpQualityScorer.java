@@ -0,0 +1,281 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.mapper.IpPoolMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IP质量评分器
+ * 每次连通性测试后更新IP的指数加权平均延迟和成功率，数据保存在按槽位索引的基本类型数组中，
+ * IP ID到槽位的映射为开放寻址哈希表；评分只读内存，分配时不产生额外数据库访问。
+ * 变化的槽位定期批量写回 ip_pools，启动时从数据库加载
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpQualityScorer {
+
+    private static final Logger log = LoggerFactory.getLogger(IpQualityScorer.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * 未测试过的IP按此成功率计算评分，排在稳定可用的IP之后、持续失败的IP之前
+     */
+    private static final float PRIOR_SUCCESS_RATIO = 0.5f;
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final IpPoolMapper ipPoolMapper;
+
+    /**
+     * 新样本权重
+     */
+    @Value("${ip.score.alpha:0.3}")
+    private float alpha;
+
+    /**
+     * 延迟折算基准(ms)：延迟等于该值时评分减半
+     */
+    @Value("${ip.score.latency-scale-ms:200}")
+    private float latencyScaleMs;
+
+    /**
+     * 每条UPDATE写回的最大IP数
+     */
+    @Value("${ip.score.flush-size:500}")
+    private int flushSize;
+
+    // 开放寻址哈希表：ipId -> 槽位，键0表示空位
+    private long[] keys = new long[INITIAL_CAPACITY * 2];
+    private int[] slotOf = new int[INITIAL_CAPACITY * 2];
+
+    // 按槽位保存的评分数据
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private float[] latencyEwma = new float[INITIAL_CAPACITY];
+    private float[] successRatio = new float[INITIAL_CAPACITY];
+    private int[] samples = new int[INITIAL_CAPACITY];
+    private final BitSet dirty = new BitSet();
+    private int size;
+
+    public IpQualityScorer(IpPoolMapper ipPoolMapper) {
+        this.ipPoolMapper = ipPoolMapper;
+    }
+
+    /**
+     * 启动时加载已持久化的评分
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            List<IpPool> rows = ipPoolMapper.selectQualityScores(afterId, LOAD_PAGE_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            synchronized (this) {
+                for (IpPool row : rows) {
+                    int slot = slotFor(row.getId());
+                    if (samples[slot] > 0) {
+                        // 启动后已有新的测试结果，以内存为准
+                        continue;
+                    }
+                    latencyEwma[slot] = row.getEwmaLatency() == null ? 0 : row.getEwmaLatency();
+                    successRatio[slot] = row.getSuccessRatio() == null ? 0 : row.getSuccessRatio().floatValue();
+                    samples[slot] = row.getTestSamples() == null ? 0 : row.getTestSamples();
+                }
+            }
+            loaded += rows.size();
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+        log.info("加载IP质量评分: {}条", loaded);
+    }
+
+    /**
+     * 记录一次连通性测试结果
+     *
+     * @param ipId IP ID
+     * @param success 是否成功
+     * @param latencyMs 延迟(ms)，失败时忽略
+     */
+    public synchronized void record(long ipId, boolean success, int latencyMs) {
+        int slot = slotFor(ipId);
+        if (samples[slot] == 0) {
+            successRatio[slot] = success ? 1f : 0f;
+            latencyEwma[slot] = success ? latencyMs : 0f;
+        } else {
+            successRatio[slot] += alpha * ((success ? 1f : 0f) - successRatio[slot]);
+            if (success) {
+                // 此前只有失败样本时没有延迟数据，直接取本次延迟
+                latencyEwma[slot] = latencyEwma[slot] == 0f ? latencyMs
+                        : latencyEwma[slot] + alpha * (latencyMs - latencyEwma[slot]);
+            }
+        }
+        if (samples[slot] < Integer.MAX_VALUE) {
+            samples[slot]++;
+        }
+        dirty.set(slot);
+    }
+
+    /**
+     * IP评分：成功率按延迟折算，范围 0 ~ 1，越大越好
+     *
+     * @param ipId IP ID
+     * @return 评分，未测试过的IP返回中间值
+     */
+    public synchronized double score(long ipId) {
+        int slot = find(ipId);
+        if (slot < 0 || samples[slot] == 0) {
+            return PRIOR_SUCCESS_RATIO / 2;
+        }
+        return successRatio[slot] / (1 + latencyEwma[slot] / latencyScaleMs);
+    }
+
+    /**
+     * 写回变化的评分
+     */
+    @Scheduled(fixedDelayString = "${ip.score.persist-interval:60000}")
+    public void persist() {
+        List<IpPool> changed;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            changed = new ArrayList<>(dirty.cardinality());
+            for (int slot = dirty.nextSetBit(0); slot >= 0; slot = dirty.nextSetBit(slot + 1)) {
+                IpPool row = new IpPool();
+                row.setId(ids[slot]);
+                row.setEwmaLatency(Math.round(latencyEwma[slot]));
+                row.setSuccessRatio(BigDecimal.valueOf(successRatio[slot]).setScale(4, RoundingMode.HALF_UP));
+                row.setTestSamples(samples[slot]);
+                changed.add(row);
+            }
+            dirty.clear();
+        }
+
+        int written = 0;
+        for (int from = 0; from < changed.size(); from += flushSize) {
+            List<IpPool> batch = changed.subList(from, Math.min(changed.size(), from + flushSize));
+            try {
+                written += ipPoolMapper.batchUpdateQualityScores(batch);
+            } catch (Exception e) {
+                // 写回失败的槽位重新标记，下次再写
+                synchronized (this) {
+                    for (IpPool row : batch) {
+                        int slot = find(row.getId());
+                        if (slot >= 0) {
+                            dirty.set(slot);
+                        }
+                    }
+                }
+                log.error("写回IP质量评分失败: count={}, 错误: {}", batch.size(), e.getMessage());
+            }
+        }
+        log.debug("写回IP质量评分: {}条", written);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persist();
+    }
+
+    /**
+     * 获取评分器状态
+     *
+     * @return 状态信息
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("trackedIps", size);
+        status.put("pendingWrites", dirty.cardinality());
+        status.put("alpha", alpha);
+        status.put("latencyScaleMs", latencyScaleMs);
+        return status;
+    }
+
+    /**
+     * 查找槽位
+     *
+     * @return 槽位，不存在返回-1
+     */
+    private int find(long ipId) {
+        int mask = keys.length - 1;
+        for (int i = hash(ipId) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == ipId) {
+                return slotOf[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查找或分配槽位
+     */
+    private int slotFor(long ipId) {
+        int mask = keys.length - 1;
+        int i = hash(ipId) & mask;
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == ipId) {
+                return slotOf[i];
+            }
+        }
+        if (size == ids.length) {
+            growSlots();
+        }
+        int slot = size++;
+        ids[slot] = ipId;
+        keys[i] = ipId;
+        slotOf[i] = slot;
+        // 负载因子不超过0.5
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return slot;
+    }
+
+    private void growSlots() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        latencyEwma = Arrays.copyOf(latencyEwma, capacity);
+        successRatio = Arrays.copyOf(successRatio, capacity);
+        samples = Arrays.copyOf(samples, capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] newKeys = new long[capacity];
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int i = hash(ids[slot]) & mask;
+            while (newKeys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            newKeys[i] = ids[slot];
+            newSlots[i] = slot;
+        }
+        keys = newKeys;
+        slotOf = newSlots;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
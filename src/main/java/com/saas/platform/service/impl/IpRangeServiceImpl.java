@@ -0,0 +1,251 @@
+package com.saas.platform.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.entity.IpRange;
+import com.saas.platform.exception.BusinessException;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.mapper.IpRangeMapper;
+import com.saas.platform.service.IpRangeService;
+import com.saas.platform.util.CidrRange;
+import com.saas.platform.util.IpAddressUtil;
+import com.saas.platform.util.IpLocationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IP地址段服务实现类
+ * 地址段只保存起止数值和已展开偏移量；展开时先以条件UPDATE预留一段偏移量，再生成对应的IP池记录，
+ * 已单独录入的IP由 uk_ip_address 唯一约束跳过
+ *
+ * @author SaaS Xbox Team
+ */
+@Service
+public class IpRangeServiceImpl extends ServiceImpl<IpRangeMapper, IpRange> implements IpRangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(IpRangeServiceImpl.class);
+
+    private static final Set<String> IP_QUALITIES = Set.of("标准", "优质", "独享");
+    private static final Set<String> RANGE_STATUSES = Set.of("启用", "停用");
+
+    /**
+     * IPv6地址段允许的最短前缀，保证段内地址数不超过2^32，偏移量可用long表示
+     */
+    private static final int MIN_IPV6_PREFIX = 96;
+
+    /**
+     * 单条INSERT的最大行数
+     */
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    /**
+     * 单次补充最多扫描的地址段数
+     */
+    private static final int EXPANDABLE_RANGE_LIMIT = 20;
+
+    private final IpPoolMapper ipPoolMapper;
+    private final IpLocationUtil ipLocationUtil;
+
+    /**
+     * 分配时每次至少展开的地址数，减少频繁展开
+     */
+    @Value("${ip.range.expand-batch-size:256}")
+    private int expandBatchSize;
+
+    /**
+     * 单次展开的最大地址数
+     */
+    @Value("${ip.range.max-expand-size:10000}")
+    private int maxExpandSize;
+
+    public IpRangeServiceImpl(IpPoolMapper ipPoolMapper, IpLocationUtil ipLocationUtil) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.ipLocationUtil = ipLocationUtil;
+    }
+
+    @Override
+    @Transactional
+    public IpRange createRange(IpRange ipRange) {
+        CidrRange cidr;
+        try {
+            cidr = CidrRange.parse(ipRange.getCidr());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        if (cidr.getVersion() == 6 && cidr.getPrefix() < MIN_IPV6_PREFIX) {
+            throw new BusinessException("IPv6地址段前缀不能短于/" + MIN_IPV6_PREFIX);
+        }
+        if (StringUtils.hasText(ipRange.getIpQuality()) && !IP_QUALITIES.contains(ipRange.getIpQuality())) {
+            throw new BusinessException("IP质量无效: " + ipRange.getIpQuality());
+        }
+
+        byte[] start = cidr.startBytes();
+        byte[] end = cidr.endBytes();
+        List<IpRange> overlapping = baseMapper.selectOverlapping(cidr.getVersion(), start, end);
+        if (!overlapping.isEmpty()) {
+            throw new BusinessException("地址段与已登记的 " + overlapping.get(0).getCidr() + " 重叠");
+        }
+
+        ipRange.setCidr(cidr.toString());
+        ipRange.setIpVersion(cidr.getVersion());
+        ipRange.setRangeStart(start);
+        ipRange.setRangeEnd(end);
+        ipRange.setTotalCount(cidr.getSize());
+        ipRange.setExpandedCount(0L);
+        if (!StringUtils.hasText(ipRange.getIpQuality())) {
+            ipRange.setIpQuality("标准");
+        }
+        if (!StringUtils.hasText(ipRange.getStatus())) {
+            ipRange.setStatus("启用");
+        }
+        if (!StringUtils.hasText(ipRange.getCountry())) {
+            // 同一CIDR内地址通常属于同一地区，按起始地址查询
+            IpLocationUtil.LocationInfo location = ipLocationUtil.getLocationByIp(cidr.addressAt(0));
+            ipRange.setCountry(location.getCountry());
+            if (!StringUtils.hasText(ipRange.getRegion())) {
+                ipRange.setRegion(location.getRegion());
+            }
+            if (!StringUtils.hasText(ipRange.getCity())) {
+                ipRange.setCity(location.getCity());
+            }
+        }
+
+        save(ipRange);
+        log.info("登记IP地址段: {}, 地址数: {}", ipRange.getCidr(), ipRange.getTotalCount());
+        return ipRange;
+    }
+
+    @Override
+    @Transactional
+    public int expandRange(Long rangeId, int count) {
+        if (count <= 0) {
+            throw new BusinessException("展开数量必须大于0");
+        }
+        IpRange range = getById(rangeId);
+        if (range == null) {
+            throw new BusinessException("地址段不存在");
+        }
+        return expand(range, Math.min(count, maxExpandSize));
+    }
+
+    @Override
+    public int expandForAllocation(String country, String ipQuality, int needed) {
+        if (needed <= 0) {
+            return 0;
+        }
+        int target = Math.min(Math.max(needed, expandBatchSize), maxExpandSize);
+        int inserted = 0;
+        for (IpRange range : baseMapper.selectExpandable(country, ipQuality, EXPANDABLE_RANGE_LIMIT)) {
+            inserted += expand(range, target - inserted);
+            if (inserted >= target) {
+                break;
+            }
+        }
+        if (inserted > 0) {
+            log.info("从地址段展开可用IP: country={}, ipQuality={}, 需要={}, 新增={}",
+                    country, ipQuality, needed, inserted);
+        }
+        return inserted;
+    }
+
+    @Override
+    public Map<String, Object> getAvailability(String country, String ipQuality) {
+        long pooled = ipPoolMapper.countAvailable(country, ipQuality);
+        long unexpanded = baseMapper.sumRemaining(country, ipQuality);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("country", country);
+        result.put("ipQuality", ipQuality);
+        result.put("pooledAvailable", pooled);
+        result.put("rangeUnexpanded", unexpanded);
+        result.put("totalAvailable", pooled + unexpanded);
+        return result;
+    }
+
+    @Override
+    public IpRange getRangeContaining(String ipAddress) {
+        if (!StringUtils.hasText(ipAddress)) {
+            return null;
+        }
+        byte[] address = IpAddressUtil.toBytes(ipAddress.trim());
+        if (address == null) {
+            throw new BusinessException("IP地址格式错误");
+        }
+        return baseMapper.selectContaining(address.length == 4 ? 4 : 6, address);
+    }
+
+    @Override
+    @Transactional
+    public boolean updateRangeStatus(Long id, String status) {
+        if (!RANGE_STATUSES.contains(status)) {
+            throw new BusinessException("地址段状态无效: " + status);
+        }
+        IpRange range = getById(id);
+        if (range == null) {
+            throw new BusinessException("地址段不存在");
+        }
+        range.setStatus(status);
+        return updateById(range);
+    }
+
+    /**
+     * 展开地址段中的下一批地址；预留偏移量冲突时重新读取，直到成功或地址段已全部展开
+     *
+     * @return 新增的IP池记录数（跳过已存在的IP，可能小于count）
+     */
+    private int expand(IpRange range, int count) {
+        IpRange current = range;
+        for (int attempt = 0; attempt < 3 && current != null; attempt++) {
+            long from = current.getExpandedCount();
+            long to = Math.min(current.getTotalCount(), from + count);
+            if (to <= from) {
+                return 0;
+            }
+            if (baseMapper.reserveExpansion(current.getId(), from, to) == 1) {
+                return insertAddresses(current, from, to);
+            }
+            current = getById(current.getId());
+        }
+        return 0;
+    }
+
+    private int insertAddresses(IpRange range, long from, long to) {
+        CidrRange cidr = CidrRange.parse(range.getCidr());
+        int inserted = 0;
+        List<IpPool> chunk = new ArrayList<>((int) Math.min(to - from, INSERT_CHUNK_SIZE));
+        for (long offset = from; offset < to; offset++) {
+            chunk.add(toIpPool(range, cidr.addressAt(offset)));
+            if (chunk.size() == INSERT_CHUNK_SIZE || offset == to - 1) {
+                inserted += ipPoolMapper.insertIgnoreBatch(chunk);
+                chunk.clear();
+            }
+        }
+        return inserted;
+    }
+
+    private static IpPool toIpPool(IpRange range, String address) {
+        IpPool ipPool = new IpPool();
+        ipPool.setIpAddress(address);
+        ipPool.setCountry(range.getCountry());
+        ipPool.setRegion(range.getRegion());
+        ipPool.setCity(range.getCity());
+        ipPool.setIpQuality(range.getIpQuality());
+        ipPool.setIpStatus("可用");
+        ipPool.setPortRange(range.getPortRange());
+        ipPool.setBandwidthMbps(range.getBandwidthMbps());
+        ipPool.setProvider(range.getProvider());
+        ipPool.setCostPrice(range.getCostPrice());
+        ipPool.setNodeId(range.getNodeId());
+        return ipPool;
+    }
+}
@@ -0,0 +1,277 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.entity.IpReplaceLog;
+import com.saas.platform.entity.Node;
+import com.saas.platform.entity.Order;
+import com.saas.platform.exception.BusinessException;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.mapper.IpReplaceLogMapper;
+import com.saas.platform.mapper.NodeMapper;
+import com.saas.platform.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * IP更换器
+ * 以集合方式更换一批被订单占用的IP：事务内先锁定原IP，按（国家, IP质量）分组一次认领替换IP，
+ * 再以单条CASE UPDATE把替换IP分配给各自订单、单条UPDATE收回原IP、单条UPDATE更新订单IP列表，
+ * 更换记录多行批量写入 ip_replace_logs；节点故障转移按ID游标分块，每块一个事务
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpReplacer {
+
+    private static final Logger log = LoggerFactory.getLogger(IpReplacer.class);
+
+    private static final String STATUS_FAULTY = "故障";
+
+    /**
+     * 报告中最多返回的未能更换的IP数
+     */
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    private final IpPoolMapper ipPoolMapper;
+    private final OrderMapper orderMapper;
+    private final NodeMapper nodeMapper;
+    private final IpReplaceLogMapper ipReplaceLogMapper;
+    private final IpAllocator ipAllocator;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 故障转移每个事务处理的IP数
+     */
+    @Value("${ip.failover.chunk-size:200}")
+    private int chunkSize;
+
+    public IpReplacer(IpPoolMapper ipPoolMapper, OrderMapper orderMapper, NodeMapper nodeMapper,
+                      IpReplaceLogMapper ipReplaceLogMapper, IpAllocator ipAllocator,
+                      PlatformTransactionManager transactionManager) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.orderMapper = orderMapper;
+        this.nodeMapper = nodeMapper;
+        this.ipReplaceLogMapper = ipReplaceLogMapper;
+        this.ipAllocator = ipAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 节点故障转移：将节点上所有被订单占用的IP更换为其他节点上相同国家、质量的IP
+     * 原IP标记为故障；节点上的可用IP先标记为故障，不再参与分配；
+     * 待支付订单预留的IP同样标记为故障并解除预留，订单支付时由预留管理器按差额重新认领
+     *
+     * @param nodeId 节点ID
+     * @param reason 更换原因
+     * @return 转移报告
+     */
+    public Map<String, Object> failoverNode(Long nodeId, String reason) {
+        Node node = nodeMapper.selectById(nodeId);
+        if (node == null) {
+            throw new BusinessException("节点不存在");
+        }
+        String replaceReason = reason == null || reason.isBlank() ? "节点故障: " + node.getNodeName() : reason;
+        long start = System.currentTimeMillis();
+
+        int faultyAvailable = ipPoolMapper.markNodeAvailableIpsFaulty(nodeId);
+        int faultyReserved = ipPoolMapper.markNodeReservedIpsFaulty(nodeId);
+        long affected = ipPoolMapper.countAssignedByNode(nodeId);
+        log.info("开始节点IP故障转移: nodeId={}, 占用IP数={}, 标记故障的可用IP数={}, 解除预留的IP数={}",
+                nodeId, affected, faultyAvailable, faultyReserved);
+
+        int replaced = 0;
+        List<String> failed = new ArrayList<>();
+        int failedCount = 0;
+        long afterId = 0;
+        while (true) {
+            List<IpPool> chunk = ipPoolMapper.selectAssignedByNode(nodeId, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            List<Long> ids = new ArrayList<>(chunk.size());
+            for (IpPool ip : chunk) {
+                ids.add(ip.getId());
+            }
+
+            Result result = transactionTemplate.execute(status -> replace(ids, STATUS_FAULTY, replaceReason));
+            replaced += result.replaced.size();
+            failedCount += result.failed.size();
+            for (IpPool ip : result.failed) {
+                if (failed.size() < MAX_REPORTED_FAILURES) {
+                    failed.add(ip.getIpAddress());
+                }
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("nodeId", nodeId);
+        report.put("affected", affected);
+        report.put("replaced", replaced);
+        report.put("failed", failedCount);
+        report.put("failedIps", failed);
+        report.put("faultyAvailable", faultyAvailable);
+        report.put("faultyReserved", faultyReserved);
+        report.put("elapsedMs", System.currentTimeMillis() - start);
+        log.info("节点IP故障转移完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 更换一批被订单占用的IP，需在调用方事务内执行
+     *
+     * @param ipIds 原IP ID列表
+     * @param retiredStatus 原IP收回后的状态
+     * @param reason 更换原因
+     * @return 更换结果（已不再被占用的IP直接跳过）
+     */
+    public Result replace(List<Long> ipIds, String retiredStatus, String reason) {
+        Result result = new Result();
+        List<IpPool> locked = ipPoolMapper.lockAssignedIps(ipIds);
+        if (locked.isEmpty()) {
+            return result;
+        }
+        // 认领时先挂在临时订单ID下，分配给各自订单后即被覆盖；取负数避免与真实订单冲突
+        Long claimOrderId = -locked.get(0).getId();
+
+        Map<String, List<IpPool>> groups = new LinkedHashMap<>();
+        for (IpPool ip : locked) {
+            groups.computeIfAbsent(ip.getCountry() + "|" + ip.getIpQuality(), k -> new ArrayList<>()).add(ip);
+        }
+        List<Long> claimedIds = new ArrayList<>(locked.size());
+        List<IpPool> replacedOld = new ArrayList<>(locked.size());
+        for (List<IpPool> group : groups.values()) {
+            IpPool first = group.get(0);
+            List<Long> claimed = ipAllocator.allocate(first.getCountry(), first.getIpQuality(), group.size(), claimOrderId);
+            claimedIds.addAll(claimed);
+            replacedOld.addAll(group.subList(0, claimed.size()));
+            result.failed.addAll(group.subList(claimed.size(), group.size()));
+        }
+
+        if (new HashSet<>(claimedIds).size() != claimedIds.size()) {
+            // 同一IP被认领两次会让两个订单共用一个IP，整批回滚
+            throw new BusinessException("认领到重复的替换IP，更换已回滚: " + claimedIds);
+        }
+
+        if (!claimedIds.isEmpty()) {
+            Map<Long, IpPool> claimedById = new HashMap<>();
+            for (IpPool ip : ipPoolMapper.selectBatchIds(claimedIds)) {
+                claimedById.put(ip.getId(), ip);
+            }
+            List<IpPool> assignments = new ArrayList<>(claimedIds.size());
+            List<Long> retiredIds = new ArrayList<>(claimedIds.size());
+            for (int i = 0; i < claimedIds.size(); i++) {
+                IpPool oldIp = replacedOld.get(i);
+                IpPool newIp = claimedById.get(claimedIds.get(i));
+                newIp.setCurrentOrderId(oldIp.getCurrentOrderId());
+                assignments.add(newIp);
+                retiredIds.add(oldIp.getId());
+                result.replaced.put(oldIp, newIp);
+            }
+            ipPoolMapper.batchReassignOrders(assignments, claimOrderId);
+            ipPoolMapper.retireReplacedIps(retiredIds, retiredStatus);
+        }
+
+        writeOrdersAndLogs(result, reason);
+        return result;
+    }
+
+    /**
+     * 更新订单IP列表并写入更换记录
+     * 订单按ID顺序加锁后再读取IP列表，避免与并发的更换或支付交错时丢失对方写入的IP
+     */
+    private void writeOrdersAndLogs(Result result, String reason) {
+        Set<Long> orderIds = new TreeSet<>();
+        for (IpPool ip : result.replaced.keySet()) {
+            orderIds.add(ip.getCurrentOrderId());
+        }
+        for (IpPool ip : result.failed) {
+            orderIds.add(ip.getCurrentOrderId());
+        }
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Order> orders = new HashMap<>();
+        for (Order order : orderMapper.lockByIds(orderIds)) {
+            orders.put(order.getId(), order);
+        }
+
+        List<IpReplaceLog> logs = new ArrayList<>(result.replaced.size() + result.failed.size());
+        Map<Long, Order> changedOrders = new LinkedHashMap<>();
+        result.replaced.forEach((oldIp, newIp) -> {
+            Order order = orders.get(oldIp.getCurrentOrderId());
+            if (order != null && order.getIpAddresses() != null) {
+                List<String> addresses = new ArrayList<>(order.getIpAddresses());
+                int index = addresses.indexOf(oldIp.getIpAddress());
+                if (index >= 0) {
+                    addresses.set(index, newIp.getIpAddress());
+                } else {
+                    addresses.add(newIp.getIpAddress());
+                }
+                order.setIpAddresses(addresses);
+                changedOrders.put(order.getId(), order);
+            }
+            logs.add(toLog(order, oldIp, newIp.getIpAddress(), "成功", reason));
+        });
+        for (IpPool oldIp : result.failed) {
+            logs.add(toLog(orders.get(oldIp.getCurrentOrderId()), oldIp, "", "失败", reason));
+        }
+
+        if (!changedOrders.isEmpty()) {
+            orderMapper.batchUpdateIpAddresses(new ArrayList<>(changedOrders.values()));
+        }
+        if (!logs.isEmpty()) {
+            ipReplaceLogMapper.insertBatch(logs);
+        }
+    }
+
+    private static IpReplaceLog toLog(Order order, IpPool oldIp, String newIp, String status, String reason) {
+        IpReplaceLog entry = new IpReplaceLog();
+        entry.setOrderId(oldIp.getCurrentOrderId());
+        // customer_id 非空，订单已删除时记为0
+        entry.setCustomerId(order == null ? 0L : order.getCustomerId());
+        entry.setCustomerAccount(order == null ? null : order.getCustomerAccount());
+        entry.setOriginalIp(oldIp.getIpAddress());
+        entry.setNewIp(newIp);
+        entry.setReplaceReason(reason);
+        entry.setReplaceStatus(status);
+        entry.setOperatorName("系统");
+        return entry;
+    }
+
+    /**
+     * 更换结果
+     */
+    public static class Result {
+        /**
+         * 原IP -> 替换IP
+         */
+        private final Map<IpPool, IpPool> replaced = new LinkedHashMap<>();
+
+        /**
+         * 没有可用替换IP的原IP
+         */
+        private final List<IpPool> failed = new ArrayList<>();
+
+        public Map<IpPool, IpPool> getReplaced() {
+            return replaced;
+        }
+
+        public List<IpPool> getFailed() {
+            return failed;
+        }
+    }
+}
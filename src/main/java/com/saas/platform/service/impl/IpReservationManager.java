@@ -0,0 +1,245 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.exception.BusinessException;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IP预留管理器
+ * 待支付订单的IP以 ip_status='预留' 占住库存，reserved_until 记录到期时间，数据库是预留状态的唯一依据；
+ * 内存中按订单维护分层时间轮，到期时以 reserved_until 为条件批量释放，支付时转为占用。
+ * 启动时从数据库恢复时间轮；其他实例创建的预留或宕机遗留的预留由定时兜底清理释放
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class IpReservationManager {
+
+    private static final Logger log = LoggerFactory.getLogger(IpReservationManager.class);
+
+    private final IpPoolMapper ipPoolMapper;
+    private final IpAllocator ipAllocator;
+
+    /**
+     * 预留时长(分钟)
+     */
+    @Value("${ip.reservation.hold-minutes:30}")
+    private int holdMinutes;
+
+    /**
+     * 时间轮精度(ms)，也是到期检查间隔
+     */
+    @Value("${ip.reservation.tick-ms:1000}")
+    private long tickMs;
+
+    /**
+     * 时间轮每层格数
+     */
+    @Value("${ip.reservation.wheel-size:64}")
+    private int wheelSize;
+
+    /**
+     * 时间轮层数
+     */
+    @Value("${ip.reservation.levels:3}")
+    private int levels;
+
+    /**
+     * 每条UPDATE释放的最大订单数
+     */
+    @Value("${ip.reservation.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    private TimingWheel<Long> wheel;
+
+    private final AtomicLong reservedCount = new AtomicLong();
+    private final AtomicLong confirmedCount = new AtomicLong();
+    private final AtomicLong releasedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    public IpReservationManager(IpPoolMapper ipPoolMapper, IpAllocator ipAllocator) {
+        this.ipPoolMapper = ipPoolMapper;
+        this.ipAllocator = ipAllocator;
+    }
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+    }
+
+    /**
+     * 从数据库恢复预留到期时间
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<Long> due = new ArrayList<>();
+        List<IpPool> deadlines = ipPoolMapper.selectReservationDeadlines();
+        for (IpPool row : deadlines) {
+            if (row.getCurrentOrderId() == null || row.getReservedUntil() == null) {
+                continue;
+            }
+            if (wheel.schedule(row.getCurrentOrderId(), deadlineOf(row.getReservedUntil()))) {
+                due.add(row.getCurrentOrderId());
+            }
+        }
+        int released = releaseChunked(due, true);
+        expiredCount.addAndGet(released);
+        log.info("恢复IP预留: 订单数={}, 已到期释放IP数={}", deadlines.size(), released);
+    }
+
+    /**
+     * 为订单预留IP，需在调用方事务内执行：数量不足时抛出异常，回滚已认领的IP
+     *
+     * @param orderId 订单ID
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param count 需要数量
+     * @return 预留的IP ID列表
+     */
+    public List<Long> reserve(Long orderId, String country, String ipQuality, int count) {
+        LocalDateTime until = LocalDateTime.now().plusMinutes(holdMinutes);
+        List<Long> ipIds = ipAllocator.allocate(country, ipQuality, count, orderId, until);
+        if (ipIds.size() < count) {
+            throw new BusinessException("可用IP数量不足，需要: " + count + ", 可用: " + ipIds.size());
+        }
+        // 事务回滚时时间轮中的条目到期后释放不到任何IP，无需撤销
+        wheel.schedule(orderId, deadlineOf(until));
+        reservedCount.addAndGet(ipIds.size());
+        return ipIds;
+    }
+
+    /**
+     * 订单支付：预留转为占用，预留已过期释放的部分重新认领
+     * 需在调用方事务内执行
+     *
+     * @param orderId 订单ID
+     * @param country 国家，为空表示不限
+     * @param ipQuality IP质量，为空表示不限
+     * @param count 订单IP数量
+     * @return 转为占用的数量（含重新认领）
+     */
+    public int confirm(Long orderId, String country, String ipQuality, int count) {
+        wheel.cancel(orderId);
+        int confirmed = ipPoolMapper.confirmReservation(orderId);
+        if (confirmed < count) {
+            int claimed = ipAllocator.allocate(country, ipQuality, count - confirmed, orderId).size();
+            if (confirmed + claimed < count) {
+                throw new BusinessException("IP预留已过期且可用IP不足，需要: " + count + ", 可用: " + (confirmed + claimed));
+            }
+            log.info("订单IP预留已过期，支付时重新认领: orderId={}, 预留={}, 重新认领={}", orderId, confirmed, claimed);
+            confirmed += claimed;
+        }
+        confirmedCount.addAndGet(confirmed);
+        return confirmed;
+    }
+
+    /**
+     * 立即释放订单的预留IP（订单取消或删除）
+     *
+     * @param orderId 订单ID
+     * @return 释放的IP数量
+     */
+    public int release(Long orderId) {
+        wheel.cancel(orderId);
+        int released = ipPoolMapper.releaseReservations(List.of(orderId), false);
+        releasedCount.addAndGet(released);
+        return released;
+    }
+
+    /**
+     * 立即释放多个订单的预留IP（批量取消或删除），每批一条UPDATE
+     *
+     * @param orderIds 订单ID列表
+     * @return 释放的IP数量
+     */
+    public int release(List<Long> orderIds) {
+        orderIds.forEach(wheel::cancel);
+        int released = releaseChunked(orderIds, false);
+        releasedCount.addAndGet(released);
+        return released;
+    }
+
+    /**
+     * 推进时间轮，批量释放到期的预留
+     */
+    @Scheduled(fixedDelayString = "${ip.reservation.tick-ms:1000}")
+    public void releaseExpired() {
+        List<Long> expired = wheel.advance(System.currentTimeMillis());
+        if (!expired.isEmpty()) {
+            int released = releaseChunked(expired, true);
+            expiredCount.addAndGet(released);
+            log.info("IP预留到期: 订单数={}, 释放IP数={}", expired.size(), released);
+        }
+    }
+
+    /**
+     * 兜底清理：释放不在本实例时间轮中的到期预留（其他实例创建、实例宕机等）
+     */
+    @Scheduled(fixedDelayString = "${ip.reservation.sweep-interval:300000}",
+            initialDelayString = "${ip.reservation.sweep-interval:300000}")
+    public void sweep() {
+        // 留出一个检查间隔，正常情况下由时间轮释放
+        LocalDateTime before = LocalDateTime.now().minusNanos(tickMs * 2_000_000L);
+        List<Long> orderIds;
+        do {
+            orderIds = ipPoolMapper.selectExpiredReservationOrders(before, releaseBatchSize);
+            if (!orderIds.isEmpty()) {
+                int released = releaseChunked(orderIds, true);
+                expiredCount.addAndGet(released);
+                log.info("兜底释放到期IP预留: 订单数={}, 释放IP数={}", orderIds.size(), released);
+            }
+        } while (orderIds.size() == releaseBatchSize);
+    }
+
+    /**
+     * 获取预留运行状态
+     *
+     * @return 状态信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("holdMinutes", holdMinutes);
+        status.put("activeOrders", wheel.size());
+        status.put("reservedCount", reservedCount.get());
+        status.put("confirmedCount", confirmedCount.get());
+        status.put("releasedCount", releasedCount.get());
+        status.put("expiredCount", expiredCount.get());
+        return status;
+    }
+
+    /**
+     * 分批释放预留，每批一条UPDATE
+     */
+    private int releaseChunked(List<Long> orderIds, boolean onlyExpired) {
+        int released = 0;
+        for (int from = 0; from < orderIds.size(); from += releaseBatchSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(orderIds.size(), from + releaseBatchSize));
+            released += ipPoolMapper.releaseReservations(chunk, onlyExpired);
+        }
+        return released;
+    }
+
+    /**
+     * 时间轮到期时间：比 reserved_until 晚一个精度，避免与数据库时钟的细微偏差导致条件UPDATE落空
+     */
+    private long deadlineOf(LocalDateTime reservedUntil) {
+        return reservedUntil.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + tickMs;
+    }
+}
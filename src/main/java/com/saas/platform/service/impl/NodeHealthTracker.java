@@ -0,0 +1,183 @@
+package com.saas.platform.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 节点健康历史记录
+ * 每个节点以64位位图保存最近64次检查的通断结果，并以环形数组保存对应延迟；
+ * 基于位图中的状态翻转次数判断抖动，连续失败/成功达到阈值后才建议切换节点状态
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class NodeHealthTracker {
+
+    /**
+     * 位图可容纳的历史样本数
+     */
+    private static final int CAPACITY = Long.SIZE;
+
+    /**
+     * 连续失败多少次后判定为故障
+     */
+    @Value("${node.health-check.failure-threshold:3}")
+    private int failureThreshold;
+
+    /**
+     * 连续成功多少次后从故障恢复
+     */
+    @Value("${node.health-check.recovery-threshold:2}")
+    private int recoveryThreshold;
+
+    /**
+     * 判断抖动时参考的最近样本数
+     */
+    @Value("${node.health-check.flap-window-samples:20}")
+    private int flapWindowSamples;
+
+    /**
+     * 窗口内状态翻转达到该次数即视为抖动
+     */
+    @Value("${node.health-check.flap-transitions:5}")
+    private int flapTransitions;
+
+    private final Map<Long, History> histories = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次检查结果，并根据滞后规则给出建议的节点状态
+     *
+     * @param nodeId 节点ID
+     * @param currentStatus 节点当前状态
+     * @param reachable 是否可达
+     * @param latency 延迟(ms)，不可达时为-1
+     * @return 建议切换的新状态，无需切换时返回null
+     */
+    public String record(Long nodeId, String currentStatus, boolean reachable, int latency) {
+        History history = histories.computeIfAbsent(nodeId, id -> new History());
+        synchronized (history) {
+            history.add(reachable, latency);
+
+            // 只在运行中与故障之间自动切换，维护中、停用等人工状态不受影响
+            if ("运行中".equals(currentStatus) && history.consecutiveFailures >= failureThreshold) {
+                return "故障";
+            }
+            if ("故障".equals(currentStatus) && history.consecutiveSuccesses >= recoveryThreshold
+                    && !isFlapping(history)) {
+                return "运行中";
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 节点近期是否处于抖动状态
+     *
+     * @param nodeId 节点ID
+     * @return 是否抖动
+     */
+    public boolean isFlapping(Long nodeId) {
+        History history = histories.get(nodeId);
+        if (history == null) {
+            return false;
+        }
+        synchronized (history) {
+            return isFlapping(history);
+        }
+    }
+
+    /**
+     * 获取节点健康历史摘要
+     *
+     * @param nodeId 节点ID
+     * @return 历史摘要（时间线按旧到新排列，1表示可达）
+     */
+    public Map<String, Object> getSummary(Long nodeId) {
+        Map<String, Object> summary = new HashMap<>();
+        History history = histories.get(nodeId);
+        if (history == null) {
+            summary.put("sampleCount", 0);
+            return summary;
+        }
+        synchronized (history) {
+            StringBuilder timeline = new StringBuilder(history.count);
+            List<Integer> latencies = new ArrayList<>(history.count);
+            for (int i = history.count - 1; i >= 0; i--) {
+                timeline.append((history.bits >>> i & 1L) == 1L ? '1' : '0');
+                latencies.add(history.latencies[Math.floorMod(history.pos - 1 - i, CAPACITY)]);
+            }
+            int upCount = Long.bitCount(history.bits & mask(history.count));
+
+            summary.put("sampleCount", history.count);
+            summary.put("timeline", timeline.toString());
+            summary.put("latencies", latencies);
+            summary.put("availability", history.count > 0 ? (double) upCount / history.count * 100 : 0);
+            summary.put("consecutiveFailures", history.consecutiveFailures);
+            summary.put("consecutiveSuccesses", history.consecutiveSuccesses);
+            summary.put("transitions", transitions(history, Math.min(history.count, flapWindowSamples)));
+            summary.put("flapping", isFlapping(history));
+        }
+        return summary;
+    }
+
+    /**
+     * 移除节点历史（节点删除时调用）
+     *
+     * @param nodeId 节点ID
+     */
+    public void remove(Long nodeId) {
+        histories.remove(nodeId);
+    }
+
+    private boolean isFlapping(History history) {
+        return transitions(history, Math.min(history.count, flapWindowSamples)) >= flapTransitions;
+    }
+
+    /**
+     * 统计最近window个样本中相邻结果的翻转次数
+     */
+    private static int transitions(History history, int window) {
+        if (window < 2) {
+            return 0;
+        }
+        return Long.bitCount((history.bits ^ (history.bits >>> 1)) & mask(window - 1));
+    }
+
+    private static long mask(int bits) {
+        return bits >= CAPACITY ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * 单节点历史，最低位为最近一次结果
+     */
+    private static class History {
+        private long bits;
+        private int count;
+        private final int[] latencies = new int[CAPACITY];
+        private int pos;
+        private int consecutiveFailures;
+        private int consecutiveSuccesses;
+
+        private void add(boolean up, int latency) {
+            bits = (bits << 1) | (up ? 1L : 0L);
+            if (count < CAPACITY) {
+                count++;
+            }
+            latencies[pos] = latency;
+            pos = (pos + 1) % CAPACITY;
+            if (up) {
+                consecutiveSuccesses++;
+                consecutiveFailures = 0;
+            } else {
+                consecutiveFailures++;
+                consecutiveSuccesses = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.config.CacheConfig;
+import com.saas.platform.mapper.NodeMapper;
+import com.saas.platform.util.IpLocationUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点地理位置异步补全
+ * 节点先以“待查询”位置入库，事务提交后由后台线程查询IP归属地并回填国家、地区；
+ * 待处理任务数有上限，查询失败按指数退避重试
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class NodeLocationEnricher {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeLocationEnricher.class);
+
+    /**
+     * 地理位置待查询标记
+     */
+    public static final String PENDING_LOCATION = "待查询";
+
+    private static final String LOOKUP_FAILED = "查询失败";
+
+    private final NodeMapper nodeMapper;
+    private final IpLocationUtil ipLocationUtil;
+    private final CacheManager cacheManager;
+
+    /**
+     * 最大待处理任务数
+     */
+    @Value("${node.geo-enrich.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * 最大重试次数
+     */
+    @Value("${node.geo-enrich.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * 首次重试延迟(ms)，之后每次翻倍
+     */
+    @Value("${node.geo-enrich.retry-delay:30000}")
+    private long retryDelayMs;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public NodeLocationEnricher(NodeMapper nodeMapper, IpLocationUtil ipLocationUtil, CacheManager cacheManager,
+                                @Value("${node.geo-enrich.threads:2}") int threads) {
+        this.nodeMapper = nodeMapper;
+        this.ipLocationUtil = ipLocationUtil;
+        this.cacheManager = cacheManager;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "node-geo-enrich-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 提交节点地理位置补全任务
+     * 若当前存在事务，则在事务提交后再提交，保证后台线程能读到已入库的节点
+     *
+     * @param nodeId 节点ID
+     * @param serverIp 服务器IP
+     */
+    public void submit(Long nodeId, String serverIp) {
+        if (nodeId == null || serverIp == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(nodeId, serverIp, 0, 0);
+                }
+            });
+        } else {
+            enqueue(nodeId, serverIp, 0, 0);
+        }
+    }
+
+    /**
+     * 当前待处理任务数
+     *
+     * @return 任务数
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 因队列已满被拒绝的任务数
+     *
+     * @return 任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void enqueue(Long nodeId, String serverIp, int attempt, long delayMs) {
+        if (pendingCount.incrementAndGet() > queueCapacity) {
+            pendingCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            log.warn("地理位置补全队列已满，跳过节点: nodeId={}, ip={}", nodeId, serverIp);
+            return;
+        }
+        executor.schedule(() -> {
+            try {
+                enrich(nodeId, serverIp, attempt);
+            } finally {
+                pendingCount.decrementAndGet();
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void enrich(Long nodeId, String serverIp, int attempt) {
+        IpLocationUtil.LocationInfo location;
+        if (attempt > 0) {
+            // 退避重试时跳过已缓存的失败结果
+            ipLocationUtil.invalidate(serverIp);
+        }
+        try {
+            location = ipLocationUtil.getLocationByIp(serverIp);
+        } catch (Exception e) {
+            location = new IpLocationUtil.LocationInfo(LOOKUP_FAILED, LOOKUP_FAILED, LOOKUP_FAILED);
+        }
+
+        if (LOOKUP_FAILED.equals(location.getCountry()) && attempt < maxRetries) {
+            long delay = retryDelayMs << attempt;
+            log.info("节点地理位置查询失败，{}ms后重试: nodeId={}, ip={}, attempt={}",
+                    delay, nodeId, serverIp, attempt + 1);
+            enqueue(nodeId, serverIp, attempt + 1, delay);
+            return;
+        }
+
+        try {
+            // 仅当节点IP未被再次修改时回填，且只写仍为待查询的列，避免旧任务覆盖新IP或人工填写的位置
+            int updated = nodeMapper.updateLocation(nodeId, serverIp, PENDING_LOCATION,
+                    location.getCountry(), location.getRegion());
+            if (updated == 0) {
+                log.debug("节点IP或位置已变更，忽略地理位置结果: nodeId={}, ip={}", nodeId, serverIp);
+            } else {
+                // 节点统计按国家、地区分组，回填后清除缓存的统计快照
+                Cache cache = cacheManager.getCache(CacheConfig.NODE_STATISTICS_CACHE);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        } catch (Exception e) {
+            log.error("回填节点地理位置失败: nodeId={}, ip={}", nodeId, serverIp, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -4,12 +4,18 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.saas.platform.config.CacheConfig;
+import com.saas.platform.dto.NodePatchDTO;
 import com.saas.platform.entity.Node;
 import com.saas.platform.exception.BusinessException;
 import com.saas.platform.mapper.NodeMapper;
 import com.saas.platform.service.NodeService;
 import com.saas.platform.service.XboxSyncService;
-import com.saas.platform.util.IpLocationUtil;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -30,12 +36,17 @@ import java.util.stream.Collectors;
 @Service
 public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements NodeService {
     
-    private final IpLocationUtil ipLocationUtil;
+    private final NodeLocationEnricher nodeLocationEnricher;
     private final XboxSyncService xboxSyncService;
+    private final NodeHealthTracker nodeHealthTracker;
+    private final CacheManager cacheManager;
     
-    public NodeServiceImpl(IpLocationUtil ipLocationUtil, XboxSyncService xboxSyncService) {
-        this.ipLocationUtil = ipLocationUtil;
+    public NodeServiceImpl(NodeLocationEnricher nodeLocationEnricher, XboxSyncService xboxSyncService,
+                           NodeHealthTracker nodeHealthTracker, CacheManager cacheManager) {
+        this.nodeLocationEnricher = nodeLocationEnricher;
         this.xboxSyncService = xboxSyncService;
+        this.nodeHealthTracker = nodeHealthTracker;
+        this.cacheManager = cacheManager;
     }
 
     @Override
@@ -84,6 +95,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean createNode(Node node) {
         // 验证节点编码唯一性
         if (!isNodeCodeUnique(node.getNodeCode(), null)) {
@@ -95,11 +107,10 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
             throw new BusinessException("服务器IP已存在");
         }
         
-        // 根据IP自动获取地理位置信息
+        // 地理位置先置为待查询，事务提交后异步补全
         if (StringUtils.hasText(node.getServerIp())) {
-            IpLocationUtil.LocationInfo locationInfo = ipLocationUtil.getLocationByIp(node.getServerIp());
-            node.setCountry(locationInfo.getCountry());
-            node.setRegion(locationInfo.getRegion());
+            node.setCountry(NodeLocationEnricher.PENDING_LOCATION);
+            node.setRegion(NodeLocationEnricher.PENDING_LOCATION);
         }
         
         // 设置默认值
@@ -122,11 +133,16 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
             node.setDiskUsage(BigDecimal.ZERO);
         }
         
-        return save(node);
+        boolean saved = save(node);
+        if (saved && StringUtils.hasText(node.getServerIp())) {
+            nodeLocationEnricher.submit(node.getId(), node.getServerIp());
+        }
+        return saved;
     }
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean updateNode(Node node) {
         // 验证节点是否存在
         Node existNode = getById(node.getId());
@@ -144,20 +160,65 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
             throw new BusinessException("服务器IP已存在");
         }
         
-        // 如果IP地址发生变化，重新获取地理位置信息
-        if (!existNode.getServerIp().equals(node.getServerIp())) {
-            if (StringUtils.hasText(node.getServerIp())) {
-                IpLocationUtil.LocationInfo locationInfo = ipLocationUtil.getLocationByIp(node.getServerIp());
-                node.setCountry(locationInfo.getCountry());
-                node.setRegion(locationInfo.getRegion());
+        // 如果IP地址发生变化，地理位置置为待查询并异步补全
+        boolean ipChanged = StringUtils.hasText(node.getServerIp())
+                && !node.getServerIp().equals(existNode.getServerIp());
+        if (ipChanged) {
+            node.setCountry(NodeLocationEnricher.PENDING_LOCATION);
+            node.setRegion(NodeLocationEnricher.PENDING_LOCATION);
+        }
+        
+        boolean updated = updateById(node);
+        if (updated && ipChanged) {
+            nodeLocationEnricher.submit(node.getId(), node.getServerIp());
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
+    public boolean patchNode(Long id, NodePatchDTO patch) {
+        if (patch == null || !patch.hasChanges()) {
+            throw new BusinessException("没有需要更新的字段");
+        }
+        
+        // 一次查询同时验证节点编码和服务器IP唯一性
+        if (patch.getNodeCode() != null || patch.getServerIp() != null) {
+            Map<String, Object> conflicts = baseMapper.selectUniqueConflicts(id, patch.getNodeCode(), patch.getServerIp());
+            if (((Number) conflicts.get("codeConflicts")).longValue() > 0) {
+                throw new BusinessException("节点编码已存在");
+            }
+            if (((Number) conflicts.get("ipConflicts")).longValue() > 0) {
+                throw new BusinessException("服务器IP已存在");
             }
         }
         
-        return updateById(node);
+        int updated;
+        try {
+            updated = baseMapper.patchNode(id, patch, NodeLocationEnricher.PENDING_LOCATION);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("节点编码或服务器IP已存在");
+        }
+        
+        if (updated == 0) {
+            // 仅在失败时区分节点不存在与版本冲突
+            if (getById(id) == null) {
+                throw new BusinessException("节点不存在");
+            }
+            throw new BusinessException(409, "节点已被其他人修改，请刷新后重试");
+        }
+        
+        // IP变化时未显式指定的位置列已被置为待查询，异步补全；补全只写仍为待查询的列
+        if (patch.getServerIp() != null && (patch.getCountry() == null || patch.getRegion() == null)) {
+            nodeLocationEnricher.submit(id, patch.getServerIp());
+        }
+        return true;
     }
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean deleteNode(Long id) {
         Node node = getById(id);
         if (node == null) {
@@ -171,11 +232,13 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
         
         // TODO: 检查是否有关联的IP或订单
         
+        nodeHealthTracker.remove(id);
         return removeById(id);
     }
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean batchDeleteNodes(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             return false;
@@ -188,6 +251,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean batchUpdateStatus(List<Long> ids, String status) {
         if (ids == null || ids.isEmpty()) {
             return false;
@@ -198,6 +262,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean startNode(Long id) {
         Node node = getById(id);
         if (node == null) {
@@ -222,6 +287,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean stopNode(Long id, String reason) {
         Node node = getById(id);
         if (node == null) {
@@ -260,6 +326,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean maintainNode(Long id, String reason) {
         Node node = getById(id);
         if (node == null) {
@@ -278,6 +345,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public boolean exitMaintainNode(Long id) {
         Node node = getById(id);
         if (node == null) {
@@ -360,17 +428,39 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
             
             result.put("suggestions", suggestions);
             
+            recordHealthResult(node, reachable, (int) latency, result);
+            
         } catch (IOException e) {
             result.put("networkReachable", false);
             result.put("networkLatency", -1);
             result.put("overallHealthy", false);
             result.put("healthStatus", "网络异常");
             result.put("error", e.getMessage());
+            
+            recordHealthResult(node, false, -1, result);
         }
         
         return result;
     }
 
+    /**
+     * 记录健康检查结果：写入历史、持久化检查时间与延迟，并按滞后规则切换节点状态
+     */
+    private void recordHealthResult(Node node, boolean reachable, int latency, Map<String, Object> result) {
+        String newStatus = nodeHealthTracker.record(node.getId(), node.getNodeStatus(), reachable, latency);
+        baseMapper.updateHealthCheckResult(node.getId(), reachable ? latency : null,
+                node.getNodeStatus(), newStatus);
+        
+        if (newStatus != null) {
+            result.put("nodeStatusChanged", newStatus);
+            Cache cache = cacheManager.getCache(CacheConfig.NODE_STATISTICS_CACHE);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        result.put("flapping", nodeHealthTracker.isFlapping(node.getId()));
+    }
+
     @Override
     public Map<String, Object> batchCheckNodeHealth(List<Long> nodeIds) {
         Map<String, Object> result = new HashMap<>();
@@ -478,50 +568,69 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, Node> implements No
     }
 
     @Override
+    @Cacheable(value = CacheConfig.NODE_STATISTICS_CACHE, key = "'all'")
     public Map<String, Object> getNodeStatistics() {
+        // 单次分组查询，在内存中汇总各维度统计
+        List<Map<String, Object>> rows = baseMapper.countByStatusCountryType();
+        
+        long totalCount = 0;
+        Map<String, Long> statusMap = new LinkedHashMap<>();
+        Map<String, Long> countryMap = new LinkedHashMap<>();
+        Map<String, Long> typeMap = new LinkedHashMap<>();
+        
+        for (Map<String, Object> row : rows) {
+            long count = ((Number) row.get("count")).longValue();
+            totalCount += count;
+            statusMap.merge((String) row.get("status"), count, Long::sum);
+            countryMap.merge((String) row.get("country"), count, Long::sum);
+            typeMap.merge((String) row.get("type"), count, Long::sum);
+        }
+        
         Map<String, Object> result = new HashMap<>();
         
         // 总节点数
-        long totalCount = count();
         result.put("totalCount", totalCount);
         
         // 各状态节点数量
-        List<Map<String, Object>> statusCount = baseMapper.countByStatus();
-        result.put("statusCount", statusCount);
+        result.put("statusCount", toCountList(statusMap, "status"));
         
-        // 按国家统计节点数量
-        List<Map<String, Object>> countryCount = baseMapper.countByCountry();
+        // 按国家统计节点数量（按数量倒序）
+        List<Map<String, Object>> countryCount = toCountList(countryMap, "country");
+        countryCount.sort((a, b) -> Long.compare((Long) b.get("count"), (Long) a.get("count")));
         result.put("countryCount", countryCount);
         
         // 按节点类型统计数量
-        List<Map<String, Object>> typeCount = baseMapper.countByType();
-        result.put("typeCount", typeCount);
+        result.put("typeCount", toCountList(typeMap, "type"));
         
-        // 运行中节点数
-        long runningCount = count(new LambdaQueryWrapper<Node>()
-                .eq(Node::getNodeStatus, "运行中"));
-        result.put("runningCount", runningCount);
-        
-        // 停用节点数
-        long stoppedCount = count(new LambdaQueryWrapper<Node>()
-                .eq(Node::getNodeStatus, "停用"));
-        result.put("stoppedCount", stoppedCount);
-        
-        // 维护中节点数
-        long maintainingCount = count(new LambdaQueryWrapper<Node>()
-                .eq(Node::getNodeStatus, "维护中"));
-        result.put("maintainingCount", maintainingCount);
+        // 运行中、停用、维护中节点数
+        result.put("runningCount", statusMap.getOrDefault("运行中", 0L));
+        result.put("stoppedCount", statusMap.getOrDefault("停用", 0L));
+        result.put("maintainingCount", statusMap.getOrDefault("维护中", 0L));
         
         return result;
     }
 
+    /**
+     * 将分组计数转换为与原统计接口一致的列表结构
+     */
+    private List<Map<String, Object>> toCountList(Map<String, Long> counts, String labelKey) {
+        List<Map<String, Object>> list = new ArrayList<>(counts.size());
+        counts.forEach((label, count) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put(labelKey, label);
+            item.put("count", count);
+            list.add(item);
+        });
+        return list;
+    }
+
     @Override
     public Map<String, Object> getNodeMonitorData(Long nodeId, Integer hours) {
-        // TODO: 从监控数据库或缓存中获取历史监控数据
+        // TODO: 从监控数据库中获取长期历史监控数据，目前仅返回内存中的近期健康检查历史
         Map<String, Object> result = new HashMap<>();
         result.put("nodeId", nodeId);
         result.put("hours", hours);
-        result.put("message", "监控数据功能待实现");
+        result.put("healthHistory", nodeHealthTracker.getSummary(nodeId));
         return result;
     }
 
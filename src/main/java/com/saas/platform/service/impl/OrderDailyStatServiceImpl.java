@@ -0,0 +1,253 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.entity.OrderDailyStat;
+import com.saas.platform.mapper.OrderDailyStatMapper;
+import com.saas.platform.mapper.OrderMapper;
+import com.saas.platform.service.OrderDailyStatService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单日统计服务实现类
+ * 日统计由 orders 触发器在写入订单的同一事务内维护；统计查询把时间范围拆成整日部分和首尾不足一日的部分，
+ * 整日部分读日统计表，首尾部分按 idx_created_at 范围统计订单表，结果与直接统计订单表一致。
+ * 对账时在同一快照内读取统计与实际汇总，差值以增量方式补正
+ *
+ * @author SaaS Xbox Team
+ */
+@Service
+public class OrderDailyStatServiceImpl implements OrderDailyStatService {
+
+    /**
+     * 一日中最后一个整秒；created_at 为秒精度，截止到该时刻即包含整日
+     */
+    private static final LocalTime LAST_SECOND = LocalTime.of(23, 59, 59);
+
+    private final OrderDailyStatMapper orderDailyStatMapper;
+    private final OrderMapper orderMapper;
+
+    public OrderDailyStatServiceImpl(OrderDailyStatMapper orderDailyStatMapper, OrderMapper orderMapper) {
+        this.orderDailyStatMapper = orderDailyStatMapper;
+        this.orderMapper = orderMapper;
+    }
+
+    @Override
+    public Map<String, Object> sumOrderAmount(LocalDateTime startTime, LocalDateTime endTime) {
+        Split split = new Split(startTime, endTime);
+        List<Map<String, Object>> parts = new ArrayList<>();
+        if (split.hasFullDays()) {
+            parts.add(orderDailyStatMapper.sumAmount(split.fullFrom, split.fullTo));
+        }
+        for (LocalDateTime[] edge : split.edges()) {
+            parts.add(orderMapper.sumOrderAmount(edge[0], edge[1]));
+        }
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal actualAmount = BigDecimal.ZERO;
+        long orderCount = 0;
+        for (Map<String, Object> part : parts) {
+            if (part == null) {
+                continue;
+            }
+            totalAmount = totalAmount.add(toDecimal(part.get("totalAmount")));
+            actualAmount = actualAmount.add(toDecimal(part.get("actualAmount")));
+            orderCount += toLong(part.get("orderCount"));
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalAmount", totalAmount);
+        result.put("actualAmount", actualAmount);
+        result.put("orderCount", orderCount);
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> countByDate(LocalDateTime startTime, LocalDateTime endTime) {
+        Split split = new Split(startTime, endTime);
+        if (!split.hasFullDays()) {
+            return orderMapper.countByDate(startTime, endTime);
+        }
+        // 首部、整日、尾部的日期互不重叠且依次递增，按顺序拼接即按日期排序
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (split.head != null) {
+            result.addAll(orderMapper.countByDate(split.head[0], split.head[1]));
+        }
+        for (Map<String, Object> row : orderDailyStatMapper.countByDate(split.fullFrom, split.fullTo)) {
+            row.put("orderCount", toLong(row.get("orderCount")));
+            result.add(row);
+        }
+        if (split.tail != null) {
+            result.addAll(orderMapper.countByDate(split.tail[0], split.tail[1]));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> countByProduct(LocalDateTime startTime, LocalDateTime endTime) {
+        Split split = new Split(startTime, endTime);
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        if (split.hasFullDays()) {
+            addLabelCounts(counts, orderDailyStatMapper.countByProduct(split.fullFrom, split.fullTo));
+        }
+        for (LocalDateTime[] edge : split.edges()) {
+            addLabelCounts(counts, orderMapper.countByProduct(edge[0], edge[1]));
+        }
+        return toLabelRows(counts);
+    }
+
+    @Override
+    public List<Map<String, Object>> countByCountry(LocalDateTime startTime, LocalDateTime endTime) {
+        Split split = new Split(startTime, endTime);
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        if (split.hasFullDays()) {
+            addLabelCounts(counts, orderDailyStatMapper.countByCountry(split.fullFrom, split.fullTo));
+        }
+        for (LocalDateTime[] edge : split.edges()) {
+            addLabelCounts(counts, orderMapper.countByCountry(edge[0], edge[1]));
+        }
+        return toLabelRows(counts);
+    }
+
+    @Override
+    public List<Map<String, Object>> countByStatus() {
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        addLabelCounts(counts, orderDailyStatMapper.countByStatus());
+        return toLabelRows(counts);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<OrderDailyStat> computeDrift(LocalDate fromDate, LocalDate toDate) {
+        Map<String, OrderDailyStat> drift = new HashMap<>();
+        for (OrderDailyStat row : orderDailyStatMapper.selectStats(fromDate, toDate)) {
+            row.setOrderCount(-row.getOrderCount());
+            row.setTotalAmount(row.getTotalAmount().negate());
+            row.setActualAmount(row.getActualAmount().negate());
+            drift.put(keyOf(row), row);
+        }
+        for (OrderDailyStat actual : orderDailyStatMapper.selectActualStats(fromDate.atStartOfDay(), toDate.atStartOfDay())) {
+            OrderDailyStat row = drift.get(keyOf(actual));
+            if (row == null) {
+                drift.put(keyOf(actual), actual);
+            } else {
+                row.setOrderCount(row.getOrderCount() + actual.getOrderCount());
+                row.setTotalAmount(row.getTotalAmount().add(actual.getTotalAmount()));
+                row.setActualAmount(row.getActualAmount().add(actual.getActualAmount()));
+            }
+        }
+
+        List<OrderDailyStat> result = new ArrayList<>();
+        for (OrderDailyStat row : drift.values()) {
+            if (row.getOrderCount() != 0 || row.getTotalAmount().signum() != 0 || row.getActualAmount().signum() != 0) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public int applyCorrections(List<OrderDailyStat> drift) {
+        for (OrderDailyStat row : drift) {
+            orderDailyStatMapper.addStat(row);
+        }
+        orderDailyStatMapper.deleteEmpty();
+        return drift.size();
+    }
+
+    private static void addLabelCounts(Map<Object, Long> counts, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            counts.merge(row.get("label"), toLong(row.get("value")), Long::sum);
+        }
+    }
+
+    private static List<Map<String, Object>> toLabelRows(Map<Object, Long> counts) {
+        List<Map<String, Object>> rows = new ArrayList<>(counts.size());
+        counts.forEach((label, value) -> {
+            if (value != 0) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("label", label);
+                row.put("value", value);
+                rows.add(row);
+            }
+        });
+        return rows;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value instanceof Number number ? new BigDecimal(number.toString()) : BigDecimal.ZERO;
+    }
+
+    /**
+     * 统计维度键；仅大小写不同的维度在表中是同一行，分别得到的正负差值补正时会相互抵消
+     */
+    private static String keyOf(OrderDailyStat row) {
+        return row.getStatDate() + "\u0001" + row.getProductName() + '\u0001' + row.getCountry() + '\u0001'
+                + row.getOrderStatus();
+    }
+
+    /**
+     * 把 [startTime, endTime] 拆成整日部分 [fullFrom, fullTo) 和首尾不足一日的部分（闭区间）
+     */
+    private static final class Split {
+        private LocalDate fullFrom;
+        private LocalDate fullTo;
+        private LocalDateTime[] head;
+        private LocalDateTime[] tail;
+        private LocalDateTime[] whole;
+
+        private Split(LocalDateTime startTime, LocalDateTime endTime) {
+            LocalDate from = startTime.toLocalTime().equals(LocalTime.MIDNIGHT)
+                    ? startTime.toLocalDate() : startTime.toLocalDate().plusDays(1);
+            LocalDate to = endTime.toLocalTime().isBefore(LAST_SECOND)
+                    ? endTime.toLocalDate() : endTime.toLocalDate().plusDays(1);
+            if (!from.isBefore(to)) {
+                whole = new LocalDateTime[]{startTime, endTime};
+                return;
+            }
+            fullFrom = from;
+            fullTo = to;
+            if (startTime.isBefore(from.atStartOfDay())) {
+                head = new LocalDateTime[]{startTime, from.atStartOfDay().minusSeconds(1)};
+            }
+            if (!to.atStartOfDay().isAfter(endTime)) {
+                tail = new LocalDateTime[]{to.atStartOfDay(), endTime};
+            }
+        }
+
+        private boolean hasFullDays() {
+            return fullFrom != null;
+        }
+
+        private List<LocalDateTime[]> edges() {
+            List<LocalDateTime[]> edges = new ArrayList<>(2);
+            if (whole != null) {
+                edges.add(whole);
+            }
+            if (head != null) {
+                edges.add(head);
+            }
+            if (tail != null) {
+                edges.add(tail);
+            }
+            return edges;
+        }
+    }
+}
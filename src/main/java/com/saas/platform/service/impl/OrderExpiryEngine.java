@@ -0,0 +1,244 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.entity.Order;
+import com.saas.platform.event.OrderExpiredEvent;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.mapper.OrderMapper;
+import com.saas.platform.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单过期引擎
+ * 按 (order_status, expire_time) 索引分块处理到期的运行中订单：每块一个事务，锁定订单（跳过其他实例已锁定的行）、
+ * 单条UPDATE标记过期、单条UPDATE收回占用的IP，提交后逐个发布 {@link OrderExpiredEvent}。
+ * 定时扫描之间，即将到期的订单放入时间轮，到期时按ID处理，数据库中的到期时间和状态是唯一依据
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class OrderExpiryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryEngine.class);
+
+    private final OrderMapper orderMapper;
+    private final IpPoolMapper ipPoolMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 每个事务处理的订单数
+     */
+    @Value("${order.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 扫描时加载到时间轮的时间范围(ms)
+     */
+    @Value("${order.expiry.lookahead-ms:600000}")
+    private long lookaheadMs;
+
+    /**
+     * 时间轮精度(ms)，也是到期检查间隔
+     */
+    @Value("${order.expiry.tick-ms:1000}")
+    private long tickMs;
+
+    /**
+     * 时间轮每层格数
+     */
+    @Value("${order.expiry.wheel-size:64}")
+    private int wheelSize;
+
+    /**
+     * 时间轮层数
+     */
+    @Value("${order.expiry.levels:2}")
+    private int levels;
+
+    private TimingWheel<Long> wheel;
+
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong releasedIpCount = new AtomicLong();
+    private volatile LocalDateTime lastSweepTime;
+
+    public OrderExpiryEngine(OrderMapper orderMapper, IpPoolMapper ipPoolMapper,
+                             ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.orderMapper = orderMapper;
+        this.ipPoolMapper = ipPoolMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+    }
+
+    /**
+     * 启动时处理已到期的订单并加载即将到期的订单
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        sweep();
+    }
+
+    /**
+     * 定时扫描：分块处理所有已到期的订单，再把即将到期的订单放入时间轮
+     *
+     * @return 本次标记过期的订单数
+     */
+    @Scheduled(fixedDelayString = "${order.expiry.sweep-interval:300000}",
+            initialDelayString = "${order.expiry.sweep-interval:300000}")
+    public int sweep() {
+        int expired = 0;
+        List<Order> chunk;
+        do {
+            chunk = expireChunk(null);
+            expired += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        int scheduled = scheduleUpcoming();
+        lastSweepTime = LocalDateTime.now();
+        if (expired > 0) {
+            log.info("订单过期扫描: 过期订单数={}, 时间轮订单数={}", expired, scheduled);
+        }
+        return expired;
+    }
+
+    /**
+     * 推进时间轮，处理到期的订单
+     */
+    @Scheduled(fixedDelayString = "${order.expiry.tick-ms:1000}")
+    public void expireDue() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            expired += expireChunk(due.subList(from, Math.min(due.size(), from + chunkSize))).size();
+        }
+        if (expired > 0) {
+            log.info("订单到期: 过期订单数={}", expired);
+        }
+    }
+
+    /**
+     * 记录订单新的到期时间（续费等），已到期的由下次处理
+     *
+     * @param orderId 订单ID
+     * @param expireTime 到期时间
+     */
+    public void track(Long orderId, LocalDateTime expireTime) {
+        if (orderId == null || expireTime == null) {
+            return;
+        }
+        long deadline = deadlineOf(expireTime);
+        if (deadline - System.currentTimeMillis() <= lookaheadMs) {
+            wheel.schedule(orderId, deadline);
+        } else {
+            wheel.cancel(orderId);
+        }
+    }
+
+    /**
+     * 获取过期引擎运行状态
+     *
+     * @return 状态信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("pendingOrders", wheel.size());
+        status.put("expiredCount", expiredCount.get());
+        status.put("releasedIpCount", releasedIpCount.get());
+        status.put("lastSweepTime", lastSweepTime);
+        return status;
+    }
+
+    /**
+     * 处理一块到期订单并在提交后发布过期事件
+     *
+     * @param orderIds 订单ID列表，为空时按到期时间取一块
+     * @return 标记过期的订单
+     */
+    private List<Order> expireChunk(List<Long> orderIds) {
+        List<Order> expired = transactionTemplate.execute(status -> {
+            List<Order> locked = orderIds == null
+                    ? orderMapper.lockExpiredOrders(chunkSize)
+                    : orderMapper.lockExpiredOrdersByIds(orderIds);
+            if (locked.isEmpty()) {
+                return locked;
+            }
+            List<Long> ids = new ArrayList<>(locked.size());
+            for (Order order : locked) {
+                ids.add(order.getId());
+            }
+            orderMapper.expireOrders(ids);
+            releasedIpCount.addAndGet(ipPoolMapper.releaseOrderIps(ids));
+            return locked;
+        });
+
+        for (Order order : expired) {
+            wheel.cancel(order.getId());
+            eventPublisher.publishEvent(new OrderExpiredEvent(order.getId(), order.getOrderNo(),
+                    order.getCustomerId(), order.getCustomerAccount(), order.getExpireTime()));
+        }
+        expiredCount.addAndGet(expired.size());
+        return expired;
+    }
+
+    /**
+     * 加载即将到期的订单到时间轮
+     */
+    private int scheduleUpcoming() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime before = now.plusNanos(lookaheadMs * 1_000_000L);
+        LocalDateTime afterTime = now;
+        Long afterId = 0L;
+        int scheduled = 0;
+        List<Long> due = new ArrayList<>();
+        List<Order> page;
+        do {
+            page = orderMapper.selectUpcomingExpirations(afterTime, afterId, before, chunkSize);
+            for (Order order : page) {
+                if (wheel.schedule(order.getId(), deadlineOf(order.getExpireTime()))) {
+                    due.add(order.getId());
+                }
+            }
+            scheduled += page.size();
+            if (!page.isEmpty()) {
+                Order last = page.get(page.size() - 1);
+                afterTime = last.getExpireTime();
+                afterId = last.getId();
+            }
+        } while (page.size() == chunkSize);
+
+        // 扫描期间刚到期的订单直接处理
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            expireChunk(due.subList(from, Math.min(due.size(), from + chunkSize)));
+        }
+        return scheduled;
+    }
+
+    /**
+     * 时间轮到期时间：比 expire_time 晚一个精度，避免与数据库时钟的细微偏差导致到期条件落空
+     */
+    private long deadlineOf(LocalDateTime expireTime) {
+        return expireTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + tickMs;
+    }
+}
@@ -0,0 +1,202 @@
+package com.saas.platform.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saas.platform.entity.Order;
+import com.saas.platform.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 订单流式导出器
+ * 通过只进游标逐行读取订单并立即写出为CSV或NDJSON，内存中只保留当前行和输出缓冲区，
+ * 导出行数不影响堆占用；每写出一定行数刷新一次，客户端在查询开始返回数据后即可收到内容
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class OrderExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExporter.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * CSV列定义：表头与取值方式
+     */
+    private static final List<Column> COLUMNS = List.of(
+            new Column("订单ID", Order::getId),
+            new Column("订单号", Order::getOrderNo),
+            new Column("客户ID", Order::getCustomerId),
+            new Column("客户账号", Order::getCustomerAccount),
+            new Column("客户名称", Order::getCustomerName),
+            new Column("客户经理ID", Order::getManagerId),
+            new Column("产品名称", Order::getProductName),
+            new Column("订单状态", Order::getOrderStatus),
+            new Column("支付状态", Order::getPaymentStatus),
+            new Column("订单总金额", Order::getTotalAmount),
+            new Column("实际支付金额", Order::getActualAmount),
+            new Column("优惠金额", Order::getDiscountAmount),
+            new Column("国家", Order::getCountry),
+            new Column("城市", Order::getCity),
+            new Column("IP质量", Order::getIpQuality),
+            new Column("IP数量", Order::getIpCount),
+            new Column("时长(天)", Order::getDurationDays),
+            new Column("开始日期", Order::getStartDate),
+            new Column("结束日期", Order::getEndDate),
+            new Column("IP地址", order -> order.getIpAddresses() == null ? null : String.join(";", order.getIpAddresses())),
+            new Column("支付时间", order -> order.getPaymentTime() == null ? null : DATE_TIME.format(order.getPaymentTime())),
+            new Column("到期时间", order -> order.getExpireTime() == null ? null : DATE_TIME.format(order.getExpireTime())),
+            new Column("创建时间", order -> order.getCreatedAt() == null ? null : DATE_TIME.format(order.getCreatedAt()))
+    );
+
+    private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 每写出多少行刷新一次输出
+     */
+    @Value("${order.export.flush-rows:500}")
+    private int flushRows;
+
+    public OrderExporter(OrderMapper orderMapper, ObjectMapper objectMapper) {
+        this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 判断是否为支持的导出格式
+     *
+     * @param format 格式
+     * @return 是否支持
+     */
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_CSV.equalsIgnoreCase(format) || FORMAT_NDJSON.equalsIgnoreCase(format);
+    }
+
+    /**
+     * 按条件流式导出订单
+     *
+     * @param wrapper 筛选及排序条件（需包含逻辑删除条件）
+     * @param format 格式：csv或ndjson
+     * @param output 输出流，导出结束后刷新但不关闭
+     * @return 导出行数
+     * @throws IOException 写出失败（如客户端断开）
+     */
+    public long export(Wrapper<Order> wrapper, String format, OutputStream output) throws IOException {
+        long start = System.currentTimeMillis();
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (csv) {
+            // BOM 便于 Excel 识别 UTF-8
+            writer.write('\uFEFF');
+            writeCsvHeader(writer);
+        }
+        writer.flush();
+
+        long[] rows = {0};
+        IOException[] failure = {null};
+        orderMapper.streamOrders(wrapper, context -> {
+            try {
+                if (csv) {
+                    writeCsvRow(writer, context.getResultObject());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(context.getResultObject()));
+                    writer.write('\n');
+                }
+                if (++rows[0] % flushRows == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                // 客户端断开后停止读取，剩余结果由驱动在关闭结果集时丢弃
+                failure[0] = e;
+                context.stop();
+            }
+        });
+        if (failure[0] != null) {
+            log.warn("订单导出中断: format={}, 已写出{}行, 耗时={}ms, 原因={}", format, rows[0],
+                    System.currentTimeMillis() - start, failure[0].getMessage());
+            throw failure[0];
+        }
+        writer.flush();
+
+        log.info("订单导出完成: format={}, 行数={}, 耗时={}ms", format, rows[0], System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private static void writeCsvHeader(Writer writer) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(COLUMNS.get(i).header);
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvRow(Writer writer, Order order) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = COLUMNS.get(i).getter.apply(order);
+            if (value instanceof String text) {
+                writeCsvText(writer, text);
+            } else if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * 写出文本单元格：含分隔符、引号或换行时加引号转义；以 = + - @ 开头时加单引号前缀，避免被表格软件当作公式执行
+     */
+    private static void writeCsvText(Writer writer, String text) throws IOException {
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * 导出格式对应的 Content-Type
+     *
+     * @param format 格式
+     * @return Content-Type
+     */
+    public static String contentTypeOf(String format) {
+        return FORMAT_CSV.equalsIgnoreCase(format) ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8";
+    }
+
+    private static class Column {
+        private final String header;
+        private final Function<Order, Object> getter;
+
+        private Column(String header, Function<Order, Object> getter) {
+            this.header = header;
+            this.getter = getter;
+        }
+    }
+}
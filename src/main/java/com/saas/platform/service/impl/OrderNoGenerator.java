@@ -0,0 +1,194 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.mapper.IdSegmentMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单号生成器
+ * 订单号为 ORD + yyyyMMdd + 至少6位序号，序号按日期从1开始。各实例从 id_segments 按号段租用序号，
+ * 租用在独立事务中完成；号段内的序号在内存中无锁发放，剩余不足一定比例时后台预取下一号段，
+ * 因此多实例、重启后都不会重复（重启或跨日丢弃的序号不再使用，订单号允许不连续）。
+ * 每次重启或预取都会消耗一个号段，6位序号在默认号段大小1000下每天可租用999次；
+ * 序号超过6位时订单号随之变长，仍然唯一，但按订单号字符串排序不再等同于按序号排序
+ *
+ * @author SaaS Xbox Team
+ */
+@Component
+public class OrderNoGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNoGenerator.class);
+
+    private static final String BIZ_TAG = "order_no";
+
+    private static final String PREFIX = "ORD";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * 序号最少位数，不足时左补0
+     */
+    private static final int SEQUENCE_WIDTH = 6;
+
+    private static final String SEQUENCE_FORMAT = "%0" + SEQUENCE_WIDTH + "d";
+
+    private static final long MAX_FIXED_WIDTH_SEQUENCE = (long) Math.pow(10, SEQUENCE_WIDTH) - 1;
+
+    private final IdSegmentMapper idSegmentMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 每次租用的序号数
+     */
+    @Value("${order.no.segment-step:1000}")
+    private int step;
+
+    /**
+     * 剩余比例低于该值时预取下一号段
+     */
+    @Value("${order.no.prefetch-ratio:0.2}")
+    private double prefetchRatio;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "order-no-segment");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Segment current;
+
+    /**
+     * 预取中的下一号段，由 this 保护
+     */
+    private CompletableFuture<Segment> next;
+
+    private final AtomicLong leasedCount = new AtomicLong();
+
+    public OrderNoGenerator(IdSegmentMapper idSegmentMapper, PlatformTransactionManager transactionManager) {
+        this.idSegmentMapper = idSegmentMapper;
+        // 租用号段不跟随调用方事务：订单回滚时号段照常生效，也不会在订单事务期间一直锁住号段行
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 生成订单号
+     *
+     * @return 订单号
+     */
+    public String nextOrderNo() {
+        String date = LocalDate.now().format(DATE_FORMATTER);
+        while (true) {
+            Segment segment = current;
+            if (segment != null && segment.date.equals(date)) {
+                long value = segment.cursor.getAndIncrement();
+                if (value <= segment.max) {
+                    if (segment.max - value < segment.prefetchBelow && segment.prefetched.compareAndSet(false, true)) {
+                        prefetch();
+                    }
+                    return PREFIX + date + String.format(SEQUENCE_FORMAT, value);
+                }
+            }
+            switchSegment(segment, date);
+        }
+    }
+
+    /**
+     * 获取生成器状态
+     *
+     * @return 状态信息
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Segment segment = current;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("step", step);
+        status.put("date", segment == null ? null : segment.date);
+        status.put("remaining", segment == null ? 0 : Math.max(0, segment.max - segment.cursor.get() + 1));
+        status.put("prefetching", next != null);
+        status.put("leasedSegments", leasedCount.get());
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 当前号段用完或跨日时切换：优先使用预取的号段，没有或日期不符时同步租用
+     */
+    private synchronized void switchSegment(Segment exhausted, String date) {
+        if (current != exhausted) {
+            // 其他线程已切换
+            return;
+        }
+        Segment candidate = null;
+        if (next != null) {
+            CompletableFuture<Segment> pending = next;
+            next = null;
+            try {
+                candidate = pending.join();
+            } catch (Exception e) {
+                log.warn("预取订单号段失败，改为同步租用: {}", e.getMessage());
+            }
+            if (candidate != null && !candidate.date.equals(date)) {
+                candidate = null;
+            }
+        }
+        current = candidate != null ? candidate : lease(date);
+    }
+
+    private synchronized void prefetch() {
+        if (next == null) {
+            next = CompletableFuture.supplyAsync(() -> lease(LocalDate.now().format(DATE_FORMATTER)), executor);
+        }
+    }
+
+    private Segment lease(String date) {
+        Long max = transactionTemplate.execute(status -> {
+            idSegmentMapper.lease(BIZ_TAG, date, step);
+            return idSegmentMapper.selectMaxId(BIZ_TAG, date);
+        });
+        leasedCount.incrementAndGet();
+        if (max > MAX_FIXED_WIDTH_SEQUENCE) {
+            log.warn("订单序号超过{}位，订单号将变长，请调大号段大小或检查频繁重启: date={}, max={}, step={}",
+                    SEQUENCE_WIDTH, date, max, step);
+        }
+        log.debug("租用订单号段: date={}, {} ~ {}", date, max - step + 1, max);
+        return new Segment(date, max - step + 1, max, (long) Math.ceil(step * prefetchRatio));
+    }
+
+    /**
+     * 号段：[cursor, max]
+     */
+    private static final class Segment {
+        private final String date;
+        private final AtomicLong cursor;
+        private final long max;
+        private final long prefetchBelow;
+        private final AtomicBoolean prefetched = new AtomicBoolean();
+
+        private Segment(String date, long start, long max, long prefetchBelow) {
+            this.date = date;
+            this.cursor = new AtomicLong(start);
+            this.max = max;
+            this.prefetchBelow = prefetchBelow;
+        }
+    }
+}
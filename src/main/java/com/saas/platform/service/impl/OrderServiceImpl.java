@@ -4,21 +4,30 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.saas.platform.dto.CursorPage;
+import com.saas.platform.entity.IpPool;
 import com.saas.platform.entity.Order;
 import com.saas.platform.exception.BusinessException;
+import com.saas.platform.mapper.IpPoolMapper;
 import com.saas.platform.mapper.OrderMapper;
+import com.saas.platform.service.OrderDailyStatService;
 import com.saas.platform.service.OrderService;
+import com.saas.platform.util.IpAddressUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 订单服务实现类
@@ -29,14 +38,131 @@ import java.util.concurrent.atomic.AtomicLong;
 @Service
 public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements OrderService {
 
-    // 订单号计数器
-    private static final AtomicLong ORDER_COUNTER = new AtomicLong(1);
+    private static final String COUNT_MODE_EXACT = "exact";
+    private static final String COUNT_MODE_ESTIMATE = "estimate";
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private final IpReservationManager ipReservationManager;
+    private final IpPoolMapper ipPoolMapper;
+    private final IpReplacer ipReplacer;
+    private final OrderNoGenerator orderNoGenerator;
+    private final OrderExpiryEngine orderExpiryEngine;
+    private final OrderDailyStatService orderDailyStatService;
+    private final OrderExporter orderExporter;
+
+    /**
+     * 估算总数时最多统计的行数
+     */
+    @Value("${order.page.count-limit:10000}")
+    private long countLimit;
+
+    public OrderServiceImpl(IpReservationManager ipReservationManager, IpPoolMapper ipPoolMapper,
+                            IpReplacer ipReplacer, OrderNoGenerator orderNoGenerator,
+                            OrderExpiryEngine orderExpiryEngine, OrderDailyStatService orderDailyStatService,
+                            OrderExporter orderExporter) {
+        this.ipReservationManager = ipReservationManager;
+        this.ipPoolMapper = ipPoolMapper;
+        this.ipReplacer = ipReplacer;
+        this.orderNoGenerator = orderNoGenerator;
+        this.orderExpiryEngine = orderExpiryEngine;
+        this.orderDailyStatService = orderDailyStatService;
+        this.orderExporter = orderExporter;
+    }
 
     @Override
     public IPage<Order> getOrderPage(Long current, Long size, String orderNo, String customerAccount, String customerName,
                                    String orderStatus, String paymentStatus, String country, String city, String ipQuality, 
                                    String ipAddress, String productName, Long managerId, String startTime, String endTime) {
         Page<Order> page = new Page<>(current, size);
+        LambdaQueryWrapper<Order> wrapper = buildQueryWrapper(orderNo, customerAccount, customerName, orderStatus,
+                paymentStatus, country, city, ipQuality, ipAddress, productName, managerId, startTime, endTime);
+
+        // 按创建时间倒序排列
+        wrapper.orderByDesc(Order::getCreatedAt);
+
+        return this.page(page, wrapper);
+    }
+
+    @Override
+    public CursorPage<Order> getOrderCursorPage(String cursor, Long size, String countMode, String orderNo,
+                                                String customerAccount, String customerName, String orderStatus,
+                                                String paymentStatus, String country, String city, String ipQuality,
+                                                String ipAddress, String productName, Long managerId,
+                                                String startTime, String endTime) {
+        int pageSize = size == null || size < 1 ? 10 : (int) Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        LambdaQueryWrapper<Order> wrapper = buildQueryWrapper(orderNo, customerAccount, customerName, orderStatus,
+                paymentStatus, country, city, ipQuality, ipAddress, productName, managerId, startTime, endTime);
+        
+        CursorPage<Order> result = new CursorPage<>();
+        // 总数只在第一页统计，翻页时沿用前端已有的值
+        if (!StringUtils.hasText(cursor)) {
+            if (COUNT_MODE_EXACT.equals(countMode)) {
+                result.setTotal(baseMapper.selectCount(wrapper));
+            } else if (COUNT_MODE_ESTIMATE.equals(countMode)) {
+                // 自定义SQL不会自动追加逻辑删除条件
+                LambdaQueryWrapper<Order> countWrapper = buildQueryWrapper(orderNo, customerAccount, customerName,
+                        orderStatus, paymentStatus, country, city, ipQuality, ipAddress, productName, managerId,
+                        startTime, endTime);
+                countWrapper.isNull(Order::getDeletedAt);
+                long counted = baseMapper.countLimited(countWrapper, countLimit + 1);
+                result.setTotal(Math.min(counted, countLimit));
+                result.setTotalEstimated(counted > countLimit);
+            }
+        }
+        
+        // 按 (created_at, id) 倒序定位到游标之后，走 idx_created_at 索引范围扫描，与翻页深度无关
+        if (StringUtils.hasText(cursor)) {
+            OrderCursor position = OrderCursor.decode(cursor);
+            wrapper.and(w -> w.le(Order::getCreatedAt, position.createdAt)
+                    .and(x -> x.lt(Order::getCreatedAt, position.createdAt).or().lt(Order::getId, position.id)));
+        }
+        wrapper.orderByDesc(Order::getCreatedAt).orderByDesc(Order::getId);
+        
+        // 多取一条判断是否还有下一页，不执行COUNT；按状态筛选时指定 idx_status_created_at，避免深翻页退化为逐行扫描
+        Page<Order> page = new Page<>(1, pageSize + 1, false);
+        List<Order> records;
+        if (StringUtils.hasText(orderStatus)) {
+            // 自定义SQL不会自动追加逻辑删除条件
+            wrapper.isNull(Order::getDeletedAt);
+            records = baseMapper.selectPageByStatusIndex(page, wrapper).getRecords();
+        } else {
+            records = baseMapper.selectPage(page, wrapper).getRecords();
+        }
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+            Order last = records.get(pageSize - 1);
+            result.setNextCursor(new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        result.setRecords(records);
+        result.setHasMore(hasMore);
+        return result;
+    }
+
+    @Override
+    public long exportOrders(OutputStream output, String format, String orderNo, String customerAccount,
+                             String customerName, String orderStatus, String paymentStatus, String country,
+                             String city, String ipQuality, String ipAddress, String productName, Long managerId,
+                             String startTime, String endTime) throws IOException {
+        if (!OrderExporter.isSupportedFormat(format)) {
+            throw new BusinessException("不支持的导出格式: " + format);
+        }
+        LambdaQueryWrapper<Order> wrapper = buildQueryWrapper(orderNo, customerAccount, customerName, orderStatus,
+                paymentStatus, country, city, ipQuality, ipAddress, productName, managerId, startTime, endTime);
+        // 自定义SQL不会自动追加逻辑删除条件
+        wrapper.isNull(Order::getDeletedAt);
+        wrapper.orderByDesc(Order::getCreatedAt).orderByDesc(Order::getId);
+        return orderExporter.export(wrapper, format, output);
+    }
+
+    /**
+     * 构建订单列表的筛选条件（不含排序）
+     */
+    private LambdaQueryWrapper<Order> buildQueryWrapper(String orderNo, String customerAccount, String customerName,
+                                                        String orderStatus, String paymentStatus, String country,
+                                                        String city, String ipQuality, String ipAddress,
+                                                        String productName, Long managerId,
+                                                        String startTime, String endTime) {
         LambdaQueryWrapper<Order> wrapper = new LambdaQueryWrapper<>();
         
         // 订单号查询
@@ -79,9 +205,9 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             wrapper.eq(Order::getIpQuality, ipQuality);
         }
         
-        // IP地址查询 - 这里使用JSON数组查询，需要用JSON_CONTAINS函数
+        // IP地址查询 - 走 order_ips 索引表，不扫描 ip_addresses
         if (StringUtils.hasText(ipAddress)) {
-            wrapper.apply("JSON_CONTAINS(ip_addresses, '\"" + ipAddress + "\"')");
+            wrapper.apply("id IN (SELECT order_id FROM order_ips WHERE ip_address = {0})", canonicalIp(ipAddress));
         }
         
         // 产品名称查询
@@ -113,10 +239,7 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             }
         }
         
-        // 按创建时间倒序排列
-        wrapper.orderByDesc(Order::getCreatedAt);
-        
-        return this.page(page, wrapper);
+        return wrapper;
     }
 
     @Override
@@ -143,6 +266,23 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         return baseMapper.selectByManagerId(managerId);
     }
 
+    @Override
+    public List<Order> getByIpAddress(String ipAddress) {
+        if (!StringUtils.hasText(ipAddress)) {
+            return null;
+        }
+        return baseMapper.selectByIpAddress(canonicalIp(ipAddress));
+    }
+
+    /**
+     * 订单IP按规范文本存储，查询的IP按相同规则转换；无法解析时按去掉首尾空白的原文匹配
+     */
+    private static String canonicalIp(String ipAddress) {
+        String trimmed = ipAddress.trim();
+        String normalized = IpAddressUtil.normalize(trimmed);
+        return normalized == null ? trimmed : normalized;
+    }
+
     @Override
     public List<Order> getActiveOrdersByCustomerId(Long customerId) {
         if (customerId == null) {
@@ -184,7 +324,13 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         // TODO: 验证产品是否存在
         // TODO: 计算订单金额
         
-        return save(order);
+        boolean saved = save(order);
+        
+        // 待支付订单预留IP，到期未支付自动释放；数量不足时抛出异常回滚订单
+        if (saved && "待支付".equals(order.getOrderStatus()) && order.getIpCount() != null && order.getIpCount() > 0) {
+            ipReservationManager.reserve(order.getId(), order.getCountry(), order.getIpQuality(), order.getIpCount());
+        }
+        return saved;
     }
 
     @Override
@@ -217,6 +363,9 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             throw new BusinessException("只有待支付或已取消的订单才能删除");
         }
         
+        // 释放预留的IP
+        ipReservationManager.release(id);
+        
         return removeById(id);
     }
 
@@ -229,6 +378,9 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         
         // TODO: 批量检查订单状态
         
+        // 释放预留的IP
+        ipReservationManager.release(ids);
+        
         return removeByIds(ids);
     }
 
@@ -239,6 +391,30 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             return false;
         }
         
+        // 待支付订单离开待支付状态：转为已支付/运行中时预留转为占用，其余状态释放预留
+        if (!"待支付".equals(status)) {
+            List<Order> pendingOrders = new ArrayList<>();
+            for (Order order : listByIds(ids)) {
+                if ("待支付".equals(order.getOrderStatus()) && order.getIpCount() != null && order.getIpCount() > 0) {
+                    pendingOrders.add(order);
+                }
+            }
+            if ("已支付".equals(status) || "运行中".equals(status)) {
+                for (Order order : pendingOrders) {
+                    confirmReservedIps(order);
+                }
+                if (!pendingOrders.isEmpty()) {
+                    baseMapper.batchUpdateIpAddresses(pendingOrders);
+                }
+            } else if (!pendingOrders.isEmpty()) {
+                List<Long> pendingIds = new ArrayList<>();
+                for (Order order : pendingOrders) {
+                    pendingIds.add(order.getId());
+                }
+                ipReservationManager.release(pendingIds);
+            }
+        }
+        
         return baseMapper.batchUpdateStatus(ids, status) > 0;
     }
 
@@ -261,6 +437,11 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         // TODO: 检查客户余额
         // TODO: 扣减客户余额
         
+        // 预留的IP转为占用
+        if (order.getIpCount() != null && order.getIpCount() > 0) {
+            confirmReservedIps(order);
+        }
+        
         // 更新订单状态
         order.setOrderStatus("已支付");
         order.setPaymentStatus("已支付");
@@ -342,7 +523,9 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         LocalDateTime newExpireTime = order.getExpireTime().plusDays(days);
         order.setExpireTime(newExpireTime);
         
-        return updateById(order);
+        boolean updated = updateById(order);
+        orderExpiryEngine.track(order.getId(), newExpireTime);
+        return updated;
     }
 
     @Override
@@ -374,50 +557,41 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             throw new BusinessException("原IP地址不能为空");
         }
         
-        // TODO: 释放原IP
-        // TODO: 分配新IP
+        IpPool ip = ipPoolMapper.selectByIpAddress(oldIp.trim());
+        if (ip == null || !orderId.equals(ip.getCurrentOrderId())) {
+            throw new BusinessException("原IP未被该订单占用");
+        }
         
-        // 返回新IP地址
-        return "192.168.1.1"; // 模拟返回新IP
+        // 释放原IP并分配相同国家、质量的新IP，同时更新订单IP列表和更换记录
+        IpReplacer.Result result = ipReplacer.replace(List.of(ip.getId()), "可用", reason);
+        if (result.getReplaced().isEmpty()) {
+            throw new BusinessException("没有可用的替换IP");
+        }
+        return result.getReplaced().values().iterator().next().getIpAddress();
     }
 
     @Override
-    @Transactional
     public int processExpiredOrders() {
-        List<Order> expiredOrders = getExpiredOrders();
-        int processedCount = 0;
-        
-        for (Order order : expiredOrders) {
-            if ("运行中".equals(order.getOrderStatus())) {
-                order.setOrderStatus("已过期");
-                updateById(order);
-                processedCount++;
-                
-                // TODO: 释放订单占用的IP
-                // TODO: 发送过期通知
-            }
-        }
-        
-        return processedCount;
+        // 分块处理，每块一个事务，并收回订单占用的IP、发布过期事件
+        return orderExpiryEngine.sweep();
     }
 
     @Override
     public String generateOrderNo() {
-        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long counter = ORDER_COUNTER.getAndIncrement();
-        return "ORD" + dateStr + String.format("%04d", counter);
+        return orderNoGenerator.nextOrderNo();
     }
 
     @Override
     public Map<String, Object> getOrderStatistics(LocalDateTime startTime, LocalDateTime endTime) {
         Map<String, Object> result = new HashMap<>();
         
-        // 总订单数
-        long totalCount = count();
+        // 各状态订单数量（读日统计表），总订单数为各状态之和
+        List<Map<String, Object>> statusCount = orderDailyStatService.countByStatus();
+        long totalCount = 0;
+        for (Map<String, Object> row : statusCount) {
+            totalCount += (Long) row.get("value");
+        }
         result.put("totalCount", totalCount);
-        
-        // 各状态订单数量
-        List<Map<String, Object>> statusCount = baseMapper.countByStatus();
         result.put("statusCount", statusCount);
         
         // 各支付状态订单数量
@@ -426,7 +600,7 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         
         // 指定时间范围内的订单金额汇总
         if (startTime != null && endTime != null) {
-            Map<String, Object> amountSum = baseMapper.sumOrderAmount(startTime, endTime);
+            Map<String, Object> amountSum = orderDailyStatService.sumOrderAmount(startTime, endTime);
             result.put("amountSum", amountSum);
         }
         
@@ -435,16 +609,57 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
 
     @Override
     public List<Map<String, Object>> getOrderStatisticsByDate(LocalDateTime startTime, LocalDateTime endTime) {
-        return baseMapper.countByDate(startTime, endTime);
+        return orderDailyStatService.countByDate(startTime, endTime);
     }
 
     @Override
     public List<Map<String, Object>> getOrderStatisticsByProduct(LocalDateTime startTime, LocalDateTime endTime) {
-        return baseMapper.countByProduct(startTime, endTime);
+        return orderDailyStatService.countByProduct(startTime, endTime);
     }
 
     @Override
     public List<Map<String, Object>> getOrderStatisticsByCountry(LocalDateTime startTime, LocalDateTime endTime) {
-        return baseMapper.countByCountry(startTime, endTime);
+        return orderDailyStatService.countByCountry(startTime, endTime);
+    }
+
+    /**
+     * 订单预留的IP转为占用，并回填订单的IP地址列表
+     */
+    private void confirmReservedIps(Order order) {
+        ipReservationManager.confirm(order.getId(), order.getCountry(), order.getIpQuality(), order.getIpCount());
+        List<String> ipAddresses = new ArrayList<>();
+        for (IpPool ip : ipPoolMapper.selectByOrderId(order.getId())) {
+            ipAddresses.add(ip.getIpAddress());
+        }
+        order.setIpAddresses(ipAddresses);
+    }
+
+    /**
+     * 订单列表游标：最后一条记录的 (created_at, id)，以URL安全的Base64编码
+     */
+    private static final class OrderCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private OrderCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        private String encode() {
+            String text = createdAt + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static OrderCursor decode(String cursor) {
+            try {
+                String text = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                int comma = text.indexOf(',');
+                return new OrderCursor(LocalDateTime.parse(text.substring(0, comma)),
+                        Long.valueOf(text.substring(comma + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException("分页游标格式错误");
+            }
+        }
     }
-}
\ No newline at end of file
+}
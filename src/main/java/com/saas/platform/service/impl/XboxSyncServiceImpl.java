@@ -4,6 +4,7 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.saas.platform.config.CacheConfig;
 import com.saas.platform.dto.Result;
 import com.saas.platform.entity.Node;
 import com.saas.platform.exception.BusinessException;
@@ -13,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -94,6 +96,7 @@ public class XboxSyncServiceImpl implements XboxSyncService {
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public Result<String> syncAllNodes() {
         try {
             log.info("开始同步所有Xbox节点信息");
@@ -152,6 +155,7 @@ public class XboxSyncServiceImpl implements XboxSyncService {
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public Result<String> syncNodeById(String agentId) {
         try {
             log.info("开始同步指定节点: {}", agentId);
@@ -193,6 +197,7 @@ public class XboxSyncServiceImpl implements XboxSyncService {
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.NODE_STATISTICS_CACHE, allEntries = true)
     public Result<String> syncNodeStatus() {
         try {
             log.info("开始同步节点状态信息");
@@ -0,0 +1,161 @@
+package com.saas.platform.util;
+
+/**
+ * CIDR地址段
+ * 起止地址以数值保存，按偏移量计算段内地址，不需要逐个生成
+ *
+ * @author SaaS Xbox Team
+ */
+public final class CidrRange {
+
+    private final int version;
+    private final int prefix;
+    private final long startHi;
+    private final long startLo;
+    private final long size;
+
+    private CidrRange(int version, int prefix, long startHi, long startLo) {
+        int hostBits = (version == 4 ? 32 : 128) - prefix;
+        this.version = version;
+        this.prefix = prefix;
+        this.startHi = startHi;
+        this.startLo = startLo;
+        this.size = hostBits > 62 ? Long.MAX_VALUE : 1L << hostBits;
+    }
+
+    /**
+     * 解析CIDR文本，主机位不为零时按前缀取网络地址；不带前缀的单个地址视为/32或/128
+     *
+     * @param cidr 如 203.0.113.0/24、2001:db8::/120
+     * @return 地址段
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static CidrRange parse(String cidr) {
+        if (cidr == null || cidr.isBlank()) {
+            throw new IllegalArgumentException("CIDR不能为空");
+        }
+        String text = cidr.trim();
+        int slash = text.indexOf('/');
+        String address = slash < 0 ? text : text.substring(0, slash);
+
+        long ipv4 = IpAddressUtil.parseIpv4(address);
+        if (ipv4 != IpAddressUtil.INVALID_IPV4) {
+            int prefix = slash < 0 ? 32 : parsePrefix(text.substring(slash + 1), 32);
+            long mask = prefix == 0 ? 0 : (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+            return new CidrRange(4, prefix, 0, ipv4 & mask);
+        }
+
+        long[] ipv6 = new long[2];
+        if (!IpAddressUtil.looksLikeIpv6(address) || !IpAddressUtil.parseIpv6(address, ipv6)) {
+            throw new IllegalArgumentException("CIDR格式错误: " + cidr);
+        }
+        int prefix = slash < 0 ? 128 : parsePrefix(text.substring(slash + 1), 128);
+        long hiMask = prefix >= 64 ? -1L : prefix == 0 ? 0 : -1L << (64 - prefix);
+        long loMask = prefix <= 64 ? 0 : prefix == 128 ? -1L : -1L << (128 - prefix);
+        return new CidrRange(6, prefix, ipv6[0] & hiMask, ipv6[1] & loMask);
+    }
+
+    /**
+     * 将IPv4前几段（如 203.0.113 或 203.0.113.）解析为对应的/8、/16、/24地址段
+     *
+     * @param text 文本
+     * @return 地址段，不是IPv4前缀时返回null
+     */
+    public static CidrRange parseIpv4Octets(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        if (trimmed.endsWith(".")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        int octets = trimmed.isEmpty() ? 0 : 1;
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) == '.') {
+                octets++;
+            }
+        }
+        if (octets < 1 || octets > 3) {
+            return null;
+        }
+        StringBuilder address = new StringBuilder(trimmed);
+        for (int i = octets; i < 4; i++) {
+            address.append(".0");
+        }
+        long value = IpAddressUtil.parseIpv4(address);
+        if (value == IpAddressUtil.INVALID_IPV4) {
+            return null;
+        }
+        return new CidrRange(4, octets * 8, 0, value);
+    }
+
+    private static int parsePrefix(String text, int max) {
+        try {
+            int prefix = Integer.parseInt(text.trim());
+            if (prefix >= 0 && prefix <= max) {
+                return prefix;
+            }
+        } catch (NumberFormatException ignored) {
+            // 按格式错误处理
+        }
+        throw new IllegalArgumentException("CIDR前缀错误: /" + text);
+    }
+
+    /**
+     * 段内第offset个地址
+     *
+     * @param offset 0 ~ size-1
+     * @return IP地址文本
+     */
+    public String addressAt(long offset) {
+        if (offset < 0 || offset >= size) {
+            throw new IndexOutOfBoundsException("偏移量超出地址段: " + offset);
+        }
+        if (version == 4) {
+            return IpAddressUtil.formatIpv4(startLo + offset);
+        }
+        return IpAddressUtil.formatIpv6(startHi, startLo + offset);
+    }
+
+    /**
+     * 起始地址字节（与MySQL INET6_ATON一致）
+     */
+    public byte[] startBytes() {
+        return version == 4 ? IpAddressUtil.ipv4ToBytes(startLo) : IpAddressUtil.ipv6ToBytes(startHi, startLo);
+    }
+
+    /**
+     * 结束地址字节（与MySQL INET6_ATON一致）
+     */
+    public byte[] endBytes() {
+        if (version == 4) {
+            return IpAddressUtil.ipv4ToBytes(startLo + size - 1);
+        }
+        long endHi = prefix >= 64 ? startHi : startHi | (prefix == 0 ? -1L : -1L >>> prefix);
+        long endLo = prefix <= 64 ? -1L : prefix == 128 ? startLo : startLo | (-1L >>> (prefix - 64));
+        return IpAddressUtil.ipv6ToBytes(endHi, endLo);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * 段内地址数，超过2^62时返回 Long.MAX_VALUE
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 规范化的CIDR文本
+     */
+    @Override
+    public String toString() {
+        return addressAt(0) + "/" + prefix;
+    }
+}
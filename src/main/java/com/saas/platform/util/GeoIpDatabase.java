@@ -0,0 +1,205 @@
+package com.saas.platform.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 本地GeoIP离线库（只读）
+ * 文件通过内存映射加载，IPv4/IPv6区间按起始地址升序定长存储，查询时直接在映射区上二分查找，
+ * 查询过程不分配对象；地理位置字符串在加载时一次性解码。
+ *
+ * <pre>
+ * 文件格式（大端）：
+ *   头部 32 字节: magic(int) version(int) v4Count(int) v6Count(int) locationCount(int)
+ *                v4Offset(int) v6Offset(int) locationOffset(int)
+ *   IPv4区间 12 字节/条: start(int) end(int) locationIndex(int)
+ *   IPv6区间 36 字节/条: startHi(long) startLo(long) endHi(long) endLo(long) locationIndex(int)
+ *   位置表: 每条依次为 country/region/city，每个字段为 length(unsigned short) + UTF-8
+ * </pre>
+ *
+ * 文件由 {@link GeoIpDatabaseBuilder} 从CSV区间数据生成。
+ *
+ * @author SaaS Xbox Team
+ */
+public final class GeoIpDatabase {
+
+    static final int MAGIC = 0x53584750;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int V4_RECORD_SIZE = 12;
+    static final int V6_RECORD_SIZE = 36;
+
+    /**
+     * 未命中时的位置索引
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final MappedByteBuffer buffer;
+    private final int v4Count;
+    private final int v6Count;
+    private final int v4Offset;
+    private final int v6Offset;
+    private final String[] countries;
+    private final String[] regions;
+    private final String[] cities;
+    private final Path path;
+
+    private GeoIpDatabase(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的GeoIP库文件: " + path);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("不支持的GeoIP库版本: " + buffer.getInt(4));
+        }
+        this.v4Count = buffer.getInt(8);
+        this.v6Count = buffer.getInt(12);
+        int locationCount = buffer.getInt(16);
+        this.v4Offset = buffer.getInt(20);
+        this.v6Offset = buffer.getInt(24);
+        int locationOffset = buffer.getInt(28);
+        if ((long) v4Offset + (long) v4Count * V4_RECORD_SIZE > buffer.capacity()
+                || (long) v6Offset + (long) v6Count * V6_RECORD_SIZE > buffer.capacity()
+                || locationOffset > buffer.capacity()) {
+            throw new IOException("GeoIP库文件已损坏: " + path);
+        }
+
+        this.countries = new String[locationCount];
+        this.regions = new String[locationCount];
+        this.cities = new String[locationCount];
+        ByteBuffer strings = buffer.duplicate().position(locationOffset);
+        for (int i = 0; i < locationCount; i++) {
+            countries[i] = readString(strings);
+            regions[i] = readString(strings);
+            cities[i] = readString(strings);
+        }
+    }
+
+    /**
+     * 以内存映射方式打开GeoIP库文件
+     *
+     * @param path 文件路径
+     * @return 数据库实例
+     * @throws IOException 文件不存在或格式错误
+     */
+    public static GeoIpDatabase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("GeoIP库文件过大: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new GeoIpDatabase(path, buffer);
+        }
+    }
+
+    /**
+     * 查询IPv4地址所在区间的位置索引
+     *
+     * @param ip 0 ~ 2^32-1 的IPv4数值
+     * @return 位置索引，未命中返回 {@link #NOT_FOUND}
+     */
+    public int lookupIpv4(long ip) {
+        int target = (int) ip;
+        int low = 0;
+        int high = v4Count - 1;
+        int candidate = -1;
+        // 找到起始地址 <= ip 的最后一个区间
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int start = buffer.getInt(v4Offset + mid * V4_RECORD_SIZE);
+            if (Integer.compareUnsigned(start, target) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return NOT_FOUND;
+        }
+        int base = v4Offset + candidate * V4_RECORD_SIZE;
+        if (Integer.compareUnsigned(target, buffer.getInt(base + 4)) > 0) {
+            return NOT_FOUND;
+        }
+        return buffer.getInt(base + 8);
+    }
+
+    /**
+     * 查询IPv6地址所在区间的位置索引
+     *
+     * @param hi 高64位
+     * @param lo 低64位
+     * @return 位置索引，未命中返回 {@link #NOT_FOUND}
+     */
+    public int lookupIpv6(long hi, long lo) {
+        int low = 0;
+        int high = v6Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int base = v6Offset + mid * V6_RECORD_SIZE;
+            if (compare128(buffer.getLong(base), buffer.getLong(base + 8), hi, lo) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return NOT_FOUND;
+        }
+        int base = v6Offset + candidate * V6_RECORD_SIZE;
+        if (compare128(hi, lo, buffer.getLong(base + 16), buffer.getLong(base + 24)) > 0) {
+            return NOT_FOUND;
+        }
+        return buffer.getInt(base + 32);
+    }
+
+    public String getCountry(int locationIndex) {
+        return countries[locationIndex];
+    }
+
+    public String getRegion(int locationIndex) {
+        return regions[locationIndex];
+    }
+
+    public String getCity(int locationIndex) {
+        return cities[locationIndex];
+    }
+
+    public int getIpv4RangeCount() {
+        return v4Count;
+    }
+
+    public int getIpv6RangeCount() {
+        return v6Count;
+    }
+
+    public int getLocationCount() {
+        return countries.length;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    static int compare128(long aHi, long aLo, long bHi, long bLo) {
+        int c = Long.compareUnsigned(aHi, bHi);
+        return c != 0 ? c : Long.compareUnsigned(aLo, bLo);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,319 @@
+package com.saas.platform.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GeoIP离线库生成工具
+ * 从CSV区间数据生成 {@link GeoIpDatabase} 使用的二进制文件。
+ *
+ * <pre>
+ * CSV格式（无表头或以#开头的行会被跳过）：
+ *   start_ip,end_ip,country,region,city
+ * start_ip/end_ip 可以是点分IPv4、IPv6文本或十进制整数；
+ * ::ffff:0:0/96 范围内的IPv6映射地址按IPv4存储。
+ *
+ * 命令行用法：
+ *   java -cp app.jar -Dloader.main=com.saas.platform.util.GeoIpDatabaseBuilder \
+ *       org.springframework.boot.loader.launch.PropertiesLauncher ranges.csv geoip.dat
+ * </pre>
+ *
+ * @author SaaS Xbox Team
+ */
+public final class GeoIpDatabaseBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIpDatabaseBuilder.class);
+
+    private static final BigInteger MAX_IPV4 = BigInteger.valueOf(0xFFFFFFFFL);
+    private static final BigInteger LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    private static final long IPV4_MAPPED_HI = 0L;
+    private static final long IPV4_MAPPED_LO_PREFIX = 0x0000FFFF00000000L;
+
+    private GeoIpDatabaseBuilder() {
+    }
+
+    /**
+     * 生成结果统计
+     */
+    public static class BuildResult {
+        private final int ipv4Ranges;
+        private final int ipv6Ranges;
+        private final int locations;
+        private final int skippedLines;
+
+        BuildResult(int ipv4Ranges, int ipv6Ranges, int locations, int skippedLines) {
+            this.ipv4Ranges = ipv4Ranges;
+            this.ipv6Ranges = ipv6Ranges;
+            this.locations = locations;
+            this.skippedLines = skippedLines;
+        }
+
+        public int getIpv4Ranges() {
+            return ipv4Ranges;
+        }
+
+        public int getIpv6Ranges() {
+            return ipv6Ranges;
+        }
+
+        public int getLocations() {
+            return locations;
+        }
+
+        public int getSkippedLines() {
+            return skippedLines;
+        }
+
+        @Override
+        public String toString() {
+            return "BuildResult{ipv4Ranges=" + ipv4Ranges + ", ipv6Ranges=" + ipv6Ranges
+                    + ", locations=" + locations + ", skippedLines=" + skippedLines + '}';
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: GeoIpDatabaseBuilder <ranges.csv> <geoip.dat>");
+            System.exit(1);
+        }
+        BuildResult result = build(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("GeoIP库生成完成: " + result);
+    }
+
+    /**
+     * 从CSV生成GeoIP库文件，先写临时文件再原子替换，运行中的服务可直接重新加载
+     *
+     * @param csv CSV区间文件
+     * @param output 输出文件
+     * @return 生成统计
+     * @throws IOException 读写失败
+     */
+    public static BuildResult build(Path csv, Path output) throws IOException {
+        List<Range> v4 = new ArrayList<>();
+        List<Range> v6 = new ArrayList<>();
+        Map<String, Integer> locationIndex = new HashMap<>();
+        List<String[]> locations = new ArrayList<>();
+        int skipped = 0;
+        int lineNo = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                if (fields.size() < 3) {
+                    skipped++;
+                    continue;
+                }
+                long[] start = parseAddress(fields.get(0));
+                long[] end = parseAddress(fields.get(1));
+                if (start == null || end == null || start[2] != end[2]
+                        || GeoIpDatabase.compare128(start[0], start[1], end[0], end[1]) > 0) {
+                    // 表头或无法解析的行
+                    if (lineNo > 1) {
+                        log.warn("跳过无效GeoIP区间: line={}, content={}", lineNo, line);
+                    }
+                    skipped++;
+                    continue;
+                }
+
+                String country = fields.get(2);
+                String region = fields.size() > 3 ? fields.get(3) : "";
+                String city = fields.size() > 4 ? fields.get(4) : "";
+                String key = country + '\u0001' + region + '\u0001' + city;
+                int index = locationIndex.computeIfAbsent(key, k -> {
+                    locations.add(new String[]{country, region, city});
+                    return locations.size() - 1;
+                });
+
+                Range range = new Range(start[0], start[1], end[0], end[1], index);
+                (start[2] == 4 ? v4 : v6).add(range);
+            }
+        }
+
+        skipped += sortAndDropOverlaps(v4, "IPv4") + sortAndDropOverlaps(v6, "IPv6");
+
+        Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            int v4Offset = GeoIpDatabase.HEADER_SIZE;
+            int v6Offset = v4Offset + v4.size() * GeoIpDatabase.V4_RECORD_SIZE;
+            long locationOffset = (long) v6Offset + (long) v6.size() * GeoIpDatabase.V6_RECORD_SIZE;
+            if (locationOffset > Integer.MAX_VALUE) {
+                throw new IOException("GeoIP区间数量过多");
+            }
+
+            out.writeInt(GeoIpDatabase.MAGIC);
+            out.writeInt(GeoIpDatabase.FORMAT_VERSION);
+            out.writeInt(v4.size());
+            out.writeInt(v6.size());
+            out.writeInt(locations.size());
+            out.writeInt(v4Offset);
+            out.writeInt(v6Offset);
+            out.writeInt((int) locationOffset);
+
+            for (Range r : v4) {
+                out.writeInt((int) r.startLo);
+                out.writeInt((int) r.endLo);
+                out.writeInt(r.location);
+            }
+            for (Range r : v6) {
+                out.writeLong(r.startHi);
+                out.writeLong(r.startLo);
+                out.writeLong(r.endHi);
+                out.writeLong(r.endLo);
+                out.writeInt(r.location);
+            }
+            for (String[] location : locations) {
+                for (String field : location) {
+                    byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > 0xFFFF) {
+                        throw new IOException("地理位置字段过长: " + field.substring(0, Math.min(32, field.length())));
+                    }
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+        Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        BuildResult result = new BuildResult(v4.size(), v6.size(), locations.size(), skipped);
+        log.info("GeoIP库已生成: file={}, {}", output, result);
+        return result;
+    }
+
+    /**
+     * 按起始地址排序，并丢弃与前一区间重叠的区间，保证二分查找结果唯一
+     */
+    private static int sortAndDropOverlaps(List<Range> ranges, String family) {
+        ranges.sort((a, b) -> GeoIpDatabase.compare128(a.startHi, a.startLo, b.startHi, b.startLo));
+        int dropped = 0;
+        List<Range> kept = new ArrayList<>(ranges.size());
+        Range previous = null;
+        for (Range r : ranges) {
+            if (previous != null
+                    && GeoIpDatabase.compare128(r.startHi, r.startLo, previous.endHi, previous.endLo) <= 0) {
+                dropped++;
+                continue;
+            }
+            kept.add(r);
+            previous = r;
+        }
+        if (dropped > 0) {
+            log.warn("丢弃{}个重叠的{}区间", dropped, family);
+            ranges.clear();
+            ranges.addAll(kept);
+        }
+        return dropped;
+    }
+
+    /**
+     * 解析地址文本
+     *
+     * @return {高64位, 低64位, 协议族(4/6)}，无法解析返回null
+     */
+    private static long[] parseAddress(String text) {
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        long v4 = IpAddressUtil.parseIpv4(value);
+        if (v4 != IpAddressUtil.INVALID_IPV4) {
+            return new long[]{0, v4, 4};
+        }
+        if (IpAddressUtil.looksLikeIpv6(value)) {
+            long[] v6 = new long[2];
+            if (!IpAddressUtil.parseIpv6(value, v6)) {
+                return null;
+            }
+            return normalizeMapped(v6[0], v6[1]);
+        }
+        try {
+            BigInteger number = new BigInteger(value);
+            if (number.signum() < 0 || number.bitLength() > 128) {
+                return null;
+            }
+            if (number.compareTo(MAX_IPV4) <= 0) {
+                return new long[]{0, number.longValue(), 4};
+            }
+            return normalizeMapped(number.shiftRight(64).longValue(), number.and(LONG_MASK).longValue());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long[] normalizeMapped(long hi, long lo) {
+        if (hi == IPV4_MAPPED_HI && (lo & 0xFFFFFFFF00000000L) == IPV4_MAPPED_LO_PREFIX) {
+            return new long[]{0, lo & 0xFFFFFFFFL, 4};
+        }
+        return new long[]{hi, lo, 6};
+    }
+
+    /**
+     * 拆分CSV行，支持双引号包裹的字段
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private static final class Range {
+        private final long startHi;
+        private final long startLo;
+        private final long endHi;
+        private final long endLo;
+        private final int location;
+
+        private Range(long startHi, long startLo, long endHi, long endLo, int location) {
+            this.startHi = startHi;
+            this.startLo = startLo;
+            this.endHi = endHi;
+            this.endLo = endLo;
+            this.location = location;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.saas.platform.util;
+
+import java.util.Arrays;
+
+/**
+ * IP地址用途分类
+ * 基于IANA IPv4/IPv6特殊用途地址注册表（RFC 6890及后续更新）构建二进制前缀树，
+ * 按最长前缀匹配判断地址类型；查询过程只做位运算和数组访问，不分配对象
+ *
+ * @author SaaS Xbox Team
+ */
+public final class IpAddressClassifier {
+
+    /**
+     * 地址类型
+     */
+    public enum AddressType {
+        PUBLIC("公网地址", true, false),
+        PRIVATE("私有地址", false, true),
+        SHARED("运营商级NAT地址", false, true),
+        LOOPBACK("本地回环地址", false, true),
+        LINK_LOCAL("链路本地地址", false, true),
+        UNIQUE_LOCAL("唯一本地地址", false, true),
+        DOCUMENTATION("文档示例地址", false, false),
+        BENCHMARKING("基准测试地址", false, false),
+        MULTICAST("组播地址", false, false),
+        RESERVED("保留地址", false, false),
+        SPECIAL_GLOBAL("全局可达的特殊用途地址", true, false);
+
+        private final String description;
+        private final boolean globallyReachable;
+        private final boolean internal;
+
+        AddressType(String description, boolean globallyReachable, boolean internal) {
+            this.description = description;
+            this.globallyReachable = globallyReachable;
+            this.internal = internal;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * 是否可在公网路由（可进行地理位置查询）
+         */
+        public boolean isGloballyReachable() {
+            return globallyReachable;
+        }
+
+        /**
+         * 是否为内部网络地址（内网、回环、链路本地等）
+         */
+        public boolean isInternal() {
+            return internal;
+        }
+    }
+
+    private static final AddressType[] TYPES = AddressType.values();
+
+    private static final PrefixTrie IPV4 = new PrefixTrie();
+    private static final PrefixTrie IPV6 = new PrefixTrie();
+
+    private static final ThreadLocal<long[]> IPV6_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    static {
+        // IANA IPv4 Special-Purpose Address Registry
+        ipv4("0.0.0.0", 8, AddressType.RESERVED);
+        ipv4("10.0.0.0", 8, AddressType.PRIVATE);
+        ipv4("100.64.0.0", 10, AddressType.SHARED);
+        ipv4("127.0.0.0", 8, AddressType.LOOPBACK);
+        ipv4("169.254.0.0", 16, AddressType.LINK_LOCAL);
+        ipv4("172.16.0.0", 12, AddressType.PRIVATE);
+        ipv4("192.0.0.0", 24, AddressType.RESERVED);
+        ipv4("192.0.0.9", 32, AddressType.SPECIAL_GLOBAL);
+        ipv4("192.0.0.10", 32, AddressType.SPECIAL_GLOBAL);
+        ipv4("192.0.2.0", 24, AddressType.DOCUMENTATION);
+        ipv4("192.31.196.0", 24, AddressType.SPECIAL_GLOBAL);
+        ipv4("192.52.193.0", 24, AddressType.SPECIAL_GLOBAL);
+        ipv4("192.88.99.0", 24, AddressType.RESERVED);
+        ipv4("192.168.0.0", 16, AddressType.PRIVATE);
+        ipv4("192.175.48.0", 24, AddressType.SPECIAL_GLOBAL);
+        ipv4("198.18.0.0", 15, AddressType.BENCHMARKING);
+        ipv4("198.51.100.0", 24, AddressType.DOCUMENTATION);
+        ipv4("203.0.113.0", 24, AddressType.DOCUMENTATION);
+        ipv4("224.0.0.0", 4, AddressType.MULTICAST);
+        ipv4("240.0.0.0", 4, AddressType.RESERVED);
+        ipv4("255.255.255.255", 32, AddressType.RESERVED);
+
+        // IANA IPv6 Special-Purpose Address Registry
+        ipv6("::", 128, AddressType.RESERVED);
+        ipv6("::1", 128, AddressType.LOOPBACK);
+        ipv6("64:ff9b::", 96, AddressType.SPECIAL_GLOBAL);
+        ipv6("64:ff9b:1::", 48, AddressType.PRIVATE);
+        ipv6("100::", 64, AddressType.RESERVED);
+        ipv6("100:0:0:1::", 64, AddressType.RESERVED);
+        ipv6("2001::", 23, AddressType.RESERVED);
+        ipv6("2001::", 32, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:1::1", 128, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:1::2", 128, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:1::3", 128, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:2::", 48, AddressType.BENCHMARKING);
+        ipv6("2001:3::", 32, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:4:112::", 48, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:10::", 28, AddressType.RESERVED);
+        ipv6("2001:20::", 28, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:30::", 28, AddressType.SPECIAL_GLOBAL);
+        ipv6("2001:db8::", 32, AddressType.DOCUMENTATION);
+        ipv6("2002::", 16, AddressType.SPECIAL_GLOBAL);
+        ipv6("2620:4f:8000::", 48, AddressType.SPECIAL_GLOBAL);
+        ipv6("3fff::", 20, AddressType.DOCUMENTATION);
+        ipv6("5f00::", 16, AddressType.RESERVED);
+        ipv6("fc00::", 7, AddressType.UNIQUE_LOCAL);
+        ipv6("fe80::", 10, AddressType.LINK_LOCAL);
+        ipv6("ff00::", 8, AddressType.MULTICAST);
+    }
+
+    private IpAddressClassifier() {
+    }
+
+    /**
+     * 判断IP地址类型
+     *
+     * @param ip IPv4或IPv6地址文本
+     * @return 地址类型，格式错误返回null
+     */
+    public static AddressType classify(CharSequence ip) {
+        long ipv4 = IpAddressUtil.parseIpv4(ip);
+        if (ipv4 != IpAddressUtil.INVALID_IPV4) {
+            return classifyIpv4(ipv4);
+        }
+        long[] ipv6 = IPV6_BUFFER.get();
+        if (IpAddressUtil.looksLikeIpv6(ip) && IpAddressUtil.parseIpv6(ip, ipv6)) {
+            return classifyIpv6(ipv6[0], ipv6[1]);
+        }
+        return null;
+    }
+
+    /**
+     * 判断IPv4地址类型
+     *
+     * @param ip 0 ~ 2^32-1 的IPv4数值
+     * @return 地址类型
+     */
+    public static AddressType classifyIpv4(long ip) {
+        return IPV4.match(ip << 32, 0, 32);
+    }
+
+    /**
+     * 判断IPv6地址类型，IPv4映射地址（::ffff:0:0/96）按IPv4判断
+     *
+     * @param hi 高64位
+     * @param lo 低64位
+     * @return 地址类型
+     */
+    public static AddressType classifyIpv6(long hi, long lo) {
+        if (isIpv4Mapped(hi, lo)) {
+            return classifyIpv4(lo & 0xFFFFFFFFL);
+        }
+        return IPV6.match(hi, lo, 128);
+    }
+
+    /**
+     * 是否为IPv4映射的IPv6地址（::ffff:a.b.c.d）
+     */
+    public static boolean isIpv4Mapped(long hi, long lo) {
+        return hi == 0 && (lo >>> 32) == 0xFFFFL;
+    }
+
+    private static void ipv4(String prefix, int length, AddressType type) {
+        long value = IpAddressUtil.parseIpv4(prefix);
+        if (value == IpAddressUtil.INVALID_IPV4) {
+            throw new IllegalArgumentException("无效的IPv4前缀: " + prefix);
+        }
+        IPV4.insert(value << 32, 0, length, type);
+    }
+
+    private static void ipv6(String prefix, int length, AddressType type) {
+        long[] value = new long[2];
+        if (!IpAddressUtil.parseIpv6(prefix, value)) {
+            throw new IllegalArgumentException("无效的IPv6前缀: " + prefix);
+        }
+        IPV6.insert(value[0], value[1], length, type);
+    }
+
+    /**
+     * 二进制前缀树，节点以数组存储：children[2n]/children[2n+1] 为0/1分支，types[n] 为该节点前缀的类型
+     */
+    private static final class PrefixTrie {
+        private int[] children = new int[128];
+        private byte[] types = new byte[64];
+        private int size = 1;
+
+        private PrefixTrie() {
+            types[0] = (byte) AddressType.PUBLIC.ordinal();
+        }
+
+        private void insert(long hi, long lo, int length, AddressType type) {
+            int node = 0;
+            for (int i = 0; i < length; i++) {
+                int bit = bit(hi, lo, i);
+                int child = children[node * 2 + bit];
+                if (child == 0) {
+                    child = allocate();
+                    children[node * 2 + bit] = child;
+                }
+                node = child;
+            }
+            types[node] = (byte) type.ordinal();
+        }
+
+        private AddressType match(long hi, long lo, int maxBits) {
+            int node = 0;
+            int best = types[0];
+            for (int i = 0; i < maxBits; i++) {
+                int child = children[node * 2 + bit(hi, lo, i)];
+                if (child == 0) {
+                    break;
+                }
+                node = child;
+                if (types[node] >= 0) {
+                    best = types[node];
+                }
+            }
+            return TYPES[best];
+        }
+
+        private int allocate() {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                children = Arrays.copyOf(children, size * 4);
+            }
+            types[size] = -1;
+            return size++;
+        }
+
+        private static int bit(long hi, long lo, int index) {
+            return index < 64
+                    ? (int) (hi >>> (63 - index)) & 1
+                    : (int) (lo >>> (127 - index)) & 1;
+        }
+    }
+}
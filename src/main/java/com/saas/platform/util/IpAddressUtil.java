@@ -0,0 +1,391 @@
+package com.saas.platform.util;
+
+/**
+ * IP地址解析工具类
+ * 直接按字符解析IPv4/IPv6文本，不使用正则和字符串拆分，也不会触发DNS查询
+ *
+ * @author SaaS Xbox Team
+ */
+public final class IpAddressUtil {
+
+    /**
+     * IPv4解析失败时的返回值
+     */
+    public static final long INVALID_IPV4 = -1L;
+
+    private IpAddressUtil() {
+    }
+
+    /**
+     * 解析点分十进制IPv4地址
+     *
+     * @param ip IP地址
+     * @return 0 ~ 2^32-1 的无符号数值，格式错误返回 {@link #INVALID_IPV4}
+     */
+    public static long parseIpv4(CharSequence ip) {
+        if (ip == null) {
+            return INVALID_IPV4;
+        }
+        return parseIpv4(ip, 0, ip.length());
+    }
+
+    /**
+     * 解析字符区间[start, end)内的IPv4地址
+     */
+    static long parseIpv4(CharSequence ip, int start, int end) {
+        if (end - start < 7 || end - start > 15) {
+            return INVALID_IPV4;
+        }
+        long value = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // 不允许前导零，避免与八进制写法混淆
+                if (digits > 0 && octet == 0) {
+                    return INVALID_IPV4;
+                }
+                octet = octet * 10 + (c - '0');
+                if (octet > 255 || ++digits > 3) {
+                    return INVALID_IPV4;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || ++dots > 3) {
+                    return INVALID_IPV4;
+                }
+                value = (value << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return INVALID_IPV4;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return INVALID_IPV4;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * 解析IPv6地址，支持::压缩写法和末尾内嵌IPv4（如 ::ffff:192.0.2.1）
+     *
+     * @param ip IP地址
+     * @param out 长度不小于2的数组，成功时写入高64位和低64位
+     * @return 是否解析成功
+     */
+    public static boolean parseIpv6(CharSequence ip, long[] out) {
+        if (ip == null) {
+            return false;
+        }
+        int len = ip.length();
+        // 去掉区域标识，如 fe80::1%eth0
+        for (int i = 0; i < len; i++) {
+            if (ip.charAt(i) == '%') {
+                len = i;
+                break;
+            }
+        }
+        if (len < 2 || len > 45) {
+            return false;
+        }
+
+        // 按128位移位寄存器逐组移入，最后再根据::位置展开
+        long hi = 0;
+        long lo = 0;
+        int groups = 0;
+        int compressAt = -1;
+        int i = 0;
+
+        if (ip.charAt(0) == ':') {
+            if (ip.charAt(1) != ':') {
+                return false;
+            }
+            compressAt = 0;
+            i = 2;
+        }
+
+        while (i < len) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < len) {
+                int d = hexDigit(ip.charAt(i));
+                if (d < 0) {
+                    break;
+                }
+                value = (value << 4) | d;
+                if (++digits > 4) {
+                    return false;
+                }
+                i++;
+            }
+
+            if (i < len && ip.charAt(i) == '.') {
+                // 末尾内嵌IPv4，占两个分组
+                if (groups > 6) {
+                    return false;
+                }
+                long v4 = parseIpv4(ip, groupStart, len);
+                if (v4 == INVALID_IPV4) {
+                    return false;
+                }
+                hi = (hi << 32) | (lo >>> 32);
+                lo = (lo << 32) | v4;
+                groups += 2;
+                break;
+            }
+
+            if (digits == 0 || groups >= 8) {
+                return false;
+            }
+            hi = (hi << 16) | (lo >>> 48);
+            lo = (lo << 16) | value;
+            groups++;
+
+            if (i == len) {
+                break;
+            }
+            if (ip.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < len && ip.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return false;
+                }
+                compressAt = groups;
+                i++;
+            } else if (i == len) {
+                return false;
+            }
+        }
+
+        if (compressAt < 0) {
+            if (groups != 8) {
+                return false;
+            }
+            out[0] = hi;
+            out[1] = lo;
+            return true;
+        }
+        if (groups >= 8) {
+            return false;
+        }
+
+        // ::之前的分组移到最高位，之后的分组保持在最低位，中间补零
+        int tailBits = (groups - compressAt) * 16;
+        long tailHi = tailBits > 64 ? hi & ((1L << (tailBits - 64)) - 1) : 0;
+        long tailLo = tailBits >= 64 ? lo : lo & ((1L << tailBits) - 1);
+        long headHi = shiftRightHi(hi, tailBits);
+        long headLo = shiftRightLo(hi, lo, tailBits);
+        int headShift = 128 - compressAt * 16;
+        out[0] = shiftLeftHi(headHi, headLo, headShift) | tailHi;
+        out[1] = shiftLeftLo(headLo, headShift) | tailLo;
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static long shiftLeftHi(long hi, long lo, int n) {
+        if (n == 0) {
+            return hi;
+        }
+        if (n < 64) {
+            return (hi << n) | (lo >>> (64 - n));
+        }
+        return n < 128 ? lo << (n - 64) : 0;
+    }
+
+    private static long shiftLeftLo(long lo, int n) {
+        if (n == 0) {
+            return lo;
+        }
+        return n < 64 ? lo << n : 0;
+    }
+
+    private static long shiftRightHi(long hi, int n) {
+        if (n == 0) {
+            return hi;
+        }
+        return n < 64 ? hi >>> n : 0;
+    }
+
+    private static long shiftRightLo(long hi, long lo, int n) {
+        if (n == 0) {
+            return lo;
+        }
+        if (n < 64) {
+            return (lo >>> n) | (hi << (64 - n));
+        }
+        return n < 128 ? hi >>> (n - 64) : 0;
+    }
+
+    /**
+     * 判断字符串是否像IPv6地址（包含冒号）
+     *
+     * @param ip IP地址
+     * @return 是否包含冒号
+     */
+    public static boolean looksLikeIpv6(CharSequence ip) {
+        if (ip == null) {
+            return false;
+        }
+        for (int i = 0, n = ip.length(); i < n; i++) {
+            if (ip.charAt(i) == ':') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 将IPv4数值格式化为点分十进制
+     *
+     * @param value 无符号数值
+     * @return IP地址
+     */
+    public static String formatIpv4(long value) {
+        return ((value >>> 24) & 0xFF) + "." + ((value >>> 16) & 0xFF) + "."
+                + ((value >>> 8) & 0xFF) + "." + (value & 0xFF);
+    }
+
+    /**
+     * 将IPv6数值格式化为RFC 5952规范文本（小写、省略前导零、最长连续零段压缩为::）
+     *
+     * @param hi 高64位
+     * @param lo 低64位
+     * @return IP地址
+     */
+    public static String formatIpv6(long hi, long lo) {
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int i = 0; i < 8; ) {
+            if (group(hi, lo, i) != 0) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < 8 && group(hi, lo, i) == 0) {
+                i++;
+            }
+            if (i - start > bestLength) {
+                bestStart = start;
+                bestLength = i - start;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == bestStart) {
+                sb.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(group(hi, lo, i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 将IPv4数值转换为4字节大端序，与MySQL INET6_ATON结果一致
+     *
+     * @param value 无符号数值
+     * @return 字节数组
+     */
+    public static byte[] ipv4ToBytes(long value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    /**
+     * 将IPv6数值转换为16字节大端序，与MySQL INET6_ATON结果一致
+     *
+     * @param hi 高64位
+     * @param lo 低64位
+     * @return 字节数组
+     */
+    public static byte[] ipv6ToBytes(long hi, long lo) {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (hi >>> (56 - i * 8));
+            bytes[8 + i] = (byte) (lo >>> (56 - i * 8));
+        }
+        return bytes;
+    }
+
+    /**
+     * 将IP地址文本转换为字节数组（IPv4为4字节，IPv6为16字节）
+     *
+     * @param ip IP地址
+     * @return 字节数组，格式错误返回null
+     */
+    public static byte[] toBytes(CharSequence ip) {
+        long ipv4 = parseIpv4(ip);
+        if (ipv4 != INVALID_IPV4) {
+            return ipv4ToBytes(ipv4);
+        }
+        long[] ipv6 = new long[2];
+        if (looksLikeIpv6(ip) && parseIpv6(ip, ipv6)) {
+            return ipv6ToBytes(ipv6[0], ipv6[1]);
+        }
+        return null;
+    }
+
+    /**
+     * 将IP地址转换为规范文本：IPv4为点分十进制，IPv6为RFC 5952格式，同一地址的不同写法结果相同
+     *
+     * @param ip IP地址
+     * @return 规范文本，格式错误返回null
+     */
+    public static String normalize(CharSequence ip) {
+        return formatBytes(toBytes(ip));
+    }
+
+    /**
+     * 将4字节或16字节的地址格式化为文本
+     *
+     * @param bytes 字节数组
+     * @return IP地址，长度不正确返回null
+     */
+    public static String formatBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 4) {
+            return formatIpv4(readLong(bytes, 0, 4));
+        }
+        if (bytes.length == 16) {
+            return formatIpv6(readLong(bytes, 0, 8), readLong(bytes, 8, 8));
+        }
+        return null;
+    }
+
+    private static long readLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int group(long hi, long lo, int index) {
+        return index < 4
+                ? (int) (hi >>> (48 - index * 16)) & 0xFFFF
+                : (int) (lo >>> (48 - (index - 4) * 16)) & 0xFFFF;
+    }
+}
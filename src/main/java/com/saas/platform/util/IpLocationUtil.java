@@ -3,12 +3,43 @@ package com.saas.platform.util;
 import cn.hutool.http.HttpUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.saas.platform.config.CacheConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * IP地理位置查询工具类
+ * 优先查询本地离线GeoIP库（内存映射 + 二分查找，无网络开销），
+ * 本地库未配置或未命中时，可按配置回退到在线接口查询；在线查询结果（含未知与失败结果）
+ * 按不同有效期缓存，同一IP的并发查询只会请求一次
  * 
  * @author SaaS Xbox Team
  * @since 2024-08-01
@@ -18,6 +49,54 @@ public class IpLocationUtil {
 
     private static final Logger log = LoggerFactory.getLogger(IpLocationUtil.class);
 
+    /**
+     * IPv6解析缓冲区，避免每次查询分配数组
+     */
+    private static final ThreadLocal<long[]> IPV6_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * 本地GeoIP库文件路径，为空则不启用
+     */
+    @Value("${ip-location.database-path:}")
+    private String databasePath;
+
+    /**
+     * 本地库未命中时是否回退到在线查询
+     */
+    @Value("${ip-location.remote-fallback:true}")
+    private boolean remoteFallback;
+
+    /**
+     * 在线查询超时时间(ms)
+     */
+    @Value("${ip-location.remote-timeout:5000}")
+    private int remoteTimeout;
+
+    private volatile GeoIpDatabase database;
+
+    /**
+     * 已加载库文件的修改时间，用于检测文件被替换
+     */
+    private volatile FileTime databaseModifiedTime;
+
+    private final Cache locationCache;
+    private final ExecutorService batchExecutor;
+
+    public IpLocationUtil(CacheManager cacheManager, ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${ip-location.batch-threads:4}") int batchThreads) {
+        this.locationCache = cacheManager.getCache(CacheConfig.IP_LOCATION_CACHE);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.batchExecutor = Executors.newFixedThreadPool(batchThreads, r -> {
+            Thread t = new Thread(r, "ip-location-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        meterRegistry.ifAvailable(registry -> Gauge.builder("ip.location.cache.hit.ratio",
+                        this, util -> util.cacheStats().hitRate())
+                .description("IP地理位置在线查询缓存命中率")
+                .register(registry));
+    }
+
     /**
      * 地理位置信息实体
      */
@@ -68,6 +147,89 @@ public class IpLocationUtil {
         }
     }
 
+    @PostConstruct
+    public void init() {
+        if (databasePath != null && !databasePath.isBlank()) {
+            try {
+                reloadDatabase();
+            } catch (IOException e) {
+                log.error("加载本地GeoIP库失败: path={}, error={}", databasePath, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 定时检查本地GeoIP库文件，修改时间变化（被 {@link GeoIpDatabaseBuilder} 原子替换）时重新加载
+     */
+    @Scheduled(initialDelayString = "${ip-location.reload-check-interval:60000}",
+            fixedDelayString = "${ip-location.reload-check-interval:60000}")
+    public void checkDatabaseUpdate() {
+        if (databasePath == null || databasePath.isBlank()) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(Paths.get(databasePath));
+            if (!modified.equals(databaseModifiedTime)) {
+                reloadDatabase();
+            }
+        } catch (IOException e) {
+            log.warn("检查本地GeoIP库更新失败: path={}, error={}", databasePath, e.getMessage());
+        }
+    }
+
+    /**
+     * 重新加载本地GeoIP库并清空查询缓存；加载失败时继续使用原库
+     *
+     * @throws IOException 未配置库文件、文件不存在或格式错误
+     */
+    public synchronized void reloadDatabase() throws IOException {
+        if (databasePath == null || databasePath.isBlank()) {
+            throw new IOException("未配置本地GeoIP库文件");
+        }
+        Path path = Paths.get(databasePath);
+        if (!Files.isReadable(path)) {
+            throw new IOException("GeoIP库文件不存在: " + path);
+        }
+        FileTime modified = Files.getLastModifiedTime(path);
+        GeoIpDatabase loaded = GeoIpDatabase.open(path);
+        this.database = loaded;
+        this.databaseModifiedTime = modified;
+        // 缓存中是旧库（或在线查询）的结果，换库后重新查询
+        locationCache.clear();
+        log.info("本地GeoIP库已加载: path={}, ipv4Ranges={}, ipv6Ranges={}, locations={}",
+                path, loaded.getIpv4RangeCount(), loaded.getIpv6RangeCount(), loaded.getLocationCount());
+    }
+
+    /**
+     * 获取本地GeoIP库状态
+     *
+     * @return 状态信息
+     */
+    public Map<String, Object> getDatabaseInfo() {
+        Map<String, Object> info = new HashMap<>();
+        GeoIpDatabase db = database;
+        info.put("loaded", db != null);
+        info.put("remoteFallback", remoteFallback);
+        if (db != null) {
+            info.put("path", db.getPath().toString());
+            info.put("modifiedTime", String.valueOf(databaseModifiedTime));
+            info.put("ipv4Ranges", db.getIpv4RangeCount());
+            info.put("ipv6Ranges", db.getIpv6RangeCount());
+            info.put("locations", db.getLocationCount());
+        }
+        CacheStats stats = cacheStats();
+        info.put("cacheHitRatio", stats.hitRate());
+        info.put("cacheHits", stats.hitCount());
+        info.put("cacheMisses", stats.missCount());
+        info.put("remoteLookups", stats.loadCount());
+        return info;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
     /**
      * 根据IP地址获取地理位置信息
      * 
@@ -75,22 +237,187 @@ public class IpLocationUtil {
      * @return 地理位置信息
      */
     public LocationInfo getLocationByIp(String ip) {
+        LocationInfo local = resolveLocal(ip);
+        if (local != null) {
+            return local;
+        }
+        return lookupRemoteCached(ip.trim());
+    }
+
+    /**
+     * 批量查询IP地理位置
+     * 输入去重后先在本地解析，需要在线查询的IP一次性查缓存，未命中的并发查询
+     *
+     * @param ips IP地址集合
+     * @return IP -> 地理位置（按输入顺序，键为去除首尾空格后的IP）
+     */
+    public Map<String, LocationInfo> getLocations(Collection<String> ips) {
+        Map<String, LocationInfo> result = new LinkedHashMap<>();
+        if (ips == null || ips.isEmpty()) {
+            return result;
+        }
+
+        List<String> remote = new ArrayList<>();
+        for (String ip : ips) {
+            if (ip == null || ip.trim().isEmpty()) {
+                continue;
+            }
+            String address = ip.trim();
+            if (result.containsKey(address)) {
+                continue;
+            }
+            LocationInfo local = resolveLocal(address);
+            result.put(address, local);
+            if (local == null) {
+                remote.add(address);
+            }
+        }
+
+        if (!remote.isEmpty()) {
+            lookupRemoteCached(remote).forEach((address, location) -> result.put(address, copyOf(location)));
+        }
+        return result;
+    }
+
+    /**
+     * 移除IP的缓存结果，下次查询将重新请求在线接口
+     *
+     * @param ip IP地址
+     */
+    public void invalidate(String ip) {
+        if (ip != null) {
+            locationCache.evict(ip.trim());
+        }
+    }
+
+    /**
+     * 不经网络解析IP地理位置（内网地址、格式错误、本地库命中等）
+     *
+     * @return 地理位置，需要在线查询时返回null
+     */
+    private LocationInfo resolveLocal(String ip) {
         if (ip == null || ip.trim().isEmpty()) {
             log.warn("IP地址为空，无法查询地理位置");
             return new LocationInfo("未知", "未知", "未知");
         }
+        String address = ip.trim();
+
+        long ipv4 = IpAddressUtil.parseIpv4(address);
+        long[] ipv6 = null;
+        if (ipv4 == IpAddressUtil.INVALID_IPV4) {
+            ipv6 = IPV6_BUFFER.get();
+            if (!IpAddressUtil.looksLikeIpv6(address) || !IpAddressUtil.parseIpv6(address, ipv6)) {
+                log.warn("无效的IP地址格式: {}", ip);
+                return new LocationInfo("未知", "未知", "未知");
+            }
+            // IPv4映射地址按IPv4处理
+            if (IpAddressClassifier.isIpv4Mapped(ipv6[0], ipv6[1])) {
+                ipv4 = ipv6[1] & 0xFFFFFFFFL;
+                ipv6 = null;
+            }
+        }
 
+        IpAddressClassifier.AddressType type = ipv6 == null
+                ? IpAddressClassifier.classifyIpv4(ipv4)
+                : IpAddressClassifier.classifyIpv6(ipv6[0], ipv6[1]);
         // 过滤内网IP
-        if (isPrivateIp(ip)) {
+        if (type.isInternal()) {
             log.warn("内网IP地址: {}, 返回默认地理位置", ip);
             return new LocationInfo("中国", "本地", "本地");
         }
+        // 文档示例、组播、保留等不可路由地址没有地理位置
+        if (!type.isGloballyReachable()) {
+            log.warn("{}: {}, 无法查询地理位置", type.getDescription(), ip);
+            return new LocationInfo("未知", "未知", "未知");
+        }
+
+        GeoIpDatabase db = database;
+        if (db != null) {
+            int index = ipv6 == null ? db.lookupIpv4(ipv4) : db.lookupIpv6(ipv6[0], ipv6[1]);
+            if (index != GeoIpDatabase.NOT_FOUND) {
+                return new LocationInfo(orUnknown(db.getCountry(index)),
+                        orUnknown(db.getRegion(index)), orUnknown(db.getCity(index)));
+            }
+        }
+
+        if (!remoteFallback) {
+            return new LocationInfo("未知", "未知", "未知");
+        }
+        return null;
+    }
+
+    /**
+     * 经缓存在线查询，同一IP的并发请求只会触发一次在线查询
+     */
+    private LocationInfo lookupRemoteCached(String address) {
+        LocationInfo cached = locationCache.get(address, () -> queryRemote(address));
+        return copyOf(cached);
+    }
+
+    /**
+     * 经缓存批量在线查询：每个IP只查询一次缓存（命中率统计准确），未命中的IP并发查询后写入缓存
+     */
+    private Map<String, LocationInfo> lookupRemoteCached(List<String> addresses) {
+        Map<String, LocationInfo> result = new HashMap<>();
+        if (locationCache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().getAll(addresses, this::queryRemoteAll)
+                    .forEach((address, location) -> result.put((String) address, (LocationInfo) location));
+            return result;
+        }
+        // 非 Caffeine 缓存：逐个读取缓存，只在线查询未命中的IP
+        List<String> misses = new ArrayList<>();
+        for (String address : addresses) {
+            LocationInfo cached = locationCache.get(address, LocationInfo.class);
+            if (cached != null) {
+                result.put(address, cached);
+            } else {
+                misses.add(address);
+            }
+        }
+        if (!misses.isEmpty()) {
+            queryRemoteAll(misses).forEach((address, location) -> {
+                locationCache.put(address, location);
+                result.put((String) address, (LocationInfo) location);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 并发在线查询多个IP
+     */
+    private Map<Object, Object> queryRemoteAll(Collection<?> addresses) {
+        Map<Object, CompletableFuture<LocationInfo>> futures = new LinkedHashMap<>();
+        for (Object address : addresses) {
+            futures.put(address, CompletableFuture.supplyAsync(() -> queryRemote((String) address), batchExecutor));
+        }
+        Map<Object, Object> loaded = new HashMap<>();
+        futures.forEach((address, future) -> loaded.put(address, future.join()));
+        return loaded;
+    }
+
+    /**
+     * 缓存中的对象共享，返回副本避免调用方修改
+     */
+    private static LocationInfo copyOf(LocationInfo location) {
+        return new LocationInfo(location.getCountry(), location.getRegion(), location.getCity());
+    }
+
+    private CacheStats cacheStats() {
+        if (locationCache instanceof CaffeineCache caffeineCache) {
+            return caffeineCache.getNativeCache().stats();
+        }
+        return CacheStats.empty();
+    }
 
+    /**
+     * 在线查询IP地理位置
+     */
+    private LocationInfo queryRemote(String ip) {
         try {
             String url = "http://ip-api.com/json/" + ip + "?lang=zh-CN&fields=country,regionName,city";
             
-            // 设置超时时间为5秒
-            String response = HttpUtil.get(url, 5000);
+            String response = HttpUtil.get(url, remoteTimeout);
             
             if (response == null || response.trim().isEmpty()) {
                 log.warn("IP地理位置查询返回空结果, IP: {}", ip);
@@ -114,51 +441,8 @@ public class IpLocationUtil {
         }
     }
 
-    /**
-     * 判断是否为内网IP
-     * 
-     * @param ip IP地址
-     * @return 是否为内网IP
-     */
-    private boolean isPrivateIp(String ip) {
-        if (ip == null || ip.trim().isEmpty()) {
-            return false;
-        }
-
-        try {
-            String[] parts = ip.split("\\.");
-            if (parts.length != 4) {
-                return false;
-            }
-
-            int firstOctet = Integer.parseInt(parts[0]);
-            int secondOctet = Integer.parseInt(parts[1]);
-
-            // 10.0.0.0 - 10.255.255.255
-            if (firstOctet == 10) {
-                return true;
-            }
-
-            // 172.16.0.0 - 172.31.255.255
-            if (firstOctet == 172 && secondOctet >= 16 && secondOctet <= 31) {
-                return true;
-            }
-
-            // 192.168.0.0 - 192.168.255.255
-            if (firstOctet == 192 && secondOctet == 168) {
-                return true;
-            }
-
-            // 127.0.0.0 - 127.255.255.255 (本地回环)
-            if (firstOctet == 127) {
-                return true;
-            }
-
-            return false;
-        } catch (NumberFormatException e) {
-            log.warn("无效的IP地址格式: {}", ip);
-            return false;
-        }
+    private static String orUnknown(String value) {
+        return value == null || value.isEmpty() ? "未知" : value;
     }
 
     /**
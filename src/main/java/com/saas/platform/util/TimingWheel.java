@@ -0,0 +1,236 @@
+package com.saas.platform.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * 第L层每格跨度为 tick * wheelSize^L；到期时间在当前层范围外的条目放入更高层，
+ * 高层格子到期时整体降级到低层，第0层格子到期时取出全部条目。
+ * 添加、取消均为O(1)（按键索引节点，格子为双向链表），推进时只处理经过的格子。
+ * 非线程安全的部分均以 synchronized 保护，临界区为常数时间
+ *
+ * @param <K> 条目键，同一键只保留最后一次设置的到期时间
+ * @author SaaS Xbox Team
+ */
+public final class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final int levels;
+
+    /**
+     * 各层跨度（以tick计）：spans[L] = wheelSize^L
+     */
+    private final long[] spans;
+    private final Bucket<K>[][] wheels;
+
+    /**
+     * 超出最高层范围的条目，最高层转完一圈时重新放置
+     */
+    private final Bucket<K> overflow = new Bucket<>();
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+
+    /**
+     * 已处理到的tick
+     */
+    private long currentTick;
+
+    /**
+     * @param tickMs 最小时间精度(ms)
+     * @param wheelSize 每层格数
+     * @param levels 层数
+     * @param startMs 起始时间(ms)
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("时间轮参数错误");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.spans = new long[levels + 1];
+        spans[0] = 1;
+        for (int i = 1; i <= levels; i++) {
+            spans[i] = Math.multiplyExact(spans[i - 1], wheelSize);
+        }
+        this.wheels = new Bucket[levels][wheelSize];
+        for (Bucket<K>[] wheel : wheels) {
+            for (int i = 0; i < wheelSize; i++) {
+                wheel[i] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * 添加或更新条目
+     *
+     * @param key 键
+     * @param deadlineMs 到期时间(ms)
+     * @return 是否已到期（已到期的条目不加入，由调用方立即处理）
+     */
+    public synchronized boolean schedule(K key, long deadlineMs) {
+        Node<K> node = nodes.remove(key);
+        if (node != null) {
+            node.unlink();
+        }
+        long tick = (deadlineMs + tickMs - 1) / tickMs;
+        if (tick <= currentTick) {
+            return true;
+        }
+        node = new Node<>(key, deadlineMs, tick);
+        nodes.put(key, node);
+        place(node);
+        return false;
+    }
+
+    /**
+     * 取消条目
+     *
+     * @param key 键
+     * @return 是否存在
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的键
+     *
+     * @param nowMs 当前时间(ms)
+     * @return 到期的键
+     */
+    public synchronized List<K> advance(long nowMs) {
+        long target = nowMs / tickMs;
+        List<K> expired = new ArrayList<>();
+        while (currentTick < target) {
+            currentTick++;
+            if (currentTick % spans[levels] == 0) {
+                cascade(overflow, expired);
+            }
+            for (int level = levels - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(wheels[level][slot(currentTick, level)], expired);
+                }
+            }
+            Bucket<K> bucket = wheels[0][slot(currentTick, 0)];
+            for (Node<K> node = bucket.head.next; node != bucket.head; node = bucket.head.next) {
+                node.unlink();
+                nodes.remove(node.key);
+                expired.add(node.key);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 当前条目数
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 查询条目的到期时间
+     *
+     * @param key 键
+     * @return 到期时间(ms)，不存在返回null
+     */
+    public synchronized Long deadlineOf(K key) {
+        Node<K> node = nodes.get(key);
+        return node == null ? null : node.deadlineMs;
+    }
+
+    /**
+     * 放入第一个与当前tick处于同一高位区间的层：该层格子在到期前一定会被推进到
+     */
+    private void place(Node<K> node) {
+        for (int level = 0; level < levels; level++) {
+            if (node.tick / spans[level + 1] == currentTick / spans[level + 1]) {
+                wheels[level][slot(node.tick, level)].append(node);
+                return;
+            }
+        }
+        overflow.append(node);
+    }
+
+    /**
+     * 将高层格子中的条目重新放置，已到期的直接取出
+     */
+    private void cascade(Bucket<K> bucket, List<K> expired) {
+        // 先整体摘下，溢出列表中仍未进入范围的条目会重新放回同一列表
+        Node<K> first = bucket.head.next;
+        if (first == bucket.head) {
+            return;
+        }
+        bucket.head.prev.next = null;
+        bucket.head.prev = bucket.head;
+        bucket.head.next = bucket.head;
+        for (Node<K> node = first, next; node != null; node = next) {
+            next = node.next;
+            node.prev = null;
+            node.next = null;
+            if (node.tick <= currentTick) {
+                nodes.remove(node.key);
+                expired.add(node.key);
+            } else {
+                place(node);
+            }
+        }
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+
+    /**
+     * 格子：带哨兵的双向循环链表
+     */
+    private static final class Bucket<K> {
+        private final Node<K> head = new Node<>(null, 0, 0);
+
+        private Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        private void append(Node<K> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+        }
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final long deadlineMs;
+        private final long tick;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key, long deadlineMs, long tick) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+            this.tick = tick;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
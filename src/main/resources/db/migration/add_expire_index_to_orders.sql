@@ -0,0 +1,7 @@
+-- 订单过期处理索引
+-- idx_status_expire_time: 过期扫描和即将到期查询按 (order_status, expire_time, id) 顺序读取运行中的订单
+-- 原 idx_expire_time 的查询均带订单状态条件，由新组合索引覆盖，删除以减少写入开销
+
+ALTER TABLE orders
+  ADD INDEX idx_status_expire_time (order_status, expire_time, id),
+  DROP INDEX idx_expire_time;
@@ -0,0 +1,10 @@
+-- ip_pools增加数值地址列
+-- ip_bin 由 ip_address 自动生成（INET6_ATON格式，IPv4为4字节、IPv6为16字节），写入ip_address时由数据库同步维护
+-- idx_ip_bin: 精确查询、IPv4前缀和CIDR范围查询走索引范围扫描；包含 deleted_at，范围计数只读索引不回表
+-- 格式不合法的地址生成NULL，不影响写入
+
+ALTER TABLE ip_pools
+  ADD COLUMN ip_bin VARBINARY(16)
+    GENERATED ALWAYS AS (IF(IS_IPV4(ip_address) OR IS_IPV6(ip_address), INET6_ATON(ip_address), NULL)) STORED
+    COMMENT '数值地址（INET6_ATON格式）' AFTER ip_address,
+  ADD INDEX idx_ip_bin (ip_bin, deleted_at);
@@ -0,0 +1,8 @@
+-- ip_pools增加预留状态
+-- 待支付订单的IP以 ip_status='预留' 占住库存，reserved_until 为预留到期时间，到期未支付时释放回可用
+-- idx_status_reserved_until: 启动恢复和兜底清理按到期时间查询预留中的IP
+
+ALTER TABLE ip_pools
+  MODIFY COLUMN ip_status ENUM('可用','占用','故障','测试中','维护中','预留') DEFAULT '可用' COMMENT 'IP状态',
+  ADD COLUMN reserved_until TIMESTAMP NULL DEFAULT NULL COMMENT '预留到期时间' AFTER current_order_id,
+  ADD INDEX idx_status_reserved_until (ip_status, reserved_until);
@@ -0,0 +1,8 @@
+-- ip_pools增加质量评分字段
+-- 由IP质量评分器根据每次连通性测试更新（内存计算，定期批量写回），分配时优先选择评分高的IP
+-- ewma_latency: 成功测试延迟的指数加权平均；success_ratio: 测试成功率的指数加权平均
+
+ALTER TABLE ip_pools
+  ADD COLUMN ewma_latency INT DEFAULT NULL COMMENT '延迟指数加权平均(ms)' AFTER test_message,
+  ADD COLUMN success_ratio DECIMAL(5,4) DEFAULT NULL COMMENT '测试成功率（指数加权）' AFTER ewma_latency,
+  ADD COLUMN test_samples INT NOT NULL DEFAULT 0 COMMENT '测试样本数' AFTER success_ratio;
@@ -0,0 +1,5 @@
+-- 为nodes表添加乐观锁版本号字段
+-- 用于节点部分更新(PATCH)时的并发修改校验
+
+ALTER TABLE nodes 
+ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号' AFTER monthly_cost;
@@ -0,0 +1,18 @@
+-- 创建号段表
+-- 订单号序号由各实例按号段从该表租用，保证多实例、重启后不重复；按已有订单号初始化当天及以前日期的已用序号
+
+CREATE TABLE IF NOT EXISTS id_segments (
+  biz_tag VARCHAR(64) NOT NULL COMMENT '业务标识',
+  biz_date CHAR(8) NOT NULL COMMENT '业务日期(yyyyMMdd)',
+  max_id BIGINT NOT NULL DEFAULT 0 COMMENT '已分配出去的最大序号',
+  updated_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (biz_tag, biz_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='号段表';
+
+-- 订单号格式为 ORD + yyyyMMdd + 序号，含已软删除的订单（唯一索引覆盖全部记录）
+INSERT INTO id_segments (biz_tag, biz_date, max_id)
+SELECT 'order_no', SUBSTRING(order_no, 4, 8), MAX(CAST(SUBSTRING(order_no, 12) AS UNSIGNED))
+FROM orders
+WHERE order_no REGEXP '^ORD[0-9]{12,}$'
+GROUP BY SUBSTRING(order_no, 4, 8)
+ON DUPLICATE KEY UPDATE max_id = GREATEST(max_id, VALUES(max_id));
@@ -0,0 +1,79 @@
+-- 创建IP库存统计表及维护触发器
+-- ip_pools 的插入（含 INSERT IGNORE）、状态/位置/质量变更、软删除和物理删除均由触发器在同一事务内更新 ip_inventory，
+-- 每个维度按 slot 拆成最多16行，写入时按连接选择 slot，避免并发分配都排队更新同一计数行；
+-- IP池统计接口只读取该表（按维度汇总各 slot）；建议在低峰期执行，执行期间的并发写入造成的偏差由定时对账任务修正
+
+CREATE TABLE IF NOT EXISTS ip_inventory (
+  country VARCHAR(50) NOT NULL COMMENT '国家',
+  city VARCHAR(50) NOT NULL DEFAULT '' COMMENT '城市（空字符串表示未填写）',
+  ip_quality VARCHAR(10) NOT NULL COMMENT 'IP质量',
+  ip_status VARCHAR(10) NOT NULL DEFAULT '' COMMENT 'IP状态',
+  slot TINYINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '计数分片（写入连接ID % 16），单个分片的数量可以为负',
+  ip_count BIGINT NOT NULL DEFAULT 0 COMMENT 'IP数量',
+  updated_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (country, city, ip_quality, ip_status, slot)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='IP库存统计表';
+
+DROP TRIGGER IF EXISTS trg_ip_pools_inventory_insert;
+DROP TRIGGER IF EXISTS trg_ip_pools_inventory_update;
+DROP TRIGGER IF EXISTS trg_ip_pools_inventory_delete;
+
+DELIMITER $$
+CREATE TRIGGER trg_ip_pools_inventory_insert AFTER INSERT ON ip_pools FOR EACH ROW
+BEGIN
+  IF NEW.deleted_at IS NULL THEN
+    INSERT INTO ip_inventory (country, city, ip_quality, ip_status, slot, ip_count)
+    VALUES (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, ''), CONNECTION_ID() % 16, 1)
+    ON DUPLICATE KEY UPDATE ip_count = ip_count + 1;
+  END IF;
+END$$
+
+CREATE TRIGGER trg_ip_pools_inventory_update AFTER UPDATE ON ip_pools FOR EACH ROW
+BEGIN
+  IF NOT (OLD.country <=> NEW.country AND OLD.city <=> NEW.city AND OLD.ip_quality <=> NEW.ip_quality
+          AND OLD.ip_status <=> NEW.ip_status AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL)) THEN
+    -- 按维度顺序先后更新两行，认领（可用→占用）与释放（占用→可用）加锁顺序一致，不会互相死锁
+    IF (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''))
+       < (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, '')) THEN
+      IF OLD.deleted_at IS NULL THEN
+        INSERT INTO ip_inventory (country, city, ip_quality, ip_status, slot, ip_count)
+        VALUES (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''), CONNECTION_ID() % 16, -1)
+        ON DUPLICATE KEY UPDATE ip_count = ip_count - 1;
+      END IF;
+      IF NEW.deleted_at IS NULL THEN
+        INSERT INTO ip_inventory (country, city, ip_quality, ip_status, slot, ip_count)
+        VALUES (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, ''), CONNECTION_ID() % 16, 1)
+        ON DUPLICATE KEY UPDATE ip_count = ip_count + 1;
+      END IF;
+    ELSE
+      IF NEW.deleted_at IS NULL THEN
+        INSERT INTO ip_inventory (country, city, ip_quality, ip_status, slot, ip_count)
+        VALUES (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, ''), CONNECTION_ID() % 16, 1)
+        ON DUPLICATE KEY UPDATE ip_count = ip_count + 1;
+      END IF;
+      IF OLD.deleted_at IS NULL THEN
+        INSERT INTO ip_inventory (country, city, ip_quality, ip_status, slot, ip_count)
+        VALUES (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''), CONNECTION_ID() % 16, -1)
+        ON DUPLICATE KEY UPDATE ip_count = ip_count - 1;
+      END IF;
+    END IF;
+  END IF;
+END$$
+
+CREATE TRIGGER trg_ip_pools_inventory_delete AFTER DELETE ON ip_pools FOR EACH ROW
+BEGIN
+  IF OLD.deleted_at IS NULL THEN
+    INSERT INTO ip_inventory (country, city, ip_quality, ip_status, slot, ip_count)
+    VALUES (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''), CONNECTION_ID() % 16, -1)
+    ON DUPLICATE KEY UPDATE ip_count = ip_count - 1;
+  END IF;
+END$$
+DELIMITER ;
+
+-- 初始化库存（全部计入 slot 0）
+INSERT INTO ip_inventory (country, city, ip_quality, ip_status, ip_count)
+SELECT country, IFNULL(city, ''), ip_quality, IFNULL(ip_status, ''), COUNT(*)
+FROM ip_pools
+WHERE deleted_at IS NULL
+GROUP BY country, IFNULL(city, ''), ip_quality, IFNULL(ip_status, '')
+ON DUPLICATE KEY UPDATE ip_count = VALUES(ip_count);
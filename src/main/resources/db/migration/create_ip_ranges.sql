@@ -0,0 +1,28 @@
+-- 创建IP地址段表
+-- 供应商整段出售的IP按CIDR登记，起止地址以INET6_ATON格式保存，分配或测试时才展开为ip_pools记录
+
+CREATE TABLE IF NOT EXISTS ip_ranges (
+  id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  cidr VARCHAR(64) NOT NULL COMMENT 'CIDR',
+  ip_version TINYINT NOT NULL COMMENT 'IP版本：4、6',
+  range_start VARBINARY(16) NOT NULL COMMENT '起始地址（INET6_ATON格式）',
+  range_end VARBINARY(16) NOT NULL COMMENT '结束地址（INET6_ATON格式）',
+  total_count BIGINT NOT NULL COMMENT '地址总数',
+  expanded_count BIGINT NOT NULL DEFAULT 0 COMMENT '已展开为IP池记录的地址数',
+  country VARCHAR(50) NOT NULL COMMENT '国家',
+  region VARCHAR(50) DEFAULT NULL COMMENT '地区',
+  city VARCHAR(50) DEFAULT NULL COMMENT '城市',
+  ip_quality ENUM('标准','优质','独享') NOT NULL COMMENT 'IP质量',
+  port_range VARCHAR(100) DEFAULT NULL COMMENT '端口范围',
+  bandwidth_mbps INT DEFAULT NULL COMMENT '带宽(Mbps)',
+  provider VARCHAR(100) DEFAULT NULL COMMENT '供应商',
+  cost_price DECIMAL(10,2) DEFAULT NULL COMMENT '成本价格（单个IP）',
+  node_id BIGINT DEFAULT NULL COMMENT '关联节点ID',
+  status ENUM('启用','停用') NOT NULL DEFAULT '启用' COMMENT '状态',
+  created_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  updated_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  deleted_at TIMESTAMP NULL DEFAULT NULL COMMENT '删除时间',
+  PRIMARY KEY (id),
+  KEY idx_version_start (ip_version, range_start),
+  KEY idx_status_country_quality (status, country, ip_quality)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='IP地址段表';
@@ -0,0 +1,10 @@
+-- 创建后台任务断点表
+-- 用于地理位置回填等长时间任务中断后从上次位置继续
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+  job_name VARCHAR(64) NOT NULL COMMENT '任务名称',
+  scope VARCHAR(64) NOT NULL COMMENT '任务范围（如表名）',
+  last_id BIGINT NOT NULL DEFAULT 0 COMMENT '已处理到的最大ID',
+  updated_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (job_name, scope)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='后台任务断点表';
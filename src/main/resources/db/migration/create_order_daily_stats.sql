@@ -0,0 +1,72 @@
+-- 创建订单日统计表及维护触发器
+-- orders 的插入、状态/产品/国家/金额变更、软删除和物理删除均由触发器在同一事务内更新 order_daily_stats，
+-- 订单统计接口的整日部分只读取该表；建议在低峰期执行，执行期间的并发写入造成的偏差由定时修复任务补正
+CREATE TABLE IF NOT EXISTS order_daily_stats (
+  stat_date DATE NOT NULL COMMENT '下单日期',
+  product_name VARCHAR(100) NOT NULL DEFAULT '' COMMENT '产品名称（空字符串表示未填写）',
+  country VARCHAR(50) NOT NULL DEFAULT '' COMMENT '国家（空字符串表示未填写）',
+  order_status VARCHAR(20) NOT NULL DEFAULT '' COMMENT '订单状态',
+  order_count BIGINT NOT NULL DEFAULT 0 COMMENT '订单数量',
+  total_amount DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '订单总金额',
+  actual_amount DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '实际支付金额',
+  updated_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (stat_date, product_name, country, order_status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单日统计表';
+
+DROP TRIGGER IF EXISTS trg_orders_stats_insert;
+DROP TRIGGER IF EXISTS trg_orders_stats_update;
+DROP TRIGGER IF EXISTS trg_orders_stats_delete;
+
+DELIMITER $$
+CREATE TRIGGER trg_orders_stats_insert AFTER INSERT ON orders FOR EACH ROW
+BEGIN
+  IF NEW.deleted_at IS NULL AND NEW.created_at IS NOT NULL THEN
+    INSERT INTO order_daily_stats (stat_date, product_name, country, order_status, order_count, total_amount, actual_amount)
+    VALUES (DATE(NEW.created_at), IFNULL(NEW.product_name, ''), IFNULL(NEW.country, ''), IFNULL(NEW.order_status, ''),
+            1, NEW.total_amount, NEW.actual_amount)
+    ON DUPLICATE KEY UPDATE order_count = order_count + 1,
+      total_amount = total_amount + VALUES(total_amount), actual_amount = actual_amount + VALUES(actual_amount);
+  END IF;
+END$$
+
+CREATE TRIGGER trg_orders_stats_update AFTER UPDATE ON orders FOR EACH ROW
+BEGIN
+  IF NOT (OLD.created_at <=> NEW.created_at AND OLD.product_name <=> NEW.product_name AND OLD.country <=> NEW.country
+          AND OLD.order_status <=> NEW.order_status AND OLD.total_amount <=> NEW.total_amount
+          AND OLD.actual_amount <=> NEW.actual_amount AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL)) THEN
+    IF OLD.deleted_at IS NULL AND OLD.created_at IS NOT NULL THEN
+      UPDATE order_daily_stats SET order_count = order_count - 1,
+        total_amount = total_amount - OLD.total_amount, actual_amount = actual_amount - OLD.actual_amount
+      WHERE stat_date = DATE(OLD.created_at) AND product_name = IFNULL(OLD.product_name, '')
+        AND country = IFNULL(OLD.country, '') AND order_status = IFNULL(OLD.order_status, '');
+    END IF;
+    IF NEW.deleted_at IS NULL AND NEW.created_at IS NOT NULL THEN
+      INSERT INTO order_daily_stats (stat_date, product_name, country, order_status, order_count, total_amount, actual_amount)
+      VALUES (DATE(NEW.created_at), IFNULL(NEW.product_name, ''), IFNULL(NEW.country, ''), IFNULL(NEW.order_status, ''),
+              1, NEW.total_amount, NEW.actual_amount)
+      ON DUPLICATE KEY UPDATE order_count = order_count + 1,
+        total_amount = total_amount + VALUES(total_amount), actual_amount = actual_amount + VALUES(actual_amount);
+    END IF;
+  END IF;
+END$$
+
+CREATE TRIGGER trg_orders_stats_delete AFTER DELETE ON orders FOR EACH ROW
+BEGIN
+  IF OLD.deleted_at IS NULL AND OLD.created_at IS NOT NULL THEN
+    UPDATE order_daily_stats SET order_count = order_count - 1,
+      total_amount = total_amount - OLD.total_amount, actual_amount = actual_amount - OLD.actual_amount
+    WHERE stat_date = DATE(OLD.created_at) AND product_name = IFNULL(OLD.product_name, '')
+      AND country = IFNULL(OLD.country, '') AND order_status = IFNULL(OLD.order_status, '');
+  END IF;
+END$$
+DELIMITER ;
+
+-- 初始化统计
+INSERT INTO order_daily_stats (stat_date, product_name, country, order_status, order_count, total_amount, actual_amount)
+SELECT DATE(created_at), IFNULL(product_name, ''), IFNULL(country, ''), IFNULL(order_status, ''),
+       COUNT(*), SUM(total_amount), SUM(actual_amount)
+FROM orders
+WHERE deleted_at IS NULL AND created_at IS NOT NULL
+GROUP BY DATE(created_at), IFNULL(product_name, ''), IFNULL(country, ''), IFNULL(order_status, '')
+ON DUPLICATE KEY UPDATE order_count = VALUES(order_count),
+  total_amount = VALUES(total_amount), actual_amount = VALUES(actual_amount);
@@ -0,0 +1,51 @@
+-- 创建订单IP索引表及维护触发器
+-- orders 的插入、ip_addresses 变更、软删除和物理删除均由触发器在同一事务内更新 order_ips，
+-- 按IP查订单改为走 order_ips 主键，不再用 JSON_CONTAINS 全表扫描 orders；需要 MySQL 8.0.4+（JSON_TABLE）
+
+CREATE TABLE IF NOT EXISTS order_ips (
+  ip_address VARCHAR(45) NOT NULL COMMENT 'IP地址',
+  order_id BIGINT NOT NULL COMMENT '订单ID',
+  PRIMARY KEY (ip_address, order_id),
+  KEY idx_order_id (order_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单IP索引表';
+
+DROP TRIGGER IF EXISTS trg_orders_ips_insert;
+DROP TRIGGER IF EXISTS trg_orders_ips_update;
+DROP TRIGGER IF EXISTS trg_orders_ips_delete;
+
+DELIMITER $$
+CREATE TRIGGER trg_orders_ips_insert AFTER INSERT ON orders FOR EACH ROW
+BEGIN
+  IF NEW.deleted_at IS NULL THEN
+    INSERT IGNORE INTO order_ips (ip_address, order_id)
+    SELECT jt.ip_address, NEW.id
+    FROM JSON_TABLE(NEW.ip_addresses, '$[*]' COLUMNS (ip_address VARCHAR(45) PATH '$')) jt
+    WHERE jt.ip_address IS NOT NULL;
+  END IF;
+END$$
+
+CREATE TRIGGER trg_orders_ips_update AFTER UPDATE ON orders FOR EACH ROW
+BEGIN
+  IF NOT (OLD.ip_addresses <=> NEW.ip_addresses AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL)) THEN
+    DELETE FROM order_ips WHERE order_id = OLD.id;
+    IF NEW.deleted_at IS NULL THEN
+      INSERT IGNORE INTO order_ips (ip_address, order_id)
+      SELECT jt.ip_address, NEW.id
+      FROM JSON_TABLE(NEW.ip_addresses, '$[*]' COLUMNS (ip_address VARCHAR(45) PATH '$')) jt
+      WHERE jt.ip_address IS NOT NULL;
+    END IF;
+  END IF;
+END$$
+
+CREATE TRIGGER trg_orders_ips_delete AFTER DELETE ON orders FOR EACH ROW
+BEGIN
+  DELETE FROM order_ips WHERE order_id = OLD.id;
+END$$
+DELIMITER ;
+
+-- 回填已有订单，重复执行时已存在的行跳过
+INSERT IGNORE INTO order_ips (ip_address, order_id)
+SELECT jt.ip_address, o.id
+FROM orders o,
+     JSON_TABLE(o.ip_addresses, '$[*]' COLUMNS (ip_address VARCHAR(45) PATH '$')) jt
+WHERE o.deleted_at IS NULL AND o.ip_addresses IS NOT NULL AND jt.ip_address IS NOT NULL;
@@ -0,0 +1,8 @@
+-- orders 状态枚举补充订单服务使用的值
+-- 订单服务、IP预留和过期引擎按 待支付/已支付/运行中/已完成/已取消 读写订单状态，按 未支付/已支付 读写支付状态，
+-- 原枚举中没有这些值：严格模式下写入失败，按这些状态的查询（如过期扫描 order_status = '运行中'）被优化器判定为不可能条件而不返回任何行
+-- 新值追加在枚举末尾，原有值的内部编号不变，MySQL 8 只修改表定义
+
+ALTER TABLE orders
+  MODIFY COLUMN order_status ENUM('正常','已暂停','已过期','人工核验','待付款','已退款','待支付','已支付','运行中','已完成','已取消') NOT NULL COMMENT '订单状态',
+  MODIFY COLUMN payment_status ENUM('待付款','已付款','已退款','部分退款','未支付','已支付') DEFAULT '待付款' COMMENT '支付状态';
@@ -0,0 +1,11 @@
+-- 优化ip_pools表索引
+-- idx_status_country_quality: 可用IP查询与分配（按状态、国家、质量筛选并按ID顺序读取），同时覆盖按状态统计
+-- idx_last_test_time: 查询长时间未测试的IP
+-- idx_test_result_time: 查询测试失败的IP
+-- 原 idx_ip_status 为新组合索引的前缀，删除以减少写入开销
+
+ALTER TABLE ip_pools
+  ADD INDEX idx_status_country_quality (ip_status, country, ip_quality, deleted_at),
+  ADD INDEX idx_last_test_time (last_test_time),
+  ADD INDEX idx_test_result_time (test_result, last_test_time),
+  DROP INDEX idx_ip_status;
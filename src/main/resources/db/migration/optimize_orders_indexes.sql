@@ -0,0 +1,9 @@
+-- 优化orders表索引
+-- idx_created_at: 订单列表按 (created_at, id) 倒序排序及游标定位，走索引范围扫描
+-- idx_status_created_at: 按订单状态筛选的订单列表，同时覆盖按状态查询和统计
+-- 原 idx_order_status 为新组合索引的前缀，删除以减少写入开销
+
+ALTER TABLE orders
+  ADD INDEX idx_created_at (created_at, id),
+  ADD INDEX idx_status_created_at (order_status, created_at, id),
+  DROP INDEX idx_order_status;
@@ -190,8 +190,8 @@ CREATE TABLE `orders` (
   `manager_id` bigint DEFAULT NULL COMMENT '客户经理ID',
   `product_id` bigint NOT NULL COMMENT '产品ID',
   `product_name` varchar(100) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '产品名称',
-  `order_status` enum('正常','已暂停','已过期','人工核验','待付款','已退款') COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '订单状态',
-  `payment_status` enum('待付款','已付款','已退款','部分退款') COLLATE utf8mb4_unicode_ci DEFAULT '待付款' COMMENT '支付状态',
+  `order_status` enum('正常','已暂停','已过期','人工核验','待付款','已退款','待支付','已支付','运行中','已完成','已取消') COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '订单状态',
+  `payment_status` enum('待付款','已付款','已退款','部分退款','未支付','已支付') COLLATE utf8mb4_unicode_ci DEFAULT '待付款' COMMENT '支付状态',
   `total_amount` decimal(10,2) NOT NULL COMMENT '订单总金额',
   `actual_amount` decimal(10,2) NOT NULL COMMENT '实际支付金额',
   `discount_amount` decimal(10,2) DEFAULT '0.00' COMMENT '折扣金额',
@@ -212,12 +212,118 @@ CREATE TABLE `orders` (
   UNIQUE KEY `uk_order_no` (`order_no`),
   KEY `idx_customer_id` (`customer_id`),
   KEY `idx_manager_id` (`manager_id`),
-  KEY `idx_order_status` (`order_status`),
+  KEY `idx_status_created_at` (`order_status`, `created_at`, `id`),
   KEY `idx_payment_status` (`payment_status`),
   KEY `idx_payment_time` (`payment_time`),
-  KEY `idx_expire_time` (`expire_time`)
+  KEY `idx_status_expire_time` (`order_status`, `expire_time`, `id`),
+  KEY `idx_created_at` (`created_at`, `id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单表';
 
+-- 订单IP索引表（由 orders 触发器在同一事务内按 ip_addresses 维护，用于按IP查订单）
+DROP TABLE IF EXISTS `order_ips`;
+CREATE TABLE `order_ips` (
+  `ip_address` varchar(45) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'IP地址',
+  `order_id` bigint NOT NULL COMMENT '订单ID',
+  PRIMARY KEY (`ip_address`, `order_id`),
+  KEY `idx_order_id` (`order_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单IP索引表';
+
+-- orders 变更时维护 order_ips：未删除订单的 ip_addresses 中每个IP一行
+DROP TRIGGER IF EXISTS `trg_orders_ips_insert`;
+DROP TRIGGER IF EXISTS `trg_orders_ips_update`;
+DROP TRIGGER IF EXISTS `trg_orders_ips_delete`;
+DELIMITER $$
+CREATE TRIGGER `trg_orders_ips_insert` AFTER INSERT ON `orders` FOR EACH ROW
+BEGIN
+  IF NEW.deleted_at IS NULL THEN
+    INSERT IGNORE INTO `order_ips` (`ip_address`, `order_id`)
+    SELECT jt.ip_address, NEW.id
+    FROM JSON_TABLE(NEW.ip_addresses, '$[*]' COLUMNS (`ip_address` varchar(45) PATH '$')) jt
+    WHERE jt.ip_address IS NOT NULL;
+  END IF;
+END$$
+
+CREATE TRIGGER `trg_orders_ips_update` AFTER UPDATE ON `orders` FOR EACH ROW
+BEGIN
+  IF NOT (OLD.ip_addresses <=> NEW.ip_addresses AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL)) THEN
+    DELETE FROM `order_ips` WHERE `order_id` = OLD.id;
+    IF NEW.deleted_at IS NULL THEN
+      INSERT IGNORE INTO `order_ips` (`ip_address`, `order_id`)
+      SELECT jt.ip_address, NEW.id
+      FROM JSON_TABLE(NEW.ip_addresses, '$[*]' COLUMNS (`ip_address` varchar(45) PATH '$')) jt
+      WHERE jt.ip_address IS NOT NULL;
+    END IF;
+  END IF;
+END$$
+
+CREATE TRIGGER `trg_orders_ips_delete` AFTER DELETE ON `orders` FOR EACH ROW
+BEGIN
+  DELETE FROM `order_ips` WHERE `order_id` = OLD.id;
+END$$
+DELIMITER ;
+
+-- 订单日统计表（由 orders 触发器在同一事务内维护，定时修复任务补正偏差）
+DROP TABLE IF EXISTS `order_daily_stats`;
+CREATE TABLE `order_daily_stats` (
+  `stat_date` date NOT NULL COMMENT '下单日期',
+  `product_name` varchar(100) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '产品名称（空字符串表示未填写）',
+  `country` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '国家（空字符串表示未填写）',
+  `order_status` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '订单状态',
+  `order_count` bigint NOT NULL DEFAULT '0' COMMENT '订单数量',
+  `total_amount` decimal(16,2) NOT NULL DEFAULT '0.00' COMMENT '订单总金额',
+  `actual_amount` decimal(16,2) NOT NULL DEFAULT '0.00' COMMENT '实际支付金额',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`stat_date`, `product_name`, `country`, `order_status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单日统计表';
+
+-- orders 变更时维护 order_daily_stats：未删除的订单计入（下单日期, 产品, 国家, 状态）对应的统计
+DROP TRIGGER IF EXISTS `trg_orders_stats_insert`;
+DROP TRIGGER IF EXISTS `trg_orders_stats_update`;
+DROP TRIGGER IF EXISTS `trg_orders_stats_delete`;
+DELIMITER $$
+CREATE TRIGGER `trg_orders_stats_insert` AFTER INSERT ON `orders` FOR EACH ROW
+BEGIN
+  IF NEW.deleted_at IS NULL AND NEW.created_at IS NOT NULL THEN
+    INSERT INTO `order_daily_stats` (`stat_date`, `product_name`, `country`, `order_status`, `order_count`, `total_amount`, `actual_amount`)
+    VALUES (DATE(NEW.created_at), IFNULL(NEW.product_name, ''), IFNULL(NEW.country, ''), IFNULL(NEW.order_status, ''),
+            1, NEW.total_amount, NEW.actual_amount)
+    ON DUPLICATE KEY UPDATE `order_count` = `order_count` + 1,
+      `total_amount` = `total_amount` + VALUES(`total_amount`), `actual_amount` = `actual_amount` + VALUES(`actual_amount`);
+  END IF;
+END$$
+
+CREATE TRIGGER `trg_orders_stats_update` AFTER UPDATE ON `orders` FOR EACH ROW
+BEGIN
+  IF NOT (OLD.created_at <=> NEW.created_at AND OLD.product_name <=> NEW.product_name AND OLD.country <=> NEW.country
+          AND OLD.order_status <=> NEW.order_status AND OLD.total_amount <=> NEW.total_amount
+          AND OLD.actual_amount <=> NEW.actual_amount AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL)) THEN
+    IF OLD.deleted_at IS NULL AND OLD.created_at IS NOT NULL THEN
+      UPDATE `order_daily_stats` SET `order_count` = `order_count` - 1,
+        `total_amount` = `total_amount` - OLD.total_amount, `actual_amount` = `actual_amount` - OLD.actual_amount
+      WHERE `stat_date` = DATE(OLD.created_at) AND `product_name` = IFNULL(OLD.product_name, '')
+        AND `country` = IFNULL(OLD.country, '') AND `order_status` = IFNULL(OLD.order_status, '');
+    END IF;
+    IF NEW.deleted_at IS NULL AND NEW.created_at IS NOT NULL THEN
+      INSERT INTO `order_daily_stats` (`stat_date`, `product_name`, `country`, `order_status`, `order_count`, `total_amount`, `actual_amount`)
+      VALUES (DATE(NEW.created_at), IFNULL(NEW.product_name, ''), IFNULL(NEW.country, ''), IFNULL(NEW.order_status, ''),
+              1, NEW.total_amount, NEW.actual_amount)
+      ON DUPLICATE KEY UPDATE `order_count` = `order_count` + 1,
+        `total_amount` = `total_amount` + VALUES(`total_amount`), `actual_amount` = `actual_amount` + VALUES(`actual_amount`);
+    END IF;
+  END IF;
+END$$
+
+CREATE TRIGGER `trg_orders_stats_delete` AFTER DELETE ON `orders` FOR EACH ROW
+BEGIN
+  IF OLD.deleted_at IS NULL AND OLD.created_at IS NOT NULL THEN
+    UPDATE `order_daily_stats` SET `order_count` = `order_count` - 1,
+      `total_amount` = `total_amount` - OLD.total_amount, `actual_amount` = `actual_amount` - OLD.actual_amount
+    WHERE `stat_date` = DATE(OLD.created_at) AND `product_name` = IFNULL(OLD.product_name, '')
+      AND `country` = IFNULL(OLD.country, '') AND `order_status` = IFNULL(OLD.order_status, '');
+  END IF;
+END$$
+DELIMITER ;
+
 -- IP更换记录表
 DROP TABLE IF EXISTS `ip_replace_logs`;
 CREATE TABLE `ip_replace_logs` (
@@ -251,34 +357,142 @@ DROP TABLE IF EXISTS `ip_pools`;
 CREATE TABLE `ip_pools` (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `ip_address` varchar(45) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'IP地址',
+  `ip_bin` varbinary(16) GENERATED ALWAYS AS (if((is_ipv4(`ip_address`) or is_ipv6(`ip_address`)),inet6_aton(`ip_address`),NULL)) STORED COMMENT '数值地址（INET6_ATON格式）',
   `country` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '国家',
   `region` varchar(50) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '地区',
   `city` varchar(50) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '城市',
   `ip_quality` enum('标准','优质','独享') COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'IP质量',
-  `ip_status` enum('可用','占用','故障','测试中','维护中') COLLATE utf8mb4_unicode_ci DEFAULT '可用' COMMENT 'IP状态',
+  `ip_status` enum('可用','占用','故障','测试中','维护中','预留') COLLATE utf8mb4_unicode_ci DEFAULT '可用' COMMENT 'IP状态',
   `port_range` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '端口范围',
   `bandwidth_mbps` int DEFAULT NULL COMMENT '带宽(Mbps)',
   `provider` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '供应商',
   `cost_price` decimal(10,2) DEFAULT NULL COMMENT '成本价格',
   `node_id` bigint DEFAULT NULL COMMENT '关联节点ID',
   `current_order_id` bigint DEFAULT NULL COMMENT '当前占用订单ID',
+  `reserved_until` timestamp NULL DEFAULT NULL COMMENT '预留到期时间',
   `last_test_time` timestamp NULL DEFAULT NULL COMMENT '最后测试时间',
   `test_result` enum('成功','失败') COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '测试结果',
   `test_latency` int DEFAULT NULL COMMENT '测试延迟(ms)',
   `test_message` text COLLATE utf8mb4_unicode_ci COMMENT '测试信息',
+  `ewma_latency` int DEFAULT NULL COMMENT '延迟指数加权平均(ms)',
+  `success_ratio` decimal(5,4) DEFAULT NULL COMMENT '测试成功率（指数加权）',
+  `test_samples` int NOT NULL DEFAULT '0' COMMENT '测试样本数',
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted_at` timestamp NULL DEFAULT NULL COMMENT '删除时间',
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_ip_address` (`ip_address`),
+  KEY `idx_ip_bin` (`ip_bin`, `deleted_at`),
   KEY `idx_country` (`country`),
   KEY `idx_city` (`city`),
   KEY `idx_ip_quality` (`ip_quality`),
-  KEY `idx_ip_status` (`ip_status`),
+  KEY `idx_status_country_quality` (`ip_status`, `country`, `ip_quality`, `deleted_at`),
+  KEY `idx_last_test_time` (`last_test_time`),
+  KEY `idx_test_result_time` (`test_result`, `last_test_time`),
   KEY `idx_node_id` (`node_id`),
-  KEY `idx_current_order_id` (`current_order_id`)
+  KEY `idx_current_order_id` (`current_order_id`),
+  KEY `idx_status_reserved_until` (`ip_status`, `reserved_until`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='IP池表';
 
+-- IP地址段表
+DROP TABLE IF EXISTS `ip_ranges`;
+CREATE TABLE `ip_ranges` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `cidr` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'CIDR',
+  `ip_version` tinyint NOT NULL COMMENT 'IP版本：4、6',
+  `range_start` varbinary(16) NOT NULL COMMENT '起始地址（INET6_ATON格式）',
+  `range_end` varbinary(16) NOT NULL COMMENT '结束地址（INET6_ATON格式）',
+  `total_count` bigint NOT NULL COMMENT '地址总数',
+  `expanded_count` bigint NOT NULL DEFAULT '0' COMMENT '已展开为IP池记录的地址数',
+  `country` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '国家',
+  `region` varchar(50) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '地区',
+  `city` varchar(50) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '城市',
+  `ip_quality` enum('标准','优质','独享') COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'IP质量',
+  `port_range` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '端口范围',
+  `bandwidth_mbps` int DEFAULT NULL COMMENT '带宽(Mbps)',
+  `provider` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '供应商',
+  `cost_price` decimal(10,2) DEFAULT NULL COMMENT '成本价格（单个IP）',
+  `node_id` bigint DEFAULT NULL COMMENT '关联节点ID',
+  `status` enum('启用','停用') COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '启用' COMMENT '状态',
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `deleted_at` timestamp NULL DEFAULT NULL COMMENT '删除时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_version_start` (`ip_version`, `range_start`),
+  KEY `idx_status_country_quality` (`status`, `country`, `ip_quality`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='IP地址段表';
+
+-- IP库存统计表（由 ip_pools 触发器在同一事务内维护，定时对账任务修正偏差）
+-- 每个维度按 slot 拆成最多16行，写入时按连接选择 slot，并发分配不再争用同一计数行；读取时按维度汇总
+DROP TABLE IF EXISTS `ip_inventory`;
+CREATE TABLE `ip_inventory` (
+  `country` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '国家',
+  `city` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '城市（空字符串表示未填写）',
+  `ip_quality` varchar(10) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'IP质量',
+  `ip_status` varchar(10) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT 'IP状态',
+  `slot` tinyint unsigned NOT NULL DEFAULT '0' COMMENT '计数分片（写入连接ID % 16），单个分片的数量可以为负',
+  `ip_count` bigint NOT NULL DEFAULT '0' COMMENT 'IP数量',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`country`, `city`, `ip_quality`, `ip_status`, `slot`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='IP库存统计表';
+
+-- ip_pools 变更时维护 ip_inventory：未删除的记录计入（国家, 城市, 质量, 状态）对应的库存
+-- 同一事务内的所有变更落在同一 slot，不同 slot 之间没有锁顺序问题；减少时对应 slot 可能没有行，因此同样用 INSERT ... ON DUPLICATE KEY
+DROP TRIGGER IF EXISTS `trg_ip_pools_inventory_insert`;
+DROP TRIGGER IF EXISTS `trg_ip_pools_inventory_update`;
+DROP TRIGGER IF EXISTS `trg_ip_pools_inventory_delete`;
+DELIMITER $$
+CREATE TRIGGER `trg_ip_pools_inventory_insert` AFTER INSERT ON `ip_pools` FOR EACH ROW
+BEGIN
+  IF NEW.deleted_at IS NULL THEN
+    INSERT INTO `ip_inventory` (`country`, `city`, `ip_quality`, `ip_status`, `slot`, `ip_count`)
+    VALUES (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, ''), CONNECTION_ID() % 16, 1)
+    ON DUPLICATE KEY UPDATE `ip_count` = `ip_count` + 1;
+  END IF;
+END$$
+
+CREATE TRIGGER `trg_ip_pools_inventory_update` AFTER UPDATE ON `ip_pools` FOR EACH ROW
+BEGIN
+  IF NOT (OLD.country <=> NEW.country AND OLD.city <=> NEW.city AND OLD.ip_quality <=> NEW.ip_quality
+          AND OLD.ip_status <=> NEW.ip_status AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL)) THEN
+    -- 按维度顺序先后更新两行，认领（可用→占用）与释放（占用→可用）加锁顺序一致，不会互相死锁
+    IF (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''))
+       < (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, '')) THEN
+      IF OLD.deleted_at IS NULL THEN
+        INSERT INTO `ip_inventory` (`country`, `city`, `ip_quality`, `ip_status`, `slot`, `ip_count`)
+        VALUES (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''), CONNECTION_ID() % 16, -1)
+        ON DUPLICATE KEY UPDATE `ip_count` = `ip_count` - 1;
+      END IF;
+      IF NEW.deleted_at IS NULL THEN
+        INSERT INTO `ip_inventory` (`country`, `city`, `ip_quality`, `ip_status`, `slot`, `ip_count`)
+        VALUES (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, ''), CONNECTION_ID() % 16, 1)
+        ON DUPLICATE KEY UPDATE `ip_count` = `ip_count` + 1;
+      END IF;
+    ELSE
+      IF NEW.deleted_at IS NULL THEN
+        INSERT INTO `ip_inventory` (`country`, `city`, `ip_quality`, `ip_status`, `slot`, `ip_count`)
+        VALUES (NEW.country, IFNULL(NEW.city, ''), NEW.ip_quality, IFNULL(NEW.ip_status, ''), CONNECTION_ID() % 16, 1)
+        ON DUPLICATE KEY UPDATE `ip_count` = `ip_count` + 1;
+      END IF;
+      IF OLD.deleted_at IS NULL THEN
+        INSERT INTO `ip_inventory` (`country`, `city`, `ip_quality`, `ip_status`, `slot`, `ip_count`)
+        VALUES (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''), CONNECTION_ID() % 16, -1)
+        ON DUPLICATE KEY UPDATE `ip_count` = `ip_count` - 1;
+      END IF;
+    END IF;
+  END IF;
+END$$
+
+CREATE TRIGGER `trg_ip_pools_inventory_delete` AFTER DELETE ON `ip_pools` FOR EACH ROW
+BEGIN
+  IF OLD.deleted_at IS NULL THEN
+    INSERT INTO `ip_inventory` (`country`, `city`, `ip_quality`, `ip_status`, `slot`, `ip_count`)
+    VALUES (OLD.country, IFNULL(OLD.city, ''), OLD.ip_quality, IFNULL(OLD.ip_status, ''), CONNECTION_ID() % 16, -1)
+    ON DUPLICATE KEY UPDATE `ip_count` = `ip_count` - 1;
+  END IF;
+END$$
+DELIMITER ;
+
 -- =============================================
 -- 6. 节点管理表
 -- =============================================
@@ -305,6 +519,7 @@ CREATE TABLE `nodes` (
   `last_check_time` timestamp NULL DEFAULT NULL COMMENT '最后检查时间',
   `provider` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '服务商',
   `monthly_cost` decimal(10,2) DEFAULT NULL COMMENT '月费用',
+  `version` int NOT NULL DEFAULT '0' COMMENT '乐观锁版本号',
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted_at` timestamp NULL DEFAULT NULL COMMENT '删除时间',
@@ -492,6 +707,26 @@ CREATE TABLE `system_configs` (
   KEY `idx_config_group` (`config_group`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='系统配置表';
 
+-- 后台任务断点表
+DROP TABLE IF EXISTS `job_checkpoints`;
+CREATE TABLE `job_checkpoints` (
+  `job_name` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '任务名称',
+  `scope` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '任务范围（如表名）',
+  `last_id` bigint NOT NULL DEFAULT '0' COMMENT '已处理到的最大ID',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`job_name`, `scope`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='后台任务断点表';
+
+-- 号段表（各实例按号段租用序号，按业务日期重新从1开始）
+DROP TABLE IF EXISTS `id_segments`;
+CREATE TABLE `id_segments` (
+  `biz_tag` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '业务标识',
+  `biz_date` char(8) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '业务日期(yyyyMMdd)',
+  `max_id` bigint NOT NULL DEFAULT '0' COMMENT '已分配出去的最大序号',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`biz_tag`, `biz_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='号段表';
+
 -- =============================================
 -- 11. 初始化数据
 -- =============================================
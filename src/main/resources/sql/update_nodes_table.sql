@@ -36,6 +36,7 @@ CREATE TABLE `nodes` (
   `last_check_time` timestamp NULL DEFAULT NULL COMMENT '最后检查时间',
   `provider` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '服务商',
   `monthly_cost` decimal(10,2) DEFAULT NULL COMMENT '月费用',
+  `version` int NOT NULL DEFAULT '0' COMMENT '乐观锁版本号',
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted_at` timestamp NULL DEFAULT NULL COMMENT '删除时间',
@@ -0,0 +1,420 @@
+package com.saas.platform.benchmark;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.saas.platform.config.MyBatisPlusConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 数据库基准测试基类
+ * 在真实的 MySQL 上按 schema.sql 建表、批量造数，执行 Mapper 中的实际SQL，输出 EXPLAIN 与耗时。
+ * 数据库来源：
+ * <ul>
+ *     <li>-Dbenchmark.jdbc-url=jdbc:mysql://host:port/?user=...&amp;password=... 指定已有的服务器</li>
+ *     <li>未指定时，本机有 Docker 则通过 Testcontainers 启动 MySQL 8（-Dbenchmark.mysql-image 可覆盖镜像）</li>
+ *     <li>两者都没有时跳过</li>
+ * </ul>
+ * 只在该服务器上的 saas_xbox_benchmark 库中建表造数，不会访问其他库；schema.sql 未变化时复用已造好的数据。
+ * 运行方式：mvn test -Pbenchmark [-Dbenchmark.jdbc-url=...]，默认构建不运行。
+ *
+ * @author SaaS Xbox Team
+ */
+@Tag("benchmark")
+public abstract class DatabaseBenchmarkSupport {
+
+    protected static final Logger log = LoggerFactory.getLogger(DatabaseBenchmarkSupport.class);
+
+    private static final String DATABASE = "saas_xbox_benchmark";
+
+    private static boolean initialized;
+    private static String unavailableReason;
+    private static MySQLContainer<?> container;
+    private static HikariDataSource dataSource;
+    private static SqlSessionFactory sqlSessionFactory;
+
+    /**
+     * 基准库连接池，数据库不可用时跳过当前测试
+     */
+    protected static synchronized HikariDataSource dataSource() {
+        if (!initialized) {
+            initialized = true;
+            try {
+                initialize();
+            } catch (Exception e) {
+                throw new IllegalStateException("初始化基准测试数据库失败", e);
+            }
+        }
+        Assumptions.assumeTrue(dataSource != null, unavailableReason);
+        return dataSource;
+    }
+
+    protected static JdbcTemplate jdbc() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    /**
+     * 获取绑定到基准库的 Mapper
+     */
+    protected static <T> T mapper(Class<T> type) {
+        dataSource();
+        if (!sqlSessionFactory.getConfiguration().hasMapper(type)) {
+            sqlSessionFactory.getConfiguration().addMapper(type);
+        }
+        return new SqlSessionTemplate(sqlSessionFactory).getMapper(type);
+    }
+
+    private static void initialize() throws Exception {
+        String serverUrl = System.getProperty("benchmark.jdbc-url");
+        String username = null;
+        String password = null;
+        if (!StringUtils.hasText(serverUrl)) {
+            if (!DockerClientFactory.instance().isDockerAvailable()) {
+                unavailableReason = "未指定 -Dbenchmark.jdbc-url 且本机没有可用的 Docker，跳过数据库基准测试";
+                return;
+            }
+            container = new MySQLContainer<>(DockerImageName.parse(
+                    System.getProperty("benchmark.mysql-image", "mysql:8.0.36")))
+                    .withUsername("root")
+                    .withPassword("benchmark")
+                    .withCommand("--skip-log-bin", "--innodb-buffer-pool-size=1G",
+                            "--character-set-server=utf8mb4", "--collation-server=utf8mb4_unicode_ci");
+            container.start();
+            serverUrl = container.getJdbcUrl();
+            username = container.getUsername();
+            password = container.getPassword();
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(withDatabase(serverUrl, DATABASE));
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(Integer.getInteger("benchmark.pool-size", 64));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("allowMultiQueries", "true");
+
+        String schema = new ClassPathResource("sql/schema.sql").getContentAsString(StandardCharsets.UTF_8);
+        long checksum = checksum(schema);
+        boolean rebuildSchema = false;
+        try (HikariDataSource server = serverDataSource(config, withDatabase(serverUrl, ""))) {
+            JdbcTemplate jdbc = new JdbcTemplate(server);
+            jdbc.execute("CREATE DATABASE IF NOT EXISTS " + DATABASE
+                    + " DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + DATABASE
+                    + ".bench_meta (name VARCHAR(100) PRIMARY KEY, value BIGINT NOT NULL)");
+            Long loaded = jdbc.query("SELECT value FROM " + DATABASE + ".bench_meta WHERE name = 'schema'",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (loaded == null || loaded != checksum) {
+                log.info("基准库表结构不存在或 schema.sql 已变化，重建 {}", DATABASE);
+                jdbc.execute("DROP DATABASE " + DATABASE);
+                jdbc.execute("CREATE DATABASE " + DATABASE
+                        + " DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+                jdbc.execute("CREATE TABLE " + DATABASE
+                        + ".bench_meta (name VARCHAR(100) PRIMARY KEY, value BIGINT NOT NULL)");
+                rebuildSchema = true;
+            }
+        }
+
+        dataSource = new HikariDataSource(config);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        if (rebuildSchema) {
+            for (String statement : splitScript(schema)) {
+                jdbc.execute(statement);
+            }
+            jdbc.update("INSERT INTO bench_meta (name, value) VALUES ('schema', ?)", checksum);
+        }
+        log.info("基准测试数据库: {}", jdbc.queryForObject("SELECT VERSION()", String.class));
+
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        // 与 application.yml 中的 mybatis-plus 配置一致，条件构造器生成的SQL（含逻辑删除条件）与线上相同
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setCacheEnabled(false);
+        configuration.setCallSettersOnNulls(true);
+        configuration.setJdbcTypeForNull(JdbcType.NULL);
+        factoryBean.setConfiguration(configuration);
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.getDbConfig().setIdType(IdType.AUTO);
+        globalConfig.getDbConfig().setLogicDeleteField("deletedAt");
+        globalConfig.getDbConfig().setLogicDeleteValue("now()");
+        globalConfig.getDbConfig().setLogicNotDeleteValue("null");
+        globalConfig.getDbConfig().setTableUnderline(true);
+        factoryBean.setGlobalConfig(globalConfig);
+        factoryBean.setTypeAliasesPackage("com.saas.platform.entity");
+        factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:/mapper/**/*.xml"));
+        factoryBean.setPlugins(new MyBatisPlusConfig().mybatisPlusInterceptor());
+        sqlSessionFactory = factoryBean.getObject();
+    }
+
+    private static HikariDataSource serverDataSource(HikariConfig template, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(template.getUsername());
+        config.setPassword(template.getPassword());
+        config.setMaximumPoolSize(1);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 把JDBC URL中的库名替换为指定库
+     */
+    static String withDatabase(String url, String database) {
+        int hostStart = url.indexOf("//") + 2;
+        int pathStart = url.indexOf('/', hostStart);
+        int queryStart = url.indexOf('?', hostStart);
+        String query = queryStart < 0 ? "" : url.substring(queryStart);
+        String host = url.substring(0, pathStart >= 0 && (queryStart < 0 || pathStart < queryStart)
+                ? pathStart : (queryStart < 0 ? url.length() : queryStart));
+        return host + "/" + database + query;
+    }
+
+    /**
+     * 按 DELIMITER 切分建表脚本；建库和 USE 语句跳过，表结构建在基准库中
+     */
+    static List<String> splitScript(String script) {
+        List<String> statements = new ArrayList<>();
+        String delimiter = ";";
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.toUpperCase(Locale.ROOT).startsWith("DELIMITER ")) {
+                delimiter = trimmed.substring("DELIMITER ".length()).trim();
+                continue;
+            }
+            if (current.isEmpty() && (trimmed.isEmpty() || trimmed.startsWith("--"))) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(delimiter)) {
+                String statement = current.toString().trim();
+                statement = statement.substring(0, statement.length() - delimiter.length()).trim();
+                String upper = statement.toUpperCase(Locale.ROOT);
+                if (!upper.startsWith("CREATE DATABASE") && !upper.startsWith("USE ")) {
+                    statements.add(statement);
+                }
+                current.setLength(0);
+            }
+        }
+        return statements;
+    }
+
+    private static long checksum(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * 造数：同名数据集已按相同行数造过时跳过
+     *
+     * @param dataset 数据集名称
+     * @param rows 行数
+     * @param seeder 造数逻辑
+     */
+    protected static void seedOnce(String dataset, long rows, Runnable seeder) {
+        JdbcTemplate jdbc = jdbc();
+        Long seeded = jdbc.query("SELECT value FROM bench_meta WHERE name = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, dataset);
+        if (seeded != null && seeded == rows) {
+            log.info("复用已造好的数据集 {}（{}行）", dataset, rows);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        seeder.run();
+        jdbc.update("REPLACE INTO bench_meta (name, value) VALUES (?, ?)", dataset, rows);
+        log.info("数据集 {} 造数完成: {}行, 耗时={}s", dataset, rows, (System.currentTimeMillis() - start) / 1000);
+    }
+
+    /**
+     * 准备 0 ~ rows-1 的数字序列表 bench_seq，造数时按区间 INSERT ... SELECT
+     */
+    protected static void ensureSequence(long rows) {
+        JdbcTemplate jdbc = jdbc();
+        jdbc.execute("CREATE TABLE IF NOT EXISTS bench_seq (n BIGINT NOT NULL PRIMARY KEY)");
+        long current = jdbc.queryForObject("SELECT COUNT(*) FROM bench_seq", Long.class);
+        if (current >= rows) {
+            return;
+        }
+        if (current == 0) {
+            jdbc.execute("INSERT INTO bench_seq (n) VALUES (0)");
+            current = 1;
+        }
+        while (current < rows) {
+            jdbc.update("INSERT INTO bench_seq (n) SELECT n + ? FROM bench_seq WHERE n < ?",
+                    current, Math.min(current, rows - current));
+            current = Math.min(current * 2, rows);
+        }
+    }
+
+    /**
+     * 分区间执行造数语句，语句中用两个占位符表示 [from, to)
+     */
+    protected static void insertInChunks(String sql, long rows, long chunk) {
+        JdbcTemplate jdbc = jdbc();
+        for (long from = 0; from < rows; from += chunk) {
+            jdbc.update(sql, from, Math.min(from + chunk, rows));
+        }
+    }
+
+    /**
+     * 对 Mapper 中的语句执行 EXPLAIN，参数与调用 Mapper 方法时相同（按 @Param 名称传入）
+     */
+    protected static List<Map<String, Object>> explain(String statementId, Object parameter) {
+        return explain(statementId, parameter, "");
+    }
+
+    /**
+     * 对 Mapper 中的语句执行 EXPLAIN，并在末尾追加SQL片段（如分页插件追加的 LIMIT）
+     */
+    protected static List<Map<String, Object>> explain(String statementId, Object parameter, String suffix) {
+        MappedStatement statement = sqlSessionFactory().getConfiguration().getMappedStatement(statementId);
+        BoundSql boundSql = statement.getBoundSql(parameter);
+        String sql = boundSql.getSql() + suffix;
+        try (Connection connection = dataSource().getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            ParameterHandler handler = new DefaultParameterHandler(statement, parameter, boundSql);
+            handler.setParameters(ps);
+            List<Map<String, Object>> plan = readRows(ps);
+            log.info("EXPLAIN {}\n{}\n{}", statementId, sql.replaceAll("\\s+", " "), format(plan));
+            return plan;
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN 失败: " + statementId, e);
+        }
+    }
+
+    /**
+     * 对任意SQL执行 EXPLAIN
+     */
+    protected static List<Map<String, Object>> explainSql(String sql, Object... args) {
+        try (Connection connection = dataSource().getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            List<Map<String, Object>> plan = readRows(ps);
+            log.info("EXPLAIN\n{}\n{}", sql.replaceAll("\\s+", " "), format(plan));
+            return plan;
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN 失败: " + sql, e);
+        }
+    }
+
+    /**
+     * 断言执行计划中对指定表使用了指定索引
+     */
+    protected static void assertUsesIndex(List<Map<String, Object>> plan, String table, String index) {
+        assertThat(plan)
+                .as("%s 应走索引 %s", table, index)
+                .anySatisfy(row -> {
+                    assertThat(row.get("table")).isEqualTo(table);
+                    assertThat(row.get("key")).isEqualTo(index);
+                });
+    }
+
+    private static SqlSessionFactory sqlSessionFactory() {
+        dataSource();
+        return sqlSessionFactory;
+    }
+
+    private static List<Map<String, Object>> readRows(PreparedStatement ps) throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            ResultSetMetaData meta = rs.getMetaData();
+            while (rs.next()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    row.put(meta.getColumnLabel(i), rs.getObject(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static String format(List<Map<String, Object>> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (Map<String, Object> row : rows) {
+            sb.append(String.format("  table=%s type=%s key=%s key_len=%s rows=%s extra=%s%n",
+                    row.get("table"), row.get("type"), row.get("key"), row.get("key_len"),
+                    row.get("rows"), row.get("Extra")));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 多次执行取中位数耗时
+     *
+     * @param name 名称，用于输出
+     * @param warmups 预热次数
+     * @param runs 计时次数
+     * @param action 被测操作
+     * @return 中位数耗时(ms)
+     */
+    protected static double measure(String name, int warmups, int runs, Action action) {
+        try {
+            for (int i = 0; i < warmups; i++) {
+                action.run();
+            }
+            double[] millis = new double[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                action.run();
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+            double median = millis[runs / 2];
+            log.info("基准 {}: 中位数={}ms, 最小={}ms, 最大={}ms ({}次)", name, String.format("%.2f", median),
+                    String.format("%.2f", millis[0]), String.format("%.2f", millis[runs - 1]), runs);
+            return median;
+        } catch (Exception e) {
+            throw new IllegalStateException("基准执行失败: " + name, e);
+        }
+    }
+
+    /**
+     * 被测操作
+     */
+    @FunctionalInterface
+    protected interface Action {
+        void run() throws Exception;
+    }
+}
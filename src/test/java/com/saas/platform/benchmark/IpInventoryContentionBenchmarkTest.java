@@ -0,0 +1,181 @@
+package com.saas.platform.benchmark;
+
+import com.saas.platform.entity.IpInventory;
+import com.saas.platform.mapper.IpInventoryMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IP库存计数触发器争用基准
+ * 多个线程并发认领、释放同一（国家, 城市, 质量）下互不重叠的IP，事务内在认领后停留几毫秒模拟订单创建的其余工作，
+ * 对比三种触发器：按连接分 slot（当前实现）、所有写入落在同一计数行、不维护库存；
+ * 结束后确认按 slot 汇总的库存与直接统计 ip_pools 的结果一致
+ *
+ * @author SaaS Xbox Team
+ */
+class IpInventoryContentionBenchmarkTest extends DatabaseBenchmarkSupport {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    private static final int IPS_PER_CLAIM = 5;
+    private static final long DURATION_MS = Long.getLong("benchmark.duration-ms", 10_000L);
+    private static final String HOLD_SQL = "DO SLEEP(0.005)";
+
+    private static List<String> inventoryTriggers;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        IpPoolAddressSearchBenchmarkTest.seedIpPools(Long.getLong("benchmark.ip-rows", 1_000_000L));
+        String schema = new ClassPathResource("sql/schema.sql").getContentAsString(StandardCharsets.UTF_8);
+        inventoryTriggers = splitScript(schema).stream()
+                .filter(statement -> statement.startsWith("CREATE TRIGGER `trg_ip_pools_inventory_"))
+                .collect(Collectors.toList());
+        assertThat(inventoryTriggers).hasSize(3);
+    }
+
+    @AfterAll
+    static void restoreTriggers() {
+        installTriggers(inventoryTriggers);
+    }
+
+    @Test
+    void stripedCountersAgainstSingleRowCounter() throws Exception {
+        List<Long> ids = jdbc().queryForList("SELECT id FROM ip_pools WHERE country = '美国' AND city = '城市A' "
+                + "AND ip_quality = '标准' AND ip_status = '可用' AND deleted_at IS NULL ORDER BY id", Long.class);
+        assertThat(ids.size()).isGreaterThanOrEqualTo(THREADS * IPS_PER_CLAIM * 2);
+
+        installTriggers(inventoryTriggers);
+        rebuildInventory();
+        double striped = run("按连接分 slot", ids);
+        assertInventoryMatchesPool();
+
+        installTriggers(inventoryTriggers.stream()
+                .map(statement -> statement.replace("CONNECTION_ID() % 16", "0"))
+                .collect(Collectors.toList()));
+        rebuildInventory();
+        double single = run("单行计数", ids);
+        assertInventoryMatchesPool();
+
+        installTriggers(List.of());
+        double none = run("无库存触发器", ids);
+
+        log.info("基准 库存触发器并发认领（{}线程）: 分slot={}/s, 单行={}/s, 无触发器={}/s", THREADS,
+                String.format("%.0f", striped), String.format("%.0f", single), String.format("%.0f", none));
+        installTriggers(inventoryTriggers);
+        rebuildInventory();
+    }
+
+    /**
+     * 运行固定时长，返回每秒完成的认领事务数
+     */
+    private static double run(String name, List<Long> ids) throws Exception {
+        AtomicLong claims = new AtomicLong();
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                List<Long> own = new ArrayList<>();
+                for (int i = t; i < ids.size(); i += THREADS) {
+                    own.add(ids.get(i));
+                }
+                futures.add(executor.submit(() -> {
+                    claimLoop(own, deadline, claims);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(DURATION_MS + 60_000, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double perSecond = claims.get() * 1000.0 / DURATION_MS;
+        log.info("基准 库存触发器 {}: {}线程, {}次认领, {}/s", name, THREADS, claims.get(),
+                String.format("%.0f", perSecond));
+        return perSecond;
+    }
+
+    private static void claimLoop(List<Long> own, long deadline, AtomicLong claims) throws Exception {
+        String placeholders = String.join(",", Collections.nCopies(IPS_PER_CLAIM, "?"));
+        String claim = "UPDATE ip_pools SET ip_status = '占用' WHERE id IN (" + placeholders + ") AND ip_status = '可用'";
+        String release = "UPDATE ip_pools SET ip_status = '可用' WHERE id IN (" + placeholders + ") AND ip_status = '占用'";
+        int offset = 0;
+        try (Connection connection = dataSource().getConnection()) {
+            while (System.currentTimeMillis() < deadline) {
+                List<Long> batch = new ArrayList<>(IPS_PER_CLAIM);
+                for (int i = 0; i < IPS_PER_CLAIM; i++) {
+                    batch.add(own.get((offset + i) % own.size()));
+                }
+                offset = (offset + IPS_PER_CLAIM) % own.size();
+
+                connection.setAutoCommit(false);
+                execute(connection, claim, batch);
+                try (Statement hold = connection.createStatement()) {
+                    hold.execute(HOLD_SQL);
+                }
+                connection.commit();
+                connection.setAutoCommit(true);
+                execute(connection, release, batch);
+                claims.incrementAndGet();
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql, List<Long> ids) throws Exception {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setLong(i + 1, ids.get(i));
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static void installTriggers(List<String> triggers) {
+        for (String name : List.of("insert", "update", "delete")) {
+            jdbc().execute("DROP TRIGGER IF EXISTS trg_ip_pools_inventory_" + name);
+        }
+        for (String trigger : triggers) {
+            jdbc().execute(trigger);
+        }
+    }
+
+    private static void rebuildInventory() {
+        jdbc().execute("TRUNCATE TABLE ip_inventory");
+        jdbc().execute("INSERT INTO ip_inventory (country, city, ip_quality, ip_status, ip_count) "
+                + "SELECT country, IFNULL(city, ''), ip_quality, IFNULL(ip_status, ''), COUNT(*) FROM ip_pools "
+                + "WHERE deleted_at IS NULL GROUP BY country, IFNULL(city, ''), ip_quality, IFNULL(ip_status, '')");
+    }
+
+    private static void assertInventoryMatchesPool() {
+        IpInventoryMapper mapper = mapper(IpInventoryMapper.class);
+        Map<String, Long> inventory = mapper.selectInventory(null, null).stream()
+                .collect(Collectors.toMap(IpInventoryContentionBenchmarkTest::key, IpInventory::getIpCount));
+        Map<String, Long> actual = mapper.selectActualInventory().stream()
+                .collect(Collectors.toMap(IpInventoryContentionBenchmarkTest::key, IpInventory::getIpCount));
+        assertThat(inventory).isEqualTo(actual);
+        log.info("库存 slot 行数: {}", jdbc().queryForObject("SELECT COUNT(*) FROM ip_inventory", Long.class));
+    }
+
+    private static String key(IpInventory row) {
+        return row.getCountry() + "|" + row.getCity() + "|" + row.getIpQuality() + "|" + row.getIpStatus();
+    }
+}
@@ -0,0 +1,115 @@
+package com.saas.platform.benchmark;
+
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.util.CidrRange;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IP池数值地址（ip_bin）范围查询基准
+ * 造 benchmark.ip-rows（默认100万）行IP，其中10%为IPv6，对 /24、/16、/12 及IPv6 /48 执行
+ * selectByAddressRange / countByAddressRange，确认走 idx_ip_bin 范围扫描并记录耗时；
+ * 同时记录按文本前缀 LIKE 查询同一 /16 的耗时作为对照（文本前缀无法表达 /12 等非整段CIDR）
+ *
+ * @author SaaS Xbox Team
+ */
+class IpPoolAddressSearchBenchmarkTest extends DatabaseBenchmarkSupport {
+
+    private static final long ROWS = Long.getLong("benchmark.ip-rows", 1_000_000L);
+    private static final int PAGE_SIZE = 20;
+
+    private static IpPoolMapper ipPoolMapper;
+
+    @BeforeAll
+    static void seed() {
+        seedIpPools(ROWS);
+        ipPoolMapper = mapper(IpPoolMapper.class);
+    }
+
+    /**
+     * 造IP池数据：IPv4 从 1.0.0.0 起每隔7个地址取一个，IPv6 位于 2001:db8::/32；
+     * 约10%从未测试，其余的最后测试时间分布在最近48小时，其中约4%测试失败
+     */
+    static void seedIpPools(long rows) {
+        seedOnce("ip_pools", rows, () -> {
+            ensureSequence(rows);
+            jdbc().execute("TRUNCATE TABLE ip_pools");
+            insertInChunks("""
+                    INSERT INTO ip_pools (ip_address, country, city, ip_quality, ip_status, last_test_time, test_result,
+                                          created_at)
+                    SELECT IF(n % 10 = 9,
+                              LOWER(CONCAT('2001:db8:', HEX(n DIV 65536 + 1), '::', HEX(n % 65536 + 1))),
+                              INET_NTOA(16777216 + n * 7)),
+                           ELT(n % 5 + 1, '美国', '日本', '德国', '新加坡', '英国'),
+                           ELT(n % 4 + 1, '城市A', '城市B', '城市C', '城市D'),
+                           ELT(n % 3 + 1, '标准', '优质', '独享'),
+                           IF(n % 10 < 7, '可用', '占用'),
+                           IF(n % 10 = 3, NULL, NOW() - INTERVAL (n % 2880) MINUTE),
+                           CASE WHEN n % 10 = 3 THEN NULL WHEN n % 25 = 1 THEN '失败' ELSE '成功' END,
+                           NOW()
+                    FROM bench_seq WHERE n >= ? AND n < ?
+                    """, rows, 100_000);
+            jdbc().execute("ANALYZE TABLE ip_pools");
+        });
+    }
+
+    @Test
+    void rangeSearchUsesIpBinIndex() {
+        for (String cidr : List.of("1.2.3.0/24", "1.16.0.0/16", "1.0.0.0/12", "2001:db8:5::/48")) {
+            CidrRange range = CidrRange.parse(cidr);
+            assertUsesIndex(explain(IpPoolMapper.class.getName() + ".selectByAddressRange",
+                    rangeParams(range, null, PAGE_SIZE)), "ip_pools", "idx_ip_bin");
+            assertUsesIndex(explain(IpPoolMapper.class.getName() + ".countByAddressRange",
+                    rangeParams(range, null, PAGE_SIZE)), "ip_pools", "idx_ip_bin");
+        }
+    }
+
+    @Test
+    void rangeSearchTimings() {
+        for (String cidr : List.of("1.2.3.0/24", "1.16.0.0/16", "1.0.0.0/12", "2001:db8:5::/48")) {
+            CidrRange range = CidrRange.parse(cidr);
+            List<IpPool> first = ipPoolMapper.selectByAddressRange(range.startBytes(), range.endBytes(), null,
+                    null, null, null, PAGE_SIZE);
+            assertThat(first).isNotEmpty();
+            measure("ip_bin 范围首页 " + cidr, 5, 21, () -> ipPoolMapper.selectByAddressRange(
+                    range.startBytes(), range.endBytes(), null, null, null, null, PAGE_SIZE));
+            measure("ip_bin 范围首页+国家筛选 " + cidr, 5, 21, () -> ipPoolMapper.selectByAddressRange(
+                    range.startBytes(), range.endBytes(), null, "美国", null, null, PAGE_SIZE));
+            long total = ipPoolMapper.countByAddressRange(range.startBytes(), range.endBytes(), null, null, null);
+            measure("ip_bin 范围计数 " + cidr + "（" + total + "行）", 3, 11, () -> ipPoolMapper.countByAddressRange(
+                    range.startBytes(), range.endBytes(), null, null, null));
+        }
+
+        // 游标翻页：从 /12 中部继续，耗时应与首页一致
+        CidrRange range = CidrRange.parse("1.0.0.0/12");
+        byte[] middle = CidrRange.parse("1.8.0.0/32").startBytes();
+        measure("ip_bin 游标翻页（/12 中部）", 5, 21, () -> ipPoolMapper.selectByAddressRange(
+                range.startBytes(), range.endBytes(), middle, null, null, null, PAGE_SIZE));
+
+        // 对照：改造前按文本前缀匹配同一 /16
+        measure("文本前缀 LIKE '1.16.%' 首页", 5, 21, () -> jdbc().queryForList(
+                "SELECT id FROM ip_pools WHERE deleted_at IS NULL AND ip_address LIKE '1.16.%' ORDER BY id DESC LIMIT 20"));
+        measure("文本前缀 LIKE '1.16.%' 计数", 3, 11, () -> jdbc().queryForObject(
+                "SELECT COUNT(*) FROM ip_pools WHERE deleted_at IS NULL AND ip_address LIKE '1.16.%'", Long.class));
+        explainSql("SELECT id FROM ip_pools WHERE deleted_at IS NULL AND ip_address LIKE '1.16.%' ORDER BY id DESC LIMIT 20");
+    }
+
+    private static Map<String, Object> rangeParams(CidrRange range, byte[] after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ipStart", range.startBytes());
+        params.put("ipEnd", range.endBytes());
+        params.put("after", after);
+        params.put("country", null);
+        params.put("ipQuality", null);
+        params.put("ipStatus", null);
+        params.put("limit", limit);
+        return params;
+    }
+}
@@ -0,0 +1,176 @@
+package com.saas.platform.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.mapper.IpPoolMapper;
+import com.saas.platform.service.impl.IpPoolServiceImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IP池列表分页与可用、待测试IP查询基准
+ * 复用IP地址范围基准的数据（benchmark.ip-rows，默认100万行），确认游标分页按主键范围定位，
+ * 可用IP查询走 idx_status_country_quality，测试失败与未测试IP查询分别走 idx_test_result_time 与 idx_last_test_time；
+ * 在不同翻页深度对比 OFFSET 分页（含 COUNT）与游标分页的耗时并核对两者返回同一页，其余查询以忽略对应索引的同一SQL作对照
+ *
+ * @author SaaS Xbox Team
+ */
+class IpPoolPagingBenchmarkTest extends DatabaseBenchmarkSupport {
+
+    private static final long ROWS = Long.getLong("benchmark.ip-rows", 1_000_000L);
+    private static final int PAGE_SIZE = 20;
+    private static final int CHECK_LIMIT = 1000;
+    private static final int STALE_HOURS = 24;
+
+    private static IpPoolMapper ipPoolMapper;
+    private static IpPoolServiceImpl ipPoolService;
+
+    @BeforeAll
+    static void seed() {
+        IpPoolAddressSearchBenchmarkTest.seedIpPools(ROWS);
+        ipPoolMapper = mapper(IpPoolMapper.class);
+        ipPoolService = new IpPoolServiceImpl(null, null, null, null, null, null);
+        ReflectionTestUtils.setField(ipPoolService, "baseMapper", ipPoolMapper);
+    }
+
+    @Test
+    void pageQueriesUseIndexes() {
+        long middle = idAt(ROWS / 2, null);
+        List<Map<String, Object>> plan = explain(IpPoolMapper.class.getName() + ".selectIpPoolPageAfter",
+                pageParams(middle, null, null, null));
+        assertUsesIndex(plan, "ip_pools", "PRIMARY");
+        assertThat(plan.get(0).get("type")).isEqualTo("range");
+
+        // 状态、国家、质量均指定时，(ip_status, country, ip_quality, deleted_at) 之后按主键有序，游标须在索引内范围定位
+        long middleAvailable = idAt(ROWS / 50, "美国");
+        plan = explain(IpPoolMapper.class.getName() + ".selectIpPoolPageAfter",
+                pageParams(middleAvailable, "美国", "标准", "可用"));
+        assertUsesIndex(plan, "ip_pools", "idx_status_country_quality");
+        assertThat(plan.get(0).get("type")).isEqualTo("range");
+
+        // 对照：OFFSET 分页
+        explain(IpPoolMapper.class.getName() + ".selectIpPoolPage", pageParams(null, null, null, null),
+                " LIMIT " + ROWS / 2 + ", " + PAGE_SIZE);
+    }
+
+    @Test
+    void availableAndTestQueriesUseIndexes() {
+        Map<String, Object> available = new HashMap<>();
+        available.put("country", "美国");
+        available.put("ipQuality", "标准");
+        available.put("limit", CHECK_LIMIT);
+        assertUsesIndex(explain(IpPoolMapper.class.getName() + ".selectAvailableIps", available),
+                "ip_pools", "idx_status_country_quality");
+        assertUsesIndex(explain(IpPoolMapper.class.getName() + ".countAvailable", available),
+                "ip_pools", "idx_status_country_quality");
+
+        Map<String, Object> failed = new HashMap<>();
+        failed.put("limit", CHECK_LIMIT);
+        assertUsesIndex(explain(IpPoolMapper.class.getName() + ".selectFailedTestIps", failed),
+                "ip_pools", "idx_test_result_time");
+
+        Map<String, Object> untested = new HashMap<>();
+        untested.put("hours", STALE_HOURS);
+        untested.put("limit", CHECK_LIMIT);
+        assertUsesIndex(explain(IpPoolMapper.class.getName() + ".selectUntestedIps", untested),
+                "ip_pools", "idx_last_test_time");
+    }
+
+    @Test
+    void offsetAgainstKeysetAtDepth() {
+        for (long depth : new long[]{0, 1_000, 10_000, 100_000, ROWS / 2}) {
+            long current = depth / PAGE_SIZE + 1;
+            Long lastId = depth == 0 ? null : idAt(depth - 1, null);
+
+            List<Long> offsetIds = idsOf(ipPoolService.getIpPoolPage(current, (long) PAGE_SIZE,
+                    null, null, null, null, null, null).getRecords());
+            assertThat(idsOf(ipPoolService.getIpPoolPageAfter(lastId, PAGE_SIZE,
+                    null, null, null, null, null, null))).isEqualTo(offsetIds);
+
+            measure("OFFSET 分页（含COUNT）深度 " + depth, 2, 7, () -> ipPoolService.getIpPoolPage(current,
+                    (long) PAGE_SIZE, null, null, null, null, null, null));
+            measure("OFFSET 分页（不计数）深度 " + depth, 2, 7, () -> ipPoolMapper.selectIpPoolPage(
+                    new Page<>(current, PAGE_SIZE, false), null, null, null, null, null, null, null, null));
+            measure("游标分页 深度 " + depth, 5, 21, () -> ipPoolService.getIpPoolPageAfter(lastId, PAGE_SIZE,
+                    null, null, null, null, null, null));
+        }
+
+        // 按状态、国家、质量筛选后从中部继续
+        long depth = ROWS / 50;
+        long lastId = idAt(depth - 1, "美国");
+        long current = depth / PAGE_SIZE + 1;
+        List<Long> offsetIds = idsOf(ipPoolService.getIpPoolPage(current, (long) PAGE_SIZE,
+                null, "美国", null, "标准", "可用", null).getRecords());
+        assertThat(idsOf(ipPoolService.getIpPoolPageAfter(lastId, PAGE_SIZE,
+                null, "美国", null, "标准", "可用", null))).isEqualTo(offsetIds);
+        measure("OFFSET 分页（含COUNT）按状态筛选 深度 " + depth, 2, 7, () -> ipPoolService.getIpPoolPage(current,
+                (long) PAGE_SIZE, null, "美国", null, "标准", "可用", null));
+        measure("游标分页 按状态筛选 深度 " + depth, 5, 21, () -> ipPoolService.getIpPoolPageAfter(lastId, PAGE_SIZE,
+                null, "美国", null, "标准", "可用", null));
+    }
+
+    @Test
+    void availableAndTestQueryTimings() {
+        assertThat(ipPoolMapper.selectAvailableIps("美国", "标准", CHECK_LIMIT)).hasSize(CHECK_LIMIT);
+        measure("可用IP 按国家质量取" + CHECK_LIMIT + "个", 3, 11,
+                () -> ipPoolMapper.selectAvailableIps("美国", "标准", CHECK_LIMIT));
+        measure("可用IP 对照（忽略索引）", 1, 5, () -> jdbc().queryForList("SELECT id FROM ip_pools "
+                + "IGNORE INDEX (idx_status_country_quality) WHERE ip_status = '可用' AND country = '美国' "
+                + "AND ip_quality = '标准' AND deleted_at IS NULL ORDER BY id LIMIT " + CHECK_LIMIT));
+        measure("可用IP 按国家质量计数", 3, 11, () -> ipPoolMapper.countAvailable("美国", "标准"));
+        measure("可用IP 计数 对照（忽略索引）", 1, 5, () -> jdbc().queryForObject("SELECT COUNT(*) FROM ip_pools "
+                + "IGNORE INDEX (idx_status_country_quality) WHERE ip_status = '可用' AND country = '美国' "
+                + "AND ip_quality = '标准' AND deleted_at IS NULL", Long.class));
+
+        assertThat(ipPoolMapper.selectFailedTestIps(CHECK_LIMIT)).hasSize(CHECK_LIMIT)
+                .allSatisfy(ip -> assertThat(ip.getTestResult()).isEqualTo("失败"));
+        measure("测试失败IP 最近" + CHECK_LIMIT + "个", 3, 11, () -> ipPoolMapper.selectFailedTestIps(CHECK_LIMIT));
+        measure("测试失败IP 对照（忽略索引）", 1, 5, () -> jdbc().queryForList("SELECT id FROM ip_pools "
+                + "IGNORE INDEX (idx_test_result_time) WHERE test_result = '失败' AND deleted_at IS NULL "
+                + "ORDER BY last_test_time DESC LIMIT " + CHECK_LIMIT));
+
+        assertThat(ipPoolMapper.selectUntestedIps(STALE_HOURS, CHECK_LIMIT)).hasSize(CHECK_LIMIT)
+                .allSatisfy(ip -> assertThat(ip.getLastTestTime()).isNull());
+        measure("未测试IP 取" + CHECK_LIMIT + "个", 3, 11, () -> ipPoolMapper.selectUntestedIps(STALE_HOURS, CHECK_LIMIT));
+        measure("未测试IP 对照（忽略索引）", 1, 5, () -> jdbc().queryForList("SELECT id FROM ip_pools "
+                + "IGNORE INDEX (idx_last_test_time) WHERE (last_test_time IS NULL "
+                + "OR last_test_time < DATE_SUB(NOW(), INTERVAL " + STALE_HOURS + " HOUR)) AND deleted_at IS NULL "
+                + "ORDER BY last_test_time LIMIT " + CHECK_LIMIT));
+    }
+
+    private static Map<String, Object> pageParams(Long lastId, String country, String ipQuality, String ipStatus) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("lastId", lastId);
+        params.put("size", PAGE_SIZE);
+        params.put("ipAddress", null);
+        params.put("ipStart", null);
+        params.put("ipEnd", null);
+        params.put("country", country);
+        params.put("city", null);
+        params.put("ipQuality", ipQuality);
+        params.put("ipStatus", ipStatus);
+        params.put("nodeId", null);
+        return params;
+    }
+
+    /**
+     * 按列表排序（ID倒序）取第 offset 行的ID（从0开始）；指定国家时只统计该国家标准质量的可用IP
+     */
+    private static long idAt(long offset, String country) {
+        String where = country == null ? ""
+                : " AND ip_status = '可用' AND country = '" + country + "' AND ip_quality = '标准'";
+        return jdbc().queryForObject("SELECT id FROM ip_pools WHERE deleted_at IS NULL" + where
+                + " ORDER BY id DESC LIMIT 1 OFFSET ?", Long.class, offset);
+    }
+
+    private static List<Long> idsOf(List<IpPool> ips) {
+        return ips.stream().map(IpPool::getId).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.saas.platform.benchmark;
+
+import com.saas.platform.entity.Order;
+import com.saas.platform.mapper.OrderMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 订单过期扫描基准
+ * 复用订单分页基准的数据（约1%已到期的订单仍为运行中，作为待处理的积压），
+ * 确认分块锁定和即将到期查询走 idx_status_expire_time，
+ * 并对比分块处理全部积压与原实现（一次加载全部到期订单、逐条 updateById）的耗时；两者都在事务内执行后回滚，不改变数据
+ *
+ * @author SaaS Xbox Team
+ */
+class OrderExpiryBenchmarkTest extends DatabaseBenchmarkSupport {
+
+    private static final long ROWS = Long.getLong("benchmark.order-rows", 1_000_000L);
+    private static final int CHUNK_SIZE = 500;
+
+    private static OrderMapper orderMapper;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void seed() {
+        OrderPagingBenchmarkTest.seedOrders(ROWS);
+        orderMapper = mapper(OrderMapper.class);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource()));
+    }
+
+    @Test
+    void expiryQueriesUseStatusExpireTimeIndex() {
+        Map<String, Object> chunk = new HashMap<>();
+        chunk.put("limit", CHUNK_SIZE);
+        assertUsesIndex(explain(OrderMapper.class.getName() + ".lockExpiredOrders", chunk),
+                "orders", "idx_status_expire_time");
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> upcoming = new HashMap<>();
+        upcoming.put("afterTime", now);
+        upcoming.put("afterId", 0L);
+        upcoming.put("before", now.plusMinutes(10));
+        upcoming.put("limit", CHUNK_SIZE);
+        assertUsesIndex(explain(OrderMapper.class.getName() + ".selectUpcomingExpirations", upcoming),
+                "orders", "idx_status_expire_time");
+
+        // 对照：原实现一次加载全部到期订单
+        explain(OrderMapper.class.getName() + ".selectExpiredOrders", new HashMap<>());
+    }
+
+    @Test
+    void chunkedSweepAgainstLoadAll() {
+        long backlog = jdbc().queryForObject("SELECT COUNT(*) FROM orders WHERE order_status = '运行中' "
+                + "AND expire_time <= NOW() AND deleted_at IS NULL", Long.class);
+        assertThat(backlog).isGreaterThan(CHUNK_SIZE);
+        assertThat(sweepInChunks()).isEqualTo(backlog);
+
+        measure("单块锁定并标记过期（" + CHUNK_SIZE + "个订单）", 2, 11, () -> transactionTemplate.executeWithoutResult(status -> {
+            List<Order> locked = orderMapper.lockExpiredOrders(CHUNK_SIZE);
+            orderMapper.expireOrders(idsOf(locked));
+            status.setRollbackOnly();
+        }));
+        measure("分块处理全部积压（" + backlog + "个订单）", 1, 5, OrderExpiryBenchmarkTest::sweepInChunks);
+        measure("原实现：加载全部到期订单后逐条 updateById（" + backlog + "个订单）", 1, 3,
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    for (Order order : orderMapper.selectExpiredOrders()) {
+                        order.setOrderStatus("已过期");
+                        orderMapper.updateById(order);
+                    }
+                    status.setRollbackOnly();
+                }));
+    }
+
+    /**
+     * 与 OrderExpiryEngine.sweep 相同的分块顺序，在一个回滚的事务内执行，返回处理的订单数
+     */
+    private static long sweepInChunks() {
+        Long expired = transactionTemplate.execute(status -> {
+            long total = 0;
+            List<Order> locked;
+            do {
+                locked = orderMapper.lockExpiredOrders(CHUNK_SIZE);
+                if (!locked.isEmpty()) {
+                    orderMapper.expireOrders(idsOf(locked));
+                }
+                total += locked.size();
+            } while (locked.size() == CHUNK_SIZE);
+            status.setRollbackOnly();
+            return total;
+        });
+        return expired == null ? 0 : expired;
+    }
+
+    private static List<Long> idsOf(List<Order> orders) {
+        List<Long> ids = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,179 @@
+package com.saas.platform.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.saas.platform.dto.CursorPage;
+import com.saas.platform.entity.Order;
+import com.saas.platform.mapper.OrderMapper;
+import com.saas.platform.service.impl.OrderServiceImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 订单列表游标分页基准
+ * 造 benchmark.order-rows（默认100万）个订单，下单时间均匀分布在最近一年；
+ * 确认游标条件 (created_at, id) 在不筛选时走 idx_created_at、按状态筛选时走 idx_status_created_at，
+ * 并在不同翻页深度对比 OFFSET 分页（含 COUNT）与游标分页的耗时，同时核对两者返回的是同一页
+ *
+ * @author SaaS Xbox Team
+ */
+class OrderPagingBenchmarkTest extends DatabaseBenchmarkSupport {
+
+    private static final long ROWS = Long.getLong("benchmark.order-rows", 1_000_000L);
+    private static final int PAGE_SIZE = 20;
+    private static final String STATUS = "运行中";
+
+    private static OrderMapper orderMapper;
+    private static OrderServiceImpl orderService;
+
+    @BeforeAll
+    static void seed() {
+        seedOrders(ROWS);
+        orderMapper = mapper(OrderMapper.class);
+        orderService = new OrderServiceImpl(null, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(orderService, "baseMapper", orderMapper);
+        ReflectionTestUtils.setField(orderService, "countLimit", 10_000L);
+    }
+
+    /**
+     * 造订单数据：下单时间按序号均匀分布在最近365天，到期时间为下单时间加购买时长；
+     * 已到期的订单约99%已标记为已过期，其余作为待处理的积压留在运行中（按 n % 97 挑选，与按 n % 4 决定的购买时长错开）
+     */
+    static void seedOrders(long rows) {
+        seedOnce("orders", rows, () -> {
+            ensureSequence(rows);
+            jdbc().execute("TRUNCATE TABLE orders");
+            jdbc().execute("TRUNCATE TABLE order_ips");
+            jdbc().execute("TRUNCATE TABLE order_daily_stats");
+            insertInChunks("""
+                    INSERT INTO orders (order_no, customer_id, customer_account, customer_name, product_id, product_name,
+                                        order_status, payment_status, total_amount, actual_amount, country, ip_quality,
+                                        ip_count, duration_days, expire_time, created_at)
+                    SELECT CONCAT('BENCH', LPAD(n, 12, '0')), n % 5000 + 1, CONCAT('user', n % 5000),
+                           CONCAT('客户', n % 5000), n % 8 + 1, CONCAT('产品', n % 8 + 1),
+                           CASE WHEN n % 20 = 0 THEN '待支付'
+                                WHEN n % 20 = 1 THEN '已暂停'
+                                WHEN n % 50 = 2 THEN '已退款'
+                                WHEN created_at + INTERVAL duration_days DAY <= NOW() AND n % 97 <> 3 THEN '已过期'
+                                ELSE '运行中' END,
+                           IF(n % 20 = 0, '未支付', '已支付'), 100 + n % 900, 100 + n % 900,
+                           ELT(n % 5 + 1, '美国', '日本', '德国', '新加坡', '英国'), ELT(n % 3 + 1, '标准', '优质', '独享'),
+                           n % 10 + 1, duration_days, created_at + INTERVAL duration_days DAY, created_at
+                    FROM (SELECT n, ELT(n % 4 + 1, 30, 90, 180, 365) AS duration_days,
+                                 TIMESTAMP(CURRENT_DATE - INTERVAL 365 DAY) + INTERVAL (n * 31536000 DIV :rows) SECOND AS created_at
+                          FROM bench_seq WHERE n >= ? AND n < ?) s
+                    """.replace(":rows", String.valueOf(rows)), rows, 50_000);
+            jdbc().execute("ANALYZE TABLE orders");
+        });
+    }
+
+    @Test
+    void cursorConditionUsesCreatedAtIndexes() {
+        Order middle = rowAt(ROWS / 2);
+        assertUsesIndex(explainPage(new LambdaQueryWrapper<>()), "orders", "idx_created_at");
+        assertUsesIndex(explainPage(afterCursor(new LambdaQueryWrapper<>(), middle)), "orders", "idx_created_at");
+
+        // 按状态筛选走 selectPageByStatusIndex：必须是 (order_status, created_at) 范围定位，而不是只用状态前缀
+        Order middleWithStatus = rowAt(ROWS / 4, STATUS);
+        LambdaQueryWrapper<Order> byStatus = new LambdaQueryWrapper<Order>().eq(Order::getOrderStatus, STATUS)
+                .isNull(Order::getDeletedAt);
+        List<Map<String, Object>> plan = explainPage("selectPageByStatusIndex", afterCursor(byStatus, middleWithStatus));
+        assertUsesIndex(plan, "orders", "idx_status_created_at");
+        assertThat(plan.get(0).get("type")).isEqualTo("range");
+    }
+
+    @Test
+    void offsetAgainstCursorAtDepth() {
+        for (long depth : new long[]{0, 1_000, 10_000, 100_000, ROWS / 2}) {
+            long current = depth / PAGE_SIZE + 1;
+            String cursor = depth == 0 ? null : cursorOf(rowAt(depth - 1));
+
+            List<Long> offsetIds = orderService.getOrderPage(current, (long) PAGE_SIZE, null, null, null, null, null,
+                    null, null, null, null, null, null, null, null).getRecords().stream().map(Order::getId).toList();
+            CursorPage<Order> cursorPage = orderService.getOrderCursorPage(cursor, (long) PAGE_SIZE, null, null, null,
+                    null, null, null, null, null, null, null, null, null, null, null);
+            assertThat(cursorPage.getRecords()).extracting(Order::getId).isEqualTo(offsetIds);
+
+            measure("OFFSET 分页（含COUNT）深度 " + depth, 2, 7, () -> orderService.getOrderPage(current,
+                    (long) PAGE_SIZE, null, null, null, null, null, null, null, null, null, null, null, null, null));
+            measure("OFFSET 分页（不计数）深度 " + depth, 2, 7, () -> orderMapper.selectPage(
+                    new Page<>(current, PAGE_SIZE, false),
+                    new LambdaQueryWrapper<Order>().orderByDesc(Order::getCreatedAt)));
+            measure("游标分页 深度 " + depth, 5, 21, () -> orderService.getOrderCursorPage(cursor, (long) PAGE_SIZE,
+                    null, null, null, null, null, null, null, null, null, null, null, null, null, null));
+        }
+
+        measure("游标首页 + 精确计数", 2, 7, () -> orderService.getOrderCursorPage(null, (long) PAGE_SIZE, "exact",
+                null, null, null, null, null, null, null, null, null, null, null, null, null));
+        measure("游标首页 + 估算计数", 5, 21, () -> orderService.getOrderCursorPage(null, (long) PAGE_SIZE, "estimate",
+                null, null, null, null, null, null, null, null, null, null, null, null, null));
+
+        Order middleWithStatus = rowAt(ROWS / 4, STATUS);
+        String statusCursor = cursorOf(middleWithStatus);
+        List<Long> expected = jdbc().queryForList("SELECT id FROM orders WHERE deleted_at IS NULL AND order_status = ? "
+                + "ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?", Long.class, STATUS, PAGE_SIZE, ROWS / 4 + 1);
+        assertThat(orderService.getOrderCursorPage(statusCursor, (long) PAGE_SIZE, null, null, null, null, STATUS,
+                null, null, null, null, null, null, null, null, null).getRecords())
+                .extracting(Order::getId).isEqualTo(expected);
+        measure("游标分页 按状态筛选（中部）", 5, 21, () -> orderService.getOrderCursorPage(statusCursor,
+                (long) PAGE_SIZE, null, null, null, null, STATUS, null, null, null, null, null, null, null, null, null));
+    }
+
+    /**
+     * 与 getOrderCursorPage 相同的游标条件
+     */
+    private static LambdaQueryWrapper<Order> afterCursor(LambdaQueryWrapper<Order> wrapper, Order last) {
+        return wrapper.and(w -> w.le(Order::getCreatedAt, last.getCreatedAt())
+                .and(x -> x.lt(Order::getCreatedAt, last.getCreatedAt()).or().lt(Order::getId, last.getId())));
+    }
+
+    private static List<Map<String, Object>> explainPage(LambdaQueryWrapper<Order> wrapper) {
+        return explainPage("selectList", wrapper);
+    }
+
+    /**
+     * EXPLAIN 分页查询，LIMIT 与游标分页多取一条时相同
+     */
+    private static List<Map<String, Object>> explainPage(String method, LambdaQueryWrapper<Order> wrapper) {
+        wrapper.orderByDesc(Order::getCreatedAt).orderByDesc(Order::getId);
+        Map<String, Object> params = new HashMap<>();
+        params.put(Constants.WRAPPER, wrapper);
+        return explain(OrderMapper.class.getName() + "." + method, params, " LIMIT " + (PAGE_SIZE + 1));
+    }
+
+    private static Order rowAt(long offset) {
+        return rowAt(offset, null);
+    }
+
+    /**
+     * 按列表排序取第 offset 行（从0开始）
+     */
+    private static Order rowAt(long offset, String status) {
+        String where = status == null ? "" : " AND order_status = '" + status + "'";
+        return jdbc().queryForObject("SELECT id, created_at FROM orders WHERE deleted_at IS NULL" + where
+                + " ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?", (rs, i) -> {
+                    Order order = new Order();
+                    order.setId(rs.getLong("id"));
+                    order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    return order;
+                }, offset);
+    }
+
+    /**
+     * 与 OrderServiceImpl 中游标的编码一致：created_at,id 的URL安全Base64
+     */
+    private static String cursorOf(Order last) {
+        String text = last.getCreatedAt() + "," + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
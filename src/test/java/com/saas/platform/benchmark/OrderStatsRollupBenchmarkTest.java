@@ -0,0 +1,105 @@
+package com.saas.platform.benchmark;
+
+import com.saas.platform.mapper.OrderDailyStatMapper;
+import com.saas.platform.mapper.OrderMapper;
+import com.saas.platform.service.impl.OrderDailyStatServiceImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 订单统计日汇总基准
+ * 复用订单分页基准的数据（日统计由触发器在造数时同步维护），对最近30、90、365天的时间范围（首尾不是整日），
+ * 核对日汇总与直接按 DATE(created_at) 统计订单表的结果一致，确认汇总查询按 order_daily_stats 主键范围读取，并对比两者耗时
+ *
+ * @author SaaS Xbox Team
+ */
+class OrderStatsRollupBenchmarkTest extends DatabaseBenchmarkSupport {
+
+    private static final long ROWS = Long.getLong("benchmark.order-rows", 1_000_000L);
+
+    private static OrderMapper orderMapper;
+    private static OrderDailyStatServiceImpl orderDailyStatService;
+
+    @BeforeAll
+    static void seed() {
+        OrderPagingBenchmarkTest.seedOrders(ROWS);
+        orderMapper = mapper(OrderMapper.class);
+        orderDailyStatService = new OrderDailyStatServiceImpl(mapper(OrderDailyStatMapper.class), orderMapper);
+    }
+
+    @Test
+    void rollupQueriesReadDailyStatsByDate() {
+        LocalDate to = LocalDate.now();
+        Map<String, Object> range = new HashMap<>();
+        range.put("fromDate", to.minusDays(365));
+        range.put("toDate", to);
+        assertUsesIndex(explain(OrderDailyStatMapper.class.getName() + ".countByDate", range),
+                "order_daily_stats", "PRIMARY");
+        assertUsesIndex(explain(OrderDailyStatMapper.class.getName() + ".countByProduct", range),
+                "order_daily_stats", "PRIMARY");
+
+        // 对照：直接统计订单表
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("startTime", to.minusDays(365).atStartOfDay());
+        raw.put("endTime", to.atStartOfDay());
+        explain(OrderMapper.class.getName() + ".countByDate", raw);
+    }
+
+    @Test
+    void rollupMatchesRawAndTimings() {
+        LocalDateTime end = LocalDate.now().minusDays(1).atTime(15, 30);
+        for (int days : new int[]{30, 90, 365}) {
+            LocalDateTime start = end.minusDays(days).withHour(9).withMinute(15);
+
+            assertThat(byDate(orderDailyStatService.countByDate(start, end)))
+                    .isEqualTo(byDate(orderMapper.countByDate(start, end)));
+            assertThat(byLabel(orderDailyStatService.countByProduct(start, end)))
+                    .isEqualTo(byLabel(orderMapper.countByProduct(start, end)));
+            assertThat(byLabel(orderDailyStatService.countByCountry(start, end)))
+                    .isEqualTo(byLabel(orderMapper.countByCountry(start, end)));
+            Map<String, Object> rollupSum = orderDailyStatService.sumOrderAmount(start, end);
+            Map<String, Object> rawSum = orderMapper.sumOrderAmount(start, end);
+            assertThat(((Number) rollupSum.get("orderCount")).longValue())
+                    .isEqualTo(((Number) rawSum.get("orderCount")).longValue());
+            assertThat(decimal(rollupSum.get("totalAmount"))).isEqualTo(decimal(rawSum.get("totalAmount")));
+
+            measure("订单表 按日统计 " + days + "天", 1, 5, () -> orderMapper.countByDate(start, end));
+            measure("日汇总 按日统计 " + days + "天", 3, 21, () -> orderDailyStatService.countByDate(start, end));
+            measure("订单表 按产品统计 " + days + "天", 1, 5, () -> orderMapper.countByProduct(start, end));
+            measure("日汇总 按产品统计 " + days + "天", 3, 21, () -> orderDailyStatService.countByProduct(start, end));
+            measure("订单表 金额汇总 " + days + "天", 1, 5, () -> orderMapper.sumOrderAmount(start, end));
+            measure("日汇总 金额汇总 " + days + "天", 3, 21, () -> orderDailyStatService.sumOrderAmount(start, end));
+        }
+    }
+
+    private static Map<String, String> byDate(List<Map<String, Object>> rows) {
+        Map<String, String> result = new TreeMap<>();
+        for (Map<String, Object> row : rows) {
+            result.put(String.valueOf(row.get("date")),
+                    ((Number) row.get("orderCount")).longValue() + "/" + decimal(row.get("totalAmount")));
+        }
+        return result;
+    }
+
+    private static Map<String, Long> byLabel(List<Map<String, Object>> rows) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map<String, Object> row : rows) {
+            result.put(String.valueOf(row.get("label")), ((Number) row.get("value")).longValue());
+        }
+        return result;
+    }
+
+    private static String decimal(Object value) {
+        return value == null ? "0" : new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.mapper.IpPoolMapper;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存中的IP池，模拟 IpAllocator 用到的 IpPoolMapper 查询
+ * claimIps 与数据库的条件UPDATE一样原子地只认领可用IP；认领在 commit 之前对 selectAvailableIdsAfter 不可见，
+ * 与补充查询在自己的事务中读不到其他事务未提交的认领一致，已认领的IP会被当作可用再次返回
+ *
+ * @author SaaS Xbox Team
+ */
+class InMemoryIpPool {
+
+    private final long size;
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+    private final Set<Long> committed = ConcurrentHashMap.newKeySet();
+
+    InMemoryIpPool(long size) {
+        this.size = size;
+    }
+
+    /**
+     * IP当前所属订单
+     */
+    Map<Long, Long> owners() {
+        return owners;
+    }
+
+    /**
+     * 提交认领，之后补充查询不再返回这些IP
+     */
+    void commit(List<Long> ids) {
+        committed.addAll(ids);
+    }
+
+    /**
+     * 释放IP回池
+     */
+    void release(List<Long> ids) {
+        for (Long id : ids) {
+            committed.remove(id);
+            owners.remove(id);
+        }
+    }
+
+    IpPoolMapper mapper() {
+        return (IpPoolMapper) Proxy.newProxyInstance(IpPoolMapper.class.getClassLoader(),
+                new Class<?>[]{IpPoolMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "selectAvailableIdsAfter" -> selectAvailableIdsAfter((Long) args[2], (Integer) args[3]);
+                    case "claimIps" -> claimIps(ids(args[0]), (Long) args[1]);
+                    case "selectClaimedIds" -> selectClaimedIds(ids(args[0]), (Long) args[1]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryIpPool";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private List<Long> selectAvailableIdsAfter(long afterId, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        for (long id = afterId + 1; id <= size && ids.size() < limit; id++) {
+            if (!committed.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private int claimIps(List<Long> ids, long orderId) {
+        int updated = 0;
+        // IN 列表中的重复ID只匹配一行
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (owners.putIfAbsent(id, orderId) == null) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private List<Long> selectClaimedIds(List<Long> ids, long orderId) {
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Long owner = owners.get(id);
+            if (owner != null && owner == orderId) {
+                claimed.add(id);
+            }
+        }
+        return claimed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> ids(Object arg) {
+        return (List<Long>) arg;
+    }
+}
@@ -0,0 +1,84 @@
+package com.saas.platform.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IpAllocator 争用基准测试
+ * 基于内存IP池，只衡量空闲队列、补充锁及认领去重在多线程下的开销，不包含数据库往返；
+ * 每次操作为一个订单分配5个IP，提交后立即释放，使池中可用IP数量保持稳定。
+ * 运行方式：mvn -q test-compile 后执行 main 方法，或
+ * java -cp target/test-classes:target/classes:&lt;测试classpath&gt; org.openjdk.jmh.Main IpAllocatorBenchmark
+ *
+ * @author SaaS Xbox Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpAllocatorBenchmark {
+
+    private static final int POOL_SIZE = 20_000;
+    private static final int IPS_PER_ORDER = 5;
+
+    private final AtomicLong nextOrderId = new AtomicLong();
+
+    private InMemoryIpPool pool;
+    private IpAllocator allocator;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        pool = new InMemoryIpPool(POOL_SIZE);
+        allocator = IpAllocatorTest.newAllocator(pool);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int allocateSingleThread() {
+        return allocateAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int allocate8Threads() {
+        return allocateAndRelease();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int allocate32Threads() {
+        return allocateAndRelease();
+    }
+
+    private int allocateAndRelease() {
+        List<Long> ids = allocator.allocate("美国", "标准", IPS_PER_ORDER, nextOrderId.incrementAndGet());
+        pool.commit(ids);
+        pool.release(ids);
+        return ids.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IpAllocatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.service.IpRangeService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IpAllocator 并发分配测试
+ *
+ * @author SaaS Xbox Team
+ */
+class IpAllocatorTest {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int MAX_IPS_PER_ORDER = 10;
+
+    @Test
+    void allocationSkipsOwnUncommittedClaimsOfferedAgainByRefill() {
+        // 7个IP、每次补充5个：第二轮补充到达末尾后从头读取，把本订单已认领未提交的IP再次放回队列
+        InMemoryIpPool pool = new InMemoryIpPool(7);
+        IpAllocator allocator = newAllocator(pool);
+        ReflectionTestUtils.setField(allocator, "refillSize", 5);
+
+        List<Long> ids = allocator.allocate("美国", "标准", 7, 1L);
+
+        assertThat(ids).doesNotHaveDuplicates().containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(pool.owners()).hasSize(7);
+    }
+
+    @Test
+    void allocationRefillsAfterWaitingIfOtherRefillLeftQueueEmpty() throws Exception {
+        InMemoryIpPool pool = new InMemoryIpPool(100);
+        IpAllocator allocator = newAllocator(pool);
+        // 创建队列但不补充，再模拟另一线程正在补充且补充结果已被取空
+        allocator.allocate("美国", "标准", 0, 1L);
+        Map<?, ?> freeLists = (Map<?, ?>) ReflectionTestUtils.getField(allocator, "freeLists");
+        ReentrantLock refillLock = (ReentrantLock) ReflectionTestUtils.getField(
+                freeLists.values().iterator().next(), "refillLock");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            refillLock.lock();
+            Future<List<Long>> future;
+            try {
+                future = executor.submit(() -> allocator.allocate("美国", "标准", 5, 2L));
+                while (!refillLock.hasQueuedThreads()) {
+                    Thread.onSpinWait();
+                }
+            } finally {
+                refillLock.unlock();
+            }
+            assertThat(future.get(10, TimeUnit.SECONDS)).hasSize(5);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentAllocationsGetDistinctIpsWhenRefillSeesUncommittedClaims() throws Exception {
+        InMemoryIpPool pool = new InMemoryIpPool(THREADS * ORDERS_PER_THREAD * MAX_IPS_PER_ORDER);
+
+        Map<Long, List<Long>> results = allocateConcurrently(pool);
+
+        assertDistinctAndOwned(pool, results);
+        // 池中IP充足，等待补充的线程在候选被取空后会自行补充，每个订单都应拿满
+        results.forEach((orderId, ids) -> assertThat(ids).as("订单 %s", orderId).hasSize(requestedCount(orderId)));
+    }
+
+    @Test
+    void concurrentAllocationsNeverOverClaimWhenPoolRunsOut() throws Exception {
+        int poolSize = THREADS * ORDERS_PER_THREAD * MAX_IPS_PER_ORDER / 4;
+        InMemoryIpPool pool = new InMemoryIpPool(poolSize);
+
+        Map<Long, List<Long>> results = allocateConcurrently(pool);
+
+        assertDistinctAndOwned(pool, results);
+        results.forEach((orderId, ids) -> assertThat(ids.size()).isLessThanOrEqualTo(requestedCount(orderId)));
+        assertThat(pool.owners()).hasSizeLessThanOrEqualTo(poolSize);
+    }
+
+    private static Map<Long, List<Long>> allocateConcurrently(InMemoryIpPool pool) throws Exception {
+        IpAllocator allocator = newAllocator(pool);
+        Map<Long, List<Long>> results = new ConcurrentHashMap<>();
+        AtomicLong nextOrderId = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        long orderId = nextOrderId.incrementAndGet();
+                        List<Long> ids = allocator.allocate("美国", "标准", requestedCount(orderId), orderId);
+                        pool.commit(ids);
+                        results.put(orderId, ids);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * 每个订单返回的IP互不重复、不与其他订单重复，且与池中记录的归属一致（没有认领了却未返回的IP）
+     */
+    private static void assertDistinctAndOwned(InMemoryIpPool pool, Map<Long, List<Long>> results) {
+        Set<Long> all = new HashSet<>();
+        long total = 0;
+        for (Map.Entry<Long, List<Long>> entry : results.entrySet()) {
+            List<Long> ids = entry.getValue();
+            assertThat(ids).doesNotHaveDuplicates();
+            for (Long id : ids) {
+                assertThat(pool.owners().get(id)).isEqualTo(entry.getKey());
+                assertThat(all.add(id)).as("IP %s 被分配给多个订单", id).isTrue();
+            }
+            total += ids.size();
+        }
+        assertThat(pool.owners()).hasSize((int) total);
+    }
+
+    private static int requestedCount(long orderId) {
+        return (int) (orderId % MAX_IPS_PER_ORDER) + 1;
+    }
+
+    static IpAllocator newAllocator(InMemoryIpPool pool) {
+        IpRangeService ipRangeService = Mockito.mock(IpRangeService.class);
+        IpAllocator allocator = new IpAllocator(pool.mapper(), ipRangeService, new IpQualityScorer(pool.mapper()));
+        ReflectionTestUtils.setField(allocator, "refillSize", 200);
+        ReflectionTestUtils.setField(allocator, "maxAttempts", 5);
+        return allocator;
+    }
+}
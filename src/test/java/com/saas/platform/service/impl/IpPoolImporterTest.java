@@ -0,0 +1,126 @@
+package com.saas.platform.service.impl;
+
+import com.saas.platform.dto.IpImportReport;
+import com.saas.platform.entity.IpPool;
+import com.saas.platform.mapper.IpPoolMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * IpPoolImporter 去重与分块提交测试
+ *
+ * @author SaaS Xbox Team
+ */
+class IpPoolImporterTest {
+
+    private IpPoolMapper ipPoolMapper;
+    private PlatformTransactionManager transactionManager;
+    private IpPoolImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        ipPoolMapper = Mockito.mock(IpPoolMapper.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(ipPoolMapper.selectExistingIpBins(anyList())).thenReturn(List.of());
+        importer = new IpPoolImporter(ipPoolMapper, transactionManager);
+        ReflectionTestUtils.setField(importer, "chunkSize", 1000);
+    }
+
+    @Test
+    void differentSpellingsOfSameAddressAreDuplicates() throws IOException {
+        List<IpPool> inserted = new ArrayList<>();
+        when(ipPoolMapper.insertIgnoreBatch(anyList())).thenAnswer(invocation -> {
+            List<IpPool> ips = invocation.getArgument(0);
+            inserted.addAll(ips);
+            return ips.size();
+        });
+
+        IpImportReport report = importCsv("2001:DB8::1\n2001:db8:0:0::1\n2001:0db8::0001\n10.0.0.1\n");
+
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getDuplicateLines()).containsExactly(2L, 3L);
+        assertThat(inserted).extracting(IpPool::getIpAddress).containsExactly("2001:db8::1", "10.0.0.1");
+    }
+
+    @Test
+    void rowsRejectedByConcurrentInsertAreReportedWithTheirLines() throws IOException {
+        // 模拟查询与插入之间 10.0.0.2 被其他导入写入：整块插入少一行，逐行重试时该行被忽略
+        when(ipPoolMapper.insertIgnoreBatch(anyList())).thenAnswer(invocation -> {
+            List<IpPool> ips = invocation.getArgument(0);
+            if (ips.size() > 1) {
+                return ips.size() - 1;
+            }
+            return "10.0.0.2".equals(ips.get(0).getIpAddress()) ? 0 : 1;
+        });
+
+        IpImportReport report = importCsv("ip,country\n10.0.0.1,美国\n10.0.0.2,美国\n10.0.0.3,美国\n");
+
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getDuplicateLines()).containsExactly(3L);
+        // 整块事务被标记为仅回滚，由事务管理器在提交时回滚
+        Mockito.verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    void eachChunkCommitsSeparately() throws IOException {
+        ReflectionTestUtils.setField(importer, "chunkSize", 2);
+        when(ipPoolMapper.insertIgnoreBatch(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        IpImportReport report = importCsv("10.0.0.1\n10.0.0.2\n10.0.0.3\n10.0.0.4\n10.0.0.5\n");
+
+        assertThat(report.getInserted()).isEqualTo(5);
+        Mockito.verify(transactionManager, Mockito.times(3)).commit(any());
+    }
+
+    @Test
+    void listImportAppliesSameValidationAsFileImport() {
+        List<IpPool> inserted = new ArrayList<>();
+        when(ipPoolMapper.insertIgnoreBatch(anyList())).thenAnswer(invocation -> {
+            List<IpPool> ips = invocation.getArgument(0);
+            inserted.addAll(ips);
+            return ips.size();
+        });
+
+        IpImportReport report = importer.importAll(List.of(ip(" 2001:DB8:0:0::1 ", null, null), ip("2001:db8::1", null, null),
+                ip("10.0.0.999", null, null), ip("10.0.0.1", "普通", null), ip("10.0.0.2", null, "下线"),
+                ip("10.0.0.3", "优质", "占用")));
+
+        assertThat(report.getTotalRows()).isEqualTo(6);
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getDuplicateLines()).containsExactly(2L);
+        assertThat(report.getInvalidLines()).extracting(IpImportReport.LineError::getLine).containsExactly(3L, 4L, 5L);
+        assertThat(inserted).extracting(IpPool::getIpAddress).containsExactly("2001:db8::1", "10.0.0.3");
+        assertThat(inserted.get(0).getIpQuality()).isEqualTo("标准");
+        assertThat(inserted.get(0).getIpStatus()).isEqualTo("可用");
+    }
+
+    private static IpPool ip(String address, String quality, String status) {
+        IpPool ipPool = new IpPool();
+        ipPool.setIpAddress(address);
+        ipPool.setIpQuality(quality);
+        ipPool.setIpStatus(status);
+        return ipPool;
+    }
+
+    private IpImportReport importCsv(String csv) throws IOException {
+        return importer.importStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv");
+    }
+}
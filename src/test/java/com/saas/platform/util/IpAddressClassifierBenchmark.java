@@ -0,0 +1,105 @@
+package com.saas.platform.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内网/保留地址判断基准测试
+ * 对比原 IpLocationUtil.isPrivateIp（正则拆分 + Integer.parseInt，仅支持IPv4）与 IpAddressClassifier（前缀树，支持IPv6）；
+ * 运行方式：mvn -q test-compile 后执行 main 方法，或
+ * java -cp target/test-classes:target/classes:&lt;测试classpath&gt; org.openjdk.jmh.Main IpAddressClassifierBenchmark
+ *
+ * @author SaaS Xbox Team
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpAddressClassifierBenchmark {
+
+    /**
+     * 混合公网、内网、CGNAT、文档及IPv6地址，按节点和IP池中常见的比例
+     */
+    private static final String[] IPV4_ADDRESSES = {
+            "8.8.8.8", "203.0.113.17", "10.12.0.5", "172.20.3.4", "192.168.1.100",
+            "100.64.12.9", "127.0.0.1", "45.77.152.201", "169.254.10.20", "198.51.100.8"
+    };
+
+    private static final String[] MIXED_ADDRESSES = {
+            "8.8.8.8", "203.0.113.17", "10.12.0.5", "172.20.3.4", "192.168.1.100",
+            "2001:4860:4860::8888", "fd12:3456:789a::1", "fe80::1ff:fe23:4567:890a", "2001:db8::1", "::ffff:10.0.0.1"
+    };
+
+    private int index;
+
+    @Benchmark
+    public boolean legacyIsPrivateIpv4() {
+        return legacyIsPrivateIp(next(IPV4_ADDRESSES));
+    }
+
+    @Benchmark
+    public void classifierIpv4(Blackhole blackhole) {
+        blackhole.consume(IpAddressClassifier.classify(next(IPV4_ADDRESSES)));
+    }
+
+    @Benchmark
+    public void classifierMixed(Blackhole blackhole) {
+        blackhole.consume(IpAddressClassifier.classify(next(MIXED_ADDRESSES)));
+    }
+
+    private String next(String[] addresses) {
+        String address = addresses[index];
+        index = index + 1 == addresses.length ? 0 : index + 1;
+        return address;
+    }
+
+    /**
+     * 原 IpLocationUtil.isPrivateIp 实现（仅保留判断逻辑，去掉日志）
+     */
+    private static boolean legacyIsPrivateIp(String ip) {
+        if (ip == null || ip.trim().isEmpty()) {
+            return false;
+        }
+        try {
+            String[] parts = ip.split("\\.");
+            if (parts.length != 4) {
+                return false;
+            }
+            int firstOctet = Integer.parseInt(parts[0]);
+            int secondOctet = Integer.parseInt(parts[1]);
+            if (firstOctet == 10) {
+                return true;
+            }
+            if (firstOctet == 172 && secondOctet >= 16 && secondOctet <= 31) {
+                return true;
+            }
+            if (firstOctet == 192 && secondOctet == 168) {
+                return true;
+            }
+            return firstOctet == 127;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IpAddressClassifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}